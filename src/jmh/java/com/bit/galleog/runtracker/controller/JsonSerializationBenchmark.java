@@ -0,0 +1,80 @@
+package com.bit.galleog.runtracker.controller;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.StartRun;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Benchmarks for JSON serialization of objects returned by controllers.
+ *
+ * @author Oleg_Galkin
+ */
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    private ObjectWriter runWriter;
+    private ObjectWriter startRunWriter;
+    private ObjectWriter userWriter;
+    private Run run;
+    private StartRun startRun;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        // the same modules and features as used by Spring MVC
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        runWriter = objectMapper.writerFor(Run.class);
+        startRunWriter = objectMapper.writerFor(StartRun.class);
+        userWriter = objectMapper.writerFor(User.class);
+
+        var datetime = LocalDateTime.of(2023, 11, 1, 10, 11, 12);
+        run = Run.builder()
+                .id(300L)
+                .userId(100L)
+                .startPoint(RunPoint.ofMicroDegrees(datetime, 41651804, 41632970))
+                .finishPoint(RunPoint.ofMicroDegrees(datetime.plusHours(1), 41644035, 41633785))
+                .distance(3632)
+                .build();
+        startRun = StartRun.builder()
+                .id(300L)
+                .userId(100L)
+                .datetime(datetime)
+                .latitude(new BigDecimal("41.651804"))
+                .longitude(new BigDecimal("41.632970"))
+                .build();
+        user = User.builder()
+                .id(100L)
+                .firstName("John")
+                .lastName("Smith")
+                .birthDate(LocalDate.of(1985, 8, 2))
+                .sex(Sex.MALE)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] writeRun() throws JsonProcessingException {
+        return runWriter.writeValueAsBytes(run);
+    }
+
+    @Benchmark
+    public byte[] writeStartRun() throws JsonProcessingException {
+        return startRunWriter.writeValueAsBytes(startRun);
+    }
+
+    @Benchmark
+    public byte[] writeUser() throws JsonProcessingException {
+        return userWriter.writeValueAsBytes(user);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmarks for {@link Distances} compared with {@link RunPoint#calcPreciseDistanceTo(RunPoint)}
+ * applied to each pair of points of a track.
+ *
+ * @author Oleg_Galkin
+ */
+@State(Scope.Benchmark)
+public class DistancesBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<RunPoint> points;
+    private int[] latitudes;
+    private int[] longitudes;
+
+    @Setup
+    public void setUp() {
+        // GPS samples taken every second while running at about 3 m/s
+        var random = new SplittableRandom(42);
+        var datetime = LocalDateTime.of(2023, 11, 8, 11, 23, 34);
+        points = new ArrayList<>(size);
+        latitudes = new int[size];
+        longitudes = new int[size];
+        var latitude = 41_644_035;
+        var longitude = 41_633_785;
+        for (int i = 0; i < size; i++) {
+            latitude += random.nextInt(-30, 31);
+            longitude += random.nextInt(-30, 31);
+            points.add(RunPoint.ofMicroDegrees(datetime.plusSeconds(i), latitude, longitude));
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+        }
+    }
+
+    @Benchmark
+    public double calcPreciseDistanceTo() {
+        var distance = 0.0D;
+        for (int i = 1; i < points.size(); i++) {
+            distance += points.get(i - 1).calcPreciseDistanceTo(points.get(i));
+        }
+        return distance;
+    }
+
+    @Benchmark
+    public double sumOfPoints() {
+        return Distances.sum(points);
+    }
+
+    @Benchmark
+    public double sum() {
+        return Distances.sum(latitudes, longitudes, size);
+    }
+
+    @Benchmark
+    public double sumApproximately() {
+        return Distances.sumApproximately(latitudes, longitudes, size);
+    }
+}
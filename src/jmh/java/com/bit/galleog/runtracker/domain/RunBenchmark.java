@@ -0,0 +1,35 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * Benchmarks for {@link Run}.
+ *
+ * @author Oleg_Galkin
+ */
+@State(Scope.Benchmark)
+public class RunBenchmark {
+    private Run run;
+
+    @Setup
+    public void setUp() {
+        var datetime = LocalDateTime.of(2023, 11, 1, 10, 11, 12);
+        run = Run.builder()
+                .id(300L)
+                .userId(100L)
+                .startPoint(RunPoint.ofMicroDegrees(datetime, 41651804, 41632970))
+                .finishPoint(RunPoint.ofMicroDegrees(datetime.plusHours(1), 41644035, 41633785))
+                .distance(3632)
+                .build();
+    }
+
+    @Benchmark
+    public Double getAvgSpeed() {
+        return run.getAvgSpeed();
+    }
+}
@@ -0,0 +1,56 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Benchmarks for {@link RunPoint}.
+ *
+ * @author Oleg_Galkin
+ */
+@State(Scope.Benchmark)
+public class RunPointBenchmark {
+    private LocalDateTime datetime;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private RunPoint start;
+    private RunPoint finish;
+
+    @Setup
+    public void setUp() {
+        datetime = LocalDateTime.of(2023, 11, 8, 11, 23, 34);
+        latitude = new BigDecimal("41.644035");
+        longitude = new BigDecimal("41.633785");
+
+        start = RunPoint.builder()
+                .datetime(datetime)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+        finish = RunPoint.ofMicroDegrees(datetime.plusHours(1), 41651804, 41632970);
+    }
+
+    @Benchmark
+    public RunPoint buildFromDecimals() {
+        return RunPoint.builder()
+                .datetime(datetime)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+    }
+
+    @Benchmark
+    public RunPoint createFromMicroDegrees() {
+        return RunPoint.ofMicroDegrees(datetime, 41644035, 41633785);
+    }
+
+    @Benchmark
+    public int calcDistanceTo() {
+        return start.calcDistanceTo(finish);
+    }
+}
@@ -0,0 +1,30 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Benchmarks for {@link Speeds} compared with rounding by {@link BigDecimal}.
+ *
+ * @author Oleg_Galkin
+ */
+@State(Scope.Benchmark)
+public class SpeedsBenchmark {
+    private int distance = 3632;
+    private long seconds = 3600;
+
+    @Benchmark
+    public double round() {
+        return Speeds.round(Speeds.kmh(distance, seconds));
+    }
+
+    @Benchmark
+    public double roundBigDecimal() {
+        var speed = (double) distance / (double) seconds * 3.6;
+        return BigDecimal.valueOf(speed).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
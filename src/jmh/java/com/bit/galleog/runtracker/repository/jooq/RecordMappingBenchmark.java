@@ -0,0 +1,69 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.domain.tables.records.RunsRecord;
+import com.bit.galleog.runtracker.domain.tables.records.UsersRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Benchmarks for mapping of jOOQ records by {@link JooqRunRepository}
+ * and {@link JooqUserRepository}.
+ *
+ * @author Oleg_Galkin
+ */
+@State(Scope.Benchmark)
+public class RecordMappingBenchmark {
+    private JooqRunRepository runRepository;
+    private JooqUserRepository userRepository;
+    private RunsRecord runsRecord;
+    private UsersRecord usersRecord;
+
+    @Setup
+    public void setUp() {
+        // records are mapped without any database access
+        var ctx = DSL.using(SQLDialect.POSTGRES);
+        var meterRegistry = new SimpleMeterRegistry();
+        runRepository = new JooqRunRepository(ctx, meterRegistry);
+        userRepository = new JooqUserRepository(ctx, meterRegistry);
+
+        var datetime = LocalDateTime.of(2023, 11, 1, 10, 11, 12);
+        runsRecord = new RunsRecord();
+        runsRecord.setId(300L);
+        runsRecord.setUserId(100L);
+        runsRecord.setStartDatetime(datetime);
+        runsRecord.setStartLatitude(41651804);
+        runsRecord.setStartLongitude(41632970);
+        runsRecord.setFinishDatetime(datetime.plusHours(1));
+        runsRecord.setFinishLatitude(41644035);
+        runsRecord.setFinishLongitude(41633785);
+        runsRecord.setDistance(3632);
+
+        usersRecord = new UsersRecord();
+        usersRecord.setId(100L);
+        usersRecord.setFirstName("John");
+        usersRecord.setLastName("Smith");
+        usersRecord.setBirthDate(LocalDate.of(1985, 8, 2));
+        usersRecord.setSex(Sex.MALE);
+    }
+
+    @Benchmark
+    public Run toRun() {
+        return runRepository.toRun(runsRecord);
+    }
+
+    @Benchmark
+    public User toUser() {
+        return userRepository.toUser(usersRecord);
+    }
+}
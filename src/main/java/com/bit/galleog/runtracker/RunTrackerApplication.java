@@ -2,13 +2,16 @@ package com.bit.galleog.runtracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * Main <a href="https://projects.spring.io/spring-boot/">Spring Boot</a> application class.
  *
  * @author Oleg_Galkin
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@ConfigurationPropertiesScan
 public class RunTrackerApplication {
     public static void main(String[] args) {
         SpringApplication.run(RunTrackerApplication.class, args);
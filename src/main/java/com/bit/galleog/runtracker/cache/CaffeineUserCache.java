@@ -0,0 +1,57 @@
+package com.bit.galleog.runtracker.cache;
+
+import com.bit.galleog.runtracker.config.UserCacheProperties;
+import com.bit.galleog.runtracker.domain.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.lang3.Validate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+/**
+ * Implementation of {@link UserCache} that keeps users in memory using
+ * <a href="https://github.com/ben-manes/caffeine">Caffeine</a>. The number of cached users
+ * is bounded, and they are evicted after the configured time. Hits, misses and evictions
+ * are exposed as metrics of the cache named {@value #CACHE_NAME}.
+ *
+ * @author Oleg_Galkin
+ */
+@Component
+@ConditionalOnProperty(name = "run-tracker.users.cache.type", havingValue = "local",
+        matchIfMissing = true)
+public class CaffeineUserCache implements UserCache {
+    /**
+     * Name of the cache used to tag its metrics.
+     */
+    public static final String CACHE_NAME = "users";
+
+    private final Cache<Long, User> cache;
+
+    public CaffeineUserCache(@NonNull UserCacheProperties properties,
+                             @NonNull MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+    }
+
+    @Override
+    public Optional<User> get(long id, @NonNull LongFunction<Optional<User>> loader) {
+        Validate.notNull(loader);
+        // invalidation of the user waits until they are loaded, so a stale user isn't cached
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    @Override
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+}
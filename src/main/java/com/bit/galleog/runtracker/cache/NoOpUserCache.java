@@ -0,0 +1,30 @@
+package com.bit.galleog.runtracker.cache;
+
+import com.bit.galleog.runtracker.domain.User;
+import org.apache.commons.lang3.Validate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+/**
+ * Implementation of {@link UserCache} that doesn't cache users and always loads them.
+ *
+ * @author Oleg_Galkin
+ */
+@Component
+@ConditionalOnProperty(name = "run-tracker.users.cache.type", havingValue = "none")
+public class NoOpUserCache implements UserCache {
+    @Override
+    public Optional<User> get(long id, @NonNull LongFunction<Optional<User>> loader) {
+        Validate.notNull(loader);
+        return loader.apply(id);
+    }
+
+    @Override
+    public void invalidate(long id) {
+        // nothing is cached
+    }
+}
@@ -0,0 +1,31 @@
+package com.bit.galleog.runtracker.cache;
+
+import com.bit.galleog.runtracker.domain.User;
+import org.springframework.lang.NonNull;
+
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+/**
+ * Cache of users by their identifiers.
+ *
+ * @author Oleg_Galkin
+ */
+public interface UserCache {
+    /**
+     * Gets a user from the cache, or loads and caches them if they aren't cached yet.
+     * Absent users aren't cached.
+     *
+     * @param id     the user's identifier
+     * @param loader the function to load the user if they aren't cached
+     * @return the cached or loaded user, or {@link Optional#empty()} if there is no such user
+     */
+    Optional<User> get(long id, @NonNull LongFunction<Optional<User>> loader);
+
+    /**
+     * Removes the user from the cache. Should be called when the user is changed or deleted.
+     *
+     * @param id the user's identifier
+     */
+    void invalidate(long id);
+}
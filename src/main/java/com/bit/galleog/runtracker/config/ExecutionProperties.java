@@ -0,0 +1,36 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of execution of HTTP requests.
+ *
+ * @param mode                  the kind of threads requests are handled on
+ * @param maxConcurrentRequests the maximum number of requests handled concurrently
+ *                              on virtual threads. Defaults to the size of the connection pool
+ * @param acquireTimeout        the time a request waits for its turn before it's rejected
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.execution")
+public record ExecutionProperties(@DefaultValue("platform") ExecutionMode mode,
+                                  @Nullable Integer maxConcurrentRequests,
+                                  @DefaultValue("1s") Duration acquireTimeout) {
+    /**
+     * Modes of execution of requests.
+     */
+    public enum ExecutionMode {
+        /**
+         * Requests are handled by the Tomcat thread pool.
+         */
+        PLATFORM,
+
+        /**
+         * Every request is handled on its own virtual thread.
+         */
+        VIRTUAL
+    }
+}
@@ -0,0 +1,19 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of weekly and monthly leaderboards.
+ *
+ * @param maxPeriods      the maximum number of weeks and months leaderboards are kept in memory for
+ * @param refreshInterval the time after which a leaderboard is rebuilt from the database
+ *                        in the background to include runs finished by other instances
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.leaderboards")
+public record LeaderboardProperties(@DefaultValue("16") long maxPeriods,
+                                    @DefaultValue("5m") Duration refreshInterval) {
+}
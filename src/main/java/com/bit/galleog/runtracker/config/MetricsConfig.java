@@ -0,0 +1,34 @@
+package com.bit.galleog.runtracker.config;
+
+import com.bit.galleog.runtracker.repository.jooq.MetricsExecuteListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of application metrics.
+ *
+ * @author Oleg_Galkin
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+    /**
+     * Aspect to time methods annotated with {@link io.micrometer.core.annotation.Timed}.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Provider of the listener timing SQL statements executed by jOOQ.
+     * It's applied to the jOOQ configuration by Spring Boot.
+     */
+    @Bean
+    public ExecuteListenerProvider metricsExecuteListenerProvider(MeterRegistry meterRegistry) {
+        return new DefaultExecuteListenerProvider(new MetricsExecuteListener(meterRegistry));
+    }
+}
@@ -0,0 +1,50 @@
+package com.bit.galleog.runtracker.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.apache.commons.lang3.Validate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of R2DBC connections used by the reactive API. It's enabled
+ * if {@code run-tracker.runs.api} is {@code reactive}.
+ * <p/>
+ * Connections are opened to the same database the JDBC data source uses,
+ * so it isn't configured separately. The R2DBC auto-configuration of Spring Boot
+ * is disabled as it would require an R2DBC URL even if the reactive API isn't used.
+ *
+ * @author Oleg_Galkin
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "run-tracker.runs.api", havingValue = "reactive")
+public class R2dbcConfig {
+    private static final String JDBC_PREFIX = "jdbc:postgresql:";
+
+    /**
+     * Pool of R2DBC connections.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionPool(JdbcConnectionDetails connectionDetails,
+                                              R2dbcPoolProperties properties) {
+        var jdbcUrl = connectionDetails.getJdbcUrl();
+        Validate.isTrue(jdbcUrl.startsWith(JDBC_PREFIX),
+                "Reactive API requires a PostgreSQL JDBC URL but was %s", jdbcUrl);
+
+        var options = ConnectionFactoryOptions.parse("r2dbc:postgresql:" + jdbcUrl.substring(JDBC_PREFIX.length()))
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, connectionDetails.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, connectionDetails.getPassword())
+                .build();
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(0)
+                .maxSize(properties.maxSize())
+                .maxIdleTime(properties.maxIdleTime())
+                .build());
+    }
+}
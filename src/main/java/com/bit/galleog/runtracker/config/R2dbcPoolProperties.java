@@ -0,0 +1,18 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the pool of R2DBC connections used by the reactive API.
+ *
+ * @param maxSize     the maximum number of connections
+ * @param maxIdleTime the time an idle connection is kept in the pool
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.r2dbc.pool")
+public record R2dbcPoolProperties(@DefaultValue("20") int maxSize,
+                                  @DefaultValue("30m") Duration maxIdleTime) {
+}
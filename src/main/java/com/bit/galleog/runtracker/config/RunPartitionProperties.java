@@ -0,0 +1,19 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+
+/**
+ * Configuration properties of monthly partitions of runs.
+ *
+ * @param premadeMonths   the number of months after the current one partitions are created for
+ *                        in advance
+ * @param retentionMonths the number of months before the current one partitions are kept
+ *                        attached for. If it isn't specified, partitions are never detached
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.runs.partitions")
+public record RunPartitionProperties(@DefaultValue("3") int premadeMonths,
+                                     @Nullable Integer retentionMonths) {
+}
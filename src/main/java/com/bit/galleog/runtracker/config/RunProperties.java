@@ -0,0 +1,48 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties of runs.
+ *
+ * @param finishMode the way runs are finished
+ * @param api        the kind of the API serving runs
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.runs")
+public record RunProperties(@DefaultValue("locking") FinishMode finishMode,
+                            @DefaultValue("blocking") RunApi api) {
+    /**
+     * Ways to finish a run.
+     */
+    public enum FinishMode {
+        /**
+         * The run is selected for update and validated before it's updated.
+         */
+        LOCKING,
+
+        /**
+         * The run is validated and updated by a single conditional update, and is read
+         * only if it couldn't be updated to find out why.
+         */
+        CONDITIONAL
+    }
+
+    /**
+     * Kinds of the API serving runs.
+     */
+    public enum RunApi {
+        /**
+         * Requests are served by JDBC and a thread waits for the database.
+         */
+        BLOCKING,
+
+        /**
+         * Starting, finishing and reading runs is served by R2DBC without blocking threads.
+         * Runs are finished conditionally regardless of {@link FinishMode}. Other requests
+         * are still served by JDBC.
+         */
+        REACTIVE
+    }
+}
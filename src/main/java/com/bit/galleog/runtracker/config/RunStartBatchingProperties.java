@@ -0,0 +1,23 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of starting runs in batches.
+ *
+ * @param enabled       whether started runs are queued and inserted in batches by a background writer
+ * @param maxBatchSize  the maximum number of runs inserted by one statement
+ * @param maxLatency    the maximum time the writer waits for more runs after the first one of a batch
+ * @param queueCapacity the maximum number of runs waiting to be inserted. Runs are rejected
+ *                      when the queue is full
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.runs.start-batching")
+public record RunStartBatchingProperties(@DefaultValue("false") boolean enabled,
+                                         @DefaultValue("200") int maxBatchSize,
+                                         @DefaultValue("5ms") Duration maxLatency,
+                                         @DefaultValue("10000") int queueCapacity) {
+}
@@ -0,0 +1,17 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration enabling scheduled maintenance tasks. They can be disabled
+ * by {@code run-tracker.scheduling.enabled} if they are run by another instance.
+ *
+ * @author Oleg_Galkin
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@ConditionalOnProperty(name = "run-tracker.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,34 @@
+package com.bit.galleog.runtracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the cache of users.
+ *
+ * @param type        the type of the cache
+ * @param maximumSize the maximum number of cached users
+ * @param ttl         the time a user is kept in the cache after it's loaded
+ * @author Oleg_Galkin
+ */
+@ConfigurationProperties("run-tracker.users.cache")
+public record UserCacheProperties(@DefaultValue("local") CacheType type,
+                                  @DefaultValue("10000") long maximumSize,
+                                  @DefaultValue("5m") Duration ttl) {
+    /**
+     * Types of the cache.
+     */
+    public enum CacheType {
+        /**
+         * Users are cached in memory of the application instance.
+         */
+        LOCAL,
+
+        /**
+         * Users aren't cached.
+         */
+        NONE
+    }
+}
@@ -0,0 +1,69 @@
+package com.bit.galleog.runtracker.config;
+
+import com.bit.galleog.runtracker.controller.ConcurrencyLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration to handle HTTP requests on virtual threads. It's enabled
+ * if {@code run-tracker.execution.mode} is {@code virtual}.
+ * <p/>
+ * As virtual threads are cheap, the number of concurrent requests is no longer limited
+ * by the Tomcat thread pool. To avoid waiting for database connections until the pool
+ * times out, the number of requests handled at once is limited by the size of the pool.
+ *
+ * @author Oleg_Galkin
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "run-tracker.execution.mode", havingValue = "virtual")
+public class VirtualThreadsConfig {
+    /**
+     * Default size of the connection pool if the data source isn't pooled by Hikari.
+     */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Makes Tomcat handle every request on a new virtual thread.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Executor used by Spring MVC to write streaming responses.
+     */
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Filter limiting the number of concurrent requests to the API.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ExecutionProperties properties, DataSource dataSource) {
+        var maxConcurrentRequests = properties.maxConcurrentRequests();
+        if (maxConcurrentRequests == null) {
+            maxConcurrentRequests = dataSource instanceof HikariDataSource hikari ?
+                    hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+        }
+
+        var registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(maxConcurrentRequests, properties.acquireTimeout())
+        );
+        registration.addUrlPatterns("/runs/*", "/users/*");
+        return registration;
+    }
+}
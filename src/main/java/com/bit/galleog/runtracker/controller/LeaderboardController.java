@@ -0,0 +1,101 @@
+package com.bit.galleog.runtracker.controller;
+
+import com.bit.galleog.runtracker.domain.AgeBand;
+import com.bit.galleog.runtracker.domain.LeaderboardEntry;
+import com.bit.galleog.runtracker.domain.LeaderboardMetric;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Controller to rank users by their runs in weekly and monthly leaderboards.
+ * Weeks start on Monday, and days are in UTC.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/leaderboards")
+public class LeaderboardController {
+    private final LeaderboardService service;
+
+    /**
+     * Gets the first users of a leaderboard.
+     *
+     * @param interval the period of the leaderboard, a week by default
+     * @param date     the optional day of the period, today by default
+     * @param metric   the attribute users are ranked by, the distance by default
+     * @param sex      the optional sex to rank only users of
+     * @param ageBand  the optional age band to rank only users of
+     * @param limit    the maximum number of users to return
+     * @return the users with the highest scores in the order of their ranks,
+     * or {@link HttpStatus#BAD_REQUEST} if the period or the limit is invalid
+     */
+    @GetMapping
+    public List<LeaderboardEntry> getTop(
+            @RequestParam(name = "interval", defaultValue = "WEEK") StatsInterval interval,
+            @RequestParam(name = "date", required = false) LocalDate date,
+            @RequestParam(name = "metric", defaultValue = "DISTANCE") LeaderboardMetric metric,
+            @RequestParam(name = "sex", required = false) Sex sex,
+            @RequestParam(name = "ageBand", required = false) AgeBand ageBand,
+            @RequestParam(name = "limit", defaultValue = "10") int limit
+    ) {
+        try {
+            return service.getTop(interval, dateOrToday(date), metric, sex, ageBand, limit);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get leaderboard request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the position of a user in a leaderboard.
+     *
+     * @param userId   the user's identifier
+     * @param interval the period of the leaderboard, a week by default
+     * @param date     the optional day of the period, today by default
+     * @param metric   the attribute users are ranked by, the distance by default
+     * @param sex      the optional sex to rank only users of
+     * @param ageBand  the optional age band to rank only users of
+     * @return the position of the user, {@link HttpStatus#NOT_FOUND} if the user has no runs
+     * in the period or doesn't match the filters, or {@link HttpStatus#BAD_REQUEST}
+     * if the period is invalid
+     */
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<LeaderboardEntry> getEntry(
+            @PathVariable("userId") long userId,
+            @RequestParam(name = "interval", defaultValue = "WEEK") StatsInterval interval,
+            @RequestParam(name = "date", required = false) LocalDate date,
+            @RequestParam(name = "metric", defaultValue = "DISTANCE") LeaderboardMetric metric,
+            @RequestParam(name = "sex", required = false) Sex sex,
+            @RequestParam(name = "ageBand", required = false) AgeBand ageBand
+    ) {
+        try {
+            return service.getEntry(interval, dateOrToday(date), metric, sex, ageBand, userId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            logger.error("Get leaderboard entry request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private static LocalDate dateOrToday(LocalDate date) {
+        return date != null ? date : LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,41 @@
+package com.bit.galleog.runtracker.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Response body that writes objects as <a href="https://github.com/ndjson/ndjson-spec">newline
+ * delimited JSON</a> as soon as they are produced by their source, so that the whole response
+ * is never kept in memory.
+ *
+ * @param <T> the type of the written objects
+ * @author Oleg_Galkin
+ */
+@RequiredArgsConstructor
+final class NdjsonResponseBody<T> implements StreamingResponseBody {
+    private final ObjectWriter writer;
+    private final Consumer<Consumer<? super T>> source;
+
+    @Override
+    public void writeTo(@NonNull OutputStream outputStream) throws IOException {
+        try {
+            source.accept(value -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(value));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.bit.galleog.runtracker.controller;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.model.FinishRun;
+import com.bit.galleog.runtracker.model.StartRun;
+import com.bit.galleog.runtracker.service.ReactiveRunService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking controller to work with user's runs. It's enabled instead of {@link BlockingRunController}
+ * if {@code run-tracker.runs.api} is {@code reactive}.
+ * <p/>
+ * Handlers return publishers, so the request thread is released as soon as a statement
+ * is sent to the database, and the response is written when the result arrives.
+ * A slow client holds only its connection, not a thread. Only the endpoints used
+ * by mobile clients are served: runs are started, finished, listed and summarized.
+ * The rest of the endpoints are still served by {@link RunController}.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/runs")
+@ConditionalOnProperty(name = "run-tracker.runs.api", havingValue = "reactive")
+public class ReactiveRunController {
+    private final ReactiveRunService service;
+
+    /**
+     * Starts a new run.
+     *
+     * @param run the attributes of the run to be started
+     * @return the newly created run
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<StartRun> startRun(@RequestBody StartRun run) {
+        return service.startRun(run.getUserId(), run.getPoint())
+                .map(started -> StartRun.builder()
+                        .id(started.getId())
+                        .userId(started.getUserId())
+                        .datetime(started.getStartPoint().getDatetime())
+                        .latitude(started.getStartPoint().getLatitude())
+                        .longitude(started.getStartPoint().getLongitude())
+                        .build());
+    }
+
+    /**
+     * Finishes the run specified by the given identifier.
+     *
+     * @param id  the run identifier
+     * @param run the information to finish the run
+     * @return the finished run or {@link HttpStatus#NOT_FOUND}
+     * if there is no started run with the specified identifier
+     */
+    @PatchMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Run>> finishRun(@PathVariable("id") long id, @RequestBody FinishRun run) {
+        return service.finishRun(id, run.getPoint(), run.getDistance())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorMap(e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException,
+                        e -> {
+                            logger.error("Finish run request failed", e);
+                            return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+                        });
+    }
+
+    /**
+     * Gets filtered finished runs of the specified user.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @param ifNoneMatch  the ETags of the runs the client has
+     * @return all finished runs of the user started from {@code fromDatetime}
+     * to {@code toDatetime}, or {@link HttpStatus#NOT_MODIFIED} if they haven't changed
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<Run>>> getRunsByUser(
+            @RequestParam("userId") long userId,
+            @RequestParam(name = "fromDatetime", required = false) LocalDateTime fromDatetime,
+            @RequestParam(name = "toDatetime", required = false) LocalDateTime toDatetime,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch
+    ) {
+        return ifRunsModified(userId, ifNoneMatch,
+                Mono.defer(() -> service.getRunsByUser(userId, fromDatetime, toDatetime).collectList()));
+    }
+
+    /**
+     * Gets statistics including runs of the user specified by their identifier.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @param ifNoneMatch  the ETags of the statistics the client has
+     * @return the statistics for all runs started from {@code fromDatetime} to {@code toDatetime},
+     * or {@link HttpStatus#NOT_MODIFIED} if the runs haven't changed
+     */
+    @GetMapping(path = "/stats")
+    public Mono<ResponseEntity<RunStats>> getStatsByUser(
+            @RequestParam("userId") long userId,
+            @RequestParam(name = "fromDatetime", required = false) LocalDateTime fromDatetime,
+            @RequestParam(name = "toDatetime", required = false) LocalDateTime toDatetime,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch
+    ) {
+        return ifRunsModified(userId, ifNoneMatch,
+                Mono.defer(() -> service.getStatsByUser(userId, fromDatetime, toDatetime)));
+    }
+
+    // the same ETags as BlockingRunController has; WebRequest#checkNotModified isn't used
+    // as the response is written after the handler returns
+    private <T> Mono<ResponseEntity<T>> ifRunsModified(long userId, List<String> ifNoneMatch, Mono<T> body) {
+        return service.getRunsVersion(userId).flatMap(version -> {
+            var eTag = "\"" + version + "\"";
+            if (ifNoneMatch != null && ifNoneMatch.stream()
+                    .map(String::trim)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag))) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<T>build());
+            }
+            return body.map(value -> ResponseEntity.ok().eTag(eTag).body(value));
+        });
+    }
+}
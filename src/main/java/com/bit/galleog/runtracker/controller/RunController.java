@@ -1,17 +1,25 @@
 package com.bit.galleog.runtracker.controller;
 
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCircle;
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunDistribution;
+import com.bit.galleog.runtracker.domain.RunEnd;
+import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
-import com.bit.galleog.runtracker.model.FinishRun;
-import com.bit.galleog.runtracker.model.StartRun;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.model.ImportRun;
+import com.bit.galleog.runtracker.model.RunCursor;
 import com.bit.galleog.runtracker.service.RunService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -19,13 +27,21 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Controller to work with user's runs.
+ * Controller to work with user's runs. It's registered whatever {@code run-tracker.runs.api} is.
+ * Runs are started, finished, listed and summarized by {@link BlockingRunController}
+ * or {@link ReactiveRunController} depending on it.
  *
  * @author Oleg_Galkin
  */
@@ -35,78 +51,270 @@ import java.util.List;
 @RequestMapping("/runs")
 public class RunController {
     private final RunService service;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Starts a new run.
+     * Appends GPS samples recorded during the run to its track.
      *
-     * @param run the attributes of the run to be started
-     * @return the newly created run
+     * @param id     the run identifier
+     * @param points the points following the last recorded point in chronological order
+     * @return the updated summary of the track, {@link HttpStatus#NOT_FOUND}
+     * if there is no run with the specified identifier, or {@link HttpStatus#BAD_REQUEST}
+     * if the run has been finished or the points are invalid
      */
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(path = "/{id}/track", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RunTrack> appendTrackPoints(@PathVariable("id") long id,
+                                                      @RequestBody List<RunPoint> points) {
+        try {
+            return service.appendTrackPoints(id, points)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.error("Append track points request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets all recorded points of the track of the specified run.
+     *
+     * @param id the run identifier
+     * @return the points of the track in chronological order
+     */
+    @GetMapping("/{id}/track")
+    public List<RunPoint> getTrackPoints(@PathVariable("id") long id) {
+        return service.getTrackPoints(id);
+    }
+
+    /**
+     * Imports completed runs at once, e.g. when they are synchronized from a watch.
+     *
+     * @param runs the runs to be imported
+     * @return the imported runs or {@link HttpStatus#BAD_REQUEST} if there are too many runs
+     * or a run is invalid
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
-    public StartRun startRun(@RequestBody StartRun run) {
-        var started = service.startRun(run.getUserId(), run.getPoint());
-        return StartRun.builder()
-                .id(started.getId())
-                .userId(started.getUserId())
-                .datetime(started.getStartPoint().getDatetime())
-                .latitude(started.getStartPoint().getLatitude())
-                .longitude(started.getStartPoint().getLongitude())
-                .build();
+    public List<Run> importRuns(@RequestBody List<ImportRun> runs) {
+        try {
+            return service.importRuns(runs);
+        } catch (IllegalArgumentException e) {
+            logger.error("Import runs request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     /**
-     * Finishes the run specified by the given identifier.
+     * Gets a page of filtered finished runs of the specified user ordered by their start datetimes
+     * and identifiers. To get the next page, pass the start datetime and the identifier
+     * of the last run of the current page as {@code afterStartDatetime} and {@code afterId}.
      *
-     * @param id  the run identifier
-     * @param run the information to finish the run
-     * @return the finished ru or {@link HttpStatus#NOT_FOUND}
-     * if there is no started run with the specified identifier
+     * @param userId             the user's identifier
+     * @param fromDatetime       the optional datetime to cover only runs started after
+     * @param toDatetime         the optional datetime to cover only runs started before
+     * @param limit              the maximum number of runs to return
+     * @param afterStartDatetime the optional start datetime of the last run of the previous page
+     * @param afterId            the optional identifier of the last run of the previous page
+     * @param request            the request to check its ETag
+     * @return the finished runs of the user started from {@code fromDatetime} to {@code toDatetime}
+     * that follow the specified one, {@link HttpStatus#NOT_MODIFIED} if they haven't changed,
+     * or {@link HttpStatus#BAD_REQUEST} if the limit is invalid or the position of the previous run
+     * is specified partially
      */
-    @PatchMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Run> finishRun(@PathVariable("id") long id, @RequestBody FinishRun run) {
+    @GetMapping(params = "limit")
+    public List<Run> getRunsByUser(
+            @RequestParam("userId") long userId,
+            @RequestParam(name = "fromDatetime", required = false) LocalDateTime fromDatetime,
+            @RequestParam(name = "toDatetime", required = false) LocalDateTime toDatetime,
+            @RequestParam("limit") int limit,
+            @RequestParam(name = "afterStartDatetime", required = false)
+            LocalDateTime afterStartDatetime,
+            @RequestParam(name = "afterId", required = false) Long afterId,
+            WebRequest request
+    ) {
+        if (isRunsNotModified(userId, request)) {
+            return null;
+        }
+
         try {
-            return service.finishRun(id, run.getPoint(), run.getDistance())
-                    .map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            logger.error("Finish run request failed", e);
+            RunCursor after = null;
+            if (afterStartDatetime != null || afterId != null) {
+                if (afterStartDatetime == null || afterId == null) {
+                    throw new IllegalArgumentException(
+                            "afterStartDatetime and afterId must be specified together"
+                    );
+                }
+
+                after = RunCursor.builder()
+                        .startDatetime(afterStartDatetime)
+                        .id(afterId)
+                        .build();
+            }
+
+            return service.getRunsByUser(userId, fromDatetime, toDatetime, after, limit);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get runs request failed", e);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
     }
 
     /**
-     * Gets filtered finished runs of the specified user.
+     * Streams filtered finished runs of the specified user ordered by their start datetimes
+     * as newline delimited JSON. Runs are written to the response as they are read
+     * from the database, so the number of runs doesn't affect memory consumption.
      *
      * @param userId       the user's identifier
      * @param fromDatetime the optional datetime to cover only runs started after
      * @param toDatetime   the optional datetime to cover only runs started before
-     * @return all finished runs of the user started from {@code fromDatetime}
-     * to {@code toDatetime}
      */
-    @GetMapping
-    public List<Run> getRunsByUser(
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRunsByUser(
             @RequestParam("userId") long userId,
             @RequestParam(name = "fromDatetime", required = false) LocalDateTime fromDatetime,
             @RequestParam(name = "toDatetime", required = false) LocalDateTime toDatetime
     ) {
-        return service.getRunsByUser(userId, fromDatetime, toDatetime);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(new NdjsonResponseBody<Run>(
+                        objectMapper.writerFor(Run.class),
+                        action -> service.forEachRunByUser(userId, fromDatetime, toDatetime, action)
+                ));
     }
 
     /**
-     * Gets statistics fromDatetimeincluding runs of the user specified by their identifier.
+     * Gets runs started or finished near a point, e.g. to show runs around the user.
      *
-     * @param userId       the user's identifier
+     * @param latitude  the latitude of the point
+     * @param longitude the longitude of the point
+     * @param radius    the distance from the point in meters
+     * @param end       the point of a run to search by, the start point by default
+     * @param limit     the maximum number of runs to return
+     * @return the runs found ordered by distances from the point, or {@link HttpStatus#BAD_REQUEST}
+     * if the point is invalid, or the radius or the limit is out of range
+     */
+    @GetMapping(path = "/near")
+    public List<Run> getRunsNear(
+            @RequestParam("latitude") BigDecimal latitude,
+            @RequestParam("longitude") BigDecimal longitude,
+            @RequestParam("radius") int radius,
+            @RequestParam(name = "end", defaultValue = "START") RunEnd end,
+            @RequestParam(name = "limit", defaultValue = "100") int limit
+    ) {
+        try {
+            return service.getRunsNear(end, GeoCircle.of(latitude, longitude, radius), limit);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get runs near request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets runs started or finished within a box, e.g. to show runs on a map.
+     *
+     * @param minLatitude  the southern bound of the box
+     * @param minLongitude the western bound of the box, greater than the eastern one
+     *                     if the box crosses the antimeridian
+     * @param maxLatitude  the northern bound of the box
+     * @param maxLongitude the eastern bound of the box
+     * @param end          the point of a run to search by, the start point by default
+     * @param limit        the maximum number of runs to return
+     * @return the runs found ordered by descending start datetimes, or {@link HttpStatus#BAD_REQUEST}
+     * if the box is invalid or too large, or the limit is out of range
+     */
+    @GetMapping(path = "/within")
+    public List<Run> getRunsWithin(
+            @RequestParam("minLatitude") BigDecimal minLatitude,
+            @RequestParam("minLongitude") BigDecimal minLongitude,
+            @RequestParam("maxLatitude") BigDecimal maxLatitude,
+            @RequestParam("maxLongitude") BigDecimal maxLongitude,
+            @RequestParam(name = "end", defaultValue = "START") RunEnd end,
+            @RequestParam(name = "limit", defaultValue = "100") int limit
+    ) {
+        try {
+            return service.getRunsWithin(end, GeoBox.of(minLatitude, minLongitude, maxLatitude, maxLongitude),
+                    limit);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get runs within request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets statistics including runs of each of the specified users in one request,
+     * e.g. to show a dashboard of a team.
+     *
+     * @param userIds      the users' identifiers separated by commas
      * @param fromDatetime the optional datetime to cover only runs started after
      * @param toDatetime   the optional datetime to cover only runs started before
      * @return the statistics for all runs started from {@code fromDatetime} to {@code toDatetime}
+     * by user identifiers, or {@link HttpStatus#BAD_REQUEST} if there are too many users
      */
-    @GetMapping(path = "/stats")
-    public RunStats getStatsByUser(
+    @GetMapping(path = "/stats/batch")
+    public Map<Long, RunStats> getStatsByUsers(
+            @RequestParam("userIds") List<Long> userIds,
+            @RequestParam(name = "fromDatetime", required = false) LocalDateTime fromDatetime,
+            @RequestParam(name = "toDatetime", required = false) LocalDateTime toDatetime
+    ) {
+        try {
+            return service.getStatsByUsers(userIds, fromDatetime, toDatetime);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get stats batch request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets statistics including runs of the user specified by their identifier together with
+     * percentiles and histograms of distances, durations and paces of the runs, so that
+     * the runs don't have to be fetched to show their distributions.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics and distributions for all runs started from {@code fromDatetime}
+     * to {@code toDatetime}
+     */
+    @GetMapping(path = "/stats/distribution")
+    public RunDistribution getDistributionByUser(
             @RequestParam("userId") long userId,
             @RequestParam(name = "fromDatetime", required = false) LocalDateTime fromDatetime,
             @RequestParam(name = "toDatetime", required = false) LocalDateTime toDatetime
     ) {
-        return service.getStatsByUser(userId, fromDatetime, toDatetime);
+        return service.getDistributionByUser(userId, fromDatetime, toDatetime);
+    }
+
+    /**
+     * Gets statistics of runs of the user specified by their identifier for each day, week
+     * or month of the range, e.g. to draw a chart. Intervals without runs are included
+     * with zero statistics.
+     *
+     * @param userId   the user's identifier
+     * @param from     the first day of the range
+     * @param to       the last day of the range
+     * @param interval the interval to group runs by
+     * @param zone     the time zone the days and intervals are in, UTC by default
+     * @return the statistics for each interval of the range in chronological order,
+     * or {@link HttpStatus#BAD_REQUEST} if the range is invalid or too long
+     */
+    @GetMapping(path = "/stats/series")
+    public List<RunStatsBucket> getStatsSeriesByUser(
+            @RequestParam("userId") long userId,
+            @RequestParam("from") LocalDate from,
+            @RequestParam("to") LocalDate to,
+            @RequestParam(name = "interval", defaultValue = "DAY") StatsInterval interval,
+            @RequestParam(name = "zone", defaultValue = "UTC") ZoneId zone
+    ) {
+        try {
+            return service.getStatsSeriesByUser(userId, from, to, interval, zone);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get stats series request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // sets the version of runs of the user as the ETag and checks whether the client has it;
+    // the version is read before runs, so a response is never tagged by a later version
+    private boolean isRunsNotModified(long userId, WebRequest request) {
+        return request.checkNotModified(String.valueOf(service.getRunsVersion(userId)));
     }
 }
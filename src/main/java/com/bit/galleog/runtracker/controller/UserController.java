@@ -1,8 +1,11 @@
 package com.bit.galleog.runtracker.controller;
 
 import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.UserCursor;
 import com.bit.galleog.runtracker.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,8 +16,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,34 +30,101 @@ import java.util.List;
  *
  * @author Oleg_Galkin
  */
+@Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/users")
 public class UserController {
     private final UserService service;
+    private final ObjectMapper objectMapper;
 
     /**
      * Gets a list of all registered users.
      */
     @GetMapping
     public List<User> getAllUsers() {
-        // it's better to use pagination here otherwise wr can get OutOfMemory here
-        // if there're a lot of users, but the test conditions don't mention it
+        // the whole list is kept in memory, so large user bases should be read
+        // page by page or streamed as newline delimited JSON
         return service.getAllUsers();
     }
 
+    /**
+     * Gets a page of registered users ordered by their last names, first names and identifiers.
+     * To get the next page, pass the last name, the first name and the identifier of the last user
+     * of the current page as {@code afterLastName}, {@code afterFirstName} and {@code afterId}.
+     *
+     * @param limit          the maximum number of users to return
+     * @param afterLastName  the optional last name of the last user of the previous page
+     * @param afterFirstName the optional first name of the last user of the previous page
+     * @param afterId        the optional identifier of the last user of the previous page
+     * @return the users following the specified one, or {@link HttpStatus#BAD_REQUEST}
+     * if the limit is invalid or the position of the previous user is specified partially
+     */
+    @GetMapping(params = "limit")
+    public List<User> getUsers(
+            @RequestParam("limit") int limit,
+            @RequestParam(name = "afterLastName", required = false) String afterLastName,
+            @RequestParam(name = "afterFirstName", required = false) String afterFirstName,
+            @RequestParam(name = "afterId", required = false) Long afterId
+    ) {
+        try {
+            UserCursor after = null;
+            if (afterLastName != null || afterFirstName != null || afterId != null) {
+                if (afterLastName == null || afterFirstName == null || afterId == null) {
+                    throw new IllegalArgumentException(
+                            "afterLastName, afterFirstName and afterId must be specified together"
+                    );
+                }
+
+                after = UserCursor.builder()
+                        .lastName(afterLastName)
+                        .firstName(afterFirstName)
+                        .id(afterId)
+                        .build();
+            }
+
+            return service.getUsers(after, limit);
+        } catch (IllegalArgumentException e) {
+            logger.error("Get users request failed", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams all registered users ordered by their last and first names
+     * as newline delimited JSON. Users are written to the response as they are read
+     * from the database, so the number of users doesn't affect memory consumption.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(new NdjsonResponseBody<User>(
+                        objectMapper.writerFor(User.class), service::forEachUser
+                ));
+    }
+
     /**
      * Gets the user by their identifier.
      *
-     * @param id the user's identifier
-     * @return the found user or {@link HttpStatus#NOT_FOUND}
-     * if there is no user with the specified identifier
+     * @param id      the user's identifier
+     * @param request the request to check its ETag
+     * @return the found user, {@link HttpStatus#NOT_MODIFIED} if the user hasn't changed,
+     * or {@link HttpStatus#NOT_FOUND} if there is no user with the specified identifier
      */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getById(@PathVariable("id") long id) {
-        return service.getUserById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<User> getById(@PathVariable("id") long id, WebRequest request) {
+        var user = service.getUserById(id);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // the version is sent as the ETag, so an unchanged user isn't serialized
+        var version = user.get().getVersion();
+        if (version != null && request.checkNotModified(String.valueOf(version))) {
+            return null;
+        }
+        return ResponseEntity.ok(user.get());
     }
 
     /**
@@ -0,0 +1,49 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Age groups of users compared in leaderboards.
+ *
+ * @author Oleg_Galkin
+ */
+public enum AgeBand {
+    UNDER_20(0, 20),
+    FROM_20_TO_29(20, 30),
+    FROM_30_TO_39(30, 40),
+    FROM_40_TO_49(40, 50),
+    FROM_50_TO_59(50, 60),
+    FROM_60(60, Integer.MAX_VALUE);
+
+    private final int minAge;
+    private final int maxAge;
+
+    AgeBand(int minAge, int maxAge) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Gets the age group of a person on the specified date.
+     *
+     * @param birthDate the birthdate of the person
+     * @param date      the date to determine the age on
+     * @return the age group including the age of the person
+     */
+    public static AgeBand of(@NonNull LocalDate birthDate, @NonNull LocalDate date) {
+        Validate.notNull(birthDate);
+        Validate.notNull(date);
+
+        var age = Math.max(Period.between(birthDate, date).getYears(), 0);
+        for (var band : values()) {
+            if (age >= band.minAge && age < band.maxAge) {
+                return band;
+            }
+        }
+        throw new IllegalStateException("No age band for age " + age);
+    }
+}
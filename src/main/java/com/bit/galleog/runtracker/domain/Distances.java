@@ -0,0 +1,163 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * Calculation of distances between many consecutive points at once, e.g. of tracks.
+ * Coordinates are passed in micro-degrees as separate arrays of latitudes and longitudes,
+ * so that no points are allocated, and the cosine of each latitude is calculated once
+ * for both segments it belongs to.
+ * <p/>
+ * {@link #sum} calculates the same distances as {@link RunPoint#calcPreciseDistanceTo(RunPoint)}
+ * does, {@link #sumApproximately} replaces the Haversine method with the equirectangular
+ * projection for short segments.
+ *
+ * @author Oleg_Galkin
+ */
+public final class Distances {
+    /**
+     * Maximum error in meters of distances between points of a segment calculated
+     * by {@link #sumApproximately}.
+     */
+    public static final double MAX_APPROXIMATION_ERROR = 1.0E-5D;
+
+    private static final double MICRO_DEGREES = 1_000_000.0;  // micro-degrees in a degree
+    // segments are approximated if the differences of both their coordinates don't exceed 0.01 degrees,
+    // then the error is about 4.2 micrometers at most
+    private static final int MAX_APPROXIMATED_DELTA = 10_000;
+
+    private Distances() {
+    }
+
+    /**
+     * Calculates cosines of latitudes.
+     *
+     * @param latitudesE6 the latitudes in micro-degrees
+     * @param count       the number of latitudes from the start of the array
+     * @return the cosines in the same order
+     */
+    public static double[] cosines(@NonNull int[] latitudesE6, int count) {
+        Validate.notNull(latitudesE6);
+        Validate.inclusiveBetween(0, latitudesE6.length, count);
+
+        var cosines = new double[count];
+        for (int i = 0; i < count; i++) {
+            cosines[i] = Math.cos(Math.toRadians(latitudesE6[i] / MICRO_DEGREES));
+        }
+        return cosines;
+    }
+
+    /**
+     * Calculates distances between consecutive points using Haversine method.
+     *
+     * @param latitudesE6  the latitudes of the points in micro-degrees
+     * @param longitudesE6 the longitudes of the points in micro-degrees
+     * @param cosines      the cosines of the latitudes calculated by {@link #cosines}
+     * @param count        the number of points from the start of the arrays
+     * @param distances    the array to put the distance in meters between the points
+     *                     {@code i} and {@code i + 1} to at the index {@code i}
+     */
+    public static void between(@NonNull int[] latitudesE6, @NonNull int[] longitudesE6,
+                               @NonNull double[] cosines, int count, @NonNull double[] distances) {
+        validate(latitudesE6, longitudesE6, cosines, count);
+        Validate.isTrue(distances.length >= count - 1, "No room for %d distances", count - 1);
+
+        for (int i = 1; i < count; i++) {
+            distances[i - 1] = haversine(latitudesE6, longitudesE6, cosines, i);
+        }
+    }
+
+    /**
+     * Calculates the total distance between consecutive points using Haversine method.
+     *
+     * @param latitudesE6  the latitudes of the points in micro-degrees
+     * @param longitudesE6 the longitudes of the points in micro-degrees
+     * @param count        the number of points from the start of the arrays
+     * @return the distance in meters
+     */
+    public static double sum(@NonNull int[] latitudesE6, @NonNull int[] longitudesE6, int count) {
+        var cosines = cosines(latitudesE6, count);
+        validate(latitudesE6, longitudesE6, cosines, count);
+
+        // added up in the same order as the distances between points are
+        var distance = 0.0D;
+        for (int i = 1; i < count; i++) {
+            distance += haversine(latitudesE6, longitudesE6, cosines, i);
+        }
+        return distance;
+    }
+
+    /**
+     * Calculates the total distance between consecutive points. Segments shorter than about
+     * a kilometer are measured by the equirectangular projection that doesn't need trigonometric
+     * functions, and the error of each of them doesn't exceed {@link #MAX_APPROXIMATION_ERROR}.
+     * Longer segments are measured using Haversine method.
+     *
+     * @param latitudesE6  the latitudes of the points in micro-degrees
+     * @param longitudesE6 the longitudes of the points in micro-degrees
+     * @param count        the number of points from the start of the arrays
+     * @return the distance in meters
+     */
+    public static double sumApproximately(@NonNull int[] latitudesE6, @NonNull int[] longitudesE6,
+                                          int count) {
+        var cosines = cosines(latitudesE6, count);
+        validate(latitudesE6, longitudesE6, cosines, count);
+
+        var distance = 0.0D;
+        for (int i = 1; i < count; i++) {
+            var dLat = latitudesE6[i] - latitudesE6[i - 1];
+            var dLng = longitudesE6[i] - longitudesE6[i - 1];
+            if (Math.abs(dLat) <= MAX_APPROXIMATED_DELTA && Math.abs(dLng) <= MAX_APPROXIMATED_DELTA) {
+                // the cosine of the middle latitude is close to the mean of the cosines
+                var x = Math.toRadians(dLng / MICRO_DEGREES) * (cosines[i - 1] + cosines[i]) / 2;
+                var y = Math.toRadians(dLat / MICRO_DEGREES);
+                distance += RunPoint.EARTH_RADIUS * Math.sqrt(x * x + y * y);
+            } else {
+                distance += haversine(latitudesE6, longitudesE6, cosines, i);
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Calculates the total distance between consecutive points using Haversine method.
+     *
+     * @param points the points
+     * @return the distance in meters
+     */
+    public static double sum(@NonNull List<RunPoint> points) {
+        Validate.noNullElements(points);
+
+        var latitudes = new int[points.size()];
+        var longitudes = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            latitudes[i] = points.get(i).getLatitudeE6();
+            longitudes[i] = points.get(i).getLongitudeE6();
+        }
+        return sum(latitudes, longitudes, points.size());
+    }
+
+    // the same calculation as RunPoint.calcPreciseDistanceTo() does for the points i - 1 and i
+    private static double haversine(int[] latitudesE6, int[] longitudesE6, double[] cosines, int i) {
+        var latDistance = Math.toRadians(latitudesE6[i] / MICRO_DEGREES - latitudesE6[i - 1] / MICRO_DEGREES);
+        var lngDistance = Math.toRadians(longitudesE6[i] / MICRO_DEGREES - longitudesE6[i - 1] / MICRO_DEGREES);
+
+        var latSin = Math.sin(latDistance / 2);
+        var lngSin = Math.sin(lngDistance / 2);
+        var a = latSin * latSin + cosines[i - 1] * cosines[i] * (lngSin * lngSin);
+        var c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return RunPoint.EARTH_RADIUS * c;
+    }
+
+    private static void validate(int[] latitudesE6, int[] longitudesE6, double[] cosines, int count) {
+        Validate.notNull(latitudesE6);
+        Validate.notNull(longitudesE6);
+        Validate.notNull(cosines);
+        Validate.isTrue(count <= latitudesE6.length && count <= longitudesE6.length && count <= cosines.length,
+                "Arrays must contain %d points", count);
+    }
+}
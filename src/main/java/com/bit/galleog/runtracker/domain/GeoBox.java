@@ -0,0 +1,63 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Area bounded by parallels and meridians, with coordinates in micro-degrees like
+ * {@link RunPoint}. If the minimum longitude is greater than the maximum one, the box
+ * crosses the antimeridian.
+ *
+ * @param minLatitudeE6  the southern bound
+ * @param minLongitudeE6 the western bound
+ * @param maxLatitudeE6  the northern bound
+ * @param maxLongitudeE6 the eastern bound
+ * @author Oleg_Galkin
+ */
+public record GeoBox(int minLatitudeE6, int minLongitudeE6, int maxLatitudeE6, int maxLongitudeE6) {
+    public GeoBox {
+        Validate.inclusiveBetween(-RunPoint.MAX_LATITUDE, RunPoint.MAX_LATITUDE, minLatitudeE6);
+        Validate.inclusiveBetween(-RunPoint.MAX_LATITUDE, RunPoint.MAX_LATITUDE, maxLatitudeE6);
+        Validate.inclusiveBetween(-RunPoint.MAX_LONGITUDE, RunPoint.MAX_LONGITUDE, minLongitudeE6);
+        Validate.inclusiveBetween(-RunPoint.MAX_LONGITUDE, RunPoint.MAX_LONGITUDE, maxLongitudeE6);
+        Validate.isTrue(minLatitudeE6 <= maxLatitudeE6, "Southern bound must not be north of northern one");
+    }
+
+    /**
+     * Creates a box with coordinates specified in degrees.
+     */
+    public static GeoBox of(@NonNull BigDecimal minLatitude, @NonNull BigDecimal minLongitude,
+                            @NonNull BigDecimal maxLatitude, @NonNull BigDecimal maxLongitude) {
+        return new GeoBox(
+                RunPoint.toMicroDegrees(minLatitude, RunPoint.MAX_LATITUDE),
+                RunPoint.toMicroDegrees(minLongitude, RunPoint.MAX_LONGITUDE),
+                RunPoint.toMicroDegrees(maxLatitude, RunPoint.MAX_LATITUDE),
+                RunPoint.toMicroDegrees(maxLongitude, RunPoint.MAX_LONGITUDE)
+        );
+    }
+
+    /**
+     * Checks if the box crosses the antimeridian.
+     */
+    public boolean crossesAntimeridian() {
+        return minLongitudeE6 > maxLongitudeE6;
+    }
+
+    /**
+     * Gets the difference between the northern and southern bounds in micro-degrees.
+     */
+    public int latitudeSpanE6() {
+        return maxLatitudeE6 - minLatitudeE6;
+    }
+
+    /**
+     * Gets the difference between the eastern and western bounds in micro-degrees.
+     */
+    public int longitudeSpanE6() {
+        return crossesAntimeridian() ?
+                2 * RunPoint.MAX_LONGITUDE - minLongitudeE6 + maxLongitudeE6 :
+                maxLongitudeE6 - minLongitudeE6;
+    }
+}
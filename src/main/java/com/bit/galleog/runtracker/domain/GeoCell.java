@@ -0,0 +1,128 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cells of the globe that points are indexed by. A cell is the Z-order (Morton) code
+ * interleaving bits of the longitude and the latitude in micro-degrees shifted to be
+ * non-negative, so that points close to each other mostly have close cells, and any box
+ * is covered by a few ranges of cells that can be found by a B-tree index.
+ * <p/>
+ * Migrations backfilling cells of existing runs calculate them in the same way.
+ *
+ * @author Oleg_Galkin
+ */
+public final class GeoCell {
+    /**
+     * Maximum number of cells a box is covered by. More cells cover the box more tightly,
+     * but need more ranges to be looked up.
+     */
+    static final int MAX_COVERING_CELLS = 16;
+
+    private static final int BITS = 29;  // enough for 360 degrees in micro-degrees
+
+    private GeoCell() {
+    }
+
+    /**
+     * Gets the cell including a point.
+     *
+     * @param latitudeE6  the latitude of the point in micro-degrees
+     * @param longitudeE6 the longitude of the point in micro-degrees
+     */
+    public static long of(int latitudeE6, int longitudeE6) {
+        return interleave(longitudeE6 + RunPoint.MAX_LONGITUDE, latitudeE6 + RunPoint.MAX_LATITUDE);
+    }
+
+    /**
+     * Gets the cell including a point.
+     */
+    public static long of(@NonNull RunPoint point) {
+        Validate.notNull(point);
+        return of(point.getLatitudeE6(), point.getLongitudeE6());
+    }
+
+    /**
+     * Gets ranges of cells including all points of a box. The ranges may include cells
+     * of points outside of the box, so the points found by them should be filtered.
+     *
+     * @param box the box to be covered
+     * @return the ordered non-overlapping ranges
+     */
+    public static List<Range> cover(@NonNull GeoBox box) {
+        Validate.notNull(box);
+
+        var ranges = new ArrayList<Range>();
+        if (box.crossesAntimeridian()) {
+            cover(box.minLatitudeE6(), box.minLongitudeE6(), box.maxLatitudeE6(), RunPoint.MAX_LONGITUDE, ranges);
+            cover(box.minLatitudeE6(), -RunPoint.MAX_LONGITUDE, box.maxLatitudeE6(), box.maxLongitudeE6(), ranges);
+        } else {
+            cover(box.minLatitudeE6(), box.minLongitudeE6(), box.maxLatitudeE6(), box.maxLongitudeE6(), ranges);
+        }
+        return merge(ranges);
+    }
+
+    private static void cover(int minLat, int minLng, int maxLat, int maxLng, List<Range> ranges) {
+        var minX = minLng + RunPoint.MAX_LONGITUDE;
+        var maxX = maxLng + RunPoint.MAX_LONGITUDE;
+        var minY = minLat + RunPoint.MAX_LATITUDE;
+        var maxY = maxLat + RunPoint.MAX_LATITUDE;
+
+        // the smallest cells whose number doesn't exceed the maximum
+        var shift = 0;
+        while ((long) ((maxX >> shift) - (minX >> shift) + 1) * ((maxY >> shift) - (minY >> shift) + 1) >
+                MAX_COVERING_CELLS) {
+            shift++;
+        }
+
+        for (var x = minX >> shift; x <= maxX >> shift; x++) {
+            for (var y = minY >> shift; y <= maxY >> shift; y++) {
+                // a cell of a higher level includes all cells having its code as a prefix
+                var code = interleave(x, y);
+                ranges.add(new Range(code << 2 * shift, ((code + 1) << 2 * shift) - 1));
+            }
+        }
+    }
+
+    private static List<Range> merge(List<Range> ranges) {
+        ranges.sort(Comparator.comparingLong(Range::from));
+
+        var merged = new ArrayList<Range>(ranges.size());
+        for (var range : ranges) {
+            var last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range.from() <= last.to() + 1) {
+                merged.set(merged.size() - 1, new Range(last.from(), Math.max(last.to(), range.to())));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    private static long interleave(int x, int y) {
+        return spread(x) | spread(y) << 1;
+    }
+
+    private static long spread(int value) {
+        var v = (long) value & ((1L << BITS) - 1);
+        v = (v | v << 16) & 0x0000FFFF0000FFFFL;
+        v = (v | v << 8) & 0x00FF00FF00FF00FFL;
+        v = (v | v << 4) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | v << 2) & 0x3333333333333333L;
+        return (v | v << 1) & 0x5555555555555555L;
+    }
+
+    /**
+     * Range of cells.
+     *
+     * @param from the first cell of the range
+     * @param to   the last cell of the range, inclusive
+     */
+    public record Range(long from, long to) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.bit.galleog.runtracker.domain;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Area within a distance from a point, with coordinates in micro-degrees like {@link RunPoint}.
+ *
+ * @param latitudeE6  the latitude of the center
+ * @param longitudeE6 the longitude of the center
+ * @param radius      the distance from the center in meters
+ * @author Oleg_Galkin
+ */
+public record GeoCircle(int latitudeE6, int longitudeE6, int radius) {
+    private static final double MICRO_DEGREES = 1_000_000.0;  // micro-degrees in a degree
+
+    public GeoCircle {
+        Validate.inclusiveBetween(-RunPoint.MAX_LATITUDE, RunPoint.MAX_LATITUDE, latitudeE6);
+        Validate.inclusiveBetween(-RunPoint.MAX_LONGITUDE, RunPoint.MAX_LONGITUDE, longitudeE6);
+        Validate.isTrue(radius > 0, "Radius must be positive");
+    }
+
+    /**
+     * Creates a circle with the center specified in degrees.
+     */
+    public static GeoCircle of(@NonNull BigDecimal latitude, @NonNull BigDecimal longitude, int radius) {
+        return new GeoCircle(RunPoint.toMicroDegrees(latitude, RunPoint.MAX_LATITUDE),
+                RunPoint.toMicroDegrees(longitude, RunPoint.MAX_LONGITUDE), radius);
+    }
+
+    /**
+     * Gets the latitude of the center in degrees.
+     */
+    public BigDecimal latitude() {
+        return BigDecimal.valueOf(latitudeE6, 6);
+    }
+
+    /**
+     * Gets the longitude of the center in degrees.
+     */
+    public BigDecimal longitude() {
+        return BigDecimal.valueOf(longitudeE6, 6);
+    }
+
+    /**
+     * Gets the smallest box including the circle. Its longitudes span the whole globe
+     * if the circle includes a pole.
+     */
+    public GeoBox bounds() {
+        var lat = latitudeE6 / MICRO_DEGREES;
+        var dLat = Math.toDegrees((double) radius / RunPoint.EARTH_RADIUS);
+        var minLat = lat - dLat;
+        var maxLat = lat + dLat;
+        if (minLat <= -90.0D || maxLat >= 90.0D) {
+            return new GeoBox(
+                    floorMicroDegrees(Math.max(minLat, -90.0D)), -RunPoint.MAX_LONGITUDE,
+                    ceilMicroDegrees(Math.min(maxLat, 90.0D)), RunPoint.MAX_LONGITUDE
+            );
+        }
+
+        // meridians converge, so the box is widest at the parallel nearest to a pole
+        var dLng = Math.toDegrees(Math.asin(Math.min(
+                Math.sin((double) radius / RunPoint.EARTH_RADIUS) /
+                        Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat)))),
+                1.0D
+        )));
+        if (dLng >= 180.0D) {
+            return new GeoBox(floorMicroDegrees(minLat), -RunPoint.MAX_LONGITUDE,
+                    ceilMicroDegrees(maxLat), RunPoint.MAX_LONGITUDE);
+        }
+
+        var lng = longitudeE6 / MICRO_DEGREES;
+        return new GeoBox(
+                floorMicroDegrees(minLat), floorMicroDegrees(wrapLongitude(lng - dLng)),
+                ceilMicroDegrees(maxLat), ceilMicroDegrees(wrapLongitude(lng + dLng))
+        );
+    }
+
+    private static double wrapLongitude(double lng) {
+        return lng < -180.0D ? lng + 360.0D : lng > 180.0D ? lng - 360.0D : lng;
+    }
+
+    // bounds are rounded outwards, so that points at the radius are included
+    private static int floorMicroDegrees(double degrees) {
+        return (int) Math.floor(degrees * MICRO_DEGREES);
+    }
+
+    private static int ceilMicroDegrees(double degrees) {
+        return (int) Math.ceil(degrees * MICRO_DEGREES);
+    }
+}
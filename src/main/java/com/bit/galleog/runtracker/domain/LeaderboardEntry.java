@@ -0,0 +1,38 @@
+package com.bit.galleog.runtracker.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Model class to return the position of a user in a leaderboard.
+ *
+ * @author Oleg_Galkin
+ */
+@Builder
+@Getter
+public class LeaderboardEntry {
+    /**
+     * Position of the user in the leaderboard starting from 1.
+     */
+    private final int rank;
+
+    /**
+     * User's identifier.
+     */
+    private final long userId;
+
+    /**
+     * Count of runs of the user in the period of the leaderboard.
+     */
+    private final int count;
+
+    /**
+     * Overall distance the user ran in the period.
+     */
+    private final long distance;
+
+    /**
+     * Average speed in km/h.
+     */
+    private final double avgSpeed;
+}
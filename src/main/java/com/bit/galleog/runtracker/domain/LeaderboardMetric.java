@@ -0,0 +1,18 @@
+package com.bit.galleog.runtracker.domain;
+
+/**
+ * Attributes of runs users are ranked by in leaderboards.
+ *
+ * @author Oleg_Galkin
+ */
+public enum LeaderboardMetric {
+    /**
+     * Total distance of runs.
+     */
+    DISTANCE,
+
+    /**
+     * Average speed of runs.
+     */
+    AVG_SPEED
+}
@@ -7,8 +7,6 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.temporal.ChronoUnit;
 
 /**
@@ -39,6 +37,11 @@ public final class Run {
      * Datetime and coordinates where the user finished the run.
      */
     private RunPoint finishPoint;
+    /**
+     * Average speed of the finished run in km/h. The run is immutable, so it's calculated once
+     * instead of every time the run is serialized.
+     */
+    private final Double avgSpeed;
 
     @Builder
     private Run(long id, long userId, @NonNull RunPoint startPoint,
@@ -48,21 +51,18 @@ public final class Run {
         setStartPoint(startPoint);
         setFinishPoint(finishPoint);
         this.distance = distance;
+        this.avgSpeed = finishPoint != null && distance != null
+                ? Speeds.round(Speeds.kmh(distance, seconds(startPoint, finishPoint)))
+                : null;
     }
 
-    /**
-     * Gets the average speed of the finished run in km/h.
-     */
-    public Double getAvgSpeed() {
-        if (this.finishPoint != null) {
-            var speed = (double) this.distance / (double) ChronoUnit.SECONDS.between(
-                    this.startPoint.getDatetime(), this.finishPoint.getDatetime()
-            ) * 3.6;
-            return BigDecimal.valueOf(speed).setScale(2, RoundingMode.HALF_UP)
-                    .doubleValue();
-        } else {
-            return null;
-        }
+    private static double seconds(RunPoint startPoint, RunPoint finishPoint) {
+        // runs are timed in whole seconds as they always have been,
+        // only runs shorter than a second are timed with its fractions, so that their time isn't zero
+        var seconds = ChronoUnit.SECONDS.between(startPoint.getDatetime(), finishPoint.getDatetime());
+        return seconds > 0
+                ? seconds
+                : ChronoUnit.NANOS.between(startPoint.getDatetime(), finishPoint.getDatetime()) / 1.0E9D;
     }
 
     private void setStartPoint(RunPoint point) {
@@ -0,0 +1,101 @@
+package com.bit.galleog.runtracker.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Model class to return statistics for runs together with distributions of their attributes.
+ *
+ * @author Oleg_Galkin
+ */
+@Builder
+@Getter
+public class RunDistribution {
+    /**
+     * Overall count of runs.
+     */
+    private final int count;
+
+    /**
+     * Overall distance a user ran.
+     */
+    private final int distance;
+
+    /**
+     * Average speed in km/h.
+     */
+    private final double avgSpeed;
+
+    /**
+     * Distribution of distances of runs in meters.
+     */
+    private final Metric distances;
+
+    /**
+     * Distribution of durations of runs in seconds.
+     */
+    private final Metric durations;
+
+    /**
+     * Distribution of paces of runs in seconds per kilometer.
+     */
+    private final Metric paces;
+
+    /**
+     * Percentiles and histogram of an attribute of runs.
+     */
+    @Builder
+    @Getter
+    public static class Metric {
+        /**
+         * Median of the attribute, or {@code null} if there are no runs.
+         */
+        @Nullable
+        private final Double p50;
+
+        /**
+         * 90th percentile of the attribute, or {@code null} if there are no runs.
+         */
+        @Nullable
+        private final Double p90;
+
+        /**
+         * 99th percentile of the attribute, or {@code null} if there are no runs.
+         */
+        @Nullable
+        private final Double p99;
+
+        /**
+         * Buckets of the same width covering the usual range of the attribute, preceded
+         * and followed by buckets counting values out of the range.
+         */
+        private final List<Bucket> histogram;
+    }
+
+    /**
+     * Bucket of a histogram.
+     */
+    @Builder
+    @Getter
+    public static class Bucket {
+        /**
+         * Inclusive lower bound of the bucket, or {@code null} if it's unbounded.
+         */
+        @Nullable
+        private final Double from;
+
+        /**
+         * Exclusive upper bound of the bucket, or {@code null} if it's unbounded.
+         */
+        @Nullable
+        private final Double to;
+
+        /**
+         * Number of runs in the bucket.
+         */
+        private final int count;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bit.galleog.runtracker.domain;
+
+/**
+ * Points of a run it can be searched by.
+ *
+ * @author Oleg_Galkin
+ */
+public enum RunEnd {
+    /**
+     * The point where the user started running.
+     */
+    START,
+
+    /**
+     * The point where the user finished the run. Started runs have no such point.
+     */
+    FINISH
+}
@@ -1,10 +1,14 @@
 package com.bit.galleog.runtracker.domain;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.springframework.lang.NonNull;
 
@@ -14,58 +18,87 @@ import java.time.LocalDateTime;
 
 /**
  * Datetime and coordinates of a run.
+ * <p/>
+ * Latitude and longitude are kept as micro-degrees, i.e. degrees multiplied by 10<sup>6</sup>,
+ * that exactly matches precision of the coordinates stored in the database.
  *
  * @author Oleg_Galkin
  */
 @Getter
 @ToString
 @EqualsAndHashCode
+@JsonDeserialize(builder = RunPoint.RunPointBuilder.class)
 public final class RunPoint {
-    private static final int LATLNG_SCALE = 6;        // scale for latitude and longitude
-    private static final int EARTH_RADIUS = 6371000;  // radius of the earth in meters
+    private static final int LATLNG_SCALE = 6;                // scale for latitude and longitude
+    private static final double MICRO_DEGREES = 1_000_000.0;  // micro-degrees in a degree
+    static final int MAX_LATITUDE = 90_000_000;               // in micro-degrees
+    static final int MAX_LONGITUDE = 180_000_000;             // in micro-degrees
+
+    /**
+     * Radius of the earth in meters.
+     */
+    public static final int EARTH_RADIUS = 6371000;
 
     /**
      * Datetime of the run.
      */
-    private LocalDateTime datetime;
+    private final LocalDateTime datetime;
 
     /**
-     * Latitude and longitude of the run.
+     * Latitude of the run in micro-degrees.
      */
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal latitude;
+    @JsonIgnore
+    private final int latitudeE6;
 
     /**
-     * Longitude of the run.
+     * Longitude of the run in micro-degrees.
      */
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal longitude;
+    @JsonIgnore
+    private final int longitudeE6;
 
     @Builder
     private RunPoint(@NonNull LocalDateTime datetime, @NonNull BigDecimal latitude,
                      @NonNull BigDecimal longitude) {
-        setDatetime(datetime);
-        setLatitude(latitude);
-        setLongitude(longitude);
+        this(datetime, toMicroDegrees(latitude, MAX_LATITUDE), toMicroDegrees(longitude, MAX_LONGITUDE));
     }
 
-    private void setDatetime(LocalDateTime datetime) {
+    private RunPoint(LocalDateTime datetime, int latitudeE6, int longitudeE6) {
         Validate.notNull(datetime);
+        Validate.inclusiveBetween(-MAX_LATITUDE, MAX_LATITUDE, latitudeE6);
+        Validate.inclusiveBetween(-MAX_LONGITUDE, MAX_LONGITUDE, longitudeE6);
+
         this.datetime = datetime;
+        this.latitudeE6 = latitudeE6;
+        this.longitudeE6 = longitudeE6;
     }
 
-    private void setLatitude(BigDecimal latitude) {
-        Validate.notNull(latitude);
-        Validate.inclusiveBetween(-90, 90, latitude.doubleValue());
-
-        this.latitude = latitude.setScale(LATLNG_SCALE, RoundingMode.HALF_UP);
+    /**
+     * Creates a new point with coordinates specified in micro-degrees.
+     *
+     * @param datetime    the datetime of the run
+     * @param latitudeE6  the latitude multiplied by 10<sup>6</sup>
+     * @param longitudeE6 the longitude multiplied by 10<sup>6</sup>
+     * @return the created point
+     */
+    public static RunPoint ofMicroDegrees(@NonNull LocalDateTime datetime, int latitudeE6,
+                                          int longitudeE6) {
+        return new RunPoint(datetime, latitudeE6, longitudeE6);
     }
 
-    private void setLongitude(BigDecimal longitude) {
-        Validate.notNull(longitude);
-        Validate.inclusiveBetween(-180, 180, longitude.doubleValue());
+    /**
+     * Gets latitude of the run.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal getLatitude() {
+        return BigDecimal.valueOf(this.latitudeE6, LATLNG_SCALE);
+    }
 
-        this.longitude = longitude.setScale(LATLNG_SCALE, RoundingMode.HALF_UP);
+    /**
+     * Gets longitude of the run.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal getLongitude() {
+        return BigDecimal.valueOf(this.longitudeE6, LATLNG_SCALE);
     }
 
     /**
@@ -75,12 +108,23 @@ public final class RunPoint {
      * @return the calculated distance in meters
      */
     public int calcDistanceTo(@NonNull RunPoint other) {
+        return (int) calcPreciseDistanceTo(other);
+    }
+
+    /**
+     * Calculates distance to another point using Haversine method without truncating it
+     * to whole meters. Should be used to sum up distances between close points.
+     *
+     * @param other the point to calculate distance to
+     * @return the calculated distance in meters
+     */
+    public double calcPreciseDistanceTo(@NonNull RunPoint other) {
         Validate.notNull(other);
 
-        var lat1 = this.getLatitude().doubleValue();
-        var lat2 = other.getLatitude().doubleValue();
-        var lng1 = this.getLongitude().doubleValue();
-        var lng2 = other.getLongitude().doubleValue();
+        var lat1 = this.latitudeE6 / MICRO_DEGREES;
+        var lat2 = other.latitudeE6 / MICRO_DEGREES;
+        var lng1 = this.longitudeE6 / MICRO_DEGREES;
+        var lng2 = other.longitudeE6 / MICRO_DEGREES;
 
         var latDistance = Math.toRadians(lat2 - lat1);
         var lngDistance = Math.toRadians(lng2 - lng1);
@@ -89,11 +133,24 @@ public final class RunPoint {
                 Math.cos(Math.toRadians(lat2)) * haversine(lngDistance);
         var c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
 
-        return (int) (EARTH_RADIUS * c);
+        return EARTH_RADIUS * c;
+    }
+
+    static int toMicroDegrees(BigDecimal degrees, int maxE6) {
+        Validate.notNull(degrees);
+        // the range is checked before rounding so that values slightly out of it aren't clamped to its bounds
+        var max = BigDecimal.valueOf(maxE6, LATLNG_SCALE);
+        Validate.isTrue(degrees.abs().compareTo(max) <= 0,
+                "The value %s is not in the specified inclusive range of %s to %s", degrees, max.negate(), max);
+        return degrees.setScale(LATLNG_SCALE, RoundingMode.HALF_UP).intValueExact();
     }
 
     private static double haversine(double val) {
         var sin = Math.sin(val / 2);
         return sin * sin;
     }
+
+    @JsonPOJOBuilder(withPrefix = StringUtils.EMPTY)
+    public static final class RunPointBuilder {
+    }
 }
@@ -0,0 +1,35 @@
+package com.bit.galleog.runtracker.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Model class to return statistics for runs started in an interval of time.
+ *
+ * @author Oleg_Galkin
+ */
+@Builder
+@Getter
+public class RunStatsBucket {
+    /**
+     * First day of the interval in the time zone the statistics are requested for.
+     */
+    private final LocalDate start;
+
+    /**
+     * Count of runs started in the interval.
+     */
+    private final int count;
+
+    /**
+     * Overall distance of the runs.
+     */
+    private final int distance;
+
+    /**
+     * Average speed in km/h.
+     */
+    private final double avgSpeed;
+}
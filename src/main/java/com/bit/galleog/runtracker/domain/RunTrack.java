@@ -0,0 +1,34 @@
+package com.bit.galleog.runtracker.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Summary of a GPS track recorded during a run. Points of the track are stored separately,
+ * so the summary allows to extend the track and get its distance without reading them.
+ *
+ * @author Oleg_Galkin
+ */
+@Builder
+@Getter
+public class RunTrack {
+    /**
+     * Identifier of the run.
+     */
+    private final long runId;
+
+    /**
+     * Number of points in the track.
+     */
+    private final int pointCount;
+
+    /**
+     * Distance in meters between the start point of the run and the last point of the track.
+     */
+    private final double distance;
+
+    /**
+     * Last recorded point of the track.
+     */
+    private final RunPoint lastPoint;
+}
@@ -0,0 +1,68 @@
+package com.bit.galleog.runtracker.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Calculation of average speeds returned by the API.
+ *
+ * @author Oleg_Galkin
+ */
+public final class Speeds {
+    /**
+     * Number of km/h in 1 m/s.
+     */
+    public static final double KMH_PER_MPS = 3.6D;
+
+    // values up to this one are rounded without BigDecimal,
+    // all decimals in the calculation then have no more than 15 significant digits
+    private static final double MAX_FAST_ROUNDING = 1.0E9D;
+
+    private Speeds() {
+    }
+
+    /**
+     * Calculates the average speed in km/h.
+     *
+     * @param distance the distance in meters
+     * @param seconds  the time in seconds
+     */
+    public static double kmh(double distance, double seconds) {
+        return distance / seconds * KMH_PER_MPS;
+    }
+
+    /**
+     * Rounds the speed to 2 decimal places with {@link RoundingMode#HALF_UP}. The result is the same
+     * as {@code BigDecimal.valueOf(speed).setScale(2, RoundingMode.HALF_UP).doubleValue()},
+     * but nothing is allocated.
+     * <p/>
+     * {@link BigDecimal#valueOf(double)} rounds the shortest decimal representing the value.
+     * The nearest doubles to decimals with up to 15 significant digits are distinct, so the value
+     * is compared with the nearest doubles to the hundredths and the midpoint between them
+     * instead of the decimal itself.
+     *
+     * @param speed the speed to be rounded
+     * @return the rounded speed
+     */
+    public static double round(double speed) {
+        var abs = Math.abs(speed);
+        if (!(abs < MAX_FAST_ROUNDING)) {
+            // NaN and infinities are rejected by BigDecimal too
+            return BigDecimal.valueOf(speed).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        }
+
+        var hundredths = (long) (abs * 100.0D);
+        // the product is rounded, so it can be a hundredth less or more than the value
+        if (hundredths / 100.0D > abs) {
+            hundredths--;
+        } else if ((hundredths + 1) / 100.0D <= abs) {
+            hundredths++;
+        }
+
+        if ((2 * hundredths + 1) / 200.0D <= abs) {
+            hundredths++;
+        }
+        // BigDecimal loses the sign of zero
+        return hundredths == 0 ? 0.0D : Math.copySign(hundredths / 100.0D, speed);
+    }
+}
@@ -0,0 +1,48 @@
+package com.bit.galleog.runtracker.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Intervals of time to group runs for statistics. Weeks start on Monday.
+ *
+ * @author Oleg_Galkin
+ */
+public enum StatsInterval {
+    DAY(ChronoUnit.DAYS),
+    WEEK(ChronoUnit.WEEKS),
+    MONTH(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    StatsInterval(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Gets the first day of the interval the specified day belongs to.
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Gets the first day of the interval following the one starting on the specified day.
+     */
+    public LocalDate next(LocalDate start) {
+        return start.plus(1, unit);
+    }
+
+    /**
+     * Gets the number of intervals covering the days from {@code from} to {@code to} inclusive.
+     */
+    public long count(LocalDate from, LocalDate to) {
+        return unit.between(truncate(from), truncate(to)) + 1;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bit.galleog.runtracker.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import lombok.Builder;
@@ -45,14 +46,23 @@ public final class User {
      */
     private Sex sex;
 
+    /**
+     * Version of the user incremented whenever the user is updated. It isn't serialized,
+     * but is sent as the ETag of the user.
+     */
+    @Nullable
+    @JsonIgnore
+    private final Long version;
+
     @Builder
     private User(@Nullable Long id, @NonNull String firstName, @NonNull String lastName,
-                 @NonNull LocalDate birthDate, @NonNull Sex sex) {
+                 @NonNull LocalDate birthDate, @NonNull Sex sex, @Nullable Long version) {
         this.id = id;
         setFirstName(firstName);
         setLastName(lastName);
         setBirthDate(birthDate);
         setSex(sex);
+        this.version = version;
     }
 
     private void setFirstName(String name) {
@@ -0,0 +1,46 @@
+package com.bit.galleog.runtracker.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of runs of a user in a period of time, along with the user's attributes
+ * leaderboards are filtered by.
+ *
+ * @author Oleg_Galkin
+ */
+@Builder
+@Getter
+public class UserRunTotals {
+    /**
+     * User's identifier.
+     */
+    private final long userId;
+
+    /**
+     * User's gender.
+     */
+    private final Sex sex;
+
+    /**
+     * User's birth date.
+     */
+    private final LocalDate birthDate;
+
+    /**
+     * Count of runs.
+     */
+    private final int count;
+
+    /**
+     * Overall distance of the runs in meters.
+     */
+    private final long distance;
+
+    /**
+     * Sum of average speeds of the runs in m/s.
+     */
+    private final double speedSum;
+}
@@ -0,0 +1,173 @@
+package com.bit.galleog.runtracker.leaderboard;
+
+import com.bit.galleog.runtracker.domain.AgeBand;
+import com.bit.galleog.runtracker.domain.LeaderboardEntry;
+import com.bit.galleog.runtracker.domain.LeaderboardMetric;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.Speeds;
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import lombok.Getter;
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Rankings of users by their runs in a period of time. Each user is ranked among all users,
+ * users of the same sex, users of the same age band, and users of the same sex and age band,
+ * so that filtered rankings are read without being calculated. Totals of a user are updated
+ * incrementally, and the user is repositioned in the rankings including them.
+ * <p/>
+ * The class is thread-safe.
+ *
+ * @author Oleg_Galkin
+ */
+public final class Leaderboard {
+    /**
+     * First day of the period. Age bands of users are determined on this date.
+     */
+    @Getter
+    private final LocalDate start;
+
+    private final Map<Long, Totals> totals = new HashMap<>();
+    private final Map<Ranking, RankingTree> rankings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public Leaderboard(@NonNull LocalDate start) {
+        Validate.notNull(start);
+        this.start = start;
+    }
+
+    /**
+     * Adds runs of a user to the leaderboard.
+     *
+     * @param runs the totals of the runs to be added
+     */
+    public void add(@NonNull UserRunTotals runs) {
+        Validate.notNull(runs);
+
+        lock.writeLock().lock();
+        try {
+            var userTotals = totals.computeIfAbsent(runs.getUserId(), id -> new Totals(
+                    runs.getSex(), AgeBand.of(runs.getBirthDate(), start)
+            ));
+            userTotals.count += runs.getCount();
+            userTotals.distance += runs.getDistance();
+            userTotals.speedSum += runs.getSpeedSum();
+
+            for (var metric : LeaderboardMetric.values()) {
+                var score = userTotals.score(metric);
+                for (var ranking : Ranking.including(metric, userTotals)) {
+                    rankings.computeIfAbsent(ranking, r -> new RankingTree())
+                            .put(runs.getUserId(), score);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the first users of a ranking.
+     *
+     * @param metric  the attribute users are ranked by
+     * @param sex     the optional sex to rank only users of
+     * @param ageBand the optional age band to rank only users of
+     * @param limit   the maximum number of users to return
+     * @return the users with the highest scores in the order of their ranks
+     */
+    public List<LeaderboardEntry> top(@NonNull LeaderboardMetric metric, @Nullable Sex sex,
+                                      @Nullable AgeBand ageBand, int limit) {
+        Validate.notNull(metric);
+
+        lock.readLock().lock();
+        try {
+            var ranking = rankings.get(new Ranking(metric, sex, ageBand));
+            if (ranking == null) {
+                return List.of();
+            }
+
+            var users = ranking.top(limit);
+            return IntStream.range(0, users.size())
+                    .mapToObj(i -> toEntry(i + 1, users.get(i)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the position of a user in a ranking.
+     *
+     * @param metric  the attribute users are ranked by
+     * @param sex     the optional sex to rank only users of
+     * @param ageBand the optional age band to rank only users of
+     * @param userId  the user's identifier
+     * @return the position of the user, or {@link Optional#empty()} if the user has no runs
+     * in the period or doesn't match the filters
+     */
+    public Optional<LeaderboardEntry> entryOf(@NonNull LeaderboardMetric metric, @Nullable Sex sex,
+                                              @Nullable AgeBand ageBand, long userId) {
+        Validate.notNull(metric);
+
+        lock.readLock().lock();
+        try {
+            var ranking = rankings.get(new Ranking(metric, sex, ageBand));
+            var rank = ranking != null ? ranking.rankOf(userId) : 0;
+            return rank > 0 ? Optional.of(toEntry(rank, userId)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private LeaderboardEntry toEntry(int rank, long userId) {
+        var userTotals = totals.get(userId);
+        return LeaderboardEntry.builder()
+                .rank(rank)
+                .userId(userId)
+                .count(userTotals.count)
+                .distance(userTotals.distance)
+                .avgSpeed(Speeds.round(userTotals.score(LeaderboardMetric.AVG_SPEED)))
+                .build();
+    }
+
+    private static final class Totals {
+        final Sex sex;
+        final AgeBand ageBand;
+        int count;
+        long distance;
+        double speedSum;
+
+        Totals(Sex sex, AgeBand ageBand) {
+            this.sex = sex;
+            this.ageBand = ageBand;
+        }
+
+        double score(LeaderboardMetric metric) {
+            return switch (metric) {
+                case DISTANCE -> distance;
+                // average of speeds of runs in km/h like in RunStats
+                case AVG_SPEED -> count > 0 ? Speeds.kmh(speedSum, count) : 0.0D;
+            };
+        }
+    }
+
+    private record Ranking(LeaderboardMetric metric, @Nullable Sex sex, @Nullable AgeBand ageBand) {
+        static List<Ranking> including(LeaderboardMetric metric, Totals totals) {
+            return List.of(
+                    new Ranking(metric, null, null),
+                    new Ranking(metric, totals.sex, null),
+                    new Ranking(metric, null, totals.ageBand),
+                    new Ranking(metric, totals.sex, totals.ageBand)
+            );
+        }
+    }
+}
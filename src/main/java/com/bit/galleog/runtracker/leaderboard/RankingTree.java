@@ -0,0 +1,215 @@
+package com.bit.galleog.runtracker.leaderboard;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Scores of users ordered by descending scores and ascending user identifiers. It's a treap
+ * whose nodes keep sizes of their subtrees, so that a score is updated, the rank of a user
+ * is found, and the first users are listed in O(log n) expected time.
+ * <p/>
+ * The class isn't thread-safe.
+ *
+ * @author Oleg_Galkin
+ */
+public final class RankingTree {
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Gets the number of ranked users.
+     */
+    public int size() {
+        return scores.size();
+    }
+
+    /**
+     * Sets the score of the user, replacing the previous one.
+     *
+     * @param userId the user's identifier
+     * @param score  the new score of the user
+     */
+    public void put(long userId, double score) {
+        Validate.isTrue(!Double.isNaN(score), "Score can't be NaN");
+
+        var previous = scores.put(userId, score);
+        if (previous != null) {
+            root = remove(root, previous, userId);
+        }
+        root = insert(root, new Node(userId, score, random.nextInt()));
+    }
+
+    /**
+     * Removes the user from the ranking.
+     *
+     * @param userId the user's identifier
+     * @return {@code true} if the user was ranked
+     */
+    public boolean remove(long userId) {
+        var previous = scores.remove(userId);
+        if (previous == null) {
+            return false;
+        }
+        root = remove(root, previous, userId);
+        return true;
+    }
+
+    /**
+     * Gets the position of the user in the ranking. Users with equal scores are ordered
+     * by their identifiers.
+     *
+     * @param userId the user's identifier
+     * @return the position starting from 1, or 0 if the user isn't ranked
+     */
+    public int rankOf(long userId) {
+        var score = scores.get(userId);
+        if (score == null) {
+            return 0;
+        }
+
+        var rank = 0;
+        var node = root;
+        while (node != null) {
+            var cmp = compare(score, userId, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                if (cmp == 0) {
+                    return rank;
+                }
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("User " + userId + " isn't found in the tree");
+    }
+
+    /**
+     * Gets the first users of the ranking.
+     *
+     * @param limit the maximum number of users to return
+     * @return the identifiers of the users with the highest scores in the order of their ranks
+     */
+    public List<Long> top(int limit) {
+        Validate.isTrue(limit >= 0);
+
+        var users = new ArrayList<Long>(Math.min(limit, size()));
+        var stack = new ArrayDeque<Node>();
+        var node = root;
+        while (users.size() < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            users.add(node.userId);
+            node = node.right;
+        }
+        return users;
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            var split = split(node, inserted.score, inserted.userId);
+            inserted.left = split[0];
+            inserted.right = split[1];
+            return update(inserted);
+        }
+
+        if (compare(inserted.score, inserted.userId, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return update(node);
+    }
+
+    private static Node remove(Node node, double score, long userId) {
+        if (node == null) {
+            return null;
+        }
+
+        var cmp = compare(score, userId, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, score, userId);
+        } else {
+            node.right = remove(node.right, score, userId);
+        }
+        return update(node);
+    }
+
+    // splits the tree into nodes preceding the key and the others
+    private static Node[] split(Node node, double score, long userId) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(score, userId, node) > 0) {
+            var split = split(node.right, score, userId);
+            node.right = split[0];
+            return new Node[]{update(node), split[1]};
+        } else {
+            var split = split(node.left, score, userId);
+            node.left = split[1];
+            return new Node[]{split[0], update(node)};
+        }
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        } else {
+            right.left = merge(left, right.left);
+            return update(right);
+        }
+    }
+
+    private static int compare(double score, long userId, Node node) {
+        // higher scores go first
+        var cmp = Double.compare(node.score, score);
+        return cmp != 0 ? cmp : Long.compare(userId, node.userId);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static final class Node {
+        final long userId;
+        final double score;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long userId, double score, int priority) {
+            this.userId = userId;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+}
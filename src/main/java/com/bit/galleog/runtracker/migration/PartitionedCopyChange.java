@@ -0,0 +1,137 @@
+package com.bit.galleog.runtracker.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Liquibase change copying rows of a table to a table partitioned by month, so that a table
+ * can be replaced by a partitioned one without copying all its rows in a single transaction.
+ * Rows are copied a month at a time, a partition of the month is created before its rows
+ * are copied, and each month is committed separately. Months without rows get no partitions.
+ * <p/>
+ * Both tables must have the same columns in the same order, and the partitioned one must have
+ * a primary key. The change must be used in change sets with {@code runInTransaction: false}.
+ * It can be applied again if it has been interrupted, rows copied before are skipped.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@Getter
+@Setter
+public class PartitionedCopyChange implements CustomTaskChange {
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * Name of the table rows are copied from.
+     */
+    private String sourceTableName;
+    /**
+     * Name of the partitioned table rows are copied to.
+     */
+    private String tableName;
+    /**
+     * Name of the timestamp column the table is partitioned by.
+     */
+    private String columnName;
+    /**
+     * Prefix of names of partitions followed by their months, e.g. {@code runs_p}.
+     */
+    private String partitionPrefix;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        var connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (var statement = connection.createStatement();
+             var copy = connection.prepareStatement("insert into " + tableName + " select * from " +
+                     sourceTableName + " where " + columnName + " >= ? and " + columnName + " < ? " +
+                     "on conflict do nothing")) {
+            var months = getMonthRange(connection);
+            if (months == null) {
+                return;
+            }
+
+            for (var month = months[0]; !month.isAfter(months[1]); month = month.plusMonths(1)) {
+                var from = month.atDay(1);
+                var to = month.plusMonths(1).atDay(1);
+                if (!hasRows(connection, from.atStartOfDay(), to.atStartOfDay())) {
+                    continue;
+                }
+
+                var partition = partitionPrefix + PARTITION_SUFFIX.format(month);
+                statement.execute("create table if not exists " + partition + " partition of " + tableName +
+                        " for values from ('" + from + "') to ('" + to + "')");
+
+                copy.setObject(1, from.atStartOfDay());
+                copy.setObject(2, to.atStartOfDay());
+                var copied = copy.executeUpdate();
+                PartitionedUpdateChange.commit(connection);
+                logger.info("{} rows of {} copied to partition {}", copied, sourceTableName, partition);
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to copy " + sourceTableName + " to " + tableName, e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Rows of " + sourceTableName + " copied to " + tableName + " and its partitions";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        var errors = new ValidationErrors();
+        errors.checkRequiredField("sourceTableName", StringUtils.trimToNull(sourceTableName));
+        errors.checkRequiredField("tableName", StringUtils.trimToNull(tableName));
+        errors.checkRequiredField("columnName", StringUtils.trimToNull(columnName));
+        errors.checkRequiredField("partitionPrefix", StringUtils.trimToNull(partitionPrefix));
+        return errors;
+    }
+
+    // months of the first and the last rows to be copied, or null if there are no rows
+    @Nullable
+    private YearMonth[] getMonthRange(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement();
+             var rs = statement.executeQuery("select min(" + columnName + "), max(" + columnName + ") from " +
+                     sourceTableName)) {
+            rs.next();
+            var min = rs.getObject(1, LocalDateTime.class);
+            return min == null ? null : new YearMonth[]{
+                    YearMonth.from(min), YearMonth.from(rs.getObject(2, LocalDateTime.class))
+            };
+        }
+    }
+
+    private boolean hasRows(Connection connection, LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (var statement = connection.prepareStatement("select 1 from " + sourceTableName +
+                " where " + columnName + " >= ? and " + columnName + " < ? limit 1")) {
+            statement.setObject(1, from);
+            statement.setObject(2, to);
+            try (var rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
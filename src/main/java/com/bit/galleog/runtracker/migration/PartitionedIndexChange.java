@@ -0,0 +1,148 @@
+package com.bit.galleog.runtracker.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liquibase change creating an index on a partitioned table without blocking writes to it.
+ * PostgreSQL can't create indexes on partitioned tables concurrently, so an invalid index
+ * is created on the partitioned table only, and then an index is created concurrently
+ * on every partition and attached to it. The index on the partitioned table becomes valid
+ * once indexes of all its partitions are attached.
+ * <p/>
+ * The change must be used in change sets with {@code runInTransaction: false}. It can be
+ * applied again if it has been interrupted, and partitions attached later get the index
+ * automatically.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@Getter
+@Setter
+public class PartitionedIndexChange implements CustomTaskChange {
+    /**
+     * Name of the partitioned table.
+     */
+    private String tableName;
+    /**
+     * Name of the index. Indexes of partitions are named by the partition and this name.
+     */
+    private String indexName;
+    /**
+     * Definition of the index following the table name, e.g. {@code (user_id) where ...}.
+     */
+    private String definition;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        var connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (var statement = connection.createStatement()) {
+            statement.execute("create index if not exists " + indexName + " on only " + tableName + " " +
+                    definition);
+
+            for (var partition : getPartitions(connection, tableName)) {
+                if (isIndexed(connection, partition)) {
+                    continue;
+                }
+
+                var partitionIndex = partition + "_" + indexName;
+
+                if (Boolean.FALSE.equals(isValid(connection, partitionIndex))) {
+                    // left by an interrupted concurrent build
+                    statement.execute("drop index concurrently " + partitionIndex);
+                }
+
+                logger.info("Creating index {} on partition {}", partitionIndex, partition);
+                statement.execute("create index concurrently if not exists " + partitionIndex + " on " +
+                        partition + " " + definition);
+                statement.execute("alter index " + indexName + " attach partition " + partitionIndex);
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to create index " + indexName + " on " + tableName, e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Index " + indexName + " created on " + tableName + " and its partitions";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        var errors = new ValidationErrors();
+        errors.checkRequiredField("tableName", StringUtils.trimToNull(tableName));
+        errors.checkRequiredField("indexName", StringUtils.trimToNull(indexName));
+        errors.checkRequiredField("definition", StringUtils.trimToNull(definition));
+        return errors;
+    }
+
+    /**
+     * Gets names of partitions of the specified table ordered by them.
+     */
+    static List<String> getPartitions(Connection connection, String tableName) throws SQLException {
+        try (var statement = connection.prepareStatement(
+                "select c.relname from pg_catalog.pg_inherits i " +
+                        "join pg_catalog.pg_class c on c.oid = i.inhrelid " +
+                        "where i.inhparent = cast(? as regclass) " +
+                        "order by c.relname")) {
+            statement.setString(1, tableName);
+
+            var partitions = new ArrayList<String>();
+            try (var rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(rs.getString(1));
+                }
+            }
+            return partitions;
+        }
+    }
+
+    private boolean isIndexed(Connection connection, String partition) throws SQLException {
+        // partitions attached after the index is created get their indexes automatically
+        try (var statement = connection.prepareStatement(
+                "select 1 from pg_catalog.pg_inherits i " +
+                        "join pg_catalog.pg_index x on x.indexrelid = i.inhrelid " +
+                        "where i.inhparent = cast(? as regclass) and x.indrelid = cast(? as regclass)")) {
+            statement.setString(1, indexName);
+            statement.setString(2, partition);
+            try (var rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Nullable
+    private Boolean isValid(Connection connection, String partitionIndex) throws SQLException {
+        try (var statement = connection.prepareStatement(
+                "select x.indisvalid from pg_catalog.pg_index x " +
+                        "join pg_catalog.pg_class c on c.oid = x.indexrelid " +
+                        "where c.relname = ?")) {
+            statement.setString(1, partitionIndex);
+            try (var rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+}
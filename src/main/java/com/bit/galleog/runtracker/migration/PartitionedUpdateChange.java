@@ -0,0 +1,125 @@
+package com.bit.galleog.runtracker.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Liquibase change updating rows of a partitioned table in batches, so that a large table
+ * isn't updated by a single long transaction holding locks on all its rows. Rows of every
+ * partition are updated by ranges of their {@code id} column, {@link #batchSize} identifiers
+ * at a time, and each batch is committed separately.
+ * <p/>
+ * The change must be used in change sets with {@code runInTransaction: false}.
+ * The condition must select only rows that haven't been updated yet, so that the change
+ * can be applied again if it has been interrupted.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@Getter
+@Setter
+public class PartitionedUpdateChange implements CustomTaskChange {
+    /**
+     * Default number of identifiers in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    /**
+     * Name of the partitioned table.
+     */
+    private String tableName;
+    /**
+     * Assignments of the update, e.g. {@code cell = ...}.
+     */
+    private String assignments;
+    /**
+     * Condition selecting rows to be updated, e.g. {@code cell is null}.
+     */
+    private String condition;
+    /**
+     * Number of identifiers in a batch.
+     */
+    private Integer batchSize = DEFAULT_BATCH_SIZE;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        var connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (var statement = connection.createStatement()) {
+            for (var partition : PartitionedIndexChange.getPartitions(connection, tableName)) {
+                var ids = getIdRange(connection, partition);
+                if (ids == null) {
+                    continue;
+                }
+
+                long updated = 0;
+                for (var from = ids[0]; from <= ids[1]; from += batchSize) {
+                    updated += statement.executeUpdate("update " + partition + " set " + assignments +
+                            " where id >= " + from + " and id < " + (from + batchSize) +
+                            " and (" + condition + ")");
+                    commit(connection);
+                }
+                logger.info("{} rows of partition {} updated", updated, partition);
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to update " + tableName, e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Rows of " + tableName + " and its partitions updated";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        var errors = new ValidationErrors();
+        errors.checkRequiredField("tableName", StringUtils.trimToNull(tableName));
+        errors.checkRequiredField("assignments", StringUtils.trimToNull(assignments));
+        errors.checkRequiredField("condition", StringUtils.trimToNull(condition));
+        if (batchSize == null || batchSize <= 0) {
+            errors.addError("batchSize must be positive");
+        }
+        return errors;
+    }
+
+    // the minimum and maximum identifiers of rows to be updated, or null if there are no such rows
+    @Nullable
+    private long[] getIdRange(Connection connection, String partition) throws SQLException {
+        try (var statement = connection.createStatement();
+             var rs = statement.executeQuery("select min(id), max(id) from " + partition + " where " + condition)) {
+            rs.next();
+            var min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        }
+    }
+
+    /**
+     * Commits the current transaction of the specified connection unless it's in auto-commit mode,
+     * which it is in change sets that don't run in a transaction.
+     */
+    static void commit(Connection connection) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+}
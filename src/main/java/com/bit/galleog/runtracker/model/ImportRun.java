@@ -0,0 +1,114 @@
+package com.bit.galleog.runtracker.model;
+
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Information about a completed run to be imported, e.g. synchronized from a watch.
+ *
+ * @author Oleg_Galkin
+ */
+@Getter
+@JsonIgnoreProperties({"startPoint", "finishPoint"})
+@JsonDeserialize(builder = ImportRun.ImportRunBuilder.class)
+public final class ImportRun {
+    /**
+     * Identifier of the User who ran.
+     */
+    private final long userId;
+
+    /**
+     * Datetime and coordinates where the user started running.
+     */
+    private final RunPoint startPoint;
+
+    /**
+     * Datetime and coordinates where the user finished the run.
+     */
+    private final RunPoint finishPoint;
+
+    /**
+     * Optional distance in meters the user ran.
+     */
+    private final Integer distance;
+
+    @Builder
+    private ImportRun(long userId, @NonNull LocalDateTime startDatetime,
+                      @NonNull BigDecimal startLatitude, @NonNull BigDecimal startLongitude,
+                      @NonNull LocalDateTime finishDatetime, @NonNull BigDecimal finishLatitude,
+                      @NonNull BigDecimal finishLongitude, @Nullable Integer distance) {
+        this.userId = userId;
+        this.startPoint = RunPoint.builder()
+                .datetime(startDatetime)
+                .latitude(startLatitude)
+                .longitude(startLongitude)
+                .build();
+        this.finishPoint = RunPoint.builder()
+                .datetime(finishDatetime)
+                .latitude(finishLatitude)
+                .longitude(finishLongitude)
+                .build();
+        this.distance = distance;
+    }
+
+    /**
+     * Gets the datetime when the user started running.
+     */
+    public LocalDateTime getStartDatetime() {
+        return this.startPoint.getDatetime();
+    }
+
+    /**
+     * Gets the latitude where the user started running.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal getStartLatitude() {
+        return this.startPoint.getLatitude();
+    }
+
+    /**
+     * Gets the longitude where the user started running.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal getStartLongitude() {
+        return this.startPoint.getLongitude();
+    }
+
+    /**
+     * Gets the datetime when the user finished the run.
+     */
+    public LocalDateTime getFinishDatetime() {
+        return this.finishPoint.getDatetime();
+    }
+
+    /**
+     * Gets the latitude where the user finished the run.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal getFinishLatitude() {
+        return this.finishPoint.getLatitude();
+    }
+
+    /**
+     * Gets the longitude where the user finished the run.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal getFinishLongitude() {
+        return this.finishPoint.getLongitude();
+    }
+
+    @JsonPOJOBuilder(withPrefix = StringUtils.EMPTY)
+    public static final class ImportRunBuilder {
+    }
+}
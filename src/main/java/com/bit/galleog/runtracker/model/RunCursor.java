@@ -0,0 +1,51 @@
+package com.bit.galleog.runtracker.model;
+
+import com.bit.galleog.runtracker.domain.Run;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of a run in the list of runs ordered by their start datetimes and identifiers.
+ * Used for keyset pagination of runs.
+ *
+ * @author Oleg_Galkin
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class RunCursor {
+    /**
+     * Datetime when the run was started.
+     */
+    private final LocalDateTime startDatetime;
+
+    /**
+     * Identifier of the run.
+     */
+    private final long id;
+
+    @Builder
+    private RunCursor(@NonNull LocalDateTime startDatetime, long id) {
+        Validate.notNull(startDatetime);
+
+        this.startDatetime = startDatetime;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor pointing to the specified run.
+     *
+     * @param run the run, usually the last one of the previous page
+     * @return the cursor to get the runs following the specified one
+     */
+    public static RunCursor of(@NonNull Run run) {
+        Validate.notNull(run);
+        return new RunCursor(run.getStartPoint().getDatetime(), run.getId());
+    }
+}
@@ -0,0 +1,58 @@
+package com.bit.galleog.runtracker.model;
+
+import com.bit.galleog.runtracker.domain.User;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+/**
+ * Position of a user in the list of users ordered by their last names, first names
+ * and identifiers. Used for keyset pagination of users.
+ *
+ * @author Oleg_Galkin
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class UserCursor {
+    /**
+     * Last name of the user.
+     */
+    private final String lastName;
+
+    /**
+     * First name of the user.
+     */
+    private final String firstName;
+
+    /**
+     * Identifier of the user.
+     */
+    private final long id;
+
+    @Builder
+    private UserCursor(@NonNull String lastName, @NonNull String firstName, long id) {
+        Validate.notNull(lastName);
+        Validate.notNull(firstName);
+
+        this.lastName = lastName;
+        this.firstName = firstName;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor pointing to the specified user.
+     *
+     * @param user the user, usually the last one of the previous page
+     * @return the cursor to get the users following the specified one
+     */
+    public static UserCursor of(@NonNull User user) {
+        Validate.notNull(user);
+        Validate.notNull(user.getId());
+
+        return new UserCursor(user.getLastName(), user.getFirstName(), user.getId());
+    }
+}
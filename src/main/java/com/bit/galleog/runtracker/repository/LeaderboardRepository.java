@@ -0,0 +1,25 @@
+package com.bit.galleog.runtracker.repository;
+
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Repository to read runs of all users to rank them in leaderboards.
+ *
+ * @author Oleg_Galkin
+ */
+public interface LeaderboardRepository {
+    /**
+     * Passes totals of finished runs of each user who ran in the specified range of days
+     * to the given action one by one as they are fetched from the database cursor.
+     *
+     * @param from   the first day of the range
+     * @param to     the day following the last day of the range
+     * @param action the action to be performed for totals of each user
+     */
+    void forEachUserTotals(@NonNull LocalDate from, @NonNull LocalDate to,
+                           @NonNull Consumer<? super UserRunTotals> action);
+}
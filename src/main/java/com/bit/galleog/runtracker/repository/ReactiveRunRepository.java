@@ -0,0 +1,83 @@
+package com.bit.galleog.runtracker.repository;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.RunStats;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking repository for {@link Run}. No thread waits for the database
+ * while statements are being executed.
+ *
+ * @author Oleg_Galkin
+ */
+public interface ReactiveRunRepository {
+    /**
+     * Starts a new run.
+     *
+     * @param userId the user who runs
+     * @param point  the datetime and coordinates where the user started running
+     * @return the newly created run
+     */
+    Mono<Run> startRun(long userId, @NonNull RunPoint point);
+
+    /**
+     * Finishes the run specified by its identifier if it's started and the finish point follows
+     * its start point and the last point of its track.
+     *
+     * @param id       the run identifier
+     * @param point    the point when and where the run was finished
+     * @param distance the optional distance the user ran. If it isn't specified, it's calculated
+     *                 by the database using the track of the run or the start point
+     * @return the updated run or an empty {@link Mono} if there is no run with the specified
+     * identifier or it can't be finished
+     * @see RunRepository#finishStartedRun(long, RunPoint, Integer)
+     */
+    Mono<Run> finishStartedRun(long id, @NonNull RunPoint point, @Nullable Integer distance);
+
+    /**
+     * Gets a run by its identifier.
+     *
+     * @param id the run identifier
+     * @return the run or an empty {@link Mono} if there is no run with the specified identifier
+     */
+    Mono<Run> getById(long id);
+
+    /**
+     * Gets filtered finished runs of the specified user ordered by their start datetimes.
+     * Runs are emitted as they are read from the database.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return all finished runs of the user started from {@code fromDatetime}
+     * to {@code toDatetime}
+     */
+    Flux<Run> getRunsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                            @Nullable LocalDateTime toDatetime);
+
+    /**
+     * Gets statistics including runs of the user specified by their identifier.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics for all runs started from {@code fromDatetime} to {@code toDatetime}
+     */
+    Mono<RunStats> getStatsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                  @Nullable LocalDateTime toDatetime);
+
+    /**
+     * Gets the version of finished runs of the specified user.
+     *
+     * @param userId the user's identifier
+     * @return the version, or 0 if the user has no finished runs
+     * @see RunRepository#getRunsVersion(long)
+     */
+    Mono<Long> getRunsVersion(long userId);
+}
@@ -0,0 +1,39 @@
+package com.bit.galleog.runtracker.repository;
+
+import org.springframework.lang.NonNull;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Repository managing monthly partitions of runs. Runs are partitioned
+ * by the month they were started in.
+ *
+ * @author Oleg_Galkin
+ */
+public interface RunPartitionRepository {
+    /**
+     * Gets months that have partitions attached to the table of runs.
+     *
+     * @return the months in chronological order
+     */
+    List<YearMonth> getPartitions();
+
+    /**
+     * Creates the partition of runs started in the specified month. Runs of the month
+     * that have been saved before the partition was created are moved to it.
+     *
+     * @param month the month of the partition
+     */
+    void createPartition(@NonNull YearMonth month);
+
+    /**
+     * Detaches the partition of runs started in the specified month. The runs are kept
+     * in a standalone table named like the partition, so they can be archived or dropped,
+     * but they are no longer returned by queries on runs. The aggregated statistics
+     * still include them.
+     *
+     * @param month the month of the partition
+     */
+    void detachPartition(@NonNull YearMonth month);
+}
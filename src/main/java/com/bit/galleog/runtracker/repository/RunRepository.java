@@ -1,14 +1,26 @@
 package com.bit.galleog.runtracker.repository;
 
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCircle;
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunDistribution;
+import com.bit.galleog.runtracker.domain.RunEnd;
 import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.model.RunCursor;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repository for {@link Run}.
@@ -25,6 +37,15 @@ public interface RunRepository {
      */
     Run startRun(long userId, @NonNull RunPoint point);
 
+    /**
+     * Starts new runs at once. Identifiers of the runs are allocated at once,
+     * and the runs are inserted by a single statement.
+     *
+     * @param runs the runs to be started defined by their users and start points
+     * @return the newly created runs in the same order
+     */
+    List<Run> startRuns(@NonNull List<Run> runs);
+
     /**
      * Finishes the run specified by its identifier.
      *
@@ -36,6 +57,38 @@ public interface RunRepository {
      */
     Optional<Run> finishRun(long id, @NonNull RunPoint point, int distance);
 
+    /**
+     * Finishes the run specified by its identifier if it's started and the finish point follows
+     * its start point and the last point of its track. The run is checked and updated
+     * by a single statement without locking it in advance.
+     *
+     * @param id       the run identifier
+     * @param point    the point when and where the run was finished
+     * @param distance the optional distance the user ran. If it isn't specified, it's calculated
+     *                 by the database using the track of the run or the start point
+     * @return the updated run or {@link Optional#empty()} if there is no run with the specified
+     * identifier or it can't be finished
+     */
+    Optional<Run> finishStartedRun(long id, @NonNull RunPoint point, @Nullable Integer distance);
+
+    /**
+     * Saves completed runs at once. Identifiers of the runs are ignored,
+     * new ones are allocated for all runs at once.
+     *
+     * @param runs the finished runs to be saved
+     * @return the saved runs with their new identifiers in the same order
+     */
+    List<Run> importRuns(@NonNull List<Run> runs);
+
+    /**
+     * Gets a run by its identifier.
+     *
+     * @param id the run identifier
+     * @return the run with the given identifier, or {@link Optional#empty()}
+     * if there is no run with that identifier
+     */
+    Optional<Run> getById(long id);
+
     /**
      * Gets a run by its identifier and locks it pessimistically (SELECT... FOR UPDATE).
      *
@@ -57,6 +110,44 @@ public interface RunRepository {
     List<Run> getRunsByUser(long userId, @Nullable LocalDateTime fromDatetime,
                             @Nullable LocalDateTime toDatetime);
 
+    /**
+     * Gets a page of filtered finished runs of the specified user ordered by their start datetimes
+     * and identifiers. Uses keyset pagination, so the cost of a page doesn't depend on its position.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @param after        the optional position of the last run of the previous page
+     * @param limit        the maximum number of runs to return
+     * @return the finished runs of the user started from {@code fromDatetime} to {@code toDatetime}
+     * that follow {@code after}, or the first page if it's {@code null}
+     */
+    List<Run> getRunsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                            @Nullable LocalDateTime toDatetime, @Nullable RunCursor after,
+                            int limit);
+
+    /**
+     * Passes filtered finished runs of the specified user ordered by their start datetimes
+     * to the given action one by one as they are fetched from the database cursor, so that
+     * memory consumption doesn't depend on the number of runs.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @param action       the action to be performed for each run
+     */
+    void forEachRunByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                          @Nullable LocalDateTime toDatetime, @NonNull Consumer<? super Run> action);
+
+    /**
+     * Gets the version of finished runs of the specified user. It's incremented whenever
+     * a run of the user is finished or imported, or their runs are detached with a partition.
+     *
+     * @param userId the user's identifier
+     * @return the version, or 0 if the user has no finished runs
+     */
+    long getRunsVersion(long userId);
+
     /**
      * Gets statistics including runs of the user specified by their identifier.
      *
@@ -67,4 +158,69 @@ public interface RunRepository {
      */
     RunStats getStatsByUser(long userId, @Nullable LocalDateTime fromDatetime,
                             @Nullable LocalDateTime toDatetime);
+
+    /**
+     * Gets statistics including runs of each of the specified users at once.
+     *
+     * @param userIds      the users' identifiers
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics for all runs started from {@code fromDatetime} to {@code toDatetime}
+     * by user identifiers in the order the users are passed. Users without runs get zero statistics
+     */
+    Map<Long, RunStats> getStatsByUsers(@NonNull Collection<Long> userIds,
+                                        @Nullable LocalDateTime fromDatetime,
+                                        @Nullable LocalDateTime toDatetime);
+
+    /**
+     * Gets statistics including runs of the user specified by their identifier together with
+     * percentiles and histograms of distances, durations and paces of the runs.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics and distributions for all runs started from {@code fromDatetime}
+     * to {@code toDatetime}
+     */
+    RunDistribution getDistributionByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                          @Nullable LocalDateTime toDatetime);
+
+    /**
+     * Gets statistics of runs of the user specified by their identifier for each interval
+     * of the range of days. Intervals without runs are included with zero statistics.
+     * Datetimes of runs are considered to be in UTC.
+     *
+     * @param userId   the user's identifier
+     * @param from     the first day of the range
+     * @param to       the last day of the range
+     * @param interval the interval to group runs by
+     * @param zone     the time zone the days and intervals are in
+     * @return the statistics for each interval from the one including {@code from} to the one
+     * including {@code to} in chronological order
+     */
+    List<RunStatsBucket> getStatsSeriesByUser(long userId, @NonNull LocalDate from,
+                                              @NonNull LocalDate to, @NonNull StatsInterval interval,
+                                              @NonNull ZoneId zone);
+
+    /**
+     * Gets runs whose start or finish points are within a distance from a point, nearest first.
+     * The runs are looked up by cells of their points, and only the runs found by the cells
+     * are checked by the exact distance.
+     *
+     * @param end    the point of a run to search by
+     * @param circle the area the point of a run must be within
+     * @param limit  the maximum number of runs to return
+     * @return the runs found ordered by distances from the center of the area and identifiers
+     */
+    List<Run> getRunsNear(@NonNull RunEnd end, @NonNull GeoCircle circle, int limit);
+
+    /**
+     * Gets runs whose start or finish points are within a box, the latest started first.
+     *
+     * @param end   the point of a run to search by
+     * @param box   the area the point of a run must be within
+     * @param limit the maximum number of runs to return
+     * @return the runs found ordered by descending start datetimes and identifiers
+     */
+    List<Run> getRunsWithin(@NonNull RunEnd end, @NonNull GeoBox box, int limit);
 }
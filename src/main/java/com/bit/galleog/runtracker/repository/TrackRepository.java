@@ -0,0 +1,42 @@
+package com.bit.galleog.runtracker.repository;
+
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for GPS tracks of runs.
+ *
+ * @author Oleg_Galkin
+ */
+public interface TrackRepository {
+    /**
+     * Appends points to the track of the specified run.
+     *
+     * @param runId    the run identifier
+     * @param points   the points following the last point of the track in chronological order
+     * @param distance the distance in meters covered by the appended points
+     * @return the updated summary of the track
+     */
+    RunTrack appendPoints(long runId, @NonNull List<RunPoint> points, double distance);
+
+    /**
+     * Gets the summary of the track of the specified run.
+     *
+     * @param runId the run identifier
+     * @return the summary of the track, or {@link Optional#empty()}
+     * if no points have been recorded for the run
+     */
+    Optional<RunTrack> getTrack(long runId);
+
+    /**
+     * Gets all points of the track of the specified run.
+     *
+     * @param runId the run identifier
+     * @return the points of the track in chronological order
+     */
+    List<RunPoint> getPoints(long runId);
+}
@@ -1,10 +1,13 @@
 package com.bit.galleog.runtracker.repository;
 
 import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.UserCursor;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repository for {@link User}.
@@ -26,6 +29,25 @@ public interface UserRepository {
      */
     List<User> getAllUsers();
 
+    /**
+     * Gets a page of registered users ordered by their last names, first names and identifiers.
+     * Uses keyset pagination, so the cost of a page doesn't depend on its position.
+     *
+     * @param after the optional position of the last user of the previous page
+     * @param limit the maximum number of users to return
+     * @return the users following {@code after}, or the first page if it's {@code null}
+     */
+    List<User> getUsers(@Nullable UserCursor after, int limit);
+
+    /**
+     * Passes all registered users ordered by their last and first names to the given action
+     * one by one as they are fetched from the database cursor, so that memory consumption
+     * doesn't depend on the number of users.
+     *
+     * @param action the action to be performed for each user
+     */
+    void forEachUser(@NonNull Consumer<? super User> action);
+
     /**
      * Creates a new user.
      *
@@ -0,0 +1,68 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.USERS;
+import static org.jooq.impl.DSL.sum;
+
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import com.bit.galleog.runtracker.repository.LeaderboardRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.Validate;
+import org.jooq.DSLContext;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of {@link LeaderboardRepository}. Totals are summed up from the aggregated
+ * daily statistics, so runs themselves aren't read.
+ *
+ * @author Oleg_Galkin
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = RepositoryMetrics.TIMER_NAME, histogram = true)
+public class JooqLeaderboardRepository implements LeaderboardRepository {
+    private static final int FETCH_SIZE = 500;   // number of rows fetched by a cursor at once
+
+    @NonNull
+    private final DSLContext ctx;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUserTotals(@NonNull LocalDate from, @NonNull LocalDate to,
+                                  @NonNull Consumer<? super UserRunTotals> action) {
+        Validate.notNull(from);
+        Validate.notNull(to);
+        Validate.notNull(action);
+
+        // the PostgreSQL driver uses a server-side cursor only inside a transaction
+        try (var cursor = ctx.select(
+                        RUN_DAILY_STATS.USER_ID,
+                        USERS.SEX,
+                        USERS.BIRTH_DATE,
+                        sum(RUN_DAILY_STATS.RUN_COUNT),
+                        sum(RUN_DAILY_STATS.TOTAL_DISTANCE),
+                        sum(RUN_DAILY_STATS.SPEED_SUM)
+                ).from(RUN_DAILY_STATS)
+                .join(USERS).on(USERS.ID.eq(RUN_DAILY_STATS.USER_ID))
+                .where(RUN_DAILY_STATS.RUN_DATE.ge(from))
+                .and(RUN_DAILY_STATS.RUN_DATE.lt(to))
+                .groupBy(RUN_DAILY_STATS.USER_ID, USERS.SEX, USERS.BIRTH_DATE)
+                .fetchSize(FETCH_SIZE)
+                .fetchLazy()) {
+            cursor.forEach(record -> action.accept(UserRunTotals.builder()
+                    .userId(record.value1())
+                    .sex(record.value2())
+                    .birthDate(record.value3())
+                    .count(record.value4().intValue())
+                    .distance(record.value5().longValue())
+                    .speedSum(record.value6().doubleValue())
+                    .build()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.name;
+
+import com.bit.galleog.runtracker.repository.RunPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.Validate;
+import org.jooq.DSLContext;
+import org.jooq.Name;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link RunPartitionRepository} for PostgreSQL declarative partitioning.
+ * jOOQ has no DSL for partitions, so plain SQL templates are used.
+ *
+ * @author Oleg_Galkin
+ */
+@Repository
+@RequiredArgsConstructor
+public class JooqRunPartitionRepository implements RunPartitionRepository {
+    /**
+     * Name of the partition keeping runs started in months without their own partition.
+     */
+    static final Name DEFAULT_PARTITION = name("runs_default");
+
+    private static final String PARTITION_PREFIX = "runs_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @NonNull
+    private final DSLContext ctx;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<YearMonth> getPartitions() {
+        return ctx.resultQuery(
+                        "select c.relname from pg_catalog.pg_inherits i " +
+                                "join pg_catalog.pg_class c on c.oid = i.inhrelid " +
+                                "where i.inhparent = cast({0} as regclass)",
+                        inline(RUNS.getName())
+                ).fetch(0, String.class)
+                .stream()
+                .map(JooqRunPartitionRepository::toMonth)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void createPartition(@NonNull YearMonth month) {
+        Validate.notNull(month);
+
+        var partition = partitionName(month);
+        var from = inline(month.atDay(1).atStartOfDay());
+        var to = inline(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        // the partition is filled before it's attached, as a new partition can't be attached
+        // while the default partition contains rows belonging to it
+        ctx.execute("create table {0} (like {1} including defaults including constraints)", partition, RUNS);
+        ctx.execute(
+                "with moved as (delete from {0} where {1} >= {2} and {1} < {3} returning *) " +
+                        "insert into {4} select * from moved",
+                DEFAULT_PARTITION, RUNS.START_DATETIME.getUnqualifiedName(), from, to, partition
+        );
+        ctx.execute("alter table {0} attach partition {1} for values from ({2}) to ({3})",
+                RUNS, partition, from, to);
+    }
+
+    @Override
+    @Transactional
+    public void detachPartition(@NonNull YearMonth month) {
+        Validate.notNull(month);
+
+        var partition = partitionName(month);
+        // runs of the partition disappear, but their statistics are kept
+        ctx.execute("update {0} set {1} = {1} + 1 where {2} in (select {3} from {4})",
+                RUN_TOTAL_STATS, RUN_TOTAL_STATS.VERSION.getUnqualifiedName(),
+                RUN_TOTAL_STATS.USER_ID.getUnqualifiedName(), RUNS.USER_ID.getUnqualifiedName(), partition);
+        ctx.execute("alter table {0} detach partition {1}", RUNS, partition);
+    }
+
+    /**
+     * Gets the name of the partition of runs started in the specified month.
+     */
+    static Name partitionName(YearMonth month) {
+        return name(PARTITION_PREFIX + PARTITION_SUFFIX.format(month));
+    }
+
+    private static YearMonth toMonth(String partition) {
+        // the default partition and tables attached manually aren't managed
+        if (!partition.matches(PARTITION_PREFIX + "\\d{6}")) {
+            return null;
+        }
+        return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+    }
+}
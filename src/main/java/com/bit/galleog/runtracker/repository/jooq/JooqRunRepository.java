@@ -2,29 +2,60 @@ package com.bit.galleog.runtracker.repository.jooq;
 
 import static com.bit.galleog.runtracker.domain.Sequences.RUNS_SEQ;
 import static com.bit.galleog.runtracker.domain.Tables.RUNS;
-import static org.jooq.impl.DSL.avg;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
 import static org.jooq.impl.DSL.count;
-import static org.jooq.impl.DSL.localDateTimeDiff;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.or;
 import static org.jooq.impl.DSL.sum;
 import static org.jooq.impl.DSL.val;
 
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCell;
+import com.bit.galleog.runtracker.domain.GeoCircle;
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunDistribution;
+import com.bit.galleog.runtracker.domain.RunEnd;
 import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.StatsInterval;
 import com.bit.galleog.runtracker.domain.tables.records.RunsRecord;
+import com.bit.galleog.runtracker.model.RunCursor;
 import com.bit.galleog.runtracker.repository.RunRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
-import org.jooq.DatePart;
+import org.jooq.Field;
+import org.jooq.Record1;
+import org.jooq.Record2;
+import org.jooq.Record4;
+import org.jooq.ResultQuery;
+import org.jooq.SelectField;
+import org.jooq.impl.SQLDataType;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementation of {@link RunRepository}.
@@ -32,42 +63,170 @@ import java.util.Optional;
  * @author Oleg_Galkin
  */
 @Repository
-@RequiredArgsConstructor
+@Timed(value = RepositoryMetrics.TIMER_NAME, histogram = true)
 public class JooqRunRepository implements RunRepository {
+    private static final int FETCH_SIZE = 500;   // number of rows fetched by a cursor at once
+
     private final DSLContext ctx;
+    private final SequenceIdAllocator idAllocator;
+    private final Counter mappedRows;
+
+    public JooqRunRepository(@NonNull DSLContext ctx, @NonNull MeterRegistry meterRegistry) {
+        this.ctx = ctx;
+        this.idAllocator = new SequenceIdAllocator(ctx, RUNS_SEQ);
+        this.mappedRows = RepositoryMetrics.mappedRows(meterRegistry, "run");
+    }
 
     @Override
     @Transactional
     public Run startRun(long userId, @NonNull RunPoint point) {
-        var record = ctx.insertInto(RUNS)
-                .columns(
-                        RUNS.ID,
-                        RUNS.USER_ID,
-                        RUNS.START_DATETIME,
-                        RUNS.START_LATITUDE,
-                        RUNS.START_LONGITUDE
-                ).values(
-                        RUNS_SEQ.nextval(),
-                        val(userId),
-                        val(point.getDatetime()),
-                        val(point.getLatitude()),
-                        val(point.getLongitude())
-                ).returning()
+        var record = RunQueries.startRun(ctx, val(idAllocator.next()), userId, point)
                 .fetchOneInto(RunsRecord.class);
 
         return toRun(record);
     }
 
+    @Override
+    @Transactional
+    public List<Run> startRuns(@NonNull List<Run> runs) {
+        if (runs.isEmpty()) {
+            return List.of();
+        }
+
+        // identifiers for all runs are allocated at once
+        var ids = idAllocator.next(runs.size());
+
+        var insert = ctx.insertInto(
+                RUNS,
+                RUNS.ID,
+                RUNS.USER_ID,
+                RUNS.START_DATETIME,
+                RUNS.START_LATITUDE,
+                RUNS.START_LONGITUDE,
+                RUNS.START_CELL
+        );
+
+        var started = new ArrayList<Run>(runs.size());
+        for (int i = 0; i < runs.size(); i++) {
+            var run = runs.get(i);
+            var id = ids.get(i);
+            insert = insert.values(
+                    id,
+                    run.getUserId(),
+                    run.getStartPoint().getDatetime(),
+                    run.getStartPoint().getLatitudeE6(),
+                    run.getStartPoint().getLongitudeE6(),
+                    GeoCell.of(run.getStartPoint())
+            );
+
+            started.add(Run.builder()
+                    .id(id)
+                    .userId(run.getUserId())
+                    .startPoint(run.getStartPoint())
+                    .build());
+        }
+
+        // all runs are written by a single multi-row INSERT
+        insert.execute();
+        return started;
+    }
+
     @Override
     @Transactional
     public Optional<Run> finishRun(long id, @NonNull RunPoint point, int distance) {
-        return ctx.update(RUNS)
+        var record = ctx.update(RUNS)
                 .set(RUNS.FINISH_DATETIME, point.getDatetime())
-                .set(RUNS.FINISH_LATITUDE, point.getLatitude())
-                .set(RUNS.FINISH_LONGITUDE, point.getLongitude())
+                .set(RUNS.FINISH_LATITUDE, point.getLatitudeE6())
+                .set(RUNS.FINISH_LONGITUDE, point.getLongitudeE6())
+                .set(RUNS.FINISH_CELL, GeoCell.of(point))
                 .set(RUNS.DISTANCE, distance)
-                .where(RUNS.ID.eq(id))
+                .where(RUNS.ID.eq(id).and(RUNS.FINISH_DATETIME.isNull()))
                 .returning()
+                .fetchOptionalInto(RunsRecord.class);
+
+        // the aggregated statistics are updated in the same transaction
+        record.ifPresent(r -> RunQueries.addToStats(ctx, RunQueries.runOf(r)).execute());
+        return record.map(this::toRun);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Run> finishStartedRun(long id, @NonNull RunPoint point,
+                                          @Nullable Integer distance) {
+        var record = RunQueries.finishStartedRun(ctx, id, point, distance)
+                .fetchOptionalInto(RunsRecord.class);
+
+        record.ifPresent(r -> RunQueries.addToStats(ctx, RunQueries.runOf(r)).execute());
+        return record.map(this::toRun);
+    }
+
+    @Override
+    @Transactional
+    public List<Run> importRuns(@NonNull List<Run> runs) {
+        if (runs.isEmpty()) {
+            return List.of();
+        }
+
+        // identifiers for all runs are allocated at once
+        var ids = idAllocator.next(runs.size());
+
+        var insert = ctx.insertInto(
+                RUNS,
+                RUNS.ID,
+                RUNS.USER_ID,
+                RUNS.START_DATETIME,
+                RUNS.START_LATITUDE,
+                RUNS.START_LONGITUDE,
+                RUNS.START_CELL,
+                RUNS.FINISH_DATETIME,
+                RUNS.FINISH_LATITUDE,
+                RUNS.FINISH_LONGITUDE,
+                RUNS.FINISH_CELL,
+                RUNS.DISTANCE
+        );
+
+        var imported = new ArrayList<Run>(runs.size());
+        for (int i = 0; i < runs.size(); i++) {
+            var run = runs.get(i);
+            var id = ids.get(i);
+            insert = insert.values(
+                    id,
+                    run.getUserId(),
+                    run.getStartPoint().getDatetime(),
+                    run.getStartPoint().getLatitudeE6(),
+                    run.getStartPoint().getLongitudeE6(),
+                    GeoCell.of(run.getStartPoint()),
+                    run.getFinishPoint().getDatetime(),
+                    run.getFinishPoint().getLatitudeE6(),
+                    run.getFinishPoint().getLongitudeE6(),
+                    GeoCell.of(run.getFinishPoint()),
+                    run.getDistance()
+            );
+
+            imported.add(Run.builder()
+                    .id(id)
+                    .userId(run.getUserId())
+                    .startPoint(run.getStartPoint())
+                    .finishPoint(run.getFinishPoint())
+                    .distance(run.getDistance())
+                    .build());
+        }
+
+        // all runs are written by a single multi-row INSERT
+        insert.execute();
+
+        // the range of start datetimes limits the partitions scanned to aggregate the runs
+        var startDatetimes = runs.stream().map(run -> run.getStartPoint().getDatetime()).toList();
+        RunQueries.addToStats(ctx, RUNS.ID.in(ids).and(RUNS.START_DATETIME.between(
+                Collections.min(startDatetimes), Collections.max(startDatetimes)
+        ))).execute();
+        return imported;
+    }
+
+    @Override
+    public Optional<Run> getById(long id) {
+        return ctx.selectFrom(RUNS)
+                .where(RUNS.ID.eq(id))
                 .fetchOptionalInto(RunsRecord.class)
                 .map(this::toRun);
     }
@@ -85,16 +244,8 @@ public class JooqRunRepository implements RunRepository {
     @Override
     public List<Run> getRunsByUser(long userId, LocalDateTime fromDatetime,
                                    LocalDateTime toDatetime) {
-        var condition = RUNS.USER_ID.eq(userId).and(RUNS.FINISH_DATETIME.isNotNull());
-        if (fromDatetime != null) {
-            condition = condition.and(RUNS.START_DATETIME.ge(fromDatetime));
-        }
-        if (toDatetime != null) {
-            condition = condition.and(RUNS.START_DATETIME.le(toDatetime));
-        }
-
         return ctx.selectFrom(RUNS)
-                .where(condition)
+                .where(RunQueries.finishedRunsOf(userId, fromDatetime, toDatetime))
                 .orderBy(RUNS.START_DATETIME)
                 .fetchInto(RunsRecord.class)
                 .stream()
@@ -103,59 +254,239 @@ public class JooqRunRepository implements RunRepository {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Run> getRunsByUser(long userId, LocalDateTime fromDatetime,
+                                   LocalDateTime toDatetime, RunCursor after, int limit) {
+        var condition = RunQueries.finishedRunsOf(userId, fromDatetime, toDatetime);
+        if (after != null) {
+            // the planner can't prune partitions by the row comparison of seek()
+            condition = condition.and(RUNS.START_DATETIME.ge(after.getStartDatetime()));
+        }
+
+        var query = ctx.selectFrom(RUNS)
+                .where(condition)
+                .orderBy(RUNS.START_DATETIME, RUNS.ID);
+
+        // the row comparison (start_datetime, id) > (?, ?) uses idx_runs_finished_user_id_start_datetime
+        ResultQuery<RunsRecord> page = after != null ?
+                query.seek(after.getStartDatetime(), after.getId()).limit(limit) :
+                query.limit(limit);
+
+        return page.fetchInto(RunsRecord.class)
+                .stream()
+                .map(this::toRun)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachRunByUser(long userId, LocalDateTime fromDatetime,
+                                 LocalDateTime toDatetime, @NonNull Consumer<? super Run> action) {
+        // the PostgreSQL driver uses a server-side cursor only inside a transaction
+        try (var cursor = ctx.selectFrom(RUNS)
+                .where(RunQueries.finishedRunsOf(userId, fromDatetime, toDatetime))
+                .orderBy(RUNS.START_DATETIME, RUNS.ID)
+                .fetchSize(FETCH_SIZE)
+                .fetchLazy()) {
+            cursor.forEach(record -> action.accept(toRun(record)));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public RunStats getStatsByUser(long userId, LocalDateTime fromDatetime,
                                    LocalDateTime toDatetime) {
-        var condition = RUNS.USER_ID.eq(userId).and(RUNS.FINISH_DATETIME.isNotNull());
-        if (fromDatetime != null) {
-            condition = condition.and(RUNS.START_DATETIME.ge(fromDatetime));
+        return RunQueries.sumStats(ctx, userId, fromDatetime, toDatetime)
+                .stream()
+                .map(query -> StatsSum.of(query.fetchOne()))
+                .reduce(StatsSum.EMPTY, StatsSum::plus)
+                .toRunStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getRunsVersion(long userId) {
+        return ctx.select(RUN_TOTAL_STATS.VERSION)
+                .from(RUN_TOTAL_STATS)
+                .where(RUN_TOTAL_STATS.USER_ID.eq(userId))
+                .fetchOptional(Record1::value1)
+                .orElse(0L);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, RunStats> getStatsByUsers(@NonNull Collection<Long> userIds,
+                                               LocalDateTime fromDatetime, LocalDateTime toDatetime) {
+        var ids = userIds.stream().distinct().toArray(Long[]::new);
+
+        var sums = new HashMap<Long, StatsSum>();
+        for (var query : RunQueries.sumStatsByUsers(ctx, ids, fromDatetime, toDatetime)) {
+            query.fetch().forEach(record -> sums.merge(
+                    record.value1(),
+                    new StatsSum(record.value2(), record.value3(), record.value4()),
+                    StatsSum::plus
+            ));
         }
-        if (toDatetime != null) {
-            condition = condition.and(RUNS.START_DATETIME.le(toDatetime));
+
+        var stats = new LinkedHashMap<Long, RunStats>();
+        for (var id : ids) {
+            stats.put(id, sums.getOrDefault(id, StatsSum.EMPTY).toRunStats());
         }
+        return stats;
+    }
 
-        var record = ctx.select(
-                        count(RUNS.ID),
-                        sum(RUNS.DISTANCE),
-                        avg(RUNS.DISTANCE.divide(localDateTimeDiff(
-                                DatePart.SECOND, RUNS.START_DATETIME, RUNS.FINISH_DATETIME
-                        )))
-                ).from(RUNS)
+    @Override
+    @Transactional(readOnly = true)
+    public RunDistribution getDistributionByUser(long userId, LocalDateTime fromDatetime,
+                                                 LocalDateTime toDatetime) {
+        var condition = RunQueries.finishedRunsOf(userId, fromDatetime, toDatetime);
+        var metrics = List.of(
+                MetricDistribution.DISTANCE, MetricDistribution.DURATION, MetricDistribution.PACE
+        );
+
+        // the sums and all percentiles are calculated by one scan of the runs
+        var fields = new ArrayList<SelectField<?>>(
+                List.of(count(RUNS.ID), sum(RUNS.DISTANCE), sum(RunQueries.SPEED))
+        );
+        metrics.forEach(metric -> fields.addAll(metric.percentiles()));
+        var record = ctx.select(fields)
+                .from(RUNS)
                 .where(condition)
-                .fetchOne();
-
-        return RunStats.builder()
-                .count(record != null && record.get(0) != null ? (int) record.get(0) : 0)
-                .distance(record != null && record.get(1) != null ?
-                        ((BigDecimal) record.get(1)).intValue() : 0
-                ).avgSpeed(
-                        record != null && record.get(2) != null ?
-                                ((BigDecimal) record.get(2)).multiply(BigDecimal.valueOf(3.6D))
-                                        .setScale(2, RoundingMode.HALF_UP).doubleValue()
-                                : 0.00D
-                ).build();
-    }
-
-    private Run toRun(RunsRecord record) {
-        var startPoint = RunPoint.builder()
-                .datetime(record.getStartDatetime())
-                .latitude(record.getStartLatitude())
-                .longitude(record.getStartLongitude())
-                .build();
+                .fetchSingle();
 
-        var finishPoint = record.getFinishDatetime() != null ?
-                RunPoint.builder()
-                        .datetime(record.getFinishDatetime())
-                        .latitude(record.getFinishLatitude())
-                        .longitude(record.getFinishLongitude())
-                        .build() :
-                null;
-
-        return Run.builder()
-                .id(record.getId())
-                .userId(record.getUserId())
-                .startPoint(startPoint)
-                .finishPoint(finishPoint)
-                .distance(record.getDistance())
+        var stats = new StatsSum(
+                record.get(0, Long.class), record.get(1, Long.class), record.get(2, BigDecimal.class)
+        ).toRunStats();
+        var distributions = metrics.stream()
+                .map(metric -> metric.toMetric(
+                        record, metric.histogram(ctx, condition).fetchMap(Record2::value1, Record2::value2)
+                )).toList();
+
+        return RunDistribution.builder()
+                .count(stats.getCount())
+                .distance(stats.getDistance())
+                .avgSpeed(stats.getAvgSpeed())
+                .distances(distributions.get(0))
+                .durations(distributions.get(1))
+                .paces(distributions.get(2))
                 .build();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RunStatsBucket> getStatsSeriesByUser(long userId, @NonNull LocalDate from,
+                                                     @NonNull LocalDate to,
+                                                     @NonNull StatsInterval interval,
+                                                     @NonNull ZoneId zone) {
+        // the range is converted to UTC, so that runs are filtered by the index and partitions
+        var fromDatetime = toUtc(from.atStartOfDay(zone));
+        var toDatetime = toUtc(to.plusDays(1).atStartOfDay(zone));
+
+        // the zone is inlined, as the grouped expression must be the same in the select list.
+        // Fixed offsets are added explicitly, as PostgreSQL takes IDs like '+03:00' for POSIX zones
+        // whose offsets have the opposite sign
+        var rules = zone.getRules();
+        var localStart = rules.isFixedOffset() ?
+                field("{0} + {1} * interval '1 second'", SQLDataType.LOCALDATETIME,
+                        RUNS.START_DATETIME, inline(rules.getOffset(Instant.EPOCH).getTotalSeconds())) :
+                field("{0} at time zone 'UTC' at time zone {1}",
+                        SQLDataType.LOCALDATETIME, RUNS.START_DATETIME, inline(zone.getId()));
+        var bucket = field("date_trunc({0}, {1})", SQLDataType.LOCALDATETIME,
+                inline(interval.name().toLowerCase()), localStart).cast(SQLDataType.LOCALDATE);
+
+        var sums = ctx.select(bucket, count(RUNS.ID), sum(RUNS.DISTANCE), sum(RunQueries.SPEED))
+                .from(RUNS)
+                .where(RunQueries.finishedRunsOf(userId, fromDatetime, null))
+                .and(RUNS.START_DATETIME.lt(toDatetime))
+                .groupBy(bucket)
+                .fetchMap(Record4::value1, r -> new StatsSum(r.value2(), r.value3(), r.value4()));
+
+        // intervals without runs aren't selected, so they are filled in with empty statistics
+        var series = new ArrayList<RunStatsBucket>();
+        for (var start = interval.truncate(from); !start.isAfter(to); start = interval.next(start)) {
+            var stats = sums.getOrDefault(start, StatsSum.EMPTY).toRunStats();
+            series.add(RunStatsBucket.builder()
+                    .start(start)
+                    .count(stats.getCount())
+                    .distance(stats.getDistance())
+                    .avgSpeed(stats.getAvgSpeed())
+                    .build());
+        }
+        return series;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Run> getRunsNear(@NonNull RunEnd end, @NonNull GeoCircle circle, int limit) {
+        // only runs found by the cells of the bounding box are checked by the exact distance
+        var distance = RunQueries.haversine(latitudeOf(end), longitudeOf(end),
+                val(circle.latitude()), val(circle.longitude()));
+        return ctx.selectFrom(RUNS)
+                .where(within(end, circle.bounds()))
+                .and(distance.le((double) circle.radius()))
+                .orderBy(distance, RUNS.ID)
+                .limit(limit)
+                .fetchInto(RunsRecord.class)
+                .stream()
+                .map(this::toRun)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Run> getRunsWithin(@NonNull RunEnd end, @NonNull GeoBox box, int limit) {
+        return ctx.selectFrom(RUNS)
+                .where(within(end, box))
+                .orderBy(RUNS.START_DATETIME.desc(), RUNS.ID.desc())
+                .limit(limit)
+                .fetchInto(RunsRecord.class)
+                .stream()
+                .map(this::toRun)
+                .toList();
+    }
+
+    // package-private to be benchmarked
+    Run toRun(RunsRecord record) {
+        mappedRows.increment();
+        return RunQueries.toRun(record);
+    }
+
+    private static LocalDateTime toUtc(ZonedDateTime datetime) {
+        return datetime.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    // cells of the box are looked up by idx_runs_start_cell or idx_runs_finish_cell,
+    // and points of the cells outside of the box are filtered out by the coordinates,
+    // package-private to check plans of the queries
+    static Condition within(RunEnd end, GeoBox box) {
+        var cell = switch (end) {
+            case START -> RUNS.START_CELL;
+            case FINISH -> RUNS.FINISH_CELL;
+        };
+        var cells = GeoCell.cover(box).stream()
+                .map(range -> cell.between(range.from(), range.to()))
+                .toList();
+
+        var longitude = longitudeOf(end);
+        var longitudes = box.crossesAntimeridian() ?
+                longitude.ge(box.minLongitudeE6()).or(longitude.le(box.maxLongitudeE6())) :
+                longitude.between(box.minLongitudeE6(), box.maxLongitudeE6());
+        return or(cells)
+                .and(latitudeOf(end).between(box.minLatitudeE6(), box.maxLatitudeE6()))
+                .and(longitudes);
+    }
+
+    private static Field<Integer> latitudeOf(RunEnd end) {
+        return switch (end) {
+            case START -> RUNS.START_LATITUDE;
+            case FINISH -> RUNS.FINISH_LATITUDE;
+        };
+    }
+
+    private static Field<Integer> longitudeOf(RunEnd end) {
+        return switch (end) {
+            case START -> RUNS.START_LONGITUDE;
+            case FINISH -> RUNS.FINISH_LONGITUDE;
+        };
+    }
 }
@@ -0,0 +1,107 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACK_CHUNKS;
+
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import com.bit.galleog.runtracker.domain.tables.records.RunTracksRecord;
+import com.bit.galleog.runtracker.repository.TrackRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.Validate;
+import org.jooq.DSLContext;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link TrackRepository}. Every batch of appended points is stored
+ * as a chunk encoded by {@link TrackCodec}, and the summary of the track is updated along with it.
+ *
+ * @author Oleg_Galkin
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = RepositoryMetrics.TIMER_NAME, histogram = true)
+public class JooqTrackRepository implements TrackRepository {
+    private final DSLContext ctx;
+
+    @Override
+    @Transactional
+    public RunTrack appendPoints(long runId, @NonNull List<RunPoint> points, double distance) {
+        Validate.notEmpty(points);
+
+        var last = points.get(points.size() - 1);
+        var record = ctx.insertInto(RUN_TRACKS)
+                .set(RUN_TRACKS.RUN_ID, runId)
+                .set(RUN_TRACKS.POINT_COUNT, points.size())
+                .set(RUN_TRACKS.CHUNK_COUNT, 1)
+                .set(RUN_TRACKS.DISTANCE, distance)
+                .set(RUN_TRACKS.LAST_DATETIME, last.getDatetime())
+                .set(RUN_TRACKS.LAST_LATITUDE, last.getLatitudeE6())
+                .set(RUN_TRACKS.LAST_LONGITUDE, last.getLongitudeE6())
+                .onConflict(RUN_TRACKS.RUN_ID)
+                .doUpdate()
+                .set(RUN_TRACKS.POINT_COUNT, RUN_TRACKS.POINT_COUNT.plus(points.size()))
+                .set(RUN_TRACKS.CHUNK_COUNT, RUN_TRACKS.CHUNK_COUNT.plus(1))
+                .set(RUN_TRACKS.DISTANCE, RUN_TRACKS.DISTANCE.plus(distance))
+                .set(RUN_TRACKS.LAST_DATETIME, last.getDatetime())
+                .set(RUN_TRACKS.LAST_LATITUDE, last.getLatitudeE6())
+                .set(RUN_TRACKS.LAST_LONGITUDE, last.getLongitudeE6())
+                .returning()
+                .fetchOne();
+
+        ctx.insertInto(RUN_TRACK_CHUNKS)
+                .set(RUN_TRACK_CHUNKS.RUN_ID, runId)
+                .set(RUN_TRACK_CHUNKS.SEQ, record.getChunkCount() - 1)
+                .set(RUN_TRACK_CHUNKS.POINT_COUNT, points.size())
+                .set(RUN_TRACK_CHUNKS.DATA, TrackCodec.encode(points))
+                .execute();
+
+        return toRunTrack(record);
+    }
+
+    @Override
+    public Optional<RunTrack> getTrack(long runId) {
+        return ctx.selectFrom(RUN_TRACKS)
+                .where(RUN_TRACKS.RUN_ID.eq(runId))
+                .fetchOptional()
+                .map(this::toRunTrack);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RunPoint> getPoints(long runId) {
+        var count = ctx.select(RUN_TRACKS.POINT_COUNT)
+                .from(RUN_TRACKS)
+                .where(RUN_TRACKS.RUN_ID.eq(runId))
+                .fetchOptional(RUN_TRACKS.POINT_COUNT)
+                .orElse(0);
+
+        var points = new ArrayList<RunPoint>(count);
+        ctx.select(RUN_TRACK_CHUNKS.DATA)
+                .from(RUN_TRACK_CHUNKS)
+                .where(RUN_TRACK_CHUNKS.RUN_ID.eq(runId))
+                .orderBy(RUN_TRACK_CHUNKS.SEQ)
+                .fetch(RUN_TRACK_CHUNKS.DATA)
+                .forEach(data -> points.addAll(TrackCodec.decode(data)));
+        return points;
+    }
+
+    private RunTrack toRunTrack(RunTracksRecord record) {
+        return RunTrack.builder()
+                .runId(record.getRunId())
+                .pointCount(record.getPointCount())
+                .distance(record.getDistance())
+                .lastPoint(RunPoint.ofMicroDegrees(
+                        record.getLastDatetime(),
+                        record.getLastLatitude(),
+                        record.getLastLongitude()
+                )).build();
+    }
+}
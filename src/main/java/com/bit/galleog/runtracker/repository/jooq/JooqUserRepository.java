@@ -5,15 +5,20 @@ import static com.bit.galleog.runtracker.domain.Tables.USERS;
 
 import com.bit.galleog.runtracker.domain.User;
 import com.bit.galleog.runtracker.domain.tables.records.UsersRecord;
+import com.bit.galleog.runtracker.model.UserCursor;
 import com.bit.galleog.runtracker.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.jooq.DSLContext;
+import org.jooq.ResultQuery;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementation of {@link UserRepository} using <a href="https://www.jooq.org/">jOOQ</a>.
@@ -21,9 +26,19 @@ import java.util.Optional;
  * @author Oleg_Galkin
  */
 @Repository
-@RequiredArgsConstructor
+@Timed(value = RepositoryMetrics.TIMER_NAME, histogram = true)
 public class JooqUserRepository implements UserRepository {
+    private static final int FETCH_SIZE = 500;   // number of rows fetched by a cursor at once
+
     private final DSLContext ctx;
+    private final SequenceIdAllocator idAllocator;
+    private final Counter mappedRows;
+
+    public JooqUserRepository(@NonNull DSLContext ctx, @NonNull MeterRegistry meterRegistry) {
+        this.ctx = ctx;
+        this.idAllocator = new SequenceIdAllocator(ctx, USERS_SEQ);
+        this.mappedRows = RepositoryMetrics.mappedRows(meterRegistry, "user");
+    }
 
     @Override
     @Transactional(readOnly = true)
@@ -44,12 +59,43 @@ public class JooqUserRepository implements UserRepository {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsers(UserCursor after, int limit) {
+        var query = ctx.selectFrom(USERS)
+                .orderBy(USERS.LAST_NAME, USERS.FIRST_NAME, USERS.ID);
+
+        // the row comparison (last_name, first_name, id) > (?, ?, ?) uses idx_last_first_names
+        ResultQuery<UsersRecord> page = after != null ?
+                query.seek(after.getLastName(), after.getFirstName(), after.getId()).limit(limit) :
+                query.limit(limit);
+
+        return page.fetchInto(UsersRecord.class)
+                .stream()
+                .map(this::toUser)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(@NonNull Consumer<? super User> action) {
+        // the PostgreSQL driver uses a server-side cursor only inside a transaction
+        try (var cursor = ctx.selectFrom(USERS)
+                .orderBy(USERS.LAST_NAME, USERS.FIRST_NAME, USERS.ID)
+                .fetchSize(FETCH_SIZE)
+                .fetchLazy()) {
+            cursor.forEach(record -> action.accept(toUser(record)));
+        }
+    }
+
     @Override
     @Transactional
     public User create(@NonNull User user) {
         var record = ctx.newRecord(USERS);
         record.from(user);
-        record.setId(ctx.nextval(USERS_SEQ));
+        record.setId(idAllocator.next());
+        // new users get the default version
+        record.reset(USERS.VERSION);
 
         record.insert();
 
@@ -64,6 +110,7 @@ public class JooqUserRepository implements UserRepository {
                 .set(USERS.LAST_NAME, user.getLastName())
                 .set(USERS.BIRTH_DATE, user.getBirthDate())
                 .set(USERS.SEX, user.getSex())
+                .set(USERS.VERSION, USERS.VERSION.plus(1))
                 .where(USERS.ID.eq(id))
                 .returning()
                 .fetchOptionalInto(UsersRecord.class)
@@ -79,13 +126,17 @@ public class JooqUserRepository implements UserRepository {
         return count == 1;
     }
 
-    private User toUser(UsersRecord record) {
+    // package-private to be benchmarked
+    User toUser(UsersRecord record) {
+        mappedRows.increment();
+
         return User.builder()
                 .id(record.getId())
                 .firstName(record.getFirstName())
                 .lastName(record.getLastName())
                 .birthDate(record.getBirthDate())
                 .sex(record.getSex())
+                .version(record.getVersion())
                 .build();
     }
 }
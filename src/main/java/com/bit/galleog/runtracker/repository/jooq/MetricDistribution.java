@@ -0,0 +1,106 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.percentileCont;
+import static org.jooq.impl.DSL.widthBucket;
+
+import com.bit.galleog.runtracker.domain.RunDistribution;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record2;
+import org.jooq.ResultQuery;
+import org.jooq.impl.SQLDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distribution of an attribute of runs calculated by the database. Percentiles are calculated
+ * by {@code percentile_cont}, and the histogram is counted by {@code width_bucket}
+ * for fixed buckets, so only the results are transferred.
+ *
+ * @author Oleg_Galkin
+ */
+final class MetricDistribution {
+    /**
+     * Distances in meters, 2 km buckets up to a marathon.
+     */
+    static final MetricDistribution DISTANCE =
+            new MetricDistribution("distance", RUNS.DISTANCE.cast(SQLDataType.DOUBLE), 0, 42_000, 21);
+    /**
+     * Durations in seconds, 10 min buckets up to 4 hours.
+     */
+    static final MetricDistribution DURATION =
+            new MetricDistribution("duration", RunQueries.DURATION.cast(SQLDataType.DOUBLE), 0, 14_400, 24);
+    /**
+     * Paces in seconds per kilometer, 30 sec buckets from 2 to 12 min/km.
+     */
+    static final MetricDistribution PACE = new MetricDistribution("pace", RunQueries.PACE, 120, 720, 20);
+
+    private final Field<Double> value;
+    private final double low;
+    private final double high;
+    private final int buckets;
+    private final Field<Double> p50;
+    private final Field<Double> p90;
+    private final Field<Double> p99;
+
+    private MetricDistribution(String name, Field<Double> value, double low, double high, int buckets) {
+        this.value = value;
+        this.low = low;
+        this.high = high;
+        this.buckets = buckets;
+        // aliased to be distinguished in the record of all percentiles
+        this.p50 = percentileCont(0.5).withinGroupOrderBy(value).as(name + "_p50");
+        this.p90 = percentileCont(0.9).withinGroupOrderBy(value).as(name + "_p90");
+        this.p99 = percentileCont(0.99).withinGroupOrderBy(value).as(name + "_p99");
+    }
+
+    /**
+     * Gets the aggregate functions calculating the percentiles of the attribute.
+     */
+    List<Field<Double>> percentiles() {
+        return List.of(p50, p90, p99);
+    }
+
+    /**
+     * Builds the query counting runs in each bucket. Bucket 0 counts values below the range,
+     * and the bucket following the last one counts values above it. Empty buckets aren't selected.
+     */
+    ResultQuery<Record2<Integer, Integer>> histogram(DSLContext ctx, Condition condition) {
+        var bucket = widthBucket(value, low, high, buckets).coerce(Integer.class);
+        return ctx.select(bucket, count())
+                .from(RUNS)
+                .where(condition.and(value.isNotNull()))
+                .groupBy(bucket);
+    }
+
+    /**
+     * Creates the distribution of the attribute.
+     *
+     * @param percentiles the record containing the {@link #percentiles()}
+     * @param counts      the numbers of runs by buckets selected by {@link #histogram}
+     */
+    RunDistribution.Metric toMetric(Record percentiles, Map<Integer, Integer> counts) {
+        var width = (high - low) / buckets;
+        var histogram = new ArrayList<RunDistribution.Bucket>(buckets + 2);
+        for (int i = 0; i <= buckets + 1; i++) {
+            histogram.add(RunDistribution.Bucket.builder()
+                    .from(i > 0 ? low + (i - 1) * width : null)
+                    .to(i <= buckets ? low + i * width : null)
+                    .count(counts.getOrDefault(i, 0))
+                    .build());
+        }
+
+        return RunDistribution.Metric.builder()
+                .p50(percentiles.get(p50))
+                .p90(percentiles.get(p90))
+                .p99(percentiles.get(p99))
+                .histogram(histogram)
+                .build();
+    }
+}
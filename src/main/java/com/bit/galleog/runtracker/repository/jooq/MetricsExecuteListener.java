@@ -0,0 +1,56 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.springframework.lang.NonNull;
+
+import java.util.Locale;
+
+/**
+ * jOOQ listener that times execution of SQL statements. Statements are tagged
+ * only by their type (read, write, batch etc.) and outcome to keep the number of time series low.
+ *
+ * @author Oleg_Galkin
+ */
+@RequiredArgsConstructor
+public class MetricsExecuteListener implements ExecuteListener {
+    /**
+     * Name of the timer of executed statements.
+     */
+    public static final String TIMER_NAME = "runtracker.jooq.execution";
+
+    private static final String SAMPLE_KEY = MetricsExecuteListener.class.getName() + ".sample";
+
+    @NonNull
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        ctx.data(SAMPLE_KEY, Timer.start(meterRegistry));
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        stop(ctx, "success");
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        stop(ctx, "error");
+    }
+
+    private void stop(ExecuteContext ctx, String outcome) {
+        // the sample is removed, so the statement isn't timed twice
+        if (ctx.data().remove(SAMPLE_KEY) instanceof Timer.Sample sample) {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Execution time of SQL statements")
+                    .tag("type", ctx.type().name().toLowerCase(Locale.ROOT))
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
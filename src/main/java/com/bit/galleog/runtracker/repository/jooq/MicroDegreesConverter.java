@@ -0,0 +1,31 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import org.jooq.impl.AbstractConverter;
+
+import java.math.BigDecimal;
+
+/**
+ * Converter of latitudes and longitudes stored as decimals with 6 fractional digits
+ * into micro-degrees, i.e. degrees multiplied by 10<sup>6</sup>.
+ * Used by generated jOOQ classes for coordinate columns.
+ *
+ * @author Oleg_Galkin
+ */
+public class MicroDegreesConverter extends AbstractConverter<BigDecimal, Integer> {
+    private static final int LATLNG_SCALE = 6;  // scale for latitude and longitude
+
+    public MicroDegreesConverter() {
+        super(BigDecimal.class, Integer.class);
+    }
+
+    @Override
+    public Integer from(BigDecimal databaseObject) {
+        return databaseObject != null ?
+                databaseObject.movePointRight(LATLNG_SCALE).intValueExact() : null;
+    }
+
+    @Override
+    public BigDecimal to(Integer userObject) {
+        return userObject != null ? BigDecimal.valueOf(userObject, LATLNG_SCALE) : null;
+    }
+}
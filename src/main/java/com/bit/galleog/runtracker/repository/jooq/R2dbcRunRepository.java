@@ -0,0 +1,106 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Sequences.RUNS_SEQ;
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static org.jooq.impl.DSL.val;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.tables.records.RunsRecord;
+import com.bit.galleog.runtracker.repository.ReactiveRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Implementation of {@link ReactiveRunRepository} executing the same statements
+ * as {@link JooqRunRepository} over R2DBC. It's enabled if {@code run-tracker.runs.api}
+ * is {@code reactive}.
+ *
+ * @author Oleg_Galkin
+ */
+@Repository
+@ConditionalOnProperty(name = "run-tracker.runs.api", havingValue = "reactive")
+public class R2dbcRunRepository implements ReactiveRunRepository {
+    private final DSLContext ctx;
+    private final ReactiveSequenceIdAllocator idAllocator;
+    private final Counter mappedRows;
+
+    public R2dbcRunRepository(@NonNull ConnectionFactory connectionFactory,
+                              @NonNull MeterRegistry meterRegistry) {
+        this.ctx = DSL.using(connectionFactory, SQLDialect.POSTGRES);
+        this.idAllocator = new ReactiveSequenceIdAllocator(ctx, RUNS_SEQ);
+        this.mappedRows = RepositoryMetrics.mappedRows(meterRegistry, "run");
+    }
+
+    @Override
+    public Mono<Run> startRun(long userId, @NonNull RunPoint point) {
+        return idAllocator.next()
+                .flatMap(id -> Mono.from(RunQueries.startRun(ctx, val(id), userId, point)))
+                .map(this::toRun);
+    }
+
+    @Override
+    public Mono<Run> finishStartedRun(long id, @NonNull RunPoint point,
+                                      @Nullable Integer distance) {
+        // the aggregated statistics are updated in the same transaction
+        return Mono.from(ctx.transactionPublisher(trx -> {
+            var tx = trx.dsl();
+            return Mono.from(RunQueries.finishStartedRun(tx, id, point, distance))
+                    .flatMap(record -> Flux.from(RunQueries.addToStats(tx, RunQueries.runOf(record)))
+                            .then(Mono.just(record)));
+        })).map(this::toRun);
+    }
+
+    @Override
+    public Mono<Run> getById(long id) {
+        return Mono.from(ctx.selectFrom(RUNS).where(RUNS.ID.eq(id)))
+                .map(this::toRun);
+    }
+
+    @Override
+    public Flux<Run> getRunsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                   @Nullable LocalDateTime toDatetime) {
+        return Flux.from(ctx.selectFrom(RUNS)
+                        .where(RunQueries.finishedRunsOf(userId, fromDatetime, toDatetime))
+                        .orderBy(RUNS.START_DATETIME, RUNS.ID))
+                .map(this::toRun);
+    }
+
+    @Override
+    public Mono<RunStats> getStatsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                         @Nullable LocalDateTime toDatetime) {
+        return Flux.fromIterable(RunQueries.sumStats(ctx, userId, fromDatetime, toDatetime))
+                .concatMap(query -> Mono.from(query).map(StatsSum::of))
+                .reduce(StatsSum.EMPTY, StatsSum::plus)
+                .map(StatsSum::toRunStats);
+    }
+
+    @Override
+    public Mono<Long> getRunsVersion(long userId) {
+        return Mono.from(ctx.select(RUN_TOTAL_STATS.VERSION)
+                        .from(RUN_TOTAL_STATS)
+                        .where(RUN_TOTAL_STATS.USER_ID.eq(userId)))
+                .map(Record1::value1)
+                .defaultIfEmpty(0L);
+    }
+
+    private Run toRun(RunsRecord record) {
+        mappedRows.increment();
+        return RunQueries.toRun(record);
+    }
+}
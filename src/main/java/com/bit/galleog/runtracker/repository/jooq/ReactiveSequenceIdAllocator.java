@@ -0,0 +1,55 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.repository.jooq.SequenceIdAllocator.BLOCK_SIZE;
+
+import com.bit.galleog.runtracker.repository.jooq.SequenceIdAllocator.Block;
+import org.apache.commons.lang3.Validate;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Sequence;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link SequenceIdAllocator} for {@link DSLContext}s over R2DBC.
+ * Identifiers are allocated from the same blocks reserved by values of the sequence,
+ * so they never coincide with identifiers allocated by {@link SequenceIdAllocator}.
+ * <p/>
+ * The class is thread-safe and lock-free.
+ *
+ * @author Oleg_Galkin
+ */
+final class ReactiveSequenceIdAllocator {
+    private final DSLContext ctx;
+    private final Sequence<Long> sequence;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+
+    ReactiveSequenceIdAllocator(@NonNull DSLContext ctx, @NonNull Sequence<Long> sequence) {
+        Validate.notNull(ctx);
+        Validate.notNull(sequence);
+
+        this.ctx = ctx;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Allocates an identifier on subscription. The database is queried only if the current
+     * block is exhausted.
+     */
+    Mono<Long> next() {
+        return Mono.defer(() -> {
+            var current = block.get();
+            var id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return Mono.just(id);
+            }
+
+            // concurrent callers can reserve blocks at the same time, then all but one of them are lost
+            return Mono.from(ctx.select(sequence.nextval()))
+                    .map(Record1::value1)
+                    .doOnNext(lo -> block.compareAndSet(current, new Block(lo + 1, lo + BLOCK_SIZE)));
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Names and factories of metrics of repositories.
+ *
+ * @author Oleg_Galkin
+ */
+final class RepositoryMetrics {
+    /**
+     * Name of the timer of repository methods tagged by their class and method names.
+     */
+    static final String TIMER_NAME = "runtracker.repository";
+
+    /**
+     * Name of the counter of rows mapped to domain objects.
+     */
+    static final String MAPPED_ROWS_NAME = "runtracker.rows.mapped";
+
+    private RepositoryMetrics() {
+    }
+
+    /**
+     * Gets the counter of rows mapped to entities of the specified type.
+     *
+     * @param meterRegistry the registry of metrics
+     * @param entity        the type of entities, e.g. {@code run}
+     * @return the counter of mapped rows
+     */
+    static Counter mappedRows(MeterRegistry meterRegistry, String entity) {
+        return Counter.builder(MAPPED_ROWS_NAME)
+                .description("Number of database rows mapped to domain objects")
+                .tag("entity", entity)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,411 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static org.jooq.impl.DSL.any;
+import static org.jooq.impl.DSL.coalesce;
+import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.excluded;
+import static org.jooq.impl.DSL.localDateTimeDiff;
+import static org.jooq.impl.DSL.notExists;
+import static org.jooq.impl.DSL.nullif;
+import static org.jooq.impl.DSL.select;
+import static org.jooq.impl.DSL.selectOne;
+import static org.jooq.impl.DSL.sum;
+import static org.jooq.impl.DSL.val;
+
+import com.bit.galleog.runtracker.domain.GeoCell;
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.tables.records.RunsRecord;
+import org.jooq.Batch;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.DatePart;
+import org.jooq.Field;
+import org.jooq.InsertResultStep;
+import org.jooq.Record3;
+import org.jooq.Record4;
+import org.jooq.ResultQuery;
+import org.jooq.UpdateResultStep;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Queries on runs shared by the blocking and reactive repositories. The queries are built
+ * by the passed context, so they are executed by JDBC or R2DBC depending on its configuration.
+ *
+ * @author Oleg_Galkin
+ */
+final class RunQueries {
+    // duration of a run in seconds
+    static final Field<Integer> DURATION = localDateTimeDiff(
+            DatePart.SECOND, RUNS.START_DATETIME, RUNS.FINISH_DATETIME
+    );
+    // average speed of a run in m/s
+    static final Field<Integer> SPEED = RUNS.DISTANCE.divide(DURATION);
+    // average pace of a run in seconds per kilometer, undefined for runs with no distance
+    static final Field<Double> PACE = DURATION.cast(SQLDataType.DOUBLE)
+            .times(1000)
+            .divide(nullif(RUNS.DISTANCE, 0).cast(SQLDataType.DOUBLE));
+
+    private RunQueries() {
+    }
+
+    /**
+     * Builds the query inserting a started run.
+     *
+     * @param id the identifier of the run, e.g. the next value of the sequence
+     *           or allocated by {@link SequenceIdAllocator}
+     */
+    static InsertResultStep<RunsRecord> startRun(DSLContext ctx, Field<Long> id, long userId, RunPoint point) {
+        return ctx.insertInto(RUNS)
+                .columns(
+                        RUNS.ID,
+                        RUNS.USER_ID,
+                        RUNS.START_DATETIME,
+                        RUNS.START_LATITUDE,
+                        RUNS.START_LONGITUDE,
+                        RUNS.START_CELL
+                ).values(
+                        id,
+                        val(userId),
+                        val(point.getDatetime()),
+                        val(point.getLatitudeE6(), RUNS.START_LATITUDE),
+                        val(point.getLongitudeE6(), RUNS.START_LONGITUDE),
+                        val(GeoCell.of(point))
+                ).returning();
+    }
+
+    /**
+     * Builds the query finishing a run if it's started, and the finish point follows
+     * its start point and the last point of its track.
+     */
+    static UpdateResultStep<RunsRecord> finishStartedRun(DSLContext ctx, long id, RunPoint point,
+                                                         @Nullable Integer distance) {
+        var latitude = val(point.getLatitude());
+        var longitude = val(point.getLongitude());
+
+        // if the distance isn't specified, it's calculated like RunService does
+        Field<Integer> dist = distance != null ? val(distance) : coalesce(
+                select(DSL.field(
+                        "cast(round({0} + {1}) as integer)", SQLDataType.INTEGER,
+                        RUN_TRACKS.DISTANCE,
+                        haversine(RUN_TRACKS.LAST_LATITUDE, RUN_TRACKS.LAST_LONGITUDE,
+                                latitude, longitude)
+                )).from(RUN_TRACKS)
+                        .where(RUN_TRACKS.RUN_ID.eq(RUNS.ID))
+                        .asField(),
+                DSL.field(
+                        "cast(floor({0}) as integer)", SQLDataType.INTEGER,
+                        haversine(RUNS.START_LATITUDE, RUNS.START_LONGITUDE, latitude, longitude)
+                )
+        );
+
+        return ctx.update(RUNS)
+                .set(RUNS.FINISH_DATETIME, point.getDatetime())
+                .set(RUNS.FINISH_LATITUDE, point.getLatitudeE6())
+                .set(RUNS.FINISH_LONGITUDE, point.getLongitudeE6())
+                .set(RUNS.FINISH_CELL, GeoCell.of(point))
+                .set(RUNS.DISTANCE, dist)
+                .where(RUNS.ID.eq(id))
+                .and(RUNS.FINISH_DATETIME.isNull())
+                .and(RUNS.START_DATETIME.lt(point.getDatetime()))
+                .and(notExists(
+                        selectOne().from(RUN_TRACKS)
+                                .where(RUN_TRACKS.RUN_ID.eq(RUNS.ID))
+                                .and(RUN_TRACKS.LAST_DATETIME.ge(point.getDatetime()))
+                )).returning();
+    }
+
+    /**
+     * Builds the queries summing runs of the user for statistics. Runs started on days
+     * entirely covered by the range are taken from the aggregated statistics, and only runs
+     * started on partially covered days are read. Results of the queries should be added up.
+     */
+    static List<ResultQuery<? extends Record3<? extends Number, ? extends Number, BigDecimal>>> sumStats(
+            DSLContext ctx, long userId, @Nullable LocalDateTime fromDatetime,
+            @Nullable LocalDateTime toDatetime) {
+        if (fromDatetime == null && toDatetime == null) {
+            return List.of(ctx.select(
+                            RUN_TOTAL_STATS.RUN_COUNT,
+                            RUN_TOTAL_STATS.TOTAL_DISTANCE,
+                            RUN_TOTAL_STATS.SPEED_SUM
+                    ).from(RUN_TOTAL_STATS)
+                    .where(RUN_TOTAL_STATS.USER_ID.eq(userId)));
+        }
+
+        var days = EntireDays.of(fromDatetime, toDatetime);
+        if (days.isEmpty()) {
+            return List.of(sumRuns(ctx, finishedRunsOf(userId, fromDatetime, toDatetime)));
+        }
+
+        return List.of(
+                ctx.select(
+                                sum(RUN_DAILY_STATS.RUN_COUNT),
+                                sum(RUN_DAILY_STATS.TOTAL_DISTANCE),
+                                sum(RUN_DAILY_STATS.SPEED_SUM)
+                        ).from(RUN_DAILY_STATS)
+                        .where(RUN_DAILY_STATS.USER_ID.eq(userId))
+                        .and(days.dailyCondition()),
+                sumRuns(ctx, finishedRunsOf(userId, null, null)
+                        .and(days.edgeCondition(fromDatetime, toDatetime)))
+        );
+    }
+
+    /**
+     * Builds the queries summing runs of the users for statistics like {@link #sumStats} does,
+     * but the sums are grouped by the users. The users are bound as a single array parameter,
+     * so the number of users doesn't change the statements. Users without runs aren't selected.
+     */
+    static List<ResultQuery<? extends Record4<Long, ? extends Number, ? extends Number, BigDecimal>>>
+    sumStatsByUsers(DSLContext ctx, Long[] userIds, @Nullable LocalDateTime fromDatetime,
+                    @Nullable LocalDateTime toDatetime) {
+        if (fromDatetime == null && toDatetime == null) {
+            return List.of(ctx.select(
+                            RUN_TOTAL_STATS.USER_ID,
+                            RUN_TOTAL_STATS.RUN_COUNT,
+                            RUN_TOTAL_STATS.TOTAL_DISTANCE,
+                            RUN_TOTAL_STATS.SPEED_SUM
+                    ).from(RUN_TOTAL_STATS)
+                    .where(RUN_TOTAL_STATS.USER_ID.eq(any(val(userIds)))));
+        }
+
+        var days = EntireDays.of(fromDatetime, toDatetime);
+        if (days.isEmpty()) {
+            return List.of(sumRunsByUser(ctx, finishedRunsOf(userIds, fromDatetime, toDatetime)));
+        }
+
+        return List.of(
+                ctx.select(
+                                RUN_DAILY_STATS.USER_ID,
+                                sum(RUN_DAILY_STATS.RUN_COUNT),
+                                sum(RUN_DAILY_STATS.TOTAL_DISTANCE),
+                                sum(RUN_DAILY_STATS.SPEED_SUM)
+                        ).from(RUN_DAILY_STATS)
+                        .where(RUN_DAILY_STATS.USER_ID.eq(any(val(userIds))))
+                        .and(days.dailyCondition())
+                        .groupBy(RUN_DAILY_STATS.USER_ID),
+                sumRunsByUser(ctx, finishedRunsOf(userIds, null, null)
+                        .and(days.edgeCondition(fromDatetime, toDatetime)))
+        );
+    }
+
+    /**
+     * Builds the batch adding runs that have been finished to the aggregated statistics.
+     * The batch should be executed in the same transaction the runs are finished.
+     */
+    static Batch addToStats(DSLContext ctx, Condition finishedRuns) {
+        var runDate = RUNS.START_DATETIME.cast(LocalDate.class);
+
+        var daily = ctx.insertInto(
+                        RUN_DAILY_STATS,
+                        RUN_DAILY_STATS.USER_ID,
+                        RUN_DAILY_STATS.RUN_DATE,
+                        RUN_DAILY_STATS.RUN_COUNT,
+                        RUN_DAILY_STATS.TOTAL_DISTANCE,
+                        RUN_DAILY_STATS.SPEED_SUM
+                ).select(
+                        select(
+                                RUNS.USER_ID,
+                                runDate,
+                                count(),
+                                sum(RUNS.DISTANCE).cast(SQLDataType.BIGINT),
+                                sum(SPEED)
+                        ).from(RUNS)
+                                .where(finishedRuns)
+                                .groupBy(RUNS.USER_ID, runDate)
+                ).onConflict(RUN_DAILY_STATS.USER_ID, RUN_DAILY_STATS.RUN_DATE)
+                .doUpdate()
+                .set(RUN_DAILY_STATS.RUN_COUNT,
+                        RUN_DAILY_STATS.RUN_COUNT.plus(excluded(RUN_DAILY_STATS.RUN_COUNT)))
+                .set(RUN_DAILY_STATS.TOTAL_DISTANCE,
+                        RUN_DAILY_STATS.TOTAL_DISTANCE.plus(excluded(RUN_DAILY_STATS.TOTAL_DISTANCE)))
+                .set(RUN_DAILY_STATS.SPEED_SUM,
+                        RUN_DAILY_STATS.SPEED_SUM.plus(excluded(RUN_DAILY_STATS.SPEED_SUM)));
+
+        var total = ctx.insertInto(
+                        RUN_TOTAL_STATS,
+                        RUN_TOTAL_STATS.USER_ID,
+                        RUN_TOTAL_STATS.RUN_COUNT,
+                        RUN_TOTAL_STATS.TOTAL_DISTANCE,
+                        RUN_TOTAL_STATS.SPEED_SUM
+                ).select(
+                        select(
+                                RUNS.USER_ID,
+                                count(),
+                                sum(RUNS.DISTANCE).cast(SQLDataType.BIGINT),
+                                sum(SPEED)
+                        ).from(RUNS)
+                                .where(finishedRuns)
+                                .groupBy(RUNS.USER_ID)
+                ).onConflict(RUN_TOTAL_STATS.USER_ID)
+                .doUpdate()
+                .set(RUN_TOTAL_STATS.RUN_COUNT,
+                        RUN_TOTAL_STATS.RUN_COUNT.plus(excluded(RUN_TOTAL_STATS.RUN_COUNT)))
+                .set(RUN_TOTAL_STATS.TOTAL_DISTANCE,
+                        RUN_TOTAL_STATS.TOTAL_DISTANCE.plus(excluded(RUN_TOTAL_STATS.TOTAL_DISTANCE)))
+                .set(RUN_TOTAL_STATS.SPEED_SUM,
+                        RUN_TOTAL_STATS.SPEED_SUM.plus(excluded(RUN_TOTAL_STATS.SPEED_SUM)))
+                // finished runs of the user have changed
+                .set(RUN_TOTAL_STATS.VERSION, RUN_TOTAL_STATS.VERSION.plus(1));
+
+        return ctx.batch(daily, total);
+    }
+
+    /**
+     * Gets the condition selecting the run of the record. The start datetime is added
+     * to the identifier to scan only the partition the run belongs to.
+     */
+    static Condition runOf(RunsRecord record) {
+        return RUNS.ID.eq(record.getId()).and(RUNS.START_DATETIME.eq(record.getStartDatetime()));
+    }
+
+    /**
+     * Gets the condition selecting finished runs of the user started in the range.
+     * The bounds of the range make the planner scan only the partitions overlapping it.
+     */
+    static Condition finishedRunsOf(long userId, @Nullable LocalDateTime fromDatetime,
+                                    @Nullable LocalDateTime toDatetime) {
+        return finishedRunsWhere(RUNS.USER_ID.eq(userId), fromDatetime, toDatetime);
+    }
+
+    /**
+     * Gets the condition selecting finished runs of any of the users started in the range.
+     */
+    static Condition finishedRunsOf(Long[] userIds, @Nullable LocalDateTime fromDatetime,
+                                    @Nullable LocalDateTime toDatetime) {
+        return finishedRunsWhere(RUNS.USER_ID.eq(any(val(userIds))), fromDatetime, toDatetime);
+    }
+
+    private static Condition finishedRunsWhere(Condition users, @Nullable LocalDateTime fromDatetime,
+                                               @Nullable LocalDateTime toDatetime) {
+        var condition = users.and(RUNS.FINISH_DATETIME.isNotNull());
+        if (fromDatetime != null) {
+            condition = condition.and(RUNS.START_DATETIME.ge(fromDatetime));
+        }
+        if (toDatetime != null) {
+            condition = condition.and(RUNS.START_DATETIME.le(toDatetime));
+        }
+        return condition;
+    }
+
+    /**
+     * Calculates distance between two points using Haversine method like
+     * {@link RunPoint#calcPreciseDistanceTo(RunPoint)} does.
+     *
+     * @param lat1 the latitude of the first point in degrees
+     * @param lng1 the longitude of the first point in degrees
+     * @param lat2 the latitude of the second point in degrees
+     * @param lng2 the longitude of the second point in degrees
+     * @return the distance in meters
+     */
+    static Field<Double> haversine(Field<?> lat1, Field<?> lng1, Field<?> lat2, Field<?> lng2) {
+        return DSL.field(
+                "2 * {0} * asin(sqrt(power(sin(radians({3} - {1}) / 2), 2) + " +
+                        "cos(radians({1})) * cos(radians({3})) * " +
+                        "power(sin(radians({4} - {2}) / 2), 2)))",
+                SQLDataType.DOUBLE,
+                DSL.inline(RunPoint.EARTH_RADIUS), lat1, lng1, lat2, lng2
+        );
+    }
+
+    /**
+     * Maps a record to a run.
+     */
+    static Run toRun(RunsRecord record) {
+        // coordinates are converted to micro-degrees by MicroDegreesConverter
+        var startPoint = RunPoint.ofMicroDegrees(
+                record.getStartDatetime(),
+                record.getStartLatitude(),
+                record.getStartLongitude()
+        );
+
+        var finishPoint = record.getFinishDatetime() != null ?
+                RunPoint.ofMicroDegrees(
+                        record.getFinishDatetime(),
+                        record.getFinishLatitude(),
+                        record.getFinishLongitude()
+                ) :
+                null;
+
+        return Run.builder()
+                .id(record.getId())
+                .userId(record.getUserId())
+                .startPoint(startPoint)
+                .finishPoint(finishPoint)
+                .distance(record.getDistance())
+                .build();
+    }
+
+    private static ResultQuery<Record3<Integer, BigDecimal, BigDecimal>> sumRuns(DSLContext ctx,
+                                                                               Condition condition) {
+        return ctx.select(count(RUNS.ID), sum(RUNS.DISTANCE), sum(SPEED))
+                .from(RUNS)
+                .where(condition);
+    }
+
+    private static ResultQuery<Record4<Long, Integer, BigDecimal, BigDecimal>> sumRunsByUser(
+            DSLContext ctx, Condition condition) {
+        return ctx.select(RUNS.USER_ID, count(RUNS.ID), sum(RUNS.DISTANCE), sum(SPEED))
+                .from(RUNS)
+                .where(condition)
+                .groupBy(RUNS.USER_ID);
+    }
+
+    /**
+     * Days entirely covered by a range of datetimes. Runs started on them are taken
+     * from the aggregated statistics, and runs started on the edges of the range are read.
+     *
+     * @param first the first entire day, or {@code null} if the range isn't bounded below
+     * @param next  the day after the last entire day, or {@code null} if the range isn't bounded above
+     */
+    private record EntireDays(@Nullable LocalDate first, @Nullable LocalDate next) {
+        static EntireDays of(@Nullable LocalDateTime fromDatetime, @Nullable LocalDateTime toDatetime) {
+            return new EntireDays(
+                    fromDatetime != null ?
+                            (fromDatetime.toLocalTime().equals(LocalTime.MIDNIGHT) ?
+                                    fromDatetime.toLocalDate() : fromDatetime.toLocalDate().plusDays(1)) :
+                            null,
+                    toDatetime != null ? toDatetime.toLocalDate() : null
+            );
+        }
+
+        boolean isEmpty() {
+            return first != null && next != null && !first.isBefore(next);
+        }
+
+        Condition dailyCondition() {
+            var condition = DSL.noCondition();
+            if (first != null) {
+                condition = condition.and(RUN_DAILY_STATS.RUN_DATE.ge(first));
+            }
+            if (next != null) {
+                condition = condition.and(RUN_DAILY_STATS.RUN_DATE.lt(next));
+            }
+            return condition;
+        }
+
+        Condition edgeCondition(@Nullable LocalDateTime fromDatetime, @Nullable LocalDateTime toDatetime) {
+            var condition = DSL.noCondition();
+            if (first != null) {
+                condition = condition.or(RUNS.START_DATETIME.ge(fromDatetime)
+                        .and(RUNS.START_DATETIME.lt(first.atStartOfDay())));
+            }
+            if (next != null) {
+                condition = condition.or(RUNS.START_DATETIME.ge(next.atStartOfDay())
+                        .and(RUNS.START_DATETIME.le(toDatetime)));
+            }
+            return condition;
+        }
+    }
+}
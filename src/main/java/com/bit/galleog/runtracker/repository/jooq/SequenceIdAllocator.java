@@ -0,0 +1,114 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static org.jooq.impl.DSL.generateSeries;
+
+import org.apache.commons.lang3.Validate;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Sequence;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Allocator of identifiers from blocks reserved by a sequence incremented by {@link #BLOCK_SIZE}.
+ * Each value {@code v} of the sequence reserves identifiers from {@code v} to
+ * {@code v + BLOCK_SIZE - 1} (the pooled-lo algorithm), so the database is queried once
+ * per {@link #BLOCK_SIZE} identifiers, and allocators of several application instances
+ * never return the same identifier. Inserts that use the next value of the sequence itself
+ * as an identifier can be mixed with the allocator. {@link ReactiveSequenceIdAllocator}
+ * allocates identifiers the same way without blocking.
+ * <p/>
+ * The class is thread-safe and lock-free. Identifiers are unique but not consecutive,
+ * and the rest of a block is lost when the application stops.
+ *
+ * @author Oleg_Galkin
+ */
+final class SequenceIdAllocator {
+    /**
+     * Number of identifiers reserved by a value of the sequence. It's equal to its increment.
+     */
+    static final int BLOCK_SIZE = 50;
+
+    private final DSLContext ctx;
+    private final Sequence<Long> sequence;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+
+    SequenceIdAllocator(@NonNull DSLContext ctx, @NonNull Sequence<Long> sequence) {
+        Validate.notNull(ctx);
+        Validate.notNull(sequence);
+
+        this.ctx = ctx;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Allocates an identifier. The database is queried only if the current block is exhausted.
+     */
+    long next() {
+        var current = block.get();
+        var id = current.next.getAndIncrement();
+        if (id < current.end) {
+            return id;
+        }
+
+        // concurrent callers can reserve blocks at the same time, then all but one of them are lost
+        var lo = ctx.nextval(sequence);
+        block.compareAndSet(current, new Block(lo + 1, lo + BLOCK_SIZE));
+        return lo;
+    }
+
+    /**
+     * Allocates identifiers at once. Blocks needed for the identifiers that the current block
+     * doesn't have are reserved by a single query.
+     *
+     * @param count the number of identifiers
+     * @return the identifiers
+     */
+    List<Long> next(int count) {
+        Validate.isTrue(count >= 0, "Number of identifiers can't be negative");
+
+        var ids = new ArrayList<Long>(count);
+        var current = block.get();
+        var first = current.next.getAndAdd(count);
+        for (var id = first; id < Math.min(first + count, current.end); id++) {
+            ids.add(id);
+        }
+        if (ids.size() == count) {
+            return ids;
+        }
+
+        var blocks = (count - ids.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        var los = ctx.select(sequence.nextval())
+                .from(generateSeries(1, blocks))
+                .fetch(Record1::value1);
+
+        for (var lo : los) {
+            for (var id = lo; id < lo + BLOCK_SIZE && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+
+        // the rest of the last block is used by later calls
+        var next = ids.getLast() + 1;
+        var end = los.getLast() + BLOCK_SIZE;
+        if (next < end) {
+            block.compareAndSet(current, new Block(next, end));
+        }
+        return ids;
+    }
+
+    // identifiers from next (inclusive) to end (exclusive) that haven't been allocated yet
+    static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long next, long end) {
+            this.next = new AtomicLong(next);
+            this.end = end;
+        }
+    }
+}
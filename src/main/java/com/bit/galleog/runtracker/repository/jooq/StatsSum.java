@@ -0,0 +1,64 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import com.bit.galleog.runtracker.domain.RunStats;
+import org.jooq.Record3;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Sums of run attributes used to calculate statistics.
+ *
+ * @author Oleg_Galkin
+ */
+final class StatsSum {
+    /**
+     * Sums of no runs.
+     */
+    static final StatsSum EMPTY = new StatsSum(null, null, null);
+
+    private final long count;
+    private final long distance;
+    private final BigDecimal speedSum;
+
+    StatsSum(@Nullable Number count, @Nullable Number distance, @Nullable BigDecimal speedSum) {
+        this.count = count != null ? count.longValue() : 0;
+        this.distance = distance != null ? distance.longValue() : 0;
+        this.speedSum = speedSum != null ? speedSum : BigDecimal.ZERO;
+    }
+
+    /**
+     * Creates sums from a record selected by one of {@link RunQueries#sumStats}.
+     *
+     * @param record the record containing the number of runs, the sum of their distances
+     *               and the sum of their speeds, or {@code null} if nothing was selected
+     * @return the sums
+     */
+    static StatsSum of(@Nullable Record3<? extends Number, ? extends Number, BigDecimal> record) {
+        return record != null ? new StatsSum(record.value1(), record.value2(), record.value3()) : EMPTY;
+    }
+
+    StatsSum plus(StatsSum other) {
+        return new StatsSum(
+                this.count + other.count,
+                this.distance + other.distance,
+                this.speedSum.add(other.speedSum)
+        );
+    }
+
+    RunStats toRunStats() {
+        return RunStats.builder()
+                .count((int) count)
+                .distance((int) distance)
+                // the average is calculated by decimals, as doubles may round it to a different hundredth,
+                // e.g. 0.0625 m/s in total by 3 runs gives 0.075 km/h in doubles, which is rounded up
+                .avgSpeed(count > 0 ?
+                        speedSum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64)
+                                .multiply(BigDecimal.valueOf(3.6D))
+                                .setScale(2, RoundingMode.HALF_UP).doubleValue()
+                        : 0.00D
+                ).build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import com.bit.galleog.runtracker.domain.RunPoint;
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary format of track chunks.
+ * <p/>
+ * A chunk starts with the number of points followed by the datetime in milliseconds,
+ * the latitude and the longitude in micro-degrees of each point. Each value is stored
+ * as a difference with the same value of the previous point (zero for the first point)
+ * encoded by zigzag and variable-length encodings, so neighbouring points sampled once
+ * a second usually take 6-7 bytes instead of 16.
+ *
+ * @author Oleg_Galkin
+ */
+final class TrackCodec {
+    private static final int MAX_VARINT_SIZE = 10;  // maximum size of an encoded long
+    private static final int MAX_POINT_SIZE = 3 * MAX_VARINT_SIZE;
+
+    private TrackCodec() {
+    }
+
+    /**
+     * Encodes points into a chunk. Datetimes are truncated to milliseconds.
+     *
+     * @param points the points to encode
+     * @return the encoded chunk
+     */
+    static byte[] encode(@NonNull List<RunPoint> points) {
+        Validate.notNull(points);
+
+        var buffer = new byte[MAX_VARINT_SIZE + points.size() * MAX_POINT_SIZE];
+        var pos = writeVarint(buffer, 0, points.size());
+
+        long prevMillis = 0;
+        long prevLatitude = 0;
+        long prevLongitude = 0;
+        for (var point : points) {
+            var millis = point.getDatetime().toInstant(ZoneOffset.UTC).toEpochMilli();
+            pos = writeVarint(buffer, pos, zigzag(millis - prevMillis));
+            pos = writeVarint(buffer, pos, zigzag(point.getLatitudeE6() - prevLatitude));
+            pos = writeVarint(buffer, pos, zigzag(point.getLongitudeE6() - prevLongitude));
+
+            prevMillis = millis;
+            prevLatitude = point.getLatitudeE6();
+            prevLongitude = point.getLongitudeE6();
+        }
+
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    /**
+     * Decodes points of a chunk.
+     *
+     * @param data the encoded chunk
+     * @return the decoded points
+     */
+    static List<RunPoint> decode(@NonNull byte[] data) {
+        Validate.notNull(data);
+
+        var reader = new Reader(data);
+        var count = (int) reader.readVarint();
+        var points = new ArrayList<RunPoint>(count);
+
+        long millis = 0;
+        long latitude = 0;
+        long longitude = 0;
+        for (int i = 0; i < count; i++) {
+            millis += unzigzag(reader.readVarint());
+            latitude += unzigzag(reader.readVarint());
+            longitude += unzigzag(reader.readVarint());
+
+            var datetime = LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000,
+                    ZoneOffset.UTC
+            );
+            points.add(RunPoint.ofMicroDegrees(datetime, (int) latitude, (int) longitude));
+        }
+
+        Validate.validState(reader.pos == data.length, "Track chunk has trailing bytes");
+        return points;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Sequential reader of encoded values.
+     */
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                Validate.validState(pos < data.length, "Track chunk is truncated");
+
+                var b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Track chunk contains malformed value");
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.bit.galleog.runtracker.service;
+
+import com.bit.galleog.runtracker.config.LeaderboardProperties;
+import com.bit.galleog.runtracker.domain.AgeBand;
+import com.bit.galleog.runtracker.domain.LeaderboardEntry;
+import com.bit.galleog.runtracker.domain.LeaderboardMetric;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import com.bit.galleog.runtracker.leaderboard.Leaderboard;
+import com.bit.galleog.runtracker.repository.LeaderboardRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service to rank users by their runs in weekly and monthly leaderboards.
+ * <p/>
+ * Leaderboards are built from daily statistics of runs when they are requested first,
+ * kept in memory, and updated incrementally when runs are finished, so that requests
+ * don't query the database. Runs finished by other instances of the application are
+ * included when a leaderboard is rebuilt in the background after
+ * {@link LeaderboardProperties#refreshInterval()}. A leaderboard that could have been built
+ * after a run was finished is rebuilt instead of adding the run, so that it isn't counted twice.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@Service
+@Timed(value = "runtracker.service", histogram = true)
+public class LeaderboardService {
+    /**
+     * Maximum number of users that can be requested at once.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Name of the cache of leaderboards used to tag its metrics.
+     */
+    public static final String CACHE_NAME = "leaderboards";
+
+    private final LeaderboardRepository repository;
+    private final UserService userService;
+    private final LoadingCache<BoardKey, LoadedBoard> boards;
+
+    public LeaderboardService(@NonNull LeaderboardRepository repository, @NonNull UserService userService,
+                              @NonNull LeaderboardProperties properties, @NonNull MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.userService = userService;
+        this.boards = Caffeine.newBuilder()
+                .maximumSize(properties.maxPeriods())
+                .refreshAfterWrite(properties.refreshInterval())
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, this.boards, CACHE_NAME);
+    }
+
+    /**
+     * Gets the first users of a leaderboard.
+     *
+     * @param interval the period of the leaderboard, a week or a month
+     * @param date     a day of the period
+     * @param metric   the attribute users are ranked by
+     * @param sex      the optional sex to rank only users of
+     * @param ageBand  the optional age band to rank only users of
+     * @param limit    the maximum number of users to return
+     * @return the users with the highest scores in the order of their ranks
+     * @throws IllegalArgumentException if the interval is a day, or {@code limit} isn't positive
+     *                                  or exceeds {@link #MAX_LIMIT}
+     */
+    public List<LeaderboardEntry> getTop(@NonNull StatsInterval interval, @NonNull LocalDate date,
+                                         @NonNull LeaderboardMetric metric, @Nullable Sex sex,
+                                         @Nullable AgeBand ageBand, int limit) {
+        Validate.inclusiveBetween(1, MAX_LIMIT, limit);
+        return getBoard(interval, date).top(metric, sex, ageBand, limit);
+    }
+
+    /**
+     * Gets the position of a user in a leaderboard.
+     *
+     * @param interval the period of the leaderboard, a week or a month
+     * @param date     a day of the period
+     * @param metric   the attribute users are ranked by
+     * @param sex      the optional sex to rank only users of
+     * @param ageBand  the optional age band to rank only users of
+     * @param userId   the user's identifier
+     * @return the position of the user, or {@link Optional#empty()} if the user has no runs
+     * in the period or doesn't match the filters
+     * @throws IllegalArgumentException if the interval is a day
+     */
+    public Optional<LeaderboardEntry> getEntry(@NonNull StatsInterval interval, @NonNull LocalDate date,
+                                               @NonNull LeaderboardMetric metric, @Nullable Sex sex,
+                                               @Nullable AgeBand ageBand, long userId) {
+        return getBoard(interval, date).entryOf(metric, sex, ageBand, userId);
+    }
+
+    /**
+     * Adds the finished run to the leaderboards of its week and month that are in memory.
+     * Leaderboards that aren't loaded yet will include the run when they are built,
+     * and leaderboards built after the run could have been committed are rebuilt.
+     * The event is handled after the transaction finishing the run is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRunFinished(@NonNull RunFinishedEvent event) {
+        var run = event.run();
+        var date = run.getStartPoint().getDatetime().toLocalDate();
+        var loaded = new ArrayList<Leaderboard>(2);
+        for (var interval : List.of(StatsInterval.WEEK, StatsInterval.MONTH)) {
+            var key = new BoardKey(interval, interval.truncate(date));
+            var board = boards.getIfPresent(key);
+            if (board == null) {
+                continue;
+            }
+
+            if (event.timestamp() - board.loadedAt() > 0) {
+                loaded.add(board.board());
+            } else {
+                // daily statistics could be read after the run was committed and include it already
+                boards.refresh(key);
+            }
+        }
+        if (loaded.isEmpty()) {
+            return;
+        }
+
+        var user = userService.getUserById(run.getUserId());
+        if (user.isEmpty()) {
+            logger.warn("User of run {} isn't found to rank them", run.getId());
+            return;
+        }
+
+        // fractions of a second are kept, as they are by the database, so the duration is positive
+        var seconds = ChronoUnit.NANOS.between(
+                run.getStartPoint().getDatetime(), run.getFinishPoint().getDatetime()
+        ) / 1.0E9D;
+        var totals = UserRunTotals.builder()
+                .userId(run.getUserId())
+                .sex(user.get().getSex())
+                .birthDate(user.get().getBirthDate())
+                .count(1)
+                .distance(run.getDistance())
+                .speedSum(run.getDistance() / seconds)
+                .build();
+        loaded.forEach(board -> board.add(totals));
+    }
+
+    private Leaderboard getBoard(StatsInterval interval, LocalDate date) {
+        Validate.notNull(interval);
+        Validate.notNull(date);
+        Validate.isTrue(interval != StatsInterval.DAY, "Leaderboards are weekly or monthly");
+
+        return boards.get(new BoardKey(interval, interval.truncate(date))).board();
+    }
+
+    private LoadedBoard load(BoardKey key) {
+        var board = new Leaderboard(key.start());
+        repository.forEachUserTotals(key.start(), key.interval().next(key.start()), board::add);
+        logger.debug("Leaderboard for {} starting on {} built", key.interval(), key.start());
+        // statistics are read before this, so runs finished after this aren't included
+        return new LoadedBoard(board, System.nanoTime());
+    }
+
+    private record BoardKey(StatsInterval interval, LocalDate start) {
+    }
+
+    private record LoadedBoard(Leaderboard board, long loadedAt) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.bit.galleog.runtracker.service;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.repository.ReactiveRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.Validate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking service to work with user's runs. It's enabled
+ * if {@code run-tracker.runs.api} is {@code reactive}.
+ *
+ * @author Oleg_Galkin
+ * @see RunService
+ */
+@Service
+@ConditionalOnProperty(name = "run-tracker.runs.api", havingValue = "reactive")
+public class ReactiveRunService {
+    private final ReactiveRunRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter startedRuns;
+    private final Counter finishedRuns;
+    private final Counter failedRuns;
+
+    public ReactiveRunService(@NonNull ReactiveRunRepository repository,
+                              @NonNull ApplicationEventPublisher eventPublisher,
+                              @NonNull MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.startedRuns = RunService.runEvents(meterRegistry, "started");
+        this.finishedRuns = RunService.runEvents(meterRegistry, "finished");
+        this.failedRuns = RunService.runEvents(meterRegistry, "failed");
+    }
+
+    /**
+     * Starts a new run.
+     *
+     * @param userId the user who runs
+     * @param point  the datetime and coordinates where the user started running
+     * @return the newly created run
+     */
+    public Mono<Run> startRun(long userId, @NonNull RunPoint point) {
+        Validate.notNull(point);
+
+        return repository.startRun(userId, point)
+                .doOnNext(run -> startedRuns.increment())
+                .doOnError(e -> failedRuns.increment());
+    }
+
+    /**
+     * Finishes the run specified by its identifier. The run is validated and updated
+     * by a single statement, and is read only if it couldn't be updated to find out why.
+     * {@link RunFinishedEvent} is published for the finished run.
+     *
+     * @param id       the run identifier
+     * @param point    the point when and where the run was finished
+     * @param distance the optional distance the user ran
+     * @return the updated run or an empty {@link Mono}
+     * if there is no run with the specified identifier. The {@link Mono} fails with
+     * {@link IllegalStateException} if the run has been finished, or with
+     * {@link IllegalArgumentException} if the finish point doesn't follow the start point
+     * or the last point of the track
+     */
+    public Mono<Run> finishRun(long id, @NonNull RunPoint point, @Nullable Integer distance) {
+        Validate.notNull(point);
+
+        return Mono.defer(() -> {
+            // the statement committing the run is executed after this
+            var timestamp = System.nanoTime();
+            return repository.finishStartedRun(id, point, distance)
+                    .switchIfEmpty(Mono.defer(() -> repository.getById(id)
+                            .flatMap(run -> Mono.<Run>error(run.getFinishPoint() != null ?
+                                    new IllegalStateException("Run with id=" + id + " has been finished") :
+                                    new IllegalArgumentException(
+                                            "Finish datetime must be after start datetime and the last track point"
+                                    )))))
+                    .doOnSuccess(run -> (run != null ? finishedRuns : failedRuns).increment())
+                    .doOnError(e -> failedRuns.increment())
+                    // listeners may block, e.g. to read the user of the run, so they aren't called by the event loop
+                    .flatMap(run -> Mono.fromRunnable(() ->
+                                    eventPublisher.publishEvent(new RunFinishedEvent(run, timestamp)))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .thenReturn(run));
+        });
+    }
+
+    /**
+     * Gets filtered finished runs of the specified user.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return all finished runs of the user started from {@code fromDatetime}
+     * to {@code toDatetime}
+     */
+    public Flux<Run> getRunsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                   @Nullable LocalDateTime toDatetime) {
+        return repository.getRunsByUser(userId, fromDatetime, toDatetime);
+    }
+
+    /**
+     * Gets statistics including runs of the user specified by their identifier.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics for all runs started from {@code fromDatetime} to {@code toDatetime}
+     */
+    public Mono<RunStats> getStatsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                         @Nullable LocalDateTime toDatetime) {
+        return repository.getStatsByUser(userId, fromDatetime, toDatetime);
+    }
+
+    /**
+     * Gets the version of finished runs of the specified user, so that their lists
+     * and statistics aren't read again if it hasn't changed.
+     *
+     * @param userId the user's identifier
+     * @return the version, or 0 if the user has no finished runs
+     */
+    public Mono<Long> getRunsVersion(long userId) {
+        return repository.getRunsVersion(userId);
+    }
+}
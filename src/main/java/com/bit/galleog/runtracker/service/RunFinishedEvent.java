@@ -0,0 +1,29 @@
+package com.bit.galleog.runtracker.service;
+
+import com.bit.galleog.runtracker.domain.Run;
+import org.apache.commons.lang3.Validate;
+import org.springframework.lang.NonNull;
+
+/**
+ * Event published when a run is finished or a completed run is imported.
+ *
+ * @param run       the finished run
+ * @param timestamp the value of {@link System#nanoTime()} taken before the run was committed,
+ *                  so that data read after it may include the run
+ * @author Oleg_Galkin
+ */
+public record RunFinishedEvent(@NonNull Run run, long timestamp) {
+    public RunFinishedEvent {
+        Validate.notNull(run);
+        Validate.notNull(run.getFinishPoint());
+    }
+
+    /**
+     * Creates an event of the run finished by a transaction that isn't committed yet.
+     *
+     * @param run the finished run
+     */
+    public RunFinishedEvent(@NonNull Run run) {
+        this(run, System.nanoTime());
+    }
+}
@@ -0,0 +1,77 @@
+package com.bit.galleog.runtracker.service;
+
+import com.bit.galleog.runtracker.config.RunPartitionProperties;
+import com.bit.galleog.runtracker.repository.RunPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+
+/**
+ * Service creating partitions of runs for the coming months and detaching
+ * the partitions that are older than the retention period. It's run when the application
+ * starts and then by schedule.
+ *
+ * @author Oleg_Galkin
+ * @see RunPartitionProperties
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RunPartitionMaintainer {
+    private final RunPartitionRepository repository;
+    private final RunPartitionProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${run-tracker.runs.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        maintainPartitions(YearMonth.now());
+    }
+
+    /**
+     * Creates and detaches partitions relative to the specified month.
+     * Each partition is changed in its own transaction, so a failure doesn't affect the others.
+     *
+     * @param current the current month
+     */
+    public void maintainPartitions(@NonNull YearMonth current) {
+        Validate.notNull(current);
+
+        var existing = new HashSet<>(repository.getPartitions());
+        for (int i = 0; i <= properties.premadeMonths(); i++) {
+            var month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                try {
+                    repository.createPartition(month);
+                    logger.info("Partition of runs for {} created", month);
+                } catch (DataAccessException e) {
+                    // another instance may have created it
+                    logger.warn("Failed to create partition of runs for {}", month, e);
+                }
+            }
+        }
+
+        if (properties.retentionMonths() != null) {
+            var oldest = current.minusMonths(properties.retentionMonths());
+            existing.stream()
+                    .filter(month -> month.isBefore(oldest))
+                    .sorted()
+                    .forEach(month -> {
+                        try {
+                            repository.detachPartition(month);
+                            logger.info("Partition of runs for {} detached", month);
+                        } catch (DataAccessException e) {
+                            logger.warn("Failed to detach partition of runs for {}", month, e);
+                        }
+                    });
+        }
+    }
+}
@@ -1,19 +1,42 @@
 package com.bit.galleog.runtracker.service;
 
+import com.bit.galleog.runtracker.config.RunProperties;
+import com.bit.galleog.runtracker.config.RunProperties.FinishMode;
+import com.bit.galleog.runtracker.domain.Distances;
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCircle;
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunDistribution;
+import com.bit.galleog.runtracker.domain.RunEnd;
 import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.model.ImportRun;
+import com.bit.galleog.runtracker.model.RunCursor;
 import com.bit.galleog.runtracker.repository.RunRepository;
-import lombok.RequiredArgsConstructor;
+import com.bit.galleog.runtracker.repository.TrackRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.lang3.Validate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Service to work with user's runs.
@@ -21,9 +44,71 @@ import java.util.Optional;
  * @author Oleg_Galkin
  */
 @Service
-@RequiredArgsConstructor
+@Timed(value = "runtracker.service", histogram = true)
 public class RunService {
+    /**
+     * Maximum number of runs that can be requested at once.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+    /**
+     * Maximum number of runs that can be imported at once.
+     */
+    public static final int MAX_IMPORT_SIZE = 1000;
+
+    /**
+     * Maximum number of users statistics can be requested for at once.
+     */
+    public static final int MAX_STATS_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of intervals statistics can be requested for at once.
+     */
+    public static final int MAX_SERIES_SIZE = 1000;
+
+    /**
+     * Maximum number of track points that can be appended at once.
+     */
+    public static final int MAX_TRACK_BATCH_SIZE = 1000;
+
+    /**
+     * Maximum distance in meters runs can be searched within.
+     */
+    public static final int MAX_SEARCH_RADIUS = 50_000;
+    /**
+     * Maximum height and width in micro-degrees of boxes runs can be searched within.
+     */
+    public static final int MAX_SEARCH_BOX_SIZE = 1_000_000;
+
+    // minimum number of runs to calculate their distances in parallel
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * Name of the counter of run events tagged by the event type.
+     */
+    public static final String RUN_EVENTS_NAME = "runtracker.runs";
+
     private final RunRepository repository;
+    private final TrackRepository trackRepository;
+    private final RunProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    @Nullable
+    private final RunStartBatcher startBatcher;
+    private final Counter startedRuns;
+    private final Counter finishedRuns;
+    private final Counter failedRuns;
+
+    public RunService(@NonNull RunRepository repository, @NonNull TrackRepository trackRepository,
+                      @NonNull RunProperties properties, @NonNull ApplicationEventPublisher eventPublisher,
+                      @NonNull MeterRegistry meterRegistry, @Nullable RunStartBatcher startBatcher) {
+        this.repository = repository;
+        this.trackRepository = trackRepository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.startBatcher = startBatcher;
+        this.startedRuns = runEvents(meterRegistry, "started");
+        this.finishedRuns = runEvents(meterRegistry, "finished");
+        this.failedRuns = runEvents(meterRegistry, "failed");
+    }
 
     /**
      * Starts a new run.
@@ -34,22 +119,94 @@ public class RunService {
      */
     public Run startRun(long userId, @NonNull RunPoint point) {
         Validate.notNull(point);
-        return repository.startRun(userId, point);
+
+        Run run;
+        try {
+            run = repository.startRun(userId, point);
+        } catch (RuntimeException e) {
+            failedRuns.increment();
+            throw e;
+        }
+
+        startedRuns.increment();
+        return run;
     }
 
     /**
-     * Finishes the run specified by its identifier.
+     * Starts a new run without waiting for it to be inserted if runs are started in batches.
+     * Otherwise, the run is started immediately.
+     *
+     * @param userId the user who runs
+     * @param point  the datetime and coordinates where the user started running
+     * @return the future completed with the newly created run
+     * @throws java.util.concurrent.RejectedExecutionException if too many runs are waiting
+     *                                                         to be started
+     * @see com.bit.galleog.runtracker.config.RunStartBatchingProperties
+     */
+    public CompletableFuture<Run> startRunAsync(long userId, @NonNull RunPoint point) {
+        Validate.notNull(point);
+
+        if (startBatcher == null) {
+            return CompletableFuture.completedFuture(startRun(userId, point));
+        }
+        // counted as the runs started immediately are
+        return startBatcher.submit(userId, point)
+                .whenComplete((run, e) -> (e == null ? startedRuns : failedRuns).increment());
+    }
+
+    /**
+     * Finishes the run specified by its identifier. {@link RunFinishedEvent} is published
+     * for the finished run.
      *
      * @param id       the run identifier
      * @param point    the point when and where the run was finished
      * @param distance the optional distance the user ran
      * @return the updated run or {@link Optional#empty()}
      * if there is no run with the specified identifier
+     * @throws IllegalStateException    if the run has been finished
+     * @throws IllegalArgumentException if the finish point doesn't follow the start point
+     *                                  or the last point of the track
+     * @see RunProperties#finishMode()
      */
     @Transactional
     public Optional<Run> finishRun(long id, @NonNull RunPoint point, @Nullable Integer distance) {
         Validate.notNull(point);
 
+        Optional<Run> finished;
+        try {
+            finished = properties.finishMode() == FinishMode.CONDITIONAL ?
+                    finishRunConditionally(id, point, distance) :
+                    finishRunWithLock(id, point, distance);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            failedRuns.increment();
+            throw e;
+        }
+
+        (finished.isPresent() ? finishedRuns : failedRuns).increment();
+        finished.ifPresent(run -> eventPublisher.publishEvent(new RunFinishedEvent(run)));
+        return finished;
+    }
+
+    private Optional<Run> finishRunConditionally(long id, RunPoint point, Integer distance) {
+        var finished = repository.finishStartedRun(id, point, distance);
+        if (finished.isPresent()) {
+            return finished;
+        }
+
+        // the run wasn't updated, so find out why
+        var run = repository.getById(id);
+        if (run.isEmpty()) {
+            return Optional.empty();
+        }
+        if (run.get().getFinishPoint() != null) {
+            throw new IllegalStateException("Run with id=" + id + " has been finished");
+        }
+        throw new IllegalArgumentException(
+                "Finish datetime must be after start datetime and the last track point"
+        );
+    }
+
+    private Optional<Run> finishRunWithLock(long id, RunPoint point, Integer distance) {
         return repository.getByIdForUpdate(id)
                 .flatMap(run -> {
                     if (run.getFinishPoint() != null) {
@@ -63,13 +220,114 @@ public class RunService {
                         );
                     }
 
-                    // if the distance isn't specified, calculate it
-                    var dist = distance != null ?
-                            distance : run.getStartPoint().calcDistanceTo(point);
+                    // if the distance isn't specified, take the recorded track into account
+                    var track = trackRepository.getTrack(id);
+                    if (track.isPresent() && !point.getDatetime()
+                            .isAfter(track.get().getLastPoint().getDatetime())) {
+                        throw new IllegalArgumentException(
+                                "Finish datetime must be after the last track point"
+                        );
+                    }
+
+                    var dist = distance != null ? distance : track
+                            .map(t -> (int) Math.round(t.getDistance() +
+                                    t.getLastPoint().calcPreciseDistanceTo(point)))
+                            .orElseGet(() -> run.getStartPoint().calcDistanceTo(point));
                     return repository.finishRun(id, point, dist);
                 });
     }
 
+    /**
+     * Appends GPS samples to the track of a started run. The distance of the track
+     * is updated incrementally, so it's never recalculated from all points of the track.
+     *
+     * @param id     the run identifier
+     * @param points the points following the last point of the track in chronological order
+     * @return the updated summary of the track or {@link Optional#empty()}
+     * if there is no run with the specified identifier
+     * @throws IllegalStateException    if the run has been finished
+     * @throws IllegalArgumentException if there are no or too many points, or the points
+     *                                  don't follow each other and the last point of the track
+     */
+    @Transactional
+    public Optional<RunTrack> appendTrackPoints(long id, @NonNull List<RunPoint> points) {
+        Validate.notEmpty(points);
+        Validate.noNullElements(points);
+        Validate.isTrue(points.size() <= MAX_TRACK_BATCH_SIZE,
+                "No more than %d track points can be appended at once", MAX_TRACK_BATCH_SIZE);
+
+        // the run is locked to append batches of the same track one by one
+        return repository.getByIdForUpdate(id)
+                .map(run -> {
+                    if (run.getFinishPoint() != null) {
+                        throw new IllegalStateException(
+                                "Run with id=" + id + " has been finished"
+                        );
+                    }
+
+                    var previous = trackRepository.getTrack(id)
+                            .map(RunTrack::getLastPoint)
+                            .orElse(run.getStartPoint());
+                    var track = new ArrayList<RunPoint>(points.size() + 1);
+                    track.add(previous);
+                    for (var point : points) {
+                        if (!point.getDatetime().isAfter(previous.getDatetime())) {
+                            throw new IllegalArgumentException(
+                                    "Track points must be in chronological order " +
+                                            "after the last recorded point"
+                            );
+                        }
+
+                        track.add(point);
+                        previous = point;
+                    }
+
+                    // the distance is the same as the sum of distances between each pair of points
+                    return trackRepository.appendPoints(id, points, Distances.sum(track));
+                });
+    }
+
+    /**
+     * Gets all recorded points of the track of the specified run.
+     *
+     * @param id the run identifier
+     * @return the points of the track in chronological order
+     */
+    public List<RunPoint> getTrackPoints(long id) {
+        return trackRepository.getPoints(id);
+    }
+
+    /**
+     * Imports completed runs at once. Distances that aren't specified are calculated.
+     * {@link RunFinishedEvent} is published for each imported run.
+     *
+     * @param runs the runs to be imported
+     * @return the imported runs in the same order
+     * @throws IllegalArgumentException if there are more than {@link #MAX_IMPORT_SIZE} runs
+     *                                  or a run is finished before it's started
+     */
+    public List<Run> importRuns(@NonNull List<ImportRun> runs) {
+        Validate.notNull(runs);
+        Validate.noNullElements(runs);
+        Validate.isTrue(runs.size() <= MAX_IMPORT_SIZE,
+                "No more than %d runs can be imported at once", MAX_IMPORT_SIZE);
+
+        var stream = runs.size() >= PARALLEL_THRESHOLD ? runs.parallelStream() : runs.stream();
+        var completed = stream.map(run -> Run.builder()
+                        .userId(run.getUserId())
+                        .startPoint(run.getStartPoint())
+                        .finishPoint(run.getFinishPoint())
+                        .distance(run.getDistance() != null ?
+                                run.getDistance() :
+                                run.getStartPoint().calcDistanceTo(run.getFinishPoint()))
+                        .build())
+                .toList();
+
+        var imported = repository.importRuns(completed);
+        imported.forEach(run -> eventPublisher.publishEvent(new RunFinishedEvent(run)));
+        return imported;
+    }
+
     /**
      * Gets filtered finished runs of the specified user.
      *
@@ -84,6 +342,53 @@ public class RunService {
         return repository.getRunsByUser(userId, fromDatetime, toDatetime);
     }
 
+    /**
+     * Gets a page of filtered finished runs of the specified user ordered by their start datetimes
+     * and identifiers.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @param after        the optional position of the last run of the previous page
+     * @param limit        the maximum number of runs to return
+     * @return the finished runs of the user started from {@code fromDatetime} to {@code toDatetime}
+     * that follow {@code after}, or the first page if it's {@code null}
+     * @throws IllegalArgumentException if {@code limit} isn't positive or exceeds {@link #MAX_PAGE_SIZE}
+     */
+    public List<Run> getRunsByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                   @Nullable LocalDateTime toDatetime, @Nullable RunCursor after,
+                                   int limit) {
+        Validate.inclusiveBetween(1, MAX_PAGE_SIZE, limit);
+        return repository.getRunsByUser(userId, fromDatetime, toDatetime, after, limit);
+    }
+
+    /**
+     * Passes filtered finished runs of the specified user ordered by their start datetimes
+     * to the given action as they are read from the database.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @param action       the action to be performed for each run
+     */
+    public void forEachRunByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                 @Nullable LocalDateTime toDatetime,
+                                 @NonNull Consumer<? super Run> action) {
+        Validate.notNull(action);
+        repository.forEachRunByUser(userId, fromDatetime, toDatetime, action);
+    }
+
+    /**
+     * Gets the version of finished runs of the specified user, so that their lists
+     * and statistics aren't read again if it hasn't changed.
+     *
+     * @param userId the user's identifier
+     * @return the version, or 0 if the user has no finished runs
+     */
+    public long getRunsVersion(long userId) {
+        return repository.getRunsVersion(userId);
+    }
+
     /**
      * Gets statistics including runs of the user specified by their identifier.
      *
@@ -96,4 +401,116 @@ public class RunService {
                                    @Nullable LocalDateTime toDatetime) {
         return repository.getStatsByUser(userId, fromDatetime, toDatetime);
     }
+
+    /**
+     * Gets statistics including runs of each of the specified users at once.
+     *
+     * @param userIds      the users' identifiers
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics for all runs started from {@code fromDatetime} to {@code toDatetime}
+     * by user identifiers in the order the users are passed
+     * @throws IllegalArgumentException if there are no or more than {@link #MAX_STATS_BATCH_SIZE} users
+     */
+    public Map<Long, RunStats> getStatsByUsers(@NonNull Collection<Long> userIds,
+                                               @Nullable LocalDateTime fromDatetime,
+                                               @Nullable LocalDateTime toDatetime) {
+        Validate.notEmpty(userIds);
+        Validate.noNullElements(userIds);
+        Validate.isTrue(userIds.size() <= MAX_STATS_BATCH_SIZE,
+                "Statistics can't be requested for more than %d users at once", MAX_STATS_BATCH_SIZE);
+
+        return repository.getStatsByUsers(userIds, fromDatetime, toDatetime);
+    }
+
+    /**
+     * Gets statistics including runs of the user specified by their identifier together with
+     * percentiles and histograms of distances, durations and paces of the runs.
+     *
+     * @param userId       the user's identifier
+     * @param fromDatetime the optional datetime to cover only runs started after
+     * @param toDatetime   the optional datetime to cover only runs started before
+     * @return the statistics and distributions for all runs started from {@code fromDatetime}
+     * to {@code toDatetime}
+     */
+    public RunDistribution getDistributionByUser(long userId, @Nullable LocalDateTime fromDatetime,
+                                                 @Nullable LocalDateTime toDatetime) {
+        return repository.getDistributionByUser(userId, fromDatetime, toDatetime);
+    }
+
+    /**
+     * Gets statistics of runs of the user specified by their identifier for each interval
+     * of the range of days. Intervals without runs are included with zero statistics.
+     *
+     * @param userId   the user's identifier
+     * @param from     the first day of the range
+     * @param to       the last day of the range
+     * @param interval the interval to group runs by
+     * @param zone     the time zone the days and intervals are in
+     * @return the statistics for each interval from the one including {@code from} to the one
+     * including {@code to} in chronological order
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     *                                  or the range includes too many intervals
+     */
+    public List<RunStatsBucket> getStatsSeriesByUser(long userId, @NonNull LocalDate from,
+                                                     @NonNull LocalDate to,
+                                                     @NonNull StatsInterval interval,
+                                                     @NonNull ZoneId zone) {
+        Validate.notNull(from);
+        Validate.notNull(to);
+        Validate.notNull(interval);
+        Validate.notNull(zone);
+        Validate.isTrue(!from.isAfter(to), "The range must start before it ends");
+        Validate.isTrue(interval.count(from, to) <= MAX_SERIES_SIZE,
+                "The range can't include more than %d intervals", MAX_SERIES_SIZE);
+
+        return repository.getStatsSeriesByUser(userId, from, to, interval, zone);
+    }
+
+    /**
+     * Gets runs whose start or finish points are within a distance from a point, nearest first.
+     *
+     * @param end    the point of a run to search by
+     * @param circle the area the point of a run must be within
+     * @param limit  the maximum number of runs to return
+     * @return the runs found ordered by distances from the center of the area
+     * @throws IllegalArgumentException if the radius of the area exceeds {@link #MAX_SEARCH_RADIUS},
+     *                                  or {@code limit} isn't positive or exceeds {@link #MAX_PAGE_SIZE}
+     */
+    public List<Run> getRunsNear(@NonNull RunEnd end, @NonNull GeoCircle circle, int limit) {
+        Validate.notNull(end);
+        Validate.notNull(circle);
+        Validate.isTrue(circle.radius() <= MAX_SEARCH_RADIUS,
+                "Runs can't be searched farther than %d meters", MAX_SEARCH_RADIUS);
+        Validate.inclusiveBetween(1, MAX_PAGE_SIZE, limit);
+
+        return repository.getRunsNear(end, circle, limit);
+    }
+
+    /**
+     * Gets runs whose start or finish points are within a box, the latest started first.
+     *
+     * @param end   the point of a run to search by
+     * @param box   the area the point of a run must be within
+     * @param limit the maximum number of runs to return
+     * @return the runs found ordered by descending start datetimes
+     * @throws IllegalArgumentException if the box is higher or wider than {@link #MAX_SEARCH_BOX_SIZE},
+     *                                  or {@code limit} isn't positive or exceeds {@link #MAX_PAGE_SIZE}
+     */
+    public List<Run> getRunsWithin(@NonNull RunEnd end, @NonNull GeoBox box, int limit) {
+        Validate.notNull(end);
+        Validate.notNull(box);
+        Validate.isTrue(box.latitudeSpanE6() <= MAX_SEARCH_BOX_SIZE && box.longitudeSpanE6() <= MAX_SEARCH_BOX_SIZE,
+                "Runs can't be searched in boxes larger than %d micro-degrees", MAX_SEARCH_BOX_SIZE);
+        Validate.inclusiveBetween(1, MAX_PAGE_SIZE, limit);
+
+        return repository.getRunsWithin(end, box, limit);
+    }
+
+    static Counter runEvents(MeterRegistry meterRegistry, String event) {
+        return Counter.builder(RUN_EVENTS_NAME)
+                .description("Number of started and finished runs, and runs failed to be started or finished")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
 }
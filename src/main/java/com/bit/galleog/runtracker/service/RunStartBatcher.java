@@ -0,0 +1,204 @@
+package com.bit.galleog.runtracker.service;
+
+import com.bit.galleog.runtracker.config.RunStartBatchingProperties;
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.repository.RunRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of started runs. Runs to be started are put into a bounded queue, and
+ * a background writer inserts them in batches, each by a single statement in its own
+ * transaction, so that bursts of starts don't need a transaction per run. The writer
+ * waits for more runs at most {@link RunStartBatchingProperties#maxLatency()} after
+ * it takes the first run of a batch.
+ * <p/>
+ * If a batch can't be inserted, its runs are started one by one, so that only callers
+ * whose runs fail get the error. Runs still queued are inserted before the application
+ * stops.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "run-tracker.runs.start-batching.enabled", havingValue = "true")
+public class RunStartBatcher implements SmartLifecycle {
+    /**
+     * Name of the gauge of runs waiting to be inserted.
+     */
+    public static final String QUEUE_SIZE_NAME = "runtracker.runs.start.queue";
+    /**
+     * Name of the distribution of numbers of runs inserted at once.
+     */
+    public static final String BATCH_SIZE_NAME = "runtracker.runs.start.batch";
+
+    // time the writer waits for the first run of a batch before it checks whether it's stopped
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final RunRepository repository;
+    private final int maxBatchSize;
+    private final Duration maxLatency;
+    private final BlockingQueue<PendingStart> queue;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public RunStartBatcher(@NonNull RunRepository repository, @NonNull RunStartBatchingProperties properties,
+                           @NonNull MeterRegistry meterRegistry) {
+        Validate.isTrue(properties.maxBatchSize() > 0, "Maximum batch size must be positive");
+        Validate.isTrue(properties.queueCapacity() > 0, "Queue capacity must be positive");
+        Validate.isTrue(!properties.maxLatency().isNegative(), "Maximum latency can't be negative");
+
+        this.repository = repository;
+        this.maxBatchSize = properties.maxBatchSize();
+        this.maxLatency = properties.maxLatency();
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_NAME)
+                .description("Number of runs started by a single statement")
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_SIZE_NAME, queue, BlockingQueue::size)
+                .description("Number of runs waiting to be started")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a new run to be started.
+     *
+     * @param userId the user who runs
+     * @param point  the datetime and coordinates where the user started running
+     * @return the future completed with the newly created run after it's inserted
+     * @throws RejectedExecutionException if the queue is full or the writer is stopped
+     */
+    public CompletableFuture<Run> submit(long userId, @NonNull RunPoint point) {
+        Validate.notNull(point);
+
+        if (!running) {
+            throw new RejectedExecutionException("Runs can't be started because the writer is stopped");
+        }
+
+        var start = new PendingStart(userId, point, new CompletableFuture<>());
+        if (!queue.offer(start)) {
+            throw new RejectedExecutionException("Too many runs are waiting to be started");
+        }
+        // the writer could be stopped and the queue drained after the check above,
+        // otherwise the run is taken by the writer or rejected by stop()
+        if (!running && queue.remove(start)) {
+            throw new RejectedExecutionException("Runs can't be started because the writer is stopped");
+        }
+        return start.future();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("run-start-writer")
+                .daemon()
+                .start(this::write);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // runs queued while the writer was exiting
+        var rejected = new ArrayList<PendingStart>();
+        queue.drainTo(rejected);
+        rejected.forEach(start -> start.future().completeExceptionally(
+                new RejectedExecutionException("Runs can't be started because the writer is stopped")
+        ));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void write() {
+        var batch = new ArrayList<PendingStart>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                var deadline = System.nanoTime() + maxLatency.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    // take runs queued meanwhile without waiting
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+
+                    var next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                logger.warn("Writer of started runs is interrupted");
+                running = false;
+            }
+
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingStart> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        batchSizes.record(batch.size());
+        if (batch.size() > 1) {
+            try {
+                var runs = repository.startRuns(batch.stream()
+                        .map(start -> Run.builder().userId(start.userId()).startPoint(start.point()).build())
+                        .toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future().complete(runs.get(i));
+                }
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to start {} runs at once, starting them one by one", batch.size(), e);
+            }
+        }
+
+        for (var start : batch) {
+            try {
+                start.future().complete(repository.startRun(start.userId(), start.point()));
+            } catch (RuntimeException e) {
+                start.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record PendingStart(long userId, RunPoint point, CompletableFuture<Run> future) {
+    }
+}
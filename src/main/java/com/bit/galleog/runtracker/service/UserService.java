@@ -1,14 +1,19 @@
 package com.bit.galleog.runtracker.service;
 
+import com.bit.galleog.runtracker.cache.UserCache;
 import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.UserCursor;
 import com.bit.galleog.runtracker.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.Validate;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service for users
@@ -17,18 +22,25 @@ import java.util.Optional;
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "runtracker.service", histogram = true)
 public class UserService {
+    /**
+     * Maximum number of users that can be requested at once.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository repository;
+    private final UserCache cache;
 
     /**
-     * Gets a user by its identifier.
+     * Gets a user by its identifier. Found users are cached.
      *
      * @param id the user's identifier
      * @return the user with the given identifier, or {@link Optional#empty()}
      * if there is no user with that identifier
      */
     public Optional<User> getUserById(long id) {
-        return repository.getById(id);
+        return cache.get(id, repository::getById);
     }
 
     /**
@@ -38,6 +50,30 @@ public class UserService {
         return repository.getAllUsers();
     }
 
+    /**
+     * Gets a page of registered users ordered by their last names, first names and identifiers.
+     *
+     * @param after the optional position of the last user of the previous page
+     * @param limit the maximum number of users to return
+     * @return the users following {@code after}, or the first page if it's {@code null}
+     * @throws IllegalArgumentException if {@code limit} isn't positive or exceeds {@link #MAX_PAGE_SIZE}
+     */
+    public List<User> getUsers(@Nullable UserCursor after, int limit) {
+        Validate.inclusiveBetween(1, MAX_PAGE_SIZE, limit);
+        return repository.getUsers(after, limit);
+    }
+
+    /**
+     * Passes all registered users ordered by their last and first names to the given action
+     * as they are read from the database.
+     *
+     * @param action the action to be performed for each user
+     */
+    public void forEachUser(@NonNull Consumer<? super User> action) {
+        Validate.notNull(action);
+        repository.forEachUser(action);
+    }
+
     /**
      * Creates a new user.
      *
@@ -59,7 +95,10 @@ public class UserService {
      */
     public Optional<User> updateUser(long id, @NonNull User user) {
         Validate.notNull(user);
-        return repository.update(id, user);
+
+        var updated = repository.update(id, user);
+        cache.invalidate(id);
+        return updated;
     }
 
     /**
@@ -70,6 +109,8 @@ public class UserService {
      * {@code false} if there is no user with the specified identifier
      */
     public boolean deleteUser(long id) {
-        return repository.delete(id);
+        var deleted = repository.delete(id);
+        cache.invalidate(id);
+        return deleted;
     }
 }
@@ -0,0 +1,129 @@
+--liquibase formatted sql
+
+-- the schema the application had before migrations were introduced,
+-- it's idempotent to be applied to databases initialized by schema.sql
+--changeset Oleg_Galkin:1
+create table if not exists users
+(
+    id         bigint primary key,
+    first_name varchar(100) not null,
+    last_name  varchar(100) not null,
+    birth_date date         not null,
+    sex        varchar(9)   not null
+);
+
+create index if not exists idx_last_first_names on users (last_name, first_name);
+
+create sequence if not exists users_seq;
+
+create table if not exists runs
+(
+    id               bigint primary key,
+    user_id          bigint        not null,
+    start_datetime   timestamp     not null,
+    start_latitude   decimal(8, 6) not null,
+    start_longitude  decimal(9, 6) not null,
+    finish_datetime  timestamp,
+    finish_latitude  decimal(8, 6),
+    finish_longitude decimal(9, 6),
+    distance         integer,
+    foreign key (user_id) references users (id)
+);
+
+create index if not exists idx_runs_user_id_finish_datetime on runs (user_id, finish_datetime);
+
+create index if not exists idx_runs_start_datetime on runs (start_datetime);
+
+create sequence if not exists runs_seq;
+
+-- aggregates of finished runs are maintained by RunService, existing runs are summed up once
+--changeset Oleg_Galkin:9
+create table run_daily_stats
+(
+    user_id        bigint  not null,
+    run_date       date    not null,
+    run_count      integer not null,
+    total_distance bigint  not null,
+    speed_sum      numeric not null,
+    primary key (user_id, run_date),
+    foreign key (user_id) references users (id) on delete cascade
+);
+
+create table run_total_stats
+(
+    user_id        bigint primary key,
+    run_count      integer not null,
+    total_distance bigint  not null,
+    speed_sum      numeric not null,
+    foreign key (user_id) references users (id) on delete cascade
+);
+
+insert into run_daily_stats (user_id, run_date, run_count, total_distance, speed_sum)
+select user_id,
+       cast(start_datetime as date),
+       count(*),
+       sum(distance),
+       sum(distance / extract(epoch from (finish_datetime - start_datetime)))
+from runs
+where finish_datetime is not null
+group by user_id, cast(start_datetime as date);
+
+insert into run_total_stats (user_id, run_count, total_distance, speed_sum)
+select user_id,
+       count(*),
+       sum(distance),
+       sum(distance / extract(epoch from (finish_datetime - start_datetime)))
+from runs
+where finish_datetime is not null
+group by user_id;
+
+-- tracks reference runs by their identifiers without foreign keys, as runs are partitioned
+-- by change set 11 and a unique key of partitioned runs must include their start datetime
+--changeset Oleg_Galkin:10
+create table run_tracks
+(
+    run_id         bigint primary key,
+    point_count    integer          not null,
+    chunk_count    integer          not null,
+    distance       double precision not null,
+    last_datetime  timestamp        not null,
+    last_latitude  decimal(8, 6)    not null,
+    last_longitude decimal(9, 6)    not null
+);
+
+create table run_track_chunks
+(
+    run_id      bigint  not null,
+    seq         integer not null,
+    point_count integer not null,
+    data        bytea   not null,
+    primary key (run_id, seq)
+);
+
+-- runs are partitioned by month of their start datetime, a table can't be partitioned in place,
+-- so runs are copied to a new partitioned table by 001-runs-copy.yaml a month at a time,
+-- and it replaces the existing one in 001-runs-swap.sql.
+-- Monthly partitions named runs_pYYYYMM are created by RunPartitionMaintainer,
+-- runs started in months that have no partition yet are kept in runs_default until it's created
+--changeset Oleg_Galkin:11
+create table runs_new
+(
+    id               bigint        not null,
+    user_id          bigint        not null,
+    start_datetime   timestamp     not null,
+    start_latitude   decimal(8, 6) not null,
+    start_longitude  decimal(9, 6) not null,
+    finish_datetime  timestamp,
+    finish_latitude  decimal(8, 6),
+    finish_longitude decimal(9, 6),
+    distance         integer,
+    primary key (id, start_datetime),
+    foreign key (user_id) references users (id)
+) partition by range (start_datetime);
+
+create table runs_default partition of runs_new default;
+
+-- renamed with the table, partitions get the indexes when they're created
+create index idx_runs_new_user_id_finish_datetime on runs_new (user_id, finish_datetime);
+
+create index idx_runs_new_start_datetime on runs_new (start_datetime);
@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+-- runs copied by 001-runs-copy.yaml replace the existing table along with its name,
+-- the names of its constraints and indexes, and the ownership of runs_seq.
+-- Runs mustn't be written while they're copied, which holds as long as migrations
+-- are applied before requests are served
+--changeset Oleg_Galkin:13
+drop table runs;
+
+alter table runs_new rename to runs;
+
+alter table runs rename constraint runs_new_pkey to runs_pkey;
+
+alter table runs rename constraint runs_new_user_id_fkey to runs_user_id_fkey;
+
+alter index idx_runs_new_user_id_finish_datetime rename to idx_runs_user_id_finish_datetime;
+
+alter index idx_runs_new_start_datetime rename to idx_runs_start_datetime;
+
+alter sequence runs_seq owned by runs.id;
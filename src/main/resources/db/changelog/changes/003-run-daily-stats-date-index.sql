@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+-- leaderboards sum up daily statistics of all users for a period
+--changeset Oleg_Galkin:3 runInTransaction:false
+create index concurrently if not exists idx_run_daily_stats_run_date
+    on run_daily_stats (run_date) include (run_count, total_distance, speed_sum);
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+-- cells of start and finish points let runs near a point be found by B-tree indexes,
+-- they are Z-order codes of longitudes and latitudes calculated like GeoCell does,
+-- cells of existing runs are calculated by 005-runs-cells-indexes.yaml in batches
+--changeset Oleg_Galkin:4
+alter table runs
+    add column if not exists start_cell  bigint,
+    add column if not exists finish_cell bigint;
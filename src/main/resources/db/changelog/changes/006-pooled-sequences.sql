@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+-- each value of a sequence reserves a block of identifiers allocated in memory by the application,
+-- the increment must be equal to SequenceIdAllocator.BLOCK_SIZE
+--changeset Oleg_Galkin:6
+alter sequence users_seq increment by 50;
+alter sequence runs_seq increment by 50;
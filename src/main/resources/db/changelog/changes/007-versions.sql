@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+-- versions are sent as ETags, so unchanged users and runs aren't read again by conditional requests.
+-- The version of runs of a user is incremented whenever their finished runs change,
+-- users without statistics have no finished runs
+--changeset Oleg_Galkin:7
+alter table users add column if not exists version bigint not null default 1;
+alter table run_total_stats add column if not exists version bigint not null default 1;
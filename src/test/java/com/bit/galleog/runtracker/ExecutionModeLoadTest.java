@@ -0,0 +1,113 @@
+package com.bit.galleog.runtracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bit.galleog.runtracker.config.ExecutionProperties.ExecutionMode;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test comparing throughput of the application when requests are handled on platform
+ * and virtual threads. It's excluded from the regular build and run by the {@code loadTest} task.
+ *
+ * @author Oleg_Galkin
+ */
+@Slf4j
+@Tag("load")
+class ExecutionModeLoadTest {
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    @Test
+    void shouldCompareThroughputOfExecutionModes() throws Exception {
+        var platform = measure(ExecutionMode.PLATFORM);
+        var virtual = measure(ExecutionMode.VIRTUAL);
+
+        logger.info("Platform threads: {}", platform);
+        logger.info("Virtual threads: {}", virtual);
+
+        for (var result : List.of(platform, virtual)) {
+            assertThat(result.succeeded() + result.rejected()).isEqualTo(CLIENTS * REQUESTS_PER_CLIENT);
+            assertThat(result.succeeded()).isPositive();
+        }
+    }
+
+    private Result measure(ExecutionMode mode) throws Exception {
+        try (var ctx = new SpringApplicationBuilder(RunTrackerApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=50",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "run-tracker.execution.mode=" + mode.name().toLowerCase(Locale.ROOT)
+                )
+                .run()) {
+            var uri = URI.create("http://localhost:" + ctx.getEnvironment().getProperty("local.server.port")
+                    + "/runs/stats?userId=1");
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var client = HttpClient.newBuilder().executor(executor).build();
+                var request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+
+                // warm up the application before measuring
+                for (int i = 0; i < 100; i++) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+
+                var start = System.nanoTime();
+                var futures = new ArrayList<Future<int[]>>(CLIENTS);
+                for (int i = 0; i < CLIENTS; i++) {
+                    futures.add(executor.submit(() -> {
+                        var counts = new int[2];
+                        for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                            var status = client.send(request, HttpResponse.BodyHandlers.discarding())
+                                    .statusCode();
+                            if (status == HttpStatus.OK.value()) {
+                                counts[0]++;
+                            } else if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                                counts[1]++;
+                            }
+                        }
+                        return counts;
+                    }));
+                }
+
+                int succeeded = 0;
+                int rejected = 0;
+                for (var future : futures) {
+                    var counts = future.get();
+                    succeeded += counts[0];
+                    rejected += counts[1];
+                }
+
+                return new Result(succeeded, rejected, Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+    }
+
+    private record Result(int succeeded, int rejected, Duration elapsed) {
+        double throughput() {
+            return succeeded * 1000.0D / Math.max(elapsed.toMillis(), 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d succeeded, %d rejected in %d ms (%.1f requests/s)",
+                    succeeded, rejected, elapsed.toMillis(), throughput());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import static com.bit.galleog.runtracker.domain.Sex.MALE;
 import static com.bit.galleog.runtracker.domain.Sex.NONBINARY;
 
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunDistribution;
 import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
 import com.bit.galleog.runtracker.domain.User;
@@ -13,6 +14,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.List;
 
 /**
  * Objects commonly used in all tests.
@@ -124,6 +126,31 @@ public abstract class TestFixtures {
             .distance(1023)
             .avgSpeed(4.3)
             .build();
+    public static final RunDistribution RUN_DISTRIBUTION = RunDistribution.builder()
+            .count(2)
+            .distance(13_500)
+            .avgSpeed(9.72)
+            .distances(RunDistribution.Metric.builder()
+                    .p50(6750.0)
+                    .p90(8850.0)
+                    .p99(9322.5)
+                    .histogram(List.of(
+                            RunDistribution.Bucket.builder().to(0.0).count(0).build(),
+                            RunDistribution.Bucket.builder().from(0.0).to(5000.0).count(1).build(),
+                            RunDistribution.Bucket.builder().from(5000.0).to(10_000.0).count(1).build(),
+                            RunDistribution.Bucket.builder().from(10_000.0).count(0).build()
+                    ))
+                    .build())
+            .durations(RunDistribution.Metric.builder()
+                    .p50(2500.0)
+                    .p90(2900.0)
+                    .p99(2990.0)
+                    .histogram(List.of())
+                    .build())
+            .paces(RunDistribution.Metric.builder()
+                    .histogram(List.of())
+                    .build())
+            .build();
     private static final RunPoint START_POINT_2 = RunPoint.builder()
             .datetime(LocalDateTime.of(2023, 9, 30, 10, 17, 54))
             .latitude(new BigDecimal("41.649239"))
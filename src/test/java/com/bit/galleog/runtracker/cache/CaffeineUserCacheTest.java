@@ -0,0 +1,76 @@
+package com.bit.galleog.runtracker.cache;
+
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bit.galleog.runtracker.config.UserCacheProperties;
+import com.bit.galleog.runtracker.config.UserCacheProperties.CacheType;
+import com.bit.galleog.runtracker.domain.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Tests for {@link CaffeineUserCache}.
+ *
+ * @author Oleg_Galkin
+ */
+class CaffeineUserCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private CaffeineUserCache cache;
+    private AtomicInteger loads;
+    private LongFunction<Optional<User>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CaffeineUserCache(
+                new UserCacheProperties(CacheType.LOCAL, 100, Duration.ofMinutes(1)),
+                meterRegistry
+        );
+
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return id == JOHN_SMITH.getId() ? Optional.of(JOHN_SMITH) : Optional.empty();
+        };
+    }
+
+    @Test
+    void shouldLoadUserOnce() {
+        assertThat(cache.get(JOHN_SMITH.getId(), loader)).contains(JOHN_SMITH);
+        assertThat(cache.get(JOHN_SMITH.getId(), loader)).contains(JOHN_SMITH);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets")
+                .tag("cache", CaffeineUserCache.CACHE_NAME)
+                .tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0D);
+        assertThat(meterRegistry.get("cache.gets")
+                .tag("cache", CaffeineUserCache.CACHE_NAME)
+                .tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0D);
+    }
+
+    @Test
+    void shouldNotCacheAbsentUser() {
+        assertThat(cache.get(7, loader)).isEmpty();
+        assertThat(cache.get(7, loader)).isEmpty();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReloadInvalidatedUser() {
+        cache.get(JOHN_SMITH.getId(), loader);
+        cache.invalidate(JOHN_SMITH.getId());
+
+        assertThat(cache.get(JOHN_SMITH.getId(), loader)).contains(JOHN_SMITH);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bit.galleog.runtracker.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link ConcurrencyLimitFilter}.
+ *
+ * @author Oleg_Galkin
+ */
+class ConcurrencyLimitFilterTest {
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+
+    @Test
+    void shouldHandleRequestsOneAfterAnother() throws Exception {
+        var handled = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            var response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/runs"), response,
+                    (req, res) -> handled.incrementAndGet());
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+
+        assertThat(handled.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectRequestIfLimitIsReached() throws Exception {
+        var rejected = new MockHttpServletResponse();
+        var nestedChain = new MockFilterChain();
+
+        // the second request arrives while the first one is being handled
+        filter.doFilter(new MockHttpServletRequest("GET", "/runs"), new MockHttpServletResponse(),
+                (req, res) -> filter.doFilter(new MockHttpServletRequest("GET", "/users"), rejected, nestedChain));
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(nestedChain.getRequest()).isNull();
+    }
+
+    @Test
+    void shouldHoldPermitUntilAsyncRequestIsCompleted() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/runs");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // the handler has returned but the response hasn't been written yet
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        request.getAsyncContext().complete();
+
+        var accepted = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users"), accepted, chain);
+        assertThat(accepted.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
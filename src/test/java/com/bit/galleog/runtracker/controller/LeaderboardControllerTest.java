@@ -0,0 +1,141 @@
+package com.bit.galleog.runtracker.controller;
+
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.bit.galleog.runtracker.domain.AgeBand;
+import com.bit.galleog.runtracker.domain.LeaderboardEntry;
+import com.bit.galleog.runtracker.domain.LeaderboardMetric;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.service.LeaderboardService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tests for {@link LeaderboardController}.
+ *
+ * @author Oleg_Galkin
+ */
+@ActiveProfiles("test")
+@WebMvcTest(LeaderboardController.class)
+@ExtendWith({
+        SpringExtension.class,
+        MockitoExtension.class
+})
+class LeaderboardControllerTest {
+    private static final String BASE_URL = "/leaderboards";
+    private static final LocalDate DATE = LocalDate.of(2023, 11, 8);
+
+    private static final LeaderboardEntry ENTRY_1 = LeaderboardEntry.builder()
+            .rank(1)
+            .userId(BARBARA_MOORE.getId())
+            .count(2)
+            .distance(18000)
+            .avgSpeed(11.7D)
+            .build();
+    private static final LeaderboardEntry ENTRY_2 = LeaderboardEntry.builder()
+            .rank(2)
+            .userId(JOHN_SMITH.getId())
+            .count(3)
+            .distance(16000)
+            .avgSpeed(9.6D)
+            .build();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private LeaderboardService service;
+
+    @Test
+    void shouldGetTop() throws Exception {
+        when(service.getTop(StatsInterval.MONTH, DATE, LeaderboardMetric.DISTANCE, null,
+                AgeBand.FROM_20_TO_29, 2)).thenReturn(List.of(ENTRY_1, ENTRY_2));
+
+        mockMvc.perform(
+                        get(BASE_URL)
+                                .param("interval", StatsInterval.MONTH.name())
+                                .param("date", DATE.toString())
+                                .param("ageBand", AgeBand.FROM_20_TO_29.name())
+                                .param("limit", "2")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].rank").value(1))
+                .andExpect(jsonPath("$[0].userId").value(BARBARA_MOORE.getId()))
+                .andExpect(jsonPath("$[0].count").value(ENTRY_1.getCount()))
+                .andExpect(jsonPath("$[0].distance").value(ENTRY_1.getDistance()))
+                .andExpect(jsonPath("$[0].avgSpeed").value(ENTRY_1.getAvgSpeed()))
+                .andExpect(jsonPath("$[1].userId").value(JOHN_SMITH.getId()));
+    }
+
+    @Test
+    void shouldGetWeeklyTopByDefault() throws Exception {
+        when(service.getTop(eq(StatsInterval.WEEK), any(LocalDate.class), eq(LeaderboardMetric.DISTANCE),
+                isNull(), isNull(), eq(10))).thenReturn(List.of());
+
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldNotGetTooManyEntries() throws Exception {
+        when(service.getTop(any(), any(), any(), any(), any(), anyInt()))
+                .thenThrow(new IllegalArgumentException());
+
+        mockMvc.perform(
+                get(BASE_URL)
+                        .param("limit", String.valueOf(LeaderboardService.MAX_LIMIT + 1))
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldGetEntryOfUser() throws Exception {
+        when(service.getEntry(StatsInterval.WEEK, DATE, LeaderboardMetric.AVG_SPEED, Sex.MALE, null,
+                JOHN_SMITH.getId())).thenReturn(Optional.of(ENTRY_2));
+
+        mockMvc.perform(
+                        get(BASE_URL + "/users/{userId}", JOHN_SMITH.getId())
+                                .param("date", DATE.toString())
+                                .param("metric", LeaderboardMetric.AVG_SPEED.name())
+                                .param("sex", Sex.MALE.name())
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(ENTRY_2.getRank()))
+                .andExpect(jsonPath("$.userId").value(JOHN_SMITH.getId()))
+                .andExpect(jsonPath("$.avgSpeed").value(ENTRY_2.getAvgSpeed()));
+    }
+
+    @Test
+    void shouldNotGetEntryOfUnrankedUser() throws Exception {
+        when(service.getEntry(StatsInterval.WEEK, DATE, LeaderboardMetric.DISTANCE, null, null,
+                JOHN_SMITH.getId())).thenReturn(Optional.empty());
+
+        mockMvc.perform(
+                get(BASE_URL + "/users/{userId}", JOHN_SMITH.getId())
+                        .param("date", DATE.toString())
+        ).andExpect(status().isNotFound());
+
+        verify(service).getEntry(StatsInterval.WEEK, DATE, LeaderboardMetric.DISTANCE, null, null,
+                JOHN_SMITH.getId());
+    }
+}
@@ -0,0 +1,203 @@
+package com.bit.galleog.runtracker.controller;
+
+import static com.bit.galleog.runtracker.TestFixtures.DISTANCE;
+import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_2;
+import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_3;
+import static com.bit.galleog.runtracker.TestFixtures.FINISH_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.FINISH_STARTED_RUN;
+import static com.bit.galleog.runtracker.TestFixtures.FROM_DATETIME;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.RUN_STATS;
+import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.TO_DATETIME;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.bit.galleog.runtracker.model.FinishRun;
+import com.bit.galleog.runtracker.model.StartRun;
+import com.bit.galleog.runtracker.service.ReactiveRunService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link ReactiveRunController}.
+ *
+ * @author Oleg_Galkin
+ */
+@ActiveProfiles("test")
+@WebMvcTest(controllers = ReactiveRunController.class, properties = "run-tracker.runs.api=reactive")
+class ReactiveRunControllerTest {
+    private static final String BASE_URL = "/runs";
+    private static final long RUNS_VERSION = 5L;
+
+    private static final FinishRun FINISH_RUN = FinishRun.builder()
+            .datetime(FINISH_POINT_1.getDatetime())
+            .latitude(FINISH_POINT_1.getLatitude())
+            .longitude(FINISH_POINT_1.getLongitude())
+            .distance(DISTANCE)
+            .build();
+
+    @MockBean
+    private ReactiveRunService service;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldStartRun() throws Exception {
+        var run = StartRun.builder()
+                .userId(JOHN_SMITH.getId())
+                .datetime(START_POINT_1.getDatetime())
+                .latitude(START_POINT_1.getLatitude())
+                .longitude(START_POINT_1.getLongitude())
+                .build();
+
+        when(service.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenReturn(Mono.just(STARTED_RUN_JOHN_SMITH_1));
+
+        performAsync(
+                post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(run))
+        ).andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .andExpect(jsonPath("$.userId").value(JOHN_SMITH.getId()))
+                .andExpect(jsonPath("$.latitude")
+                        .value(START_POINT_1.getLatitude().toString()));
+
+        verify(service).startRun(JOHN_SMITH.getId(), START_POINT_1);
+    }
+
+    @Test
+    void shouldFinishRun() throws Exception {
+        when(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .thenReturn(Mono.just(FINISH_STARTED_RUN));
+
+        performAsync(
+                patch(BASE_URL + "/" + STARTED_RUN_JOHN_SMITH_1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(FINISH_RUN))
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(FINISH_STARTED_RUN.getId()))
+                .andExpect(jsonPath("$.distance").value(FINISH_STARTED_RUN.getDistance()));
+    }
+
+    @Test
+    void shouldNotFinishRunIfItDoesNotExist() throws Exception {
+        when(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .thenReturn(Mono.empty());
+
+        performAsync(
+                patch(BASE_URL + "/" + STARTED_RUN_JOHN_SMITH_1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(FINISH_RUN))
+        ).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldNotFinishAlreadyFinishedRun() throws Exception {
+        when(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .thenReturn(Mono.error(new IllegalStateException("Run has been finished")));
+
+        performAsync(
+                patch(BASE_URL + "/" + STARTED_RUN_JOHN_SMITH_1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(FINISH_RUN))
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldGetRunsByUser() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(Mono.just(RUNS_VERSION));
+        when(service.getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
+                .thenReturn(Flux.just(FINISHED_RUN_JOHN_SMITH_2, FINISHED_RUN_JOHN_SMITH_3));
+
+        performAsync(
+                get(BASE_URL)
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .param("fromDatetime", FROM_DATETIME.toString())
+                        .param("toDatetime", TO_DATETIME.toString())
+        ).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + RUNS_VERSION + "\""))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_2.getId()))
+                .andExpect(jsonPath("$[1].id").value(FINISHED_RUN_JOHN_SMITH_3.getId()));
+    }
+
+    @Test
+    void shouldNotGetRunsByUserIfNotModified() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(Mono.just(RUNS_VERSION));
+
+        performAsync(
+                get(BASE_URL)
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + RUNS_VERSION + "\"")
+        ).andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + RUNS_VERSION + "\""));
+
+        verify(service, never()).getRunsByUser(anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldGetStatsByUser() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(Mono.just(RUNS_VERSION));
+        when(service.getStatsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
+                .thenReturn(Mono.just(RUN_STATS));
+
+        performAsync(
+                get(BASE_URL + "/stats")
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .param("fromDatetime", FROM_DATETIME.toString())
+                        .param("toDatetime", TO_DATETIME.toString())
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(RUN_STATS.getCount()))
+                .andExpect(jsonPath("$.distance").value(RUN_STATS.getDistance()))
+                .andExpect(jsonPath("$.avgSpeed").value(RUN_STATS.getAvgSpeed()));
+    }
+
+    @Test
+    void shouldNotGetStatsByUserIfNotModified() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(Mono.just(RUNS_VERSION));
+
+        performAsync(
+                get(BASE_URL + "/stats")
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"" + RUNS_VERSION + "\"")
+        ).andExpect(status().isNotModified());
+
+        verify(service, never()).getStatsByUser(anyLong(), any(), any());
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        var result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,90 @@
+package com.bit.galleog.runtracker.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.handler;
+
+import com.bit.galleog.runtracker.service.ReactiveRunService;
+import com.bit.galleog.runtracker.service.RunService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests that the endpoints of runs are served if {@code run-tracker.runs.api} is {@code reactive}.
+ *
+ * @author Oleg_Galkin
+ */
+@ActiveProfiles("test")
+@WebMvcTest(
+        controllers = {RunController.class, BlockingRunController.class, ReactiveRunController.class},
+        properties = "run-tracker.runs.api=reactive"
+)
+class RunApiTest {
+    @MockBean
+    private RunService runService;
+    @MockBean
+    private ReactiveRunService reactiveRunService;
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(reactiveRunService.getRunsVersion(anyLong())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void shouldReplaceOnlyBlockingController() {
+        assertThat(context.getBeanNamesForType(RunController.class)).hasSize(1);
+        assertThat(context.getBeanNamesForType(ReactiveRunController.class)).hasSize(1);
+        assertThat(context.getBeanNamesForType(BlockingRunController.class)).isEmpty();
+    }
+
+    @Test
+    void shouldServeMobileEndpointsByReactiveController() throws Exception {
+        // invalid bodies are rejected after the handler is found
+        for (var request : new RequestBuilder[]{
+                post("/runs").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                patch("/runs/1").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                get("/runs").param("userId", "1"),
+                get("/runs/stats").param("userId", "1")
+        }) {
+            mockMvc.perform(request).andExpect(handler().handlerType(ReactiveRunController.class));
+        }
+    }
+
+    @Test
+    void shouldServeOtherEndpointsByRunController() throws Exception {
+        for (var request : new RequestBuilder[]{
+                post("/runs/import").contentType(MediaType.APPLICATION_JSON).content("[]"),
+                post("/runs/1/track").contentType(MediaType.APPLICATION_JSON).content("[]"),
+                get("/runs/1/track"),
+                get("/runs").param("userId", "1").param("limit", "10"),
+                get("/runs").param("userId", "1").accept(MediaType.APPLICATION_NDJSON),
+                get("/runs/near").param("latitude", "55.75").param("longitude", "37.61").param("radius", "1000"),
+                get("/runs/within")
+                        .param("minLatitude", "55.7").param("minLongitude", "37.5")
+                        .param("maxLatitude", "55.8").param("maxLongitude", "37.7"),
+                get("/runs/stats/batch").param("userIds", "1,2"),
+                get("/runs/stats/distribution").param("userId", "1"),
+                get("/runs/stats/series").param("userId", "1").param("interval", "WEEK")
+        }) {
+            mockMvc.perform(request).andExpect(handler().handlerType(RunController.class));
+        }
+    }
+}
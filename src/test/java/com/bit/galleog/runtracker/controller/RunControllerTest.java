@@ -1,5 +1,6 @@
 package com.bit.galleog.runtracker.controller;
 
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
 import static com.bit.galleog.runtracker.TestFixtures.DISTANCE;
 import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
 import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_2;
@@ -8,19 +9,42 @@ import static com.bit.galleog.runtracker.TestFixtures.FINISH_POINT_1;
 import static com.bit.galleog.runtracker.TestFixtures.FINISH_STARTED_RUN;
 import static com.bit.galleog.runtracker.TestFixtures.FROM_DATETIME;
 import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.RUN_DISTRIBUTION;
 import static com.bit.galleog.runtracker.TestFixtures.RUN_STATS;
 import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
 import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
 import static com.bit.galleog.runtracker.TestFixtures.TO_DATETIME;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCircle;
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunEnd;
+import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import com.bit.galleog.runtracker.domain.StatsInterval;
 import com.bit.galleog.runtracker.model.FinishRun;
+import com.bit.galleog.runtracker.model.ImportRun;
+import com.bit.galleog.runtracker.model.RunCursor;
 import com.bit.galleog.runtracker.model.StartRun;
 import com.bit.galleog.runtracker.service.RunService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,27 +54,35 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
- * Tests for {@link RunController}
+ * Tests for {@link RunController} and {@link BlockingRunController}
  *
  * @author Oleg_Galkin
  */
 @ActiveProfiles("test")
-@WebMvcTest(RunController.class)
+@WebMvcTest({RunController.class, BlockingRunController.class})
 @ExtendWith({
         SpringExtension.class,
         MockitoExtension.class
 })
 class RunControllerTest {
     private static final String BASE_URL = "/runs";
+    private static final long RUNS_VERSION = 5L;
 
     private static final FinishRun FINISH_RUN = FinishRun.builder()
             .datetime(FINISH_POINT_1.getDatetime())
@@ -76,14 +108,18 @@ class RunControllerTest {
                 .longitude(START_POINT_1.getLongitude())
                 .build();
 
-        when(service.startRun(JOHN_SMITH.getId(), STARTED_RUN_JOHN_SMITH_1.getStartPoint()))
-                .thenReturn(STARTED_RUN_JOHN_SMITH_1);
+        when(service.startRunAsync(JOHN_SMITH.getId(), STARTED_RUN_JOHN_SMITH_1.getStartPoint()))
+                .thenReturn(CompletableFuture.completedFuture(STARTED_RUN_JOHN_SMITH_1));
 
-        mockMvc.perform(
+        var result = mockMvc.perform(
                         post(BASE_URL)
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsBytes(run))
-                ).andExpect(status().isCreated())
+                ).andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(STARTED_RUN_JOHN_SMITH_1.getId()))
                 .andExpect(jsonPath("$.userId")
                         .value(STARTED_RUN_JOHN_SMITH_1.getUserId()))
@@ -94,7 +130,26 @@ class RunControllerTest {
                 .andExpect(jsonPath("$.longitude")
                         .value(STARTED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude().toString()));
 
-        verify(service).startRun(JOHN_SMITH.getId(), STARTED_RUN_JOHN_SMITH_1.getStartPoint());
+        verify(service).startRunAsync(JOHN_SMITH.getId(), STARTED_RUN_JOHN_SMITH_1.getStartPoint());
+    }
+
+    @Test
+    void shouldRejectStartRunIfTooManyRunsAreWaiting() throws Exception {
+        var run = StartRun.builder()
+                .userId(JOHN_SMITH.getId())
+                .datetime(START_POINT_1.getDatetime())
+                .latitude(START_POINT_1.getLatitude())
+                .longitude(START_POINT_1.getLongitude())
+                .build();
+
+        when(service.startRunAsync(JOHN_SMITH.getId(), STARTED_RUN_JOHN_SMITH_1.getStartPoint()))
+                .thenThrow(new RejectedExecutionException("Too many runs are waiting to be started"));
+
+        mockMvc.perform(
+                post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(run))
+        ).andExpect(status().isTooManyRequests());
     }
 
     @Test
@@ -167,6 +222,98 @@ class RunControllerTest {
         ).andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldAppendTrackPoints() throws Exception {
+        var track = RunTrack.builder()
+                .runId(STARTED_RUN_JOHN_SMITH_1.getId())
+                .pointCount(1)
+                .distance(START_POINT_1.calcPreciseDistanceTo(FINISH_POINT_1))
+                .lastPoint(FINISH_POINT_1)
+                .build();
+
+        when(service.appendTrackPoints(STARTED_RUN_JOHN_SMITH_1.getId(), List.of(FINISH_POINT_1)))
+                .thenReturn(Optional.of(track));
+
+        mockMvc.perform(
+                        post(BASE_URL + "/" + STARTED_RUN_JOHN_SMITH_1.getId() + "/track")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsBytes(List.of(FINISH_POINT_1)))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.runId").value(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .andExpect(jsonPath("$.pointCount").value(1))
+                .andExpect(jsonPath("$.lastPoint.latitude")
+                        .value(FINISH_POINT_1.getLatitude().toString()));
+
+        verify(service).appendTrackPoints(STARTED_RUN_JOHN_SMITH_1.getId(), List.of(FINISH_POINT_1));
+    }
+
+    @Test
+    void shouldNotAppendTrackPointsToFinishedRun() throws Exception {
+        when(service.appendTrackPoints(FINISHED_RUN_JOHN_SMITH_1.getId(), List.of(FINISH_POINT_1)))
+                .thenThrow(IllegalStateException.class);
+
+        mockMvc.perform(
+                post(BASE_URL + "/" + FINISHED_RUN_JOHN_SMITH_1.getId() + "/track")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(List.of(FINISH_POINT_1)))
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnTrackPoints() throws Exception {
+        when(service.getTrackPoints(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(List.of(FINISH_POINT_1));
+
+        mockMvc.perform(get(BASE_URL + "/" + STARTED_RUN_JOHN_SMITH_1.getId() + "/track"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].datetime")
+                        .value(FINISH_POINT_1.getDatetime().toString()))
+                .andExpect(jsonPath("$[0].longitude")
+                        .value(FINISH_POINT_1.getLongitude().toString()));
+    }
+
+    @Test
+    void shouldImportRuns() throws Exception {
+        var run = ImportRun.builder()
+                .userId(JOHN_SMITH.getId())
+                .startDatetime(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime())
+                .startLatitude(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLatitude())
+                .startLongitude(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude())
+                .finishDatetime(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getDatetime())
+                .finishLatitude(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLatitude())
+                .finishLongitude(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLongitude())
+                .distance(FINISHED_RUN_JOHN_SMITH_1.getDistance())
+                .build();
+
+        when(service.importRuns(anyList())).thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_1));
+
+        mockMvc.perform(
+                        post(BASE_URL + "/import")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsBytes(List.of(run)))
+                ).andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_1.getId()))
+                .andExpect(jsonPath("$[0].finishPoint.latitude")
+                        .value(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLatitude().toString()))
+                .andExpect(jsonPath("$[0].distance")
+                        .value(FINISHED_RUN_JOHN_SMITH_1.getDistance()));
+
+        verify(service).importRuns(anyList());
+    }
+
+    @Test
+    void shouldNotImportTooManyRuns() throws Exception {
+        when(service.importRuns(anyList())).thenThrow(IllegalArgumentException.class);
+
+        mockMvc.perform(
+                post(BASE_URL + "/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+        ).andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnRunsByUser() throws Exception {
         when(service.getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
@@ -220,6 +367,175 @@ class RunControllerTest {
         verify(service).getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME);
     }
 
+    @Test
+    void shouldReturnRunsByUserPage() throws Exception {
+        var after = RunCursor.of(FINISHED_RUN_JOHN_SMITH_2);
+        when(service.getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME, after, 1))
+                .thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_3));
+
+        mockMvc.perform(
+                        get(BASE_URL)
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                                .param("fromDatetime", FROM_DATETIME.toString())
+                                .param("toDatetime", TO_DATETIME.toString())
+                                .param("limit", "1")
+                                .param("afterStartDatetime", after.getStartDatetime().toString())
+                                .param("afterId", String.valueOf(after.getId()))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_3.getId()))
+                .andExpect(jsonPath("$[0].startPoint.datetime")
+                        .value(FINISHED_RUN_JOHN_SMITH_3.getStartPoint().getDatetime().toString()));
+
+        verify(service).getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME, after, 1);
+    }
+
+    @Test
+    void shouldNotReturnRunsByUserPageAfterPartiallySpecifiedRun() throws Exception {
+        mockMvc.perform(
+                get(BASE_URL)
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .param("limit", "1")
+                        .param("afterId", String.valueOf(FINISHED_RUN_JOHN_SMITH_2.getId()))
+        ).andExpect(status().isBadRequest());
+
+        verify(service, never()).getRunsByUser(anyLong(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldSetVersionOfRunsAsETag() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(RUNS_VERSION);
+        when(service.getRunsByUser(JOHN_SMITH.getId(), null, null))
+                .thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_2));
+
+        mockMvc.perform(
+                        get(BASE_URL)
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                ).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + RUNS_VERSION + "\""))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_2.getId()));
+    }
+
+    @Test
+    void shouldNotReturnUnmodifiedRunsByUser() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(RUNS_VERSION);
+
+        mockMvc.perform(
+                        get(BASE_URL)
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                                .param("limit", "1")
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"" + RUNS_VERSION + "\"")
+                ).andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(service, never()).getRunsByUser(anyLong(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldReturnRunsByUserIfTheyAreModified() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(RUNS_VERSION + 1);
+        when(service.getRunsByUser(JOHN_SMITH.getId(), null, null))
+                .thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_2));
+
+        mockMvc.perform(
+                        get(BASE_URL)
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"" + RUNS_VERSION + "\"")
+                ).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (RUNS_VERSION + 1) + "\""))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_2.getId()));
+    }
+
+    @Test
+    void shouldStreamRunsByUser() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Run> action = invocation.getArgument(3);
+            action.accept(FINISHED_RUN_JOHN_SMITH_2);
+            action.accept(FINISHED_RUN_JOHN_SMITH_3);
+            return null;
+        }).when(service).forEachRunByUser(eq(JOHN_SMITH.getId()), eq(FROM_DATETIME),
+                eq(TO_DATETIME), any());
+
+        var result = mockMvc.perform(
+                        get(BASE_URL)
+                                .accept(MediaType.APPLICATION_NDJSON)
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                                .param("fromDatetime", FROM_DATETIME.toString())
+                                .param("toDatetime", TO_DATETIME.toString())
+                ).andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(FINISHED_RUN_JOHN_SMITH_2) + "\n" +
+                                objectMapper.writeValueAsString(FINISHED_RUN_JOHN_SMITH_3) + "\n"
+                ));
+
+        verify(service).forEachRunByUser(eq(JOHN_SMITH.getId()), eq(FROM_DATETIME),
+                eq(TO_DATETIME), any());
+    }
+
+    @Test
+    void shouldReturnRunsNear() throws Exception {
+        when(service.getRunsNear(RunEnd.START, new GeoCircle(41_650_000, 41_630_000, 1000), 100))
+                .thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_1, STARTED_RUN_JOHN_SMITH_1));
+
+        mockMvc.perform(
+                        get(BASE_URL + "/near")
+                                .param("latitude", "41.65")
+                                .param("longitude", "41.63")
+                                .param("radius", "1000")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_1.getId()))
+                .andExpect(jsonPath("$[1].id").value(STARTED_RUN_JOHN_SMITH_1.getId()));
+    }
+
+    @Test
+    void shouldNotReturnRunsNearInvalidPoint() throws Exception {
+        mockMvc.perform(
+                get(BASE_URL + "/near")
+                        .param("latitude", "91")
+                        .param("longitude", "41.63")
+                        .param("radius", "1000")
+        ).andExpect(status().isBadRequest());
+
+        verify(service, never()).getRunsNear(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldReturnRunsWithin() throws Exception {
+        var box = new GeoBox(41_640_000, 41_630_000, 41_660_000, 41_640_000);
+        when(service.getRunsWithin(RunEnd.FINISH, box, 10)).thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_3));
+
+        mockMvc.perform(
+                        get(BASE_URL + "/within")
+                                .param("minLatitude", "41.64")
+                                .param("minLongitude", "41.63")
+                                .param("maxLatitude", "41.66")
+                                .param("maxLongitude", "41.64")
+                                .param("end", RunEnd.FINISH.name())
+                                .param("limit", "10")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(FINISHED_RUN_JOHN_SMITH_3.getId()));
+    }
+
+    @Test
+    void shouldNotReturnRunsWithinTooLargeBox() throws Exception {
+        when(service.getRunsWithin(any(), any(), anyInt())).thenThrow(new IllegalArgumentException());
+
+        mockMvc.perform(
+                get(BASE_URL + "/within")
+                        .param("minLatitude", "40")
+                        .param("minLongitude", "40")
+                        .param("maxLatitude", "45")
+                        .param("maxLongitude", "45")
+        ).andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnStatsByUser() throws Exception {
         when(service.getStatsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
@@ -237,4 +553,124 @@ class RunControllerTest {
 
         verify(service).getStatsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotReturnStatsOfUnmodifiedRuns() throws Exception {
+        when(service.getRunsVersion(JOHN_SMITH.getId())).thenReturn(RUNS_VERSION);
+
+        mockMvc.perform(
+                get(BASE_URL + "/stats")
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + RUNS_VERSION + "\"")
+        ).andExpect(status().isNotModified());
+
+        verify(service, never()).getStatsByUser(anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldReturnStatsByUsers() throws Exception {
+        var userIds = List.of(JOHN_SMITH.getId(), BARBARA_MOORE.getId());
+        var stats = new LinkedHashMap<Long, RunStats>();
+        stats.put(JOHN_SMITH.getId(), RUN_STATS);
+        stats.put(BARBARA_MOORE.getId(), RunStats.builder().build());
+
+        when(service.getStatsByUsers(userIds, FROM_DATETIME, null)).thenReturn(stats);
+
+        mockMvc.perform(
+                        get(BASE_URL + "/stats/batch")
+                                .param("userIds", JOHN_SMITH.getId() + "," + BARBARA_MOORE.getId())
+                                .param("fromDatetime", FROM_DATETIME.toString())
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$['" + JOHN_SMITH.getId() + "'].count").value(RUN_STATS.getCount()))
+                .andExpect(jsonPath("$['" + JOHN_SMITH.getId() + "'].distance").value(RUN_STATS.getDistance()))
+                .andExpect(jsonPath("$['" + BARBARA_MOORE.getId() + "'].count").value(0));
+    }
+
+    @Test
+    void shouldNotReturnStatsOfTooManyUsers() throws Exception {
+        when(service.getStatsByUsers(anyList(), any(), any())).thenThrow(new IllegalArgumentException());
+
+        mockMvc.perform(
+                get(BASE_URL + "/stats/batch")
+                        .param("userIds", "1,2,3")
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnDistributionByUser() throws Exception {
+        when(service.getDistributionByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
+                .thenReturn(RUN_DISTRIBUTION);
+
+        mockMvc.perform(
+                        get(BASE_URL + "/stats/distribution")
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                                .param("fromDatetime", FROM_DATETIME.toString())
+                                .param("toDatetime", TO_DATETIME.toString())
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(RUN_DISTRIBUTION.getCount()))
+                .andExpect(jsonPath("$.distance").value(RUN_DISTRIBUTION.getDistance()))
+                .andExpect(jsonPath("$.avgSpeed").value(RUN_DISTRIBUTION.getAvgSpeed()))
+                .andExpect(jsonPath("$.distances.p50").value(RUN_DISTRIBUTION.getDistances().getP50()))
+                .andExpect(jsonPath("$.distances.p99").value(RUN_DISTRIBUTION.getDistances().getP99()))
+                .andExpect(jsonPath("$.distances.histogram.length()").value(4))
+                .andExpect(jsonPath("$.distances.histogram[0].from").doesNotExist())
+                .andExpect(jsonPath("$.distances.histogram[1].to").value(5000.0))
+                .andExpect(jsonPath("$.distances.histogram[1].count").value(1))
+                .andExpect(jsonPath("$.durations.p90").value(RUN_DISTRIBUTION.getDurations().getP90()))
+                .andExpect(jsonPath("$.paces.p50").doesNotExist());
+
+        verify(service).getDistributionByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME);
+    }
+
+    @Test
+    void shouldReturnStatsSeriesByUser() throws Exception {
+        var from = LocalDate.of(2023, 10, 1);
+        var to = LocalDate.of(2023, 11, 30);
+        var zone = ZoneId.of("Europe/Berlin");
+        var series = List.of(
+                RunStatsBucket.builder().start(from).build(),
+                RunStatsBucket.builder()
+                        .start(from.plusMonths(1))
+                        .count(RUN_STATS.getCount())
+                        .distance(RUN_STATS.getDistance())
+                        .avgSpeed(RUN_STATS.getAvgSpeed())
+                        .build()
+        );
+
+        when(service.getStatsSeriesByUser(JOHN_SMITH.getId(), from, to, StatsInterval.MONTH, zone))
+                .thenReturn(series);
+
+        mockMvc.perform(
+                        get(BASE_URL + "/stats/series")
+                                .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                                .param("from", from.toString())
+                                .param("to", to.toString())
+                                .param("interval", StatsInterval.MONTH.name())
+                                .param("zone", zone.getId())
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].start").value(from.toString()))
+                .andExpect(jsonPath("$[0].count").value(0))
+                .andExpect(jsonPath("$[1].start").value(from.plusMonths(1).toString()))
+                .andExpect(jsonPath("$[1].count").value(RUN_STATS.getCount()))
+                .andExpect(jsonPath("$[1].distance").value(RUN_STATS.getDistance()))
+                .andExpect(jsonPath("$[1].avgSpeed").value(RUN_STATS.getAvgSpeed()));
+    }
+
+    @Test
+    void shouldNotReturnStatsSeriesForInvalidRange() throws Exception {
+        when(service.getStatsSeriesByUser(anyLong(), any(), any(), any(), any()))
+                .thenThrow(new IllegalArgumentException());
+
+        mockMvc.perform(
+                get(BASE_URL + "/stats/series")
+                        .param("userId", String.valueOf(JOHN_SMITH.getId()))
+                        .param("from", "2023-11-30")
+                        .param("to", "2023-10-01")
+        ).andExpect(status().isBadRequest());
+
+        verify(service).getStatsSeriesByUser(JOHN_SMITH.getId(), LocalDate.of(2023, 11, 30),
+                LocalDate.of(2023, 10, 1), StatsInterval.DAY, ZoneId.of("UTC"));
+    }
+}
@@ -5,17 +5,26 @@ import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
 import static com.bit.galleog.runtracker.TestFixtures.NEW_USER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.UserCursor;
 import com.bit.galleog.runtracker.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -26,6 +35,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -33,6 +43,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**verify(service).deleteUser(JOHN_SMITH.getId());
  * Tests for {@link }
@@ -47,6 +58,7 @@ import java.util.Optional;
 })
 class UserControllerTest {
     private static final String BASE_URL = "/users";
+    private static final long USER_VERSION = 3L;
 
     @MockBean
     private UserService service;
@@ -75,6 +87,28 @@ class UserControllerTest {
         verify(service).getUserById(JOHN_SMITH.getId());
     }
 
+    @Test
+    void shouldSetVersionOfUserAsETag() throws Exception {
+        when(service.getUserById(JOHN_SMITH.getId())).thenReturn(Optional.of(versioned(JOHN_SMITH)));
+
+        mockMvc.perform(get(BASE_URL + "/" + JOHN_SMITH.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + USER_VERSION + "\""))
+                .andExpect(jsonPath("$.id").value(JOHN_SMITH.getId()))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void shouldNotReturnUnmodifiedUser() throws Exception {
+        when(service.getUserById(JOHN_SMITH.getId())).thenReturn(Optional.of(versioned(JOHN_SMITH)));
+
+        mockMvc.perform(
+                        get(BASE_URL + "/" + JOHN_SMITH.getId())
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"" + USER_VERSION + "\"")
+                ).andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void shouldFailIfUserDoesNotExist() throws Exception {
         when(service.getUserById(JOHN_SMITH.getId())).thenReturn(Optional.empty());
@@ -109,6 +143,61 @@ class UserControllerTest {
         verify(service).getAllUsers();
     }
 
+    @Test
+    void shouldReturnUsersPage() throws Exception {
+        var after = UserCursor.of(BARBARA_MOORE);
+        when(service.getUsers(after, 2)).thenReturn(List.of(JOHN_SMITH));
+
+        mockMvc.perform(
+                        get(BASE_URL)
+                                .param("limit", "2")
+                                .param("afterLastName", BARBARA_MOORE.getLastName())
+                                .param("afterFirstName", BARBARA_MOORE.getFirstName())
+                                .param("afterId", String.valueOf(BARBARA_MOORE.getId()))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(JOHN_SMITH.getId()))
+                .andExpect(jsonPath("$[0].firstName").value(JOHN_SMITH.getFirstName()))
+                .andExpect(jsonPath("$[0].lastName").value(JOHN_SMITH.getLastName()));
+
+        verify(service).getUsers(after, 2);
+    }
+
+    @Test
+    void shouldNotReturnUsersPageAfterPartiallySpecifiedUser() throws Exception {
+        mockMvc.perform(
+                get(BASE_URL)
+                        .param("limit", "2")
+                        .param("afterLastName", BARBARA_MOORE.getLastName())
+        ).andExpect(status().isBadRequest());
+
+        verify(service, never()).getUsers(any(), anyInt());
+    }
+
+    @Test
+    void shouldStreamAllUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(JOHN_SMITH);
+            action.accept(BARBARA_MOORE);
+            return null;
+        }).when(service).forEachUser(any());
+
+        var result = mockMvc.perform(get(BASE_URL).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(JOHN_SMITH) + "\n" +
+                                objectMapper.writeValueAsString(BARBARA_MOORE) + "\n"
+                ));
+
+        verify(service).forEachUser(any());
+    }
+
     @Test
     void shouldCreateNewUser() throws Exception {
         when(service.createUser(userCaptor.capture())).thenReturn(JOHN_SMITH);
@@ -217,4 +306,15 @@ class UserControllerTest {
 
         verify(service).deleteUser(JOHN_SMITH.getId());
     }
-}
\ No newline at end of file
+
+    private static User versioned(User user) {
+        return User.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .birthDate(user.getBirthDate())
+                .sex(user.getSex())
+                .version(USER_VERSION)
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.bit.galleog.runtracker.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+
+/**
+ * Tests for {@link AgeBand}.
+ *
+ * @author Oleg_Galkin
+ */
+class AgeBandTest {
+    @ParameterizedTest
+    @CsvSource({
+            "2010-05-01, UNDER_20",
+            "2004-11-02, UNDER_20",
+            "2004-11-01, FROM_20_TO_29",
+            "1994-11-02, FROM_20_TO_29",
+            "1985-08-02, FROM_30_TO_39",
+            "1963-11-01, FROM_60",
+            "2030-01-01, UNDER_20"
+    })
+    void shouldDetermineAgeBand(LocalDate birthDate, AgeBand band) {
+        assertThat(AgeBand.of(birthDate, LocalDate.of(2024, 11, 1))).isEqualTo(band);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bit.galleog.runtracker.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import org.assertj.core.data.Offset;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Tests for {@link Distances}.
+ *
+ * @author Oleg_Galkin
+ */
+class DistancesTest {
+    private static final LocalDateTime DATETIME = LocalDateTime.of(2023, 11, 8, 11, 23, 34);
+
+    @Property(tries = 1000)
+    void shouldSumLikeRunPoints(@ForAll @IntRange(min = 2, max = 200) int size,
+                                @ForAll @IntRange(min = 1, max = 5_000_000) int step,
+                                @ForAll long seed) {
+        var points = track(size, step, seed);
+
+        var expected = 0.0D;
+        for (int i = 1; i < size; i++) {
+            expected += points.get(i - 1).calcPreciseDistanceTo(points.get(i));
+        }
+        assertThat(Distances.sum(points)).isEqualTo(expected);
+    }
+
+    @Property(tries = 1000)
+    void shouldCalcDistancesBetweenPoints(@ForAll @IntRange(min = 2, max = 200) int size,
+                                          @ForAll @IntRange(min = 1, max = 5_000_000) int step,
+                                          @ForAll long seed) {
+        var points = track(size, step, seed);
+        var latitudes = points.stream().mapToInt(RunPoint::getLatitudeE6).toArray();
+        var longitudes = points.stream().mapToInt(RunPoint::getLongitudeE6).toArray();
+
+        var distances = new double[size - 1];
+        Distances.between(latitudes, longitudes, Distances.cosines(latitudes, size), size, distances);
+
+        for (int i = 1; i < size; i++) {
+            assertThat(distances[i - 1]).isEqualTo(points.get(i - 1).calcPreciseDistanceTo(points.get(i)));
+        }
+    }
+
+    @Property(tries = 1000)
+    void shouldApproximateShortSegments(@ForAll @IntRange(min = 2, max = 200) int size,
+                                        @ForAll @IntRange(min = 1, max = 20_000) int step,
+                                        @ForAll long seed) {
+        var points = track(size, step, seed);
+        var latitudes = points.stream().mapToInt(RunPoint::getLatitudeE6).toArray();
+        var longitudes = points.stream().mapToInt(RunPoint::getLongitudeE6).toArray();
+
+        // longer segments are calculated by Haversine method exactly
+        assertThat(Distances.sumApproximately(latitudes, longitudes, size)).isCloseTo(
+                Distances.sum(latitudes, longitudes, size),
+                Offset.offset((size - 1) * Distances.MAX_APPROXIMATION_ERROR + 1.0E-6D)
+        );
+    }
+
+    @Example
+    void shouldApproximateSegmentsNearPoles() {
+        int[] latitudes = {89_990_000, 89_999_000, 89_995_000, -89_990_000, -89_999_000};
+        int[] longitudes = {0, 10_000, -170_000_000, 0, -10_000};
+
+        var approximate = Distances.sumApproximately(latitudes, longitudes, latitudes.length);
+        assertThat(approximate).isCloseTo(Distances.sum(latitudes, longitudes, latitudes.length),
+                Offset.offset(4 * Distances.MAX_APPROXIMATION_ERROR));
+    }
+
+    @Example
+    void shouldReturnZeroForSinglePoint() {
+        assertThat(Distances.sum(new int[]{41_644_035}, new int[]{41_633_785}, 1)).isZero();
+        assertThat(Distances.sumApproximately(new int[0], new int[0], 0)).isZero();
+    }
+
+    @Example
+    void shouldNotAllowTooFewCoordinates() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                Distances.sum(new int[]{41_644_035, 41_651_804}, new int[]{41_633_785}, 2)
+        );
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                Distances.between(new int[2], new int[2], new double[2], 2, new double[0])
+        );
+    }
+
+    // points moving by up to the step in each direction
+    private static List<RunPoint> track(int size, int step, long seed) {
+        var random = new SplittableRandom(seed);
+        var points = new ArrayList<RunPoint>(size);
+        var latitude = random.nextInt(-89_000_000, 89_000_001);
+        var longitude = random.nextInt(-179_000_000, 179_000_001);
+        for (int i = 0; i < size; i++) {
+            points.add(RunPoint.ofMicroDegrees(DATETIME.plusSeconds(i), latitude, longitude));
+            latitude = Math.clamp(latitude + (long) random.nextInt(-step, step + 1), -90_000_000, 90_000_000);
+            longitude = Math.clamp(longitude + (long) random.nextInt(-step, step + 1), -180_000_000, 180_000_000);
+        }
+        return points;
+    }
+}
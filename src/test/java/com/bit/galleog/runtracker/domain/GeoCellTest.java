@@ -0,0 +1,73 @@
+package com.bit.galleog.runtracker.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.List;
+
+/**
+ * Tests for {@link GeoCell}.
+ *
+ * @author Oleg_Galkin
+ */
+class GeoCellTest {
+    @Property(tries = 5000)
+    void shouldCoverPointsOfBox(@ForAll @IntRange(min = -89_000_000, max = 88_000_000) int minLatitude,
+                                @ForAll @IntRange(min = -180_000_000, max = 180_000_000) int minLongitude,
+                                @ForAll @IntRange(min = 1, max = 1_000_000) int height,
+                                @ForAll @IntRange(min = 1, max = 1_000_000) int width,
+                                @ForAll @IntRange(max = 1000) int dy,
+                                @ForAll @IntRange(max = 1000) int dx) {
+        var box = new GeoBox(minLatitude, minLongitude, minLatitude + height, wrap(minLongitude + width));
+        var ranges = GeoCell.cover(box);
+
+        // corners and a point inside of the box
+        assertThat(isCovered(ranges, box.minLatitudeE6(), box.minLongitudeE6())).isTrue();
+        assertThat(isCovered(ranges, box.maxLatitudeE6(), box.maxLongitudeE6())).isTrue();
+        assertThat(isCovered(ranges, box.minLatitudeE6(), box.maxLongitudeE6())).isTrue();
+        assertThat(isCovered(ranges, box.maxLatitudeE6(), box.minLongitudeE6())).isTrue();
+        assertThat(isCovered(ranges, minLatitude + (int) ((long) height * dy / 1000),
+                wrap(minLongitude + (int) ((long) width * dx / 1000)))).isTrue();
+        // two boxes are covered if the box crosses the antimeridian
+        assertThat(ranges).hasSizeLessThanOrEqualTo(2 * GeoCell.MAX_COVERING_CELLS);
+    }
+
+    @Example
+    void shouldMergeAdjacentRanges() {
+        var ranges = GeoCell.cover(new GeoBox(55_750_000, 37_610_000, 55_760_000, 37_630_000));
+
+        for (int i = 1; i < ranges.size(); i++) {
+            assertThat(ranges.get(i).from()).isGreaterThan(ranges.get(i - 1).to() + 1);
+        }
+    }
+
+    @Example
+    void shouldCoverWholeGlobe() {
+        var ranges = GeoCell.cover(new GeoBox(-90_000_000, -180_000_000, 90_000_000, 180_000_000));
+
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.get(0).from()).isZero();
+        assertThat(ranges.get(0).to()).isGreaterThanOrEqualTo(GeoCell.of(90_000_000, 180_000_000));
+    }
+
+    @Example
+    void shouldKeepCloseCellsOfClosePoints() {
+        var cell = GeoCell.of(55_755_831, 37_617_673);
+
+        assertThat(GeoCell.of(55_755_830, 37_617_672)).isEqualTo(cell - 3);
+        assertThat(GeoCell.of(-55_755_831, -37_617_673)).isLessThan(cell);
+    }
+
+    private static boolean isCovered(List<GeoCell.Range> ranges, int latitudeE6, int longitudeE6) {
+        var cell = GeoCell.of(latitudeE6, longitudeE6);
+        return ranges.stream().anyMatch(range -> range.from() <= cell && cell <= range.to());
+    }
+
+    private static int wrap(int longitudeE6) {
+        return longitudeE6 > 180_000_000 ? longitudeE6 - 360_000_000 : longitudeE6;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bit.galleog.runtracker.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Tests for {@link GeoCircle}.
+ *
+ * @author Oleg_Galkin
+ */
+class GeoCircleTest {
+    private static final LocalDateTime DATETIME = LocalDateTime.now();
+
+    @Test
+    void shouldBoundCircle() {
+        var circle = GeoCircle.of(new BigDecimal("55.755831"), new BigDecimal("37.617673"), 1000);
+        var bounds = circle.bounds();
+
+        assertThat(bounds.crossesAntimeridian()).isFalse();
+        // points at the radius to the north, south, east and west are in the box
+        var center = RunPoint.ofMicroDegrees(DATETIME, circle.latitudeE6(), circle.longitudeE6());
+        assertThat(center.calcPreciseDistanceTo(RunPoint.ofMicroDegrees(
+                DATETIME, bounds.maxLatitudeE6(), circle.longitudeE6()))).isGreaterThanOrEqualTo(1000.0D);
+        assertThat(center.calcPreciseDistanceTo(RunPoint.ofMicroDegrees(
+                DATETIME, bounds.minLatitudeE6(), circle.longitudeE6()))).isGreaterThanOrEqualTo(1000.0D);
+        assertThat(center.calcPreciseDistanceTo(RunPoint.ofMicroDegrees(
+                DATETIME, circle.latitudeE6(), bounds.maxLongitudeE6()))).isGreaterThanOrEqualTo(1000.0D);
+        assertThat(center.calcPreciseDistanceTo(RunPoint.ofMicroDegrees(
+                DATETIME, circle.latitudeE6(), bounds.minLongitudeE6()))).isGreaterThanOrEqualTo(1000.0D);
+        // but the box isn't much larger than the circle
+        assertThat(bounds.latitudeSpanE6()).isLessThan(18_100);
+        assertThat(bounds.longitudeSpanE6()).isLessThan(32_300);
+    }
+
+    @Test
+    void shouldWrapBoundsAcrossAntimeridian() {
+        var bounds = new GeoCircle(-16_500_000, 179_999_000, 5000).bounds();
+
+        assertThat(bounds.crossesAntimeridian()).isTrue();
+        assertThat(bounds.minLongitudeE6()).isLessThan(179_999_000);
+        assertThat(bounds.maxLongitudeE6()).isLessThan(-179_950_000);
+    }
+
+    @Test
+    void shouldIncludeAllLongitudesNearPole() {
+        var bounds = new GeoCircle(89_990_000, 10_000_000, 5000).bounds();
+
+        assertThat(bounds.maxLatitudeE6()).isEqualTo(90_000_000);
+        assertThat(bounds.minLongitudeE6()).isEqualTo(-180_000_000);
+        assertThat(bounds.maxLongitudeE6()).isEqualTo(180_000_000);
+    }
+
+    @Test
+    void shouldNotAllowNonPositiveRadius() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new GeoCircle(0, 0, 0));
+    }
+}
@@ -35,6 +35,24 @@ class RunPointTest {
         );
     }
 
+    @Test
+    void shouldCreatePointFromMicroDegrees() {
+        var datetime = LocalDateTime.now();
+        var point = RunPoint.ofMicroDegrees(datetime, 37908730, -71386202);
+
+        assertThat(point).extracting(
+                RunPoint::getLatitudeE6, RunPoint::getLongitudeE6,
+                RunPoint::getLatitude, RunPoint::getLongitude
+        ).containsExactly(
+                37908730, -71386202, SCALED_LATITUDE, SCALED_LONGITUDE
+        );
+        assertThat(point).isEqualTo(RunPoint.builder()
+                .datetime(datetime)
+                .latitude(LATITUDE)
+                .longitude(LONGITUDE)
+                .build());
+    }
+
     @Test
     void shouldCheckLatitudeRange() {
         assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
@@ -52,6 +70,15 @@ class RunPointTest {
                         .longitude(SCALED_LONGITUDE)
                         .build()
         );
+
+        // must not be rounded to the bound
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                RunPoint.builder()
+                        .datetime(LocalDateTime.now())
+                        .latitude(new BigDecimal("90.0000004"))
+                        .longitude(SCALED_LONGITUDE)
+                        .build()
+        );
     }
 
     @Test
@@ -71,6 +98,19 @@ class RunPointTest {
                         .longitude(new BigDecimal("180.000001"))
                         .build()
         );
+
+        // must not be rounded to the bound
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                RunPoint.builder()
+                        .datetime(LocalDateTime.now())
+                        .latitude(SCALED_LATITUDE)
+                        .longitude(new BigDecimal("-180.0000004"))
+                        .build()
+        );
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                RunPoint.ofMicroDegrees(LocalDateTime.now(), 37908730, 180000001)
+        );
     }
 
     @Test
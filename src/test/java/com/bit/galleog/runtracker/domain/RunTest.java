@@ -4,10 +4,16 @@ import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
 import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Tests for {@link Run}.
@@ -44,4 +50,69 @@ class RunTest {
                 (double) run.getDistance() / (double) diffSecs * 3.6
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldCalcAvgSpeedOnce() {
+        var run = Run.builder()
+                .id(1L)
+                .userId(JOHN_SMITH.getId())
+                .startPoint(STARTED_RUN_JOHN_SMITH_1.getStartPoint())
+                .finishPoint(RunPoint.builder()
+                        .datetime(STARTED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime().plusSeconds(1000))
+                        .latitude(BigDecimal.ZERO)
+                        .longitude(BigDecimal.ZERO)
+                        .build())
+                .distance(2792)
+                .build();
+
+        // 10.0512 km/h
+        assertThat(run.getAvgSpeed()).isEqualTo(10.05D).isSameAs(run.getAvgSpeed());
+    }
+
+    @Test
+    void shouldCalcAvgSpeedOfRunShorterThanSecond() {
+        var run = Run.builder()
+                .id(1L)
+                .userId(JOHN_SMITH.getId())
+                .startPoint(STARTED_RUN_JOHN_SMITH_1.getStartPoint())
+                .finishPoint(RunPoint.builder()
+                        .datetime(STARTED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime().plusNanos(500_000_000))
+                        .latitude(BigDecimal.ZERO)
+                        .longitude(BigDecimal.ZERO)
+                        .build())
+                .distance(3)
+                .build();
+
+        assertThat(run.getAvgSpeed()).isEqualTo(21.6D);
+    }
+
+    @Property(tries = 10000)
+    void shouldCalcAvgSpeedLikeBeforeForFractionalDatetimes(
+            @ForAll @IntRange(max = 100_000) int distance,
+            @ForAll @IntRange(max = 999_999_999) int startNanos,
+            @ForAll @LongRange(min = 1_000_000_000L, max = 86_400_000_000_000L) long durationNanos) {
+        var start = LocalDateTime.of(2024, 1, 1, 10, 0).plusNanos(startNanos);
+        var finish = start.plusNanos(durationNanos);
+
+        var run = Run.builder()
+                .id(1L)
+                .userId(JOHN_SMITH.getId())
+                .startPoint(RunPoint.builder()
+                        .datetime(start)
+                        .latitude(BigDecimal.ZERO)
+                        .longitude(BigDecimal.ZERO)
+                        .build())
+                .finishPoint(RunPoint.builder()
+                        .datetime(finish)
+                        .latitude(BigDecimal.ZERO)
+                        .longitude(BigDecimal.ZERO)
+                        .build())
+                .distance(distance)
+                .build();
+
+        // the way average speeds were calculated before
+        var speed = (double) distance / (double) ChronoUnit.SECONDS.between(start, finish) * 3.6;
+        assertThat(run.getAvgSpeed())
+                .isEqualTo(BigDecimal.valueOf(speed).setScale(2, RoundingMode.HALF_UP).doubleValue());
+    }
+}
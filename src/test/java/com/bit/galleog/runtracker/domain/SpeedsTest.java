@@ -0,0 +1,54 @@
+package com.bit.galleog.runtracker.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.DoubleRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Tests for {@link Speeds}.
+ *
+ * @author Oleg_Galkin
+ */
+class SpeedsTest {
+    @Property(tries = 10000)
+    void shouldRoundLikeBigDecimal(@ForAll @DoubleRange(min = -2.0E9, max = 2.0E9) double speed) {
+        assertThat(Speeds.round(speed)).isEqualTo(roundBigDecimal(speed));
+    }
+
+    @Property(tries = 10000)
+    void shouldRoundHalvesLikeBigDecimal(@ForAll @LongRange(min = -10_000_000L, max = 10_000_000L) long thousandths) {
+        // decimals with 3 fraction digits are often midpoints the double product is rounded across
+        var speed = thousandths / 1000.0D;
+        assertThat(Speeds.round(speed)).isEqualTo(roundBigDecimal(speed));
+    }
+
+    @Property(tries = 10000)
+    void shouldCalcSpeedsOfRunsLikeBigDecimal(@ForAll @IntRange(max = 100_000) int distance,
+                                              @ForAll @IntRange(min = 1, max = 86_400) int seconds) {
+        var speed = Speeds.kmh(distance, seconds);
+        assertThat(Speeds.round(speed)).isEqualTo(roundBigDecimal((double) distance / (double) seconds * 3.6));
+    }
+
+    @Example
+    void shouldRoundHalfUp() {
+        assertThat(Speeds.round(1.005D)).isEqualTo(1.01D);
+        assertThat(Speeds.round(2.675D)).isEqualTo(2.68D);
+        assertThat(Speeds.round(-1.005D)).isEqualTo(-1.01D);
+        assertThat(Speeds.round(1.0049D)).isEqualTo(1.0D);
+        assertThat(Speeds.round(-0.001D)).isEqualTo(0.0D);
+        assertThat(Speeds.round(1.0E12D + 0.125D)).isEqualTo(roundBigDecimal(1.0E12D + 0.125D));
+    }
+
+    private static double roundBigDecimal(double speed) {
+        // the way speeds were rounded before
+        return BigDecimal.valueOf(speed).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bit.galleog.runtracker.leaderboard;
+
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
+import static com.bit.galleog.runtracker.TestFixtures.ELAINE_JOHNSON;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import com.bit.galleog.runtracker.domain.AgeBand;
+import com.bit.galleog.runtracker.domain.LeaderboardEntry;
+import com.bit.galleog.runtracker.domain.LeaderboardMetric;
+import com.bit.galleog.runtracker.domain.Sex;
+import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+/**
+ * Tests for {@link Leaderboard}.
+ *
+ * @author Oleg_Galkin
+ */
+class LeaderboardTest {
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new Leaderboard(LocalDate.of(2023, 11, 1));
+        // 10 km at 2.5 m/s and 6 km at 3 m/s
+        leaderboard.add(totals(JOHN_SMITH, 2, 16000, 5.5D));
+        // 12 km at 3.5 m/s
+        leaderboard.add(totals(BARBARA_MOORE, 1, 12000, 3.5D));
+        // 5 km at 2 m/s
+        leaderboard.add(totals(ELAINE_JOHNSON, 1, 5000, 2.0D));
+    }
+
+    @Test
+    void shouldRankByDistance() {
+        assertThat(leaderboard.top(LeaderboardMetric.DISTANCE, null, null, 10)).extracting(
+                LeaderboardEntry::getRank,
+                LeaderboardEntry::getUserId,
+                LeaderboardEntry::getCount,
+                LeaderboardEntry::getDistance,
+                LeaderboardEntry::getAvgSpeed
+        ).containsExactly(
+                tuple(1, JOHN_SMITH.getId(), 2, 16000L, 9.9D),
+                tuple(2, BARBARA_MOORE.getId(), 1, 12000L, 12.6D),
+                tuple(3, ELAINE_JOHNSON.getId(), 1, 5000L, 7.2D)
+        );
+    }
+
+    @Test
+    void shouldRankByAvgSpeed() {
+        assertThat(leaderboard.top(LeaderboardMetric.AVG_SPEED, null, null, 2))
+                .extracting(LeaderboardEntry::getUserId)
+                .containsExactly(BARBARA_MOORE.getId(), JOHN_SMITH.getId());
+    }
+
+    @Test
+    void shouldRankBySexAndAgeBand() {
+        // John is 38, Barbara is 28 and Elaine is 24 on the first day of the period
+        assertThat(leaderboard.top(LeaderboardMetric.DISTANCE, null, AgeBand.FROM_20_TO_29, 10))
+                .extracting(LeaderboardEntry::getRank, LeaderboardEntry::getUserId)
+                .containsExactly(tuple(1, BARBARA_MOORE.getId()), tuple(2, ELAINE_JOHNSON.getId()));
+        assertThat(leaderboard.top(LeaderboardMetric.DISTANCE, Sex.MALE, AgeBand.FROM_30_TO_39, 10))
+                .extracting(LeaderboardEntry::getUserId)
+                .containsExactly(JOHN_SMITH.getId());
+        assertThat(leaderboard.top(LeaderboardMetric.DISTANCE, Sex.FEMALE, AgeBand.FROM_30_TO_39, 10))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldGetEntryOfUser() {
+        assertThat(leaderboard.entryOf(LeaderboardMetric.AVG_SPEED, null, null, ELAINE_JOHNSON.getId()))
+                .get()
+                .extracting(LeaderboardEntry::getRank, LeaderboardEntry::getAvgSpeed)
+                .containsExactly(3, 7.2D);
+        assertThat(leaderboard.entryOf(LeaderboardMetric.DISTANCE, Sex.MALE, null, ELAINE_JOHNSON.getId()))
+                .isEmpty();
+        assertThat(leaderboard.entryOf(LeaderboardMetric.DISTANCE, null, null, 4L)).isEmpty();
+    }
+
+    @Test
+    void shouldAddRunsIncrementally() {
+        // 12 km at 4 m/s
+        leaderboard.add(totals(ELAINE_JOHNSON, 1, 12000, 4.0D));
+
+        assertThat(leaderboard.entryOf(LeaderboardMetric.DISTANCE, null, null, ELAINE_JOHNSON.getId()))
+                .get()
+                .extracting(
+                        LeaderboardEntry::getRank,
+                        LeaderboardEntry::getCount,
+                        LeaderboardEntry::getDistance,
+                        LeaderboardEntry::getAvgSpeed
+                ).containsExactly(1, 2, 17000L, 10.8D);
+        assertThat(leaderboard.top(LeaderboardMetric.DISTANCE, null, AgeBand.FROM_20_TO_29, 1))
+                .extracting(LeaderboardEntry::getUserId)
+                .containsExactly(ELAINE_JOHNSON.getId());
+    }
+
+    private static UserRunTotals totals(User user, int count, long distance, double speedSum) {
+        return UserRunTotals.builder()
+                .userId(user.getId())
+                .sex(user.getSex())
+                .birthDate(user.getBirthDate())
+                .count(count)
+                .distance(distance)
+                .speedSum(speedSum)
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.bit.galleog.runtracker.leaderboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link RankingTree}.
+ *
+ * @author Oleg_Galkin
+ */
+class RankingTreeTest {
+    private RankingTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new RankingTree();
+    }
+
+    @Test
+    void shouldRankByDescendingScores() {
+        tree.put(1L, 5000.0D);
+        tree.put(2L, 12000.0D);
+        tree.put(3L, 8000.0D);
+
+        assertThat(tree.top(10)).containsExactly(2L, 3L, 1L);
+        assertThat(tree.rankOf(2L)).isEqualTo(1);
+        assertThat(tree.rankOf(1L)).isEqualTo(3);
+        assertThat(tree.rankOf(4L)).isZero();
+    }
+
+    @Test
+    void shouldRankEqualScoresByUsers() {
+        tree.put(3L, 1000.0D);
+        tree.put(1L, 1000.0D);
+        tree.put(2L, 1000.0D);
+
+        assertThat(tree.top(2)).containsExactly(1L, 2L);
+        assertThat(tree.rankOf(3L)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldUpdateScore() {
+        tree.put(1L, 5000.0D);
+        tree.put(2L, 8000.0D);
+        tree.put(1L, 10000.0D);
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.top(10)).containsExactly(1L, 2L);
+        assertThat(tree.rankOf(2L)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRemoveUser() {
+        tree.put(1L, 5000.0D);
+        tree.put(2L, 8000.0D);
+
+        assertThat(tree.remove(2L)).isTrue();
+        assertThat(tree.remove(2L)).isFalse();
+        assertThat(tree.top(10)).containsExactly(1L);
+        assertThat(tree.rankOf(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotAcceptNaN() {
+        assertThatIllegalArgumentException().isThrownBy(() -> tree.put(1L, Double.NaN));
+    }
+
+    @Test
+    void shouldMatchSortedScores() {
+        var random = new Random(42);
+        var scores = new HashMap<Long, Double>();
+        for (int i = 0; i < 10_000; i++) {
+            var userId = (long) random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                scores.remove(userId);
+                tree.remove(userId);
+            } else {
+                // few distinct scores to have ties
+                var score = (double) random.nextInt(100);
+                scores.put(userId, score);
+                tree.put(userId, score);
+            }
+        }
+
+        var expected = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        assertThat(tree.size()).isEqualTo(expected.size());
+        assertThat(tree.top(expected.size() + 1)).isEqualTo(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(tree.rankOf(expected.get(i))).isEqualTo(i + 1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.bit.galleog.runtracker.migration;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+/**
+ * Tests for {@link PartitionedCopyChange}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PartitionedCopyChangeTest {
+    private static final String SOURCE_TABLE = "runs_copy_source";
+    private static final String TABLE = "runs_copy";
+    private static final String PARTITION_PREFIX = "runs_copy_p";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private PartitionedCopyChange change;
+
+    @BeforeEach
+    void setUp() {
+        // months are committed, so the tables are committed too
+        ctx.execute("create table " + SOURCE_TABLE + " (like " + RUNS.getName() + " including defaults)");
+        ctx.execute("create table " + TABLE + " (like " + RUNS.getName() + " including defaults, " +
+                "primary key (id, start_datetime)) partition by range (start_datetime)");
+
+        // two runs in January and one in March, none in February
+        insert(1L, LocalDateTime.of(2099, 1, 1, 0, 0));
+        insert(2L, LocalDateTime.of(2099, 1, 31, 23, 59));
+        insert(3L, LocalDateTime.of(2099, 3, 15, 10, 0));
+
+        change = new PartitionedCopyChange();
+        change.setSourceTableName(SOURCE_TABLE);
+        change.setTableName(TABLE);
+        change.setColumnName("start_datetime");
+        change.setPartitionPrefix(PARTITION_PREFIX);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ctx.execute("drop table if exists " + TABLE);
+        ctx.execute("drop table if exists " + SOURCE_TABLE);
+    }
+
+    @Test
+    void shouldCopyRowsToPartitionsOfMonths() throws Exception {
+        apply();
+
+        assertThat(ctx.fetchCount(ctx.resultQuery("select * from " + PARTITION_PREFIX + "209901"))).isEqualTo(2);
+        assertThat(ctx.fetchCount(ctx.resultQuery("select * from " + PARTITION_PREFIX + "209903"))).isEqualTo(1);
+        assertThat(ctx.fetchCount(
+                ctx.resultQuery("select 1 from pg_catalog.pg_inherits " +
+                        "where inhparent = cast({0} as regclass)", TABLE)
+        )).isEqualTo(2);
+    }
+
+    @Test
+    void shouldBeAppliedAgain() throws Exception {
+        apply();
+        insert(4L, LocalDateTime.of(2099, 3, 20, 10, 0));
+
+        // rows copied before are skipped
+        apply();
+
+        assertThat(ctx.fetchCount(ctx.resultQuery("select * from " + TABLE))).isEqualTo(4);
+    }
+
+    @Test
+    void shouldSkipEmptyTable() throws Exception {
+        ctx.execute("truncate " + SOURCE_TABLE);
+
+        apply();
+
+        assertThat(ctx.fetchCount(ctx.resultQuery("select * from " + TABLE))).isZero();
+    }
+
+    @Test
+    void shouldValidateParameters() {
+        change.setColumnName(" ");
+        change.setPartitionPrefix(null);
+
+        assertThat(change.validate(null).getErrorMessages()).hasSize(2);
+    }
+
+    private void insert(long id, LocalDateTime startDateTime) {
+        ctx.execute("insert into " + SOURCE_TABLE + " (id, user_id, start_datetime, start_latitude, start_longitude) " +
+                "values (?, 1, ?, 0, 0)", id, startDateTime);
+    }
+
+    private void apply() throws Exception {
+        try (var connection = dataSource.getConnection()) {
+            var database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            change.execute(database);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bit.galleog.runtracker.migration;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+/**
+ * Tests for {@link PartitionedIndexChange}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PartitionedIndexChangeTest {
+    private static final String INDEX_NAME = "idx_runs_test";
+    private static final String PARTITION = "runs_p209901";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private PartitionedIndexChange change;
+
+    @BeforeEach
+    void setUp() {
+        // indexes can't be created concurrently in a transaction
+        ctx.execute("create table " + PARTITION + " partition of " + RUNS.getName() +
+                " for values from ('2099-01-01') to ('2099-02-01')");
+
+        change = new PartitionedIndexChange();
+        change.setTableName(RUNS.getName());
+        change.setIndexName(INDEX_NAME);
+        change.setDefinition("(finish_datetime) where finish_datetime is not null");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ctx.execute("drop index if exists " + INDEX_NAME);
+        ctx.execute("drop table if exists " + PARTITION);
+    }
+
+    @Test
+    void shouldCreateIndexOnPartitions() throws Exception {
+        apply();
+
+        assertThat(isValid(INDEX_NAME)).isTrue();
+        assertThat(isValid(PARTITION + "_" + INDEX_NAME)).isTrue();
+        assertThat(isValid("runs_default_" + INDEX_NAME)).isTrue();
+    }
+
+    @Test
+    void shouldBeAppliedAgain() throws Exception {
+        apply();
+        apply();
+
+        assertThat(isValid(INDEX_NAME)).isTrue();
+        assertThat(ctx.fetchCount(
+                ctx.resultQuery("select 1 from pg_catalog.pg_inherits " +
+                        "where inhparent = cast({0} as regclass)", INDEX_NAME)
+        )).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecreateInvalidIndexOfPartition() throws Exception {
+        // an invalid index is left if a concurrent build fails
+        ctx.execute("create index " + PARTITION + "_" + INDEX_NAME + " on " + PARTITION +
+                " (finish_datetime) where finish_datetime is not null");
+        ctx.execute("update pg_catalog.pg_index set indisvalid = false " +
+                "where indexrelid = cast({0} as regclass)", PARTITION + "_" + INDEX_NAME);
+
+        apply();
+
+        assertThat(isValid(PARTITION + "_" + INDEX_NAME)).isTrue();
+        assertThat(isValid(INDEX_NAME)).isTrue();
+    }
+
+    @Test
+    void shouldValidateParameters() {
+        change.setDefinition(" ");
+
+        assertThat(change.validate(null).getErrorMessages()).hasSize(1);
+    }
+
+    private void apply() throws Exception {
+        try (var connection = dataSource.getConnection()) {
+            var database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            change.execute(database);
+        }
+    }
+
+    private boolean isValid(String index) {
+        return ctx.fetchValue(
+                "select x.indisvalid from pg_catalog.pg_index x " +
+                        "join pg_catalog.pg_class c on c.oid = x.indexrelid where c.relname = {0}",
+                index
+        ) instanceof Boolean valid && valid;
+    }
+}
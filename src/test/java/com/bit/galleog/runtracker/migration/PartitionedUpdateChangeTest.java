@@ -0,0 +1,105 @@
+package com.bit.galleog.runtracker.migration;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.USERS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+/**
+ * Tests for {@link PartitionedUpdateChange}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PartitionedUpdateChangeTest {
+    private static final String PARTITION = "runs_p209901";
+    private static final long USER_ID = 9001L;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private PartitionedUpdateChange change;
+
+    @BeforeEach
+    void setUp() {
+        // batches are committed, so the data is committed too
+        ctx.execute("create table " + PARTITION + " partition of " + RUNS.getName() +
+                " for values from ('2099-01-01') to ('2099-02-01')");
+        ctx.execute("insert into users (id, first_name, last_name, birth_date, sex) " +
+                "values (?, 'John', 'Smith', date '1990-01-01', 'MALE')", USER_ID);
+
+        // five runs in the partition and two in the default one, one of them has a distance already
+        for (long id = 1; id <= 7; id++) {
+            ctx.execute("insert into runs (id, user_id, start_datetime, start_latitude, start_longitude, distance) " +
+                            "values (?, ?, ?, 0, 0, " + (id == 7 ? "500" : "null") + ")",
+                    USER_ID + id, USER_ID,
+                    id <= 5 ? LocalDateTime.of(2099, 1, (int) id, 10, 0) : LocalDateTime.of(2098, 1, 1, 10, 0));
+        }
+
+        change = new PartitionedUpdateChange();
+        change.setTableName(RUNS.getName());
+        change.setAssignments("distance = 0");
+        change.setCondition("distance is null and user_id = " + USER_ID);
+        change.setBatchSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ctx.deleteFrom(RUNS).where(RUNS.USER_ID.eq(USER_ID)).execute();
+        ctx.deleteFrom(USERS).where(USERS.ID.eq(USER_ID)).execute();
+        ctx.execute("drop table if exists " + PARTITION);
+    }
+
+    @Test
+    void shouldUpdateRowsOfPartitionsInBatches() throws Exception {
+        apply();
+
+        assertThat(ctx.fetchCount(RUNS, RUNS.USER_ID.eq(USER_ID).and(RUNS.DISTANCE.eq(0)))).isEqualTo(6);
+        assertThat(ctx.fetchCount(RUNS, RUNS.USER_ID.eq(USER_ID).and(RUNS.DISTANCE.eq(500)))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBeAppliedAgain() throws Exception {
+        apply();
+        ctx.update(RUNS).set(RUNS.DISTANCE, 100).where(RUNS.USER_ID.eq(USER_ID)).execute();
+
+        // rows updated before aren't selected by the condition
+        apply();
+
+        assertThat(ctx.fetchCount(RUNS, RUNS.USER_ID.eq(USER_ID).and(RUNS.DISTANCE.eq(100)))).isEqualTo(7);
+    }
+
+    @Test
+    void shouldValidateParameters() {
+        change.setCondition(" ");
+        change.setBatchSize(0);
+
+        assertThat(change.validate(null).getErrorMessages()).hasSize(2);
+    }
+
+    private void apply() throws Exception {
+        try (var connection = dataSource.getConnection()) {
+            var database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            change.execute(database);
+        }
+    }
+}
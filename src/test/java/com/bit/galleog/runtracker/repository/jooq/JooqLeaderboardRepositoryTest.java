@@ -0,0 +1,124 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACK_CHUNKS;
+import static com.bit.galleog.runtracker.domain.Tables.USERS;
+import static com.ninja_squad.dbsetup.Operations.deleteAllFrom;
+import static com.ninja_squad.dbsetup.Operations.insertInto;
+import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import com.bit.galleog.runtracker.repository.LeaderboardRepository;
+import com.ninja_squad.dbsetup.DbSetup;
+import com.ninja_squad.dbsetup.destination.DataSourceDestination;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Tests for {@link JooqLeaderboardRepository}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+class JooqLeaderboardRepositoryTest {
+    private static final LocalDate FROM = LocalDate.of(2023, 11, 6);
+    private static final LocalDate TO = FROM.plusWeeks(1);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private LeaderboardRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JooqLeaderboardRepository(ctx);
+
+        var operation = sequenceOf(
+                deleteAllFrom(
+                        RUN_TRACK_CHUNKS.getName(),
+                        RUN_TRACKS.getName(),
+                        RUN_DAILY_STATS.getName(),
+                        RUN_TOTAL_STATS.getName(),
+                        RUNS.getName(),
+                        USERS.getName()
+                ),
+                insertInto(USERS.getName())
+                        .row()
+                        .column(USERS.ID.getName(), JOHN_SMITH.getId())
+                        .column(USERS.FIRST_NAME.getName(), JOHN_SMITH.getFirstName())
+                        .column(USERS.LAST_NAME.getName(), JOHN_SMITH.getLastName())
+                        .column(USERS.BIRTH_DATE.getName(), JOHN_SMITH.getBirthDate())
+                        .column(USERS.SEX.getName(), JOHN_SMITH.getSex().name())
+                        .end()
+                        .row()
+                        .column(USERS.ID.getName(), BARBARA_MOORE.getId())
+                        .column(USERS.FIRST_NAME.getName(), BARBARA_MOORE.getFirstName())
+                        .column(USERS.LAST_NAME.getName(), BARBARA_MOORE.getLastName())
+                        .column(USERS.BIRTH_DATE.getName(), BARBARA_MOORE.getBirthDate())
+                        .column(USERS.SEX.getName(), BARBARA_MOORE.getSex().name())
+                        .end()
+                        .build(),
+                insertInto(RUN_DAILY_STATS.getName())
+                        .columns(
+                                RUN_DAILY_STATS.USER_ID.getName(),
+                                RUN_DAILY_STATS.RUN_DATE.getName(),
+                                RUN_DAILY_STATS.RUN_COUNT.getName(),
+                                RUN_DAILY_STATS.TOTAL_DISTANCE.getName(),
+                                RUN_DAILY_STATS.SPEED_SUM.getName()
+                        )
+                        .values(JOHN_SMITH.getId(), FROM, 1, 5000, 2.5)
+                        .values(JOHN_SMITH.getId(), FROM.plusDays(6), 2, 11000, 5.5)
+                        .values(JOHN_SMITH.getId(), TO, 1, 8000, 3.0)
+                        .values(BARBARA_MOORE.getId(), FROM.minusDays(1), 1, 12000, 3.5)
+                        .values(BARBARA_MOORE.getId(), FROM.plusDays(3), 1, 6000, 3.0)
+                        .build()
+        );
+        new DbSetup(DataSourceDestination.with(new TransactionAwareDataSourceProxy(dataSource)), operation)
+                .launch();
+    }
+
+    @Test
+    void shouldSumTotalsOfUsersInRange() {
+        var totals = new ArrayList<UserRunTotals>();
+        repository.forEachUserTotals(FROM, TO, totals::add);
+
+        assertThat(totals).extracting(
+                UserRunTotals::getUserId,
+                UserRunTotals::getSex,
+                UserRunTotals::getBirthDate,
+                UserRunTotals::getCount,
+                UserRunTotals::getDistance,
+                UserRunTotals::getSpeedSum
+        ).containsExactlyInAnyOrder(
+                tuple(JOHN_SMITH.getId(), JOHN_SMITH.getSex(), JOHN_SMITH.getBirthDate(), 3, 16000L, 8.0D),
+                tuple(BARBARA_MOORE.getId(), BARBARA_MOORE.getSex(), BARBARA_MOORE.getBirthDate(), 1, 6000L, 3.0D)
+        );
+    }
+
+    @Test
+    void shouldNotPassTotalsIfNoRuns() {
+        var totals = new ArrayList<UserRunTotals>();
+        repository.forEachUserTotals(TO.plusWeeks(1), TO.plusWeeks(2), totals::add);
+
+        assertThat(totals).isEmpty();
+    }
+}
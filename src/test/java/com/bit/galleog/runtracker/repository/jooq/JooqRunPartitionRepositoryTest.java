@@ -0,0 +1,158 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACK_CHUNKS;
+import static com.bit.galleog.runtracker.domain.Tables.USERS;
+import static com.ninja_squad.dbsetup.Operations.deleteAllFrom;
+import static com.ninja_squad.dbsetup.Operations.insertInto;
+import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jooq.impl.DSL.table;
+
+import com.bit.galleog.runtracker.repository.RunPartitionRepository;
+import com.ninja_squad.dbsetup.DbSetup;
+import com.ninja_squad.dbsetup.destination.DataSourceDestination;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Tests for {@link JooqRunPartitionRepository}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+class JooqRunPartitionRepositoryTest {
+    private static final YearMonth RUN_MONTH =
+            YearMonth.from(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime());
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private RunPartitionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JooqRunPartitionRepository(ctx);
+
+        var operation = sequenceOf(
+                deleteAllFrom(
+                        RUN_TRACK_CHUNKS.getName(),
+                        RUN_TRACKS.getName(),
+                        RUN_DAILY_STATS.getName(),
+                        RUN_TOTAL_STATS.getName(),
+                        RUNS.getName(),
+                        USERS.getName()
+                ),
+                insertInto(USERS.getName())
+                        .row()
+                        .column(USERS.ID.getName(), JOHN_SMITH.getId())
+                        .column(USERS.FIRST_NAME.getName(), JOHN_SMITH.getFirstName())
+                        .column(USERS.LAST_NAME.getName(), JOHN_SMITH.getLastName())
+                        .column(USERS.BIRTH_DATE.getName(), JOHN_SMITH.getBirthDate())
+                        .column(USERS.SEX.getName(), JOHN_SMITH.getSex().name())
+                        .end()
+                        .build(),
+                insertInto(RUNS.getName())
+                        .row()
+                        .column(RUNS.ID.getName(), FINISHED_RUN_JOHN_SMITH_1.getId())
+                        .column(RUNS.USER_ID.getName(), FINISHED_RUN_JOHN_SMITH_1.getUserId())
+                        .column(
+                                RUNS.START_DATETIME.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime()
+                        ).column(
+                                RUNS.START_LATITUDE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLatitude()
+                        ).column(
+                                RUNS.START_LONGITUDE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude()
+                        ).end()
+                        .build()
+        );
+
+        // DDL is transactional in PostgreSQL, so partitions are rolled back with the test data
+        new DbSetup(DataSourceDestination.with(new TransactionAwareDataSourceProxy(dataSource)),
+                operation).launch();
+    }
+
+    @Test
+    void shouldKeepRunsInDefaultPartitionWithoutMonthlyOne() {
+        assertThat(repository.getPartitions()).doesNotContain(RUN_MONTH);
+        assertThat(ctx.fetchCount(table(JooqRunPartitionRepository.DEFAULT_PARTITION))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMoveRunsToCreatedPartition() {
+        repository.createPartition(RUN_MONTH);
+        repository.createPartition(RUN_MONTH.plusMonths(1));
+
+        assertThat(repository.getPartitions()).containsSubsequence(RUN_MONTH, RUN_MONTH.plusMonths(1));
+        assertThat(ctx.fetchCount(table(JooqRunPartitionRepository.DEFAULT_PARTITION))).isZero();
+        assertThat(ctx.fetchCount(table(JooqRunPartitionRepository.partitionName(RUN_MONTH))))
+                .isEqualTo(1);
+
+        // the run is still available through the partitioned table
+        assertThat(ctx.fetchCount(RUNS, RUNS.ID.eq(FINISHED_RUN_JOHN_SMITH_1.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPruneUnrelatedPartitions() {
+        repository.createPartition(RUN_MONTH);
+        repository.createPartition(RUN_MONTH.plusMonths(1));
+
+        var from = RUN_MONTH.plusMonths(1).atDay(1).atStartOfDay();
+        var plan = String.join("\n", ctx.fetch("explain " + ctx.renderInlined(
+                ctx.selectFrom(RUNS).where(RunQueries.finishedRunsOf(JOHN_SMITH.getId(), from, null))
+        )).getValues(0, String.class));
+
+        assertThat(plan).contains(JooqRunPartitionRepository.partitionName(RUN_MONTH.plusMonths(1)).last())
+                .doesNotContain(JooqRunPartitionRepository.partitionName(RUN_MONTH).last());
+    }
+
+    @Test
+    void shouldDetachPartition() {
+        repository.createPartition(RUN_MONTH);
+        repository.detachPartition(RUN_MONTH);
+
+        assertThat(repository.getPartitions()).doesNotContain(RUN_MONTH);
+        assertThat(ctx.fetchCount(RUNS)).isZero();
+        assertThat(ctx.fetchCount(table(JooqRunPartitionRepository.partitionName(RUN_MONTH))))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldIncrementVersionOfDetachedRuns() {
+        ctx.insertInto(RUN_TOTAL_STATS)
+                .set(RUN_TOTAL_STATS.USER_ID, JOHN_SMITH.getId())
+                .set(RUN_TOTAL_STATS.RUN_COUNT, 1)
+                .set(RUN_TOTAL_STATS.TOTAL_DISTANCE, FINISHED_RUN_JOHN_SMITH_1.getDistance().longValue())
+                .set(RUN_TOTAL_STATS.SPEED_SUM, BigDecimal.ONE)
+                .execute();
+
+        repository.createPartition(RUN_MONTH);
+        repository.detachPartition(RUN_MONTH);
+
+        // the version is incremented, so responses with the detached runs aren't reused
+        assertThat(ctx.fetchValue(
+                ctx.select(RUN_TOTAL_STATS.VERSION)
+                        .from(RUN_TOTAL_STATS)
+                        .where(RUN_TOTAL_STATS.USER_ID.eq(JOHN_SMITH.getId()))
+        )).isEqualTo(2L);
+    }
+}
@@ -8,25 +8,42 @@ import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
 import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_2;
 import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_3;
 import static com.bit.galleog.runtracker.TestFixtures.FINISH_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.FROM_DATETIME;
 import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
 import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
 import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.TO_DATETIME;
 import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACK_CHUNKS;
 import static com.bit.galleog.runtracker.domain.Tables.USERS;
 import static com.ninja_squad.dbsetup.Operations.deleteAllFrom;
 import static com.ninja_squad.dbsetup.Operations.insertInto;
 import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static com.ninja_squad.dbsetup.Operations.sql;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.groups.Tuple.tuple;
 
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCell;
+import com.bit.galleog.runtracker.domain.GeoCircle;
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunDistribution;
+import com.bit.galleog.runtracker.domain.RunEnd;
+import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.model.RunCursor;
 import com.bit.galleog.runtracker.repository.RunRepository;
 import com.ninja_squad.dbsetup.DbSetup;
 import com.ninja_squad.dbsetup.DbSetupTracker;
 import com.ninja_squad.dbsetup.destination.DataSourceDestination;
 import org.assertj.core.data.Offset;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.db.api.Assertions;
 import org.assertj.db.type.Table;
 import org.jooq.DSLContext;
@@ -42,7 +59,14 @@ import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Tests for {@link JooqRunRepository}.
@@ -61,13 +85,15 @@ class JooqRunRepositoryTest {
     @Autowired
     private TransactionTemplate txTemplate;
 
+    private SimpleMeterRegistry meterRegistry;
     private RunRepository repository;
     private DataSourceDestination destination;
     private DataSource txDataSource;
 
     @BeforeEach
     void setUp() {
-        repository = new JooqRunRepository(ctx);
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new JooqRunRepository(ctx, meterRegistry);
 
         txDataSource = new TransactionAwareDataSourceProxy(dataSource);
         destination = DataSourceDestination.with(txDataSource);
@@ -78,7 +104,14 @@ class JooqRunRepositoryTest {
         @BeforeEach
         void setUp() {
             var operation = sequenceOf(
-                    deleteAllFrom(RUNS.getName(), USERS.getName()),
+                    deleteAllFrom(
+                            RUN_TRACK_CHUNKS.getName(),
+                            RUN_TRACKS.getName(),
+                            RUN_DAILY_STATS.getName(),
+                            RUN_TOTAL_STATS.getName(),
+                            RUNS.getName(),
+                            USERS.getName()
+                    ),
                     insertInto(USERS.getName())
                             .row()
                             .column(USERS.ID.getName(), JOHN_SMITH.getId())
@@ -108,6 +141,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.START_LONGITUDE.getName(),
                                     STARTED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude()
+                            ).column(
+                                    RUNS.START_CELL.getName(),
+                                    GeoCell.of(STARTED_RUN_JOHN_SMITH_1.getStartPoint())
                             ).column(RUNS.FINISH_DATETIME.getName(), null)
                             .column(RUNS.FINISH_LATITUDE.getName(), null)
                             .column(RUNS.FINISH_LONGITUDE.getName(), null)
@@ -125,6 +161,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.START_LONGITUDE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude()
+                            ).column(
+                                    RUNS.START_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_JOHN_SMITH_1.getStartPoint())
                             ).column(
                                     RUNS.FINISH_DATETIME.getName(),
                                     FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getDatetime()
@@ -134,6 +173,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.FINISH_LONGITUDE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLongitude()
+                            ).column(
+                                    RUNS.FINISH_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint())
                             ).column(
                                     RUNS.DISTANCE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_1.getDistance()
@@ -150,6 +192,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.START_LONGITUDE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_2.getStartPoint().getLongitude()
+                            ).column(
+                                    RUNS.START_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_JOHN_SMITH_2.getStartPoint())
                             ).column(
                                     RUNS.FINISH_DATETIME.getName(),
                                     FINISHED_RUN_JOHN_SMITH_2.getFinishPoint().getDatetime()
@@ -159,6 +204,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.FINISH_LONGITUDE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_2.getFinishPoint().getLongitude()
+                            ).column(
+                                    RUNS.FINISH_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_JOHN_SMITH_2.getFinishPoint())
                             ).column(
                                     RUNS.DISTANCE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_2.getDistance()
@@ -175,6 +223,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.START_LONGITUDE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_3.getStartPoint().getLongitude()
+                            ).column(
+                                    RUNS.START_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_JOHN_SMITH_3.getStartPoint())
                             ).column(
                                     RUNS.FINISH_DATETIME.getName(),
                                     FINISHED_RUN_JOHN_SMITH_3.getFinishPoint().getDatetime()
@@ -184,6 +235,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.FINISH_LONGITUDE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_3.getFinishPoint().getLongitude()
+                            ).column(
+                                    RUNS.FINISH_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_JOHN_SMITH_3.getFinishPoint())
                             ).column(
                                     RUNS.DISTANCE.getName(),
                                     FINISHED_RUN_JOHN_SMITH_3.getDistance()
@@ -202,6 +256,9 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.START_LONGITUDE.getName(),
                                     FINISHED_RUN_BARBARA_MOORE_1.getStartPoint().getLongitude()
+                            ).column(
+                                    RUNS.START_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_BARBARA_MOORE_1.getStartPoint())
                             ).column(
                                     RUNS.FINISH_DATETIME.getName(),
                                     FINISHED_RUN_BARBARA_MOORE_1.getFinishPoint().getDatetime()
@@ -211,11 +268,27 @@ class JooqRunRepositoryTest {
                             ).column(
                                     RUNS.FINISH_LONGITUDE.getName(),
                                     FINISHED_RUN_BARBARA_MOORE_1.getFinishPoint().getLongitude()
+                            ).column(
+                                    RUNS.FINISH_CELL.getName(),
+                                    GeoCell.of(FINISHED_RUN_BARBARA_MOORE_1.getFinishPoint())
                             ).column(
                                     RUNS.DISTANCE.getName(),
                                     FINISHED_RUN_BARBARA_MOORE_1.getDistance()
                             ).end()
-                            .build()
+                            .build(),
+                    sql(
+                            "insert into run_daily_stats " +
+                                    "select user_id, cast(start_datetime as date), count(*), " +
+                                    "sum(distance), sum(distance / extract(epoch from " +
+                                    "(finish_datetime - start_datetime))) from runs " +
+                                    "where finish_datetime is not null " +
+                                    "group by user_id, cast(start_datetime as date)",
+                            "insert into run_total_stats " +
+                                    "select user_id, count(*), sum(distance), " +
+                                    "sum(distance / extract(epoch from " +
+                                    "(finish_datetime - start_datetime))) from runs " +
+                                    "where finish_datetime is not null group by user_id"
+                    )
             );
 
             var dbSetup = new DbSetup(destination, operation);
@@ -242,6 +315,10 @@ class JooqRunRepositoryTest {
                     null,
                     null
             );
+            assertThat(meterRegistry.get(RepositoryMetrics.MAPPED_ROWS_NAME)
+                    .tag("entity", "run")
+                    .counter()
+                    .count()).isEqualTo(1);
         }
 
         @Test
@@ -374,6 +451,63 @@ class JooqRunRepositoryTest {
             );
         }
 
+        @Test
+        void shouldGetRunsByUserPageByPage() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var runs = repository.getRunsByUser(JOHN_SMITH.getId(), null, null, null, 2);
+
+            assertThat(runs).extracting(Run::getId).containsExactly(
+                    FINISHED_RUN_JOHN_SMITH_1.getId(), FINISHED_RUN_JOHN_SMITH_2.getId()
+            );
+
+            runs = repository.getRunsByUser(JOHN_SMITH.getId(), null, null,
+                    RunCursor.of(runs.get(1)), 2);
+
+            assertThat(runs).extracting(
+                    Run::getId,
+                    Run::getUserId,
+                    Run::getStartPoint,
+                    Run::getFinishPoint,
+                    Run::getDistance
+            ).containsExactly(
+                    tuple(
+                            FINISHED_RUN_JOHN_SMITH_3.getId(),
+                            FINISHED_RUN_JOHN_SMITH_3.getUserId(),
+                            FINISHED_RUN_JOHN_SMITH_3.getStartPoint(),
+                            FINISHED_RUN_JOHN_SMITH_3.getFinishPoint(),
+                            FINISHED_RUN_JOHN_SMITH_3.getDistance()
+                    )
+            );
+
+            var fromDatetime = LocalDateTime.of(2023, 11, 1, 0, 0);
+            runs = repository.getRunsByUser(JOHN_SMITH.getId(), fromDatetime, null, null, 1);
+
+            assertThat(runs).extracting(Run::getId)
+                    .containsExactly(FINISHED_RUN_JOHN_SMITH_2.getId());
+        }
+
+        @Test
+        void shouldIterateOverRunsByUser() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var runs = new ArrayList<Run>();
+            repository.forEachRunByUser(JOHN_SMITH.getId(), null, null, runs::add);
+
+            assertThat(runs).extracting(Run::getId).containsExactly(
+                    FINISHED_RUN_JOHN_SMITH_1.getId(),
+                    FINISHED_RUN_JOHN_SMITH_2.getId(),
+                    FINISHED_RUN_JOHN_SMITH_3.getId()
+            );
+
+            runs.clear();
+            var toDatetime = LocalDateTime.of(2023, 11, 1, 0, 0);
+            repository.forEachRunByUser(BARBARA_MOORE.getId(), null, toDatetime, runs::add);
+
+            assertThat(runs).extracting(Run::getId)
+                    .containsExactly(FINISHED_RUN_BARBARA_MOORE_1.getId());
+        }
+
         @Test
         void shouldGetStats() {
             DB_SETUP_TRACKER.skipNextLaunch();
@@ -438,6 +572,251 @@ class JooqRunRepositoryTest {
                     RunStats::getCount, RunStats::getDistance, RunStats::getAvgSpeed
             ).containsExactly(0, 0, 0.0D);
         }
+
+        @Test
+        void shouldGetDistributionByUser() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var runs = List.of(
+                    FINISHED_RUN_JOHN_SMITH_1, FINISHED_RUN_JOHN_SMITH_2, FINISHED_RUN_JOHN_SMITH_3
+            );
+            var distribution = repository.getDistributionByUser(JOHN_SMITH.getId(), null, null);
+            var stats = repository.getStatsByUser(JOHN_SMITH.getId(), null, null);
+
+            assertThat(distribution).extracting(
+                    RunDistribution::getCount, RunDistribution::getDistance, RunDistribution::getAvgSpeed
+            ).containsExactly(
+                    stats.getCount(), stats.getDistance(), stats.getAvgSpeed()
+            );
+
+            var distances = runs.stream().mapToDouble(Run::getDistance).sorted().toArray();
+            assertThat(distribution.getDistances().getP50()).isCloseTo(distances[1], Offset.offset(0.001));
+            assertThat(distribution.getDistances().getP90())
+                    .isCloseTo(distances[1] + 0.8 * (distances[2] - distances[1]), Offset.offset(0.001));
+
+            var durations = runs.stream()
+                    .mapToDouble(run -> Duration.between(
+                            run.getStartPoint().getDatetime(), run.getFinishPoint().getDatetime()
+                    ).toSeconds())
+                    .sorted()
+                    .toArray();
+            assertThat(distribution.getDurations().getP50()).isCloseTo(durations[1], Offset.offset(0.001));
+
+            for (var metric : List.of(
+                    distribution.getDistances(), distribution.getDurations(), distribution.getPaces()
+            )) {
+                assertThat(metric.getHistogram()).extracting(RunDistribution.Bucket::getCount)
+                        .containsOnly(0, 1, 2, 3)
+                        .satisfies(counts -> assertThat(counts.stream().mapToInt(Integer::intValue).sum())
+                                .isEqualTo(runs.size()));
+                assertThat(metric.getHistogram().get(0).getFrom()).isNull();
+                assertThat(metric.getHistogram().get(metric.getHistogram().size() - 1).getTo()).isNull();
+            }
+            assertThat(distribution.getDistances().getHistogram()).hasSize(23)
+                    .filteredOn(bucket -> bucket.getFrom() != null && bucket.getTo() != null)
+                    .allSatisfy(bucket -> assertThat(bucket.getTo() - bucket.getFrom()).isEqualTo(2000.0));
+
+            distribution = repository.getDistributionByUser(ELAINE_JOHNSON.getId(), null, null);
+
+            assertThat(distribution).extracting(
+                    RunDistribution::getCount, RunDistribution::getDistance, RunDistribution::getAvgSpeed
+            ).containsExactly(0, 0, 0.0D);
+            assertThat(distribution.getPaces().getP99()).isNull();
+            assertThat(distribution.getPaces().getHistogram()).extracting(RunDistribution.Bucket::getCount)
+                    .containsOnly(0);
+        }
+
+        @Test
+        void shouldGetStatsByUsers() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var userIds = List.of(ELAINE_JOHNSON.getId(), JOHN_SMITH.getId(), BARBARA_MOORE.getId());
+
+            // the range covers entire days and edges of the range
+            var fromDatetime = LocalDateTime.of(2023, 9, 1, 12, 0);
+            var toDatetime = LocalDateTime.of(2023, 11, 30, 12, 0);
+            var stats = repository.getStatsByUsers(userIds, fromDatetime, toDatetime);
+
+            assertThat(stats).containsOnlyKeys(userIds);
+            assertThat(stats.keySet()).containsExactlyElementsOf(userIds);
+            for (var userId : userIds) {
+                assertThat(stats.get(userId)).usingRecursiveComparison()
+                        .isEqualTo(repository.getStatsByUser(userId, fromDatetime, toDatetime));
+            }
+
+            // the range is within a day
+            fromDatetime = LocalDateTime.of(2023, 11, 1, 8, 0);
+            toDatetime = LocalDateTime.of(2023, 11, 1, 20, 0);
+            stats = repository.getStatsByUsers(userIds, fromDatetime, toDatetime);
+
+            for (var userId : userIds) {
+                assertThat(stats.get(userId)).usingRecursiveComparison()
+                        .isEqualTo(repository.getStatsByUser(userId, fromDatetime, toDatetime));
+            }
+
+            stats = repository.getStatsByUsers(userIds, null, null);
+
+            for (var userId : userIds) {
+                assertThat(stats.get(userId)).usingRecursiveComparison()
+                        .isEqualTo(repository.getStatsByUser(userId, null, null));
+            }
+            assertThat(stats.get(ELAINE_JOHNSON.getId())).extracting(RunStats::getCount).isEqualTo(0);
+        }
+
+        @Test
+        void shouldGetStatsSeriesByUser() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 9, 15), LocalDate.of(2023, 11, 30), StatsInterval.MONTH, ZoneOffset.UTC);
+
+            assertThat(series).extracting(RunStatsBucket::getStart, RunStatsBucket::getCount).containsExactly(
+                    tuple(LocalDate.of(2023, 9, 1), 1),
+                    tuple(LocalDate.of(2023, 10, 1), 0),
+                    tuple(LocalDate.of(2023, 11, 1), 2)
+            );
+            assertThat(series.get(2).getDistance()).isEqualTo(
+                    FINISHED_RUN_JOHN_SMITH_2.getDistance() + FINISHED_RUN_JOHN_SMITH_3.getDistance()
+            );
+            assertThat(series.get(0)).extracting(RunStatsBucket::getDistance, RunStatsBucket::getAvgSpeed)
+                    .containsExactly(FINISHED_RUN_JOHN_SMITH_1.getDistance(), FINISHED_RUN_JOHN_SMITH_1.getAvgSpeed());
+
+            // the run started on Sep 30 at 10:17 UTC is started on Oct 1 in UTC+14
+            series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 9, 1), LocalDate.of(2023, 11, 30), StatsInterval.MONTH,
+                    ZoneId.of("Pacific/Kiritimati"));
+
+            assertThat(series).extracting(RunStatsBucket::getCount).containsExactly(0, 1, 2);
+
+            // offsets aren't taken for POSIX zones with the opposite sign
+            series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 9, 1), LocalDate.of(2023, 11, 30), StatsInterval.MONTH,
+                    ZoneOffset.ofHours(14));
+
+            assertThat(series).extracting(RunStatsBucket::getCount).containsExactly(0, 1, 2);
+
+            // the runs started on Nov 1 at 10:11 and Nov 3 at 10:55 UTC are started a day earlier in UTC-11
+            series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 10, 31), LocalDate.of(2023, 11, 3), StatsInterval.DAY,
+                    ZoneOffset.ofHours(-11));
+
+            assertThat(series).extracting(RunStatsBucket::getCount).containsExactly(1, 0, 1, 0);
+
+            series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 11, 1), LocalDate.of(2023, 11, 3), StatsInterval.DAY,
+                    ZoneOffset.ofHours(3));
+
+            assertThat(series).extracting(RunStatsBucket::getCount).containsExactly(1, 0, 1);
+
+            series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 10, 25), LocalDate.of(2023, 11, 5), StatsInterval.WEEK, ZoneOffset.UTC);
+
+            assertThat(series).extracting(RunStatsBucket::getStart, RunStatsBucket::getCount).containsExactly(
+                    tuple(LocalDate.of(2023, 10, 23), 0),
+                    tuple(LocalDate.of(2023, 10, 30), 2)
+            );
+
+            series = repository.getStatsSeriesByUser(JOHN_SMITH.getId(),
+                    LocalDate.of(2023, 11, 1), LocalDate.of(2023, 11, 3), StatsInterval.DAY, ZoneOffset.UTC);
+
+            assertThat(series).extracting(RunStatsBucket::getCount).containsExactly(1, 0, 1);
+        }
+
+        @Test
+        void shouldGetRunsNear() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var circle = GeoCircle.of(new BigDecimal("41.65"), new BigDecimal("41.63"), 1000);
+            var runs = repository.getRunsNear(RunEnd.START, circle, 10);
+
+            // runs started 199, 318 and 734 meters away, the run started 1243 meters away isn't found
+            assertThat(runs).extracting(Run::getId).containsExactly(
+                    FINISHED_RUN_JOHN_SMITH_1.getId(),
+                    FINISHED_RUN_JOHN_SMITH_2.getId(),
+                    STARTED_RUN_JOHN_SMITH_1.getId()
+            );
+            assertThat(runs.get(0)).usingRecursiveComparison().isEqualTo(FINISHED_RUN_JOHN_SMITH_1);
+
+            assertThat(repository.getRunsNear(RunEnd.START, circle, 2)).extracting(Run::getId)
+                    .containsExactly(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISHED_RUN_JOHN_SMITH_2.getId());
+
+            circle = GeoCircle.of(new BigDecimal("41.65"), new BigDecimal("41.63"), 1500);
+            assertThat(repository.getRunsNear(RunEnd.FINISH, circle, 10)).extracting(Run::getId)
+                    .containsExactly(FINISHED_RUN_JOHN_SMITH_3.getId(), FINISHED_RUN_JOHN_SMITH_2.getId());
+        }
+
+        @Test
+        void shouldGetRunsWithin() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var box = GeoBox.of(new BigDecimal("41.64"), new BigDecimal("41.63"),
+                    new BigDecimal("41.66"), new BigDecimal("41.64"));
+
+            assertThat(repository.getRunsWithin(RunEnd.START, box, 10)).extracting(Run::getId).containsExactly(
+                    STARTED_RUN_JOHN_SMITH_1.getId(),
+                    FINISHED_RUN_JOHN_SMITH_2.getId(),
+                    FINISHED_RUN_JOHN_SMITH_1.getId()
+            );
+            assertThat(repository.getRunsWithin(RunEnd.FINISH, box, 10)).extracting(Run::getId)
+                    .containsExactly(FINISHED_RUN_JOHN_SMITH_3.getId());
+
+            box = GeoBox.of(new BigDecimal("42.35"), new BigDecimal("-71.07"),
+                    new BigDecimal("42.36"), new BigDecimal("-71.06"));
+            assertThat(repository.getRunsWithin(RunEnd.START, box, 10)).extracting(Run::getId)
+                    .containsExactly(FINISHED_RUN_BARBARA_MOORE_1.getId());
+        }
+
+        @Test
+        void shouldGetRunsNearByCellIndex() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            ctx.execute("set local enable_seqscan = off");
+
+            var circle = GeoCircle.of(new BigDecimal("41.65"), new BigDecimal("41.63"), 1000);
+            var plan = ctx.explain(
+                    ctx.selectFrom(RUNS).where(JooqRunRepository.within(RunEnd.START, circle.bounds()))
+            ).plan();
+
+            assertThat(plan).contains("idx_runs_start_cell").doesNotContain("Seq Scan");
+        }
+
+        @Test
+        void shouldGetStatsByIndexOnlyScan() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            // the test data are too small for the planner to prefer indexes on its own,
+            // so other scans are disabled to check that the index covers the query
+            ctx.execute("set local enable_seqscan = off");
+            ctx.execute("set local enable_bitmapscan = off");
+            ctx.execute("set local enable_indexscan = off");
+
+            var fromDatetime = LocalDateTime.of(2023, 11, 1, 8, 0);
+            var toDatetime = LocalDateTime.of(2023, 11, 1, 20, 0);
+            var queries = RunQueries.sumStats(ctx, JOHN_SMITH.getId(), fromDatetime, toDatetime);
+
+            assertThat(queries).singleElement()
+                    .extracting(query -> ctx.explain(query).plan())
+                    .asString()
+                    .contains("Index Only Scan")
+                    .doesNotContain("Seq Scan");
+        }
+
+        @Test
+        void shouldGetRunsByUserByIndexScan() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            ctx.execute("set local enable_seqscan = off");
+            ctx.execute("set local enable_bitmapscan = off");
+
+            var condition = RunQueries.finishedRunsOf(
+                    JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME
+            );
+            var plan = ctx.explain(
+                    ctx.selectFrom(RUNS).where(condition).orderBy(RUNS.START_DATETIME, RUNS.ID)
+            ).plan();
+
+            assertThat(plan).contains("Index Scan").doesNotContain("Seq Scan");
+        }
     }
 
     @Nested
@@ -445,7 +824,14 @@ class JooqRunRepositoryTest {
         @BeforeEach
         void setUp() {
             var operation = sequenceOf(
-                    deleteAllFrom(RUNS.getName(), USERS.getName()),
+                    deleteAllFrom(
+                            RUN_TRACK_CHUNKS.getName(),
+                            RUN_TRACKS.getName(),
+                            RUN_DAILY_STATS.getName(),
+                            RUN_TOTAL_STATS.getName(),
+                            RUNS.getName(),
+                            USERS.getName()
+                    ),
                     insertInto(USERS.getName())
                             .row()
                             .column(USERS.ID.getName(), JOHN_SMITH.getId())
@@ -482,11 +868,123 @@ class JooqRunRepositoryTest {
                     .value().isEqualTo(START_POINT_1.getLatitude())
                     .column(RUNS.START_LONGITUDE.getName())
                     .value().isEqualTo(START_POINT_1.getLongitude())
+                    .column(RUNS.START_CELL.getName()).value().isEqualTo(GeoCell.of(START_POINT_1))
                     .column(RUNS.FINISH_DATETIME.getName()).value().isNull()
                     .column(RUNS.FINISH_LATITUDE.getName()).value().isNull()
                     .column(RUNS.FINISH_LONGITUDE.getName()).value().isNull()
                     .column(RUNS.DISTANCE.getName()).value().isNull();
         }
+
+        @Test
+        void shouldStartRuns() {
+            var started = repository.startRuns(List.of(
+                    Run.builder().userId(JOHN_SMITH.getId()).startPoint(START_POINT_1).build(),
+                    Run.builder().userId(JOHN_SMITH.getId()).startPoint(FINISHED_RUN_JOHN_SMITH_2.getStartPoint()).build()
+            ));
+
+            assertThat(started).extracting(Run::getId).doesNotHaveDuplicates()
+                    .doesNotContain(0L);
+            assertThat(started).extracting(
+                    Run::getUserId, Run::getStartPoint, Run::getFinishPoint, Run::getDistance
+            ).containsExactly(
+                    tuple(JOHN_SMITH.getId(), START_POINT_1, null, null),
+                    tuple(JOHN_SMITH.getId(), FINISHED_RUN_JOHN_SMITH_2.getStartPoint(), null, null)
+            );
+
+            var runs = new Table(txDataSource, RUNS.getName());
+            Assertions.assertThat(runs).hasNumberOfRows(2)
+                    .column(RUNS.START_CELL.getName())
+                    .containsValues(GeoCell.of(START_POINT_1),
+                            GeoCell.of(FINISHED_RUN_JOHN_SMITH_2.getStartPoint()))
+                    .column(RUNS.FINISH_DATETIME.getName()).hasOnlyNullValues();
+        }
+
+        @Test
+        void shouldStartNoRuns() {
+            assertThat(repository.startRuns(List.of())).isEmpty();
+        }
+    }
+
+    @Nested
+    class ImportRunsTest {
+        @BeforeEach
+        void setUp() {
+            var operation = sequenceOf(
+                    deleteAllFrom(
+                            RUN_TRACK_CHUNKS.getName(),
+                            RUN_TRACKS.getName(),
+                            RUN_DAILY_STATS.getName(),
+                            RUN_TOTAL_STATS.getName(),
+                            RUNS.getName(),
+                            USERS.getName()
+                    ),
+                    insertInto(USERS.getName())
+                            .row()
+                            .column(USERS.ID.getName(), JOHN_SMITH.getId())
+                            .column(USERS.FIRST_NAME.getName(), JOHN_SMITH.getFirstName())
+                            .column(USERS.LAST_NAME.getName(), JOHN_SMITH.getLastName())
+                            .column(USERS.BIRTH_DATE.getName(), JOHN_SMITH.getBirthDate())
+                            .column(USERS.SEX.getName(), JOHN_SMITH.getSex().name())
+                            .end()
+                            .build()
+            );
+
+            var dbSetup = new DbSetup(destination, operation);
+            dbSetup.launch();
+        }
+
+        @Test
+        void shouldImportRuns() {
+            var imported = repository.importRuns(
+                    List.of(FINISHED_RUN_JOHN_SMITH_1, FINISHED_RUN_JOHN_SMITH_2)
+            );
+
+            assertThat(imported).extracting(Run::getId).doesNotHaveDuplicates()
+                    .doesNotContain(0L);
+            assertThat(imported).extracting(
+                    Run::getUserId, Run::getStartPoint, Run::getFinishPoint, Run::getDistance
+            ).containsExactly(
+                    tuple(
+                            JOHN_SMITH.getId(),
+                            FINISHED_RUN_JOHN_SMITH_1.getStartPoint(),
+                            FINISHED_RUN_JOHN_SMITH_1.getFinishPoint(),
+                            FINISHED_RUN_JOHN_SMITH_1.getDistance()
+                    ),
+                    tuple(
+                            JOHN_SMITH.getId(),
+                            FINISHED_RUN_JOHN_SMITH_2.getStartPoint(),
+                            FINISHED_RUN_JOHN_SMITH_2.getFinishPoint(),
+                            FINISHED_RUN_JOHN_SMITH_2.getDistance()
+                    )
+            );
+
+            var runs = new Table(txDataSource, RUNS.getName());
+            Assertions.assertThat(runs).hasNumberOfRows(2);
+
+            var stats = repository.getStatsByUser(JOHN_SMITH.getId(), null, null);
+            assertThat(stats).extracting(RunStats::getCount, RunStats::getDistance)
+                    .containsExactly(
+                            2,
+                            FINISHED_RUN_JOHN_SMITH_1.getDistance() +
+                                    FINISHED_RUN_JOHN_SMITH_2.getDistance()
+                    );
+        }
+
+        @Test
+        void shouldIncrementVersionOfRuns() {
+            assertThat(repository.getRunsVersion(JOHN_SMITH.getId())).isZero();
+
+            repository.importRuns(List.of(FINISHED_RUN_JOHN_SMITH_1));
+            assertThat(repository.getRunsVersion(JOHN_SMITH.getId())).isEqualTo(1L);
+
+            repository.importRuns(List.of(FINISHED_RUN_JOHN_SMITH_2));
+            assertThat(repository.getRunsVersion(JOHN_SMITH.getId())).isEqualTo(2L);
+        }
+
+        @Test
+        void shouldImportNothing() {
+            assertThat(repository.importRuns(List.of())).isEmpty();
+        }
     }
 
     @Nested
@@ -494,7 +992,14 @@ class JooqRunRepositoryTest {
         @BeforeEach
         void setUp() {
             var operation = sequenceOf(
-                    deleteAllFrom(RUNS.getName(), USERS.getName()),
+                    deleteAllFrom(
+                            RUN_TRACK_CHUNKS.getName(),
+                            RUN_TRACKS.getName(),
+                            RUN_DAILY_STATS.getName(),
+                            RUN_TOTAL_STATS.getName(),
+                            RUNS.getName(),
+                            USERS.getName()
+                    ),
                     insertInto(USERS.getName())
                             .row()
                             .column(USERS.ID.getName(), JOHN_SMITH.getId())
@@ -565,7 +1070,77 @@ class JooqRunRepositoryTest {
                     .value().isEqualTo(FINISH_POINT_1.getLatitude())
                     .column(RUNS.FINISH_LONGITUDE.getName())
                     .value().isEqualTo(FINISH_POINT_1.getLongitude())
+                    .column(RUNS.FINISH_CELL.getName()).value().isEqualTo(GeoCell.of(FINISH_POINT_1))
                     .column(RUNS.DISTANCE.getName()).value().isEqualTo(DISTANCE);
+
+            var dailyStats = new Table(txDataSource, RUN_DAILY_STATS.getName());
+            Assertions.assertThat(dailyStats).hasNumberOfRows(1)
+                    .column(RUN_DAILY_STATS.USER_ID.getName())
+                    .value().isEqualTo(STARTED_RUN_JOHN_SMITH_1.getUserId())
+                    .column(RUN_DAILY_STATS.RUN_DATE.getName())
+                    .value().isEqualTo(STARTED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime()
+                            .toLocalDate())
+                    .column(RUN_DAILY_STATS.RUN_COUNT.getName()).value().isEqualTo(1)
+                    .column(RUN_DAILY_STATS.TOTAL_DISTANCE.getName()).value().isEqualTo(DISTANCE);
+
+            var totalStats = new Table(txDataSource, RUN_TOTAL_STATS.getName());
+            Assertions.assertThat(totalStats).hasNumberOfRows(1)
+                    .column(RUN_TOTAL_STATS.USER_ID.getName())
+                    .value().isEqualTo(STARTED_RUN_JOHN_SMITH_1.getUserId())
+                    .column(RUN_TOTAL_STATS.RUN_COUNT.getName()).value().isEqualTo(1)
+                    .column(RUN_TOTAL_STATS.TOTAL_DISTANCE.getName()).value().isEqualTo(DISTANCE);
+
+            var stats = repository.getStatsByUser(STARTED_RUN_JOHN_SMITH_1.getUserId(), null, null);
+            assertThat(stats.getCount()).isEqualTo(1);
+            assertThat(stats.getDistance()).isEqualTo(DISTANCE);
+        }
+
+        @Test
+        void shouldFinishStartedRun() {
+            var optional = repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(),
+                    FINISH_POINT_1, null);
+
+            assertThat(optional).isPresent();
+            assertThat(optional.get()).extracting(Run::getId, Run::getFinishPoint)
+                    .containsExactly(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1);
+            // the distance calculated by the database matches the one calculated in Java
+            assertThat(optional.get().getDistance()).isCloseTo(
+                    STARTED_RUN_JOHN_SMITH_1.getStartPoint().calcDistanceTo(FINISH_POINT_1),
+                    Offset.offset(1)
+            );
+
+            var totalStats = new Table(txDataSource, RUN_TOTAL_STATS.getName());
+            Assertions.assertThat(totalStats).hasNumberOfRows(1)
+                    .column(RUN_TOTAL_STATS.RUN_COUNT.getName()).value().isEqualTo(1);
+
+            assertThat(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(),
+                    FINISH_POINT_1, DISTANCE)).isEmpty();
+        }
+
+        @Test
+        void shouldNotFinishStartedRunBeforeStart() {
+            var point = RunPoint.ofMicroDegrees(
+                    STARTED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime(),
+                    FINISH_POINT_1.getLatitudeE6(),
+                    FINISH_POINT_1.getLongitudeE6()
+            );
+
+            assertThat(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), point, null))
+                    .isEmpty();
+            assertThat(repository.getById(STARTED_RUN_JOHN_SMITH_1.getId())).get()
+                    .extracting(Run::getFinishPoint).isNull();
+        }
+
+        @Test
+        void shouldNotFinishAlreadyFinishedRun() {
+            assertThat(repository.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(),
+                    FINISH_POINT_1, DISTANCE)).isPresent();
+            assertThat(repository.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(),
+                    FINISH_POINT_1, DISTANCE)).isEmpty();
+
+            var totalStats = new Table(txDataSource, RUN_TOTAL_STATS.getName());
+            Assertions.assertThat(totalStats).hasNumberOfRows(1)
+                    .column(RUN_TOTAL_STATS.RUN_COUNT.getName()).value().isEqualTo(1);
         }
 
         @Test
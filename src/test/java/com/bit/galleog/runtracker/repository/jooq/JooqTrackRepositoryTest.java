@@ -0,0 +1,140 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACK_CHUNKS;
+import static com.bit.galleog.runtracker.domain.Tables.USERS;
+import static com.ninja_squad.dbsetup.Operations.deleteAllFrom;
+import static com.ninja_squad.dbsetup.Operations.insertInto;
+import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import com.bit.galleog.runtracker.repository.TrackRepository;
+import com.ninja_squad.dbsetup.DbSetup;
+import com.ninja_squad.dbsetup.destination.DataSourceDestination;
+import org.assertj.core.data.Offset;
+import org.assertj.db.api.Assertions;
+import org.assertj.db.type.Table;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Tests for {@link JooqTrackRepository}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+class JooqTrackRepositoryTest {
+    private static final RunPoint POINT_1 = RunPoint.ofMicroDegrees(
+            START_POINT_1.getDatetime().plusSeconds(1),
+            START_POINT_1.getLatitudeE6() + 20,
+            START_POINT_1.getLongitudeE6() - 10
+    );
+    private static final RunPoint POINT_2 = RunPoint.ofMicroDegrees(
+            START_POINT_1.getDatetime().plusSeconds(2),
+            START_POINT_1.getLatitudeE6() + 45,
+            START_POINT_1.getLongitudeE6() - 12
+    );
+    private static final RunPoint POINT_3 = RunPoint.ofMicroDegrees(
+            START_POINT_1.getDatetime().plusSeconds(3),
+            START_POINT_1.getLatitudeE6() + 61,
+            START_POINT_1.getLongitudeE6() - 30
+    );
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private TrackRepository repository;
+    private DataSource txDataSource;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JooqTrackRepository(ctx);
+        txDataSource = new TransactionAwareDataSourceProxy(dataSource);
+
+        var operation = sequenceOf(
+                deleteAllFrom(
+                        RUN_TRACK_CHUNKS.getName(),
+                        RUN_TRACKS.getName(),
+                        RUN_DAILY_STATS.getName(),
+                        RUN_TOTAL_STATS.getName(),
+                        RUNS.getName(),
+                        USERS.getName()
+                ),
+                insertInto(USERS.getName())
+                        .row()
+                        .column(USERS.ID.getName(), JOHN_SMITH.getId())
+                        .column(USERS.FIRST_NAME.getName(), JOHN_SMITH.getFirstName())
+                        .column(USERS.LAST_NAME.getName(), JOHN_SMITH.getLastName())
+                        .column(USERS.BIRTH_DATE.getName(), JOHN_SMITH.getBirthDate())
+                        .column(USERS.SEX.getName(), JOHN_SMITH.getSex().name())
+                        .end()
+                        .build(),
+                insertInto(RUNS.getName())
+                        .row()
+                        .column(RUNS.ID.getName(), STARTED_RUN_JOHN_SMITH_1.getId())
+                        .column(RUNS.USER_ID.getName(), STARTED_RUN_JOHN_SMITH_1.getUserId())
+                        .column(RUNS.START_DATETIME.getName(), START_POINT_1.getDatetime())
+                        .column(RUNS.START_LATITUDE.getName(), START_POINT_1.getLatitude())
+                        .column(RUNS.START_LONGITUDE.getName(), START_POINT_1.getLongitude())
+                        .end()
+                        .build()
+        );
+
+        var dbSetup = new DbSetup(DataSourceDestination.with(txDataSource), operation);
+        dbSetup.launch();
+    }
+
+    @Test
+    void shouldAppendPoints() {
+        var runId = STARTED_RUN_JOHN_SMITH_1.getId();
+
+        var track = repository.appendPoints(runId, List.of(POINT_1, POINT_2), 5.5D);
+
+        assertThat(track).extracting(
+                RunTrack::getRunId, RunTrack::getPointCount, RunTrack::getLastPoint
+        ).containsExactly(runId, 2, POINT_2);
+        assertThat(track.getDistance()).isCloseTo(5.5D, Offset.offset(1e-9));
+
+        track = repository.appendPoints(runId, List.of(POINT_3), 2.25D);
+
+        assertThat(track).extracting(
+                RunTrack::getRunId, RunTrack::getPointCount, RunTrack::getLastPoint
+        ).containsExactly(runId, 3, POINT_3);
+        assertThat(track.getDistance()).isCloseTo(7.75D, Offset.offset(1e-9));
+
+        assertThat(repository.getTrack(runId)).get()
+                .extracting(RunTrack::getPointCount, RunTrack::getLastPoint)
+                .containsExactly(3, POINT_3);
+        assertThat(repository.getPoints(runId)).containsExactly(POINT_1, POINT_2, POINT_3);
+
+        var chunks = new Table(txDataSource, RUN_TRACK_CHUNKS.getName());
+        Assertions.assertThat(chunks).hasNumberOfRows(2)
+                .column(RUN_TRACK_CHUNKS.SEQ.getName()).containsValues(0, 1)
+                .column(RUN_TRACK_CHUNKS.POINT_COUNT.getName()).containsValues(2, 1);
+    }
+
+    @Test
+    void shouldNotFindTrackWithoutPoints() {
+        assertThat(repository.getTrack(STARTED_RUN_JOHN_SMITH_1.getId())).isEmpty();
+        assertThat(repository.getPoints(STARTED_RUN_JOHN_SMITH_1.getId())).isEmpty();
+    }
+}
@@ -13,10 +13,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 
 import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.UserCursor;
 import com.bit.galleog.runtracker.repository.UserRepository;
 import com.ninja_squad.dbsetup.DbSetup;
 import com.ninja_squad.dbsetup.DbSetupTracker;
 import com.ninja_squad.dbsetup.destination.DataSourceDestination;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.db.api.Assertions;
 import org.assertj.db.type.Table;
 import org.jooq.DSLContext;
@@ -29,6 +31,7 @@ import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 import org.springframework.test.context.ActiveProfiles;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
 
 /**
  * Tests for {@link JooqUserRepository}
@@ -51,7 +54,7 @@ class JooqUserRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        repository = new JooqUserRepository(ctx);
+        repository = new JooqUserRepository(ctx, new SimpleMeterRegistry());
 
         txDataSource = new TransactionAwareDataSourceProxy(dataSource);
         destination = DataSourceDestination.with(txDataSource);
@@ -112,6 +115,7 @@ class JooqUserRepositoryTest {
                     BARBARA_MOORE.getBirthDate(),
                     BARBARA_MOORE.getSex()
             );
+            assertThat(optional.get().getVersion()).isEqualTo(1L);
         }
 
         @Test
@@ -155,6 +159,48 @@ class JooqUserRepositoryTest {
                     )
             );
         }
+
+        @Test
+        void shouldGetUsersPageByPage() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var users = repository.getUsers(null, 2);
+
+            assertThat(users).extracting(User::getId)
+                    .containsExactly(ELAINE_JOHNSON.getId(), BARBARA_MOORE.getId());
+
+            users = repository.getUsers(UserCursor.of(users.get(1)), 2);
+
+            assertThat(users).extracting(
+                    User::getId,
+                    User::getFirstName,
+                    User::getLastName,
+                    User::getBirthDate,
+                    User::getSex
+            ).containsExactly(
+                    tuple(
+                            JOHN_SMITH.getId(),
+                            JOHN_SMITH.getFirstName(),
+                            JOHN_SMITH.getLastName(),
+                            JOHN_SMITH.getBirthDate(),
+                            JOHN_SMITH.getSex()
+                    )
+            );
+
+            assertThat(repository.getUsers(UserCursor.of(users.get(0)), 2)).isEmpty();
+        }
+
+        @Test
+        void shouldIterateOverAllUsers() {
+            DB_SETUP_TRACKER.skipNextLaunch();
+
+            var users = new ArrayList<User>();
+            repository.forEachUser(users::add);
+
+            assertThat(users).extracting(User::getId).containsExactly(
+                    ELAINE_JOHNSON.getId(), BARBARA_MOORE.getId(), JOHN_SMITH.getId()
+            );
+        }
     }
 
     @Nested
@@ -189,7 +235,8 @@ class JooqUserRepositoryTest {
                     .column(USERS.FIRST_NAME.getName()).value().isEqualTo(JOHN_SMITH.getFirstName())
                     .column(USERS.LAST_NAME.getName()).value().isEqualTo(JOHN_SMITH.getLastName())
                     .column(USERS.BIRTH_DATE.getName()).value().isEqualTo(JOHN_SMITH.getBirthDate())
-                    .column(USERS.SEX.getName()).value().isEqualTo(JOHN_SMITH.getSex().name());
+                    .column(USERS.SEX.getName()).value().isEqualTo(JOHN_SMITH.getSex().name())
+                    .column(USERS.VERSION.getName()).value().isEqualTo(1L);
         }
     }
 
@@ -232,6 +279,7 @@ class JooqUserRepositoryTest {
                     ELAINE_JOHNSON.getBirthDate(),
                     ELAINE_JOHNSON.getSex()
             );
+            assertThat(optional.get().getVersion()).isEqualTo(2L);
 
             var users = new Table(txDataSource, USERS.getName());
             Assertions.assertThat(users).hasNumberOfRows(1)
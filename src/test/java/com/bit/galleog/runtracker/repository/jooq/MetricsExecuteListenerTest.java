@@ -0,0 +1,75 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+/**
+ * Tests for {@link MetricsExecuteListener}.
+ *
+ * @author Oleg_Galkin
+ */
+class MetricsExecuteListenerTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldTimeSuccessfulStatements() {
+        var ctx = create(context -> new MockResult[]{new MockResult(1)});
+
+        ctx.deleteFrom(RUNS).where(RUNS.ID.eq(1L)).execute();
+        ctx.deleteFrom(RUNS).where(RUNS.ID.eq(2L)).execute();
+
+        assertThat(meterRegistry.get(MetricsExecuteListener.TIMER_NAME)
+                .tag("type", "write")
+                .tag("outcome", "success")
+                .timer()
+                .count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTimeFailedStatements() {
+        var ctx = create(context -> {
+            throw new SQLException("Deadlock detected", "40P01");
+        });
+
+        assertThatExceptionOfType(DataAccessException.class).isThrownBy(() ->
+                ctx.deleteFrom(RUNS).where(RUNS.ID.eq(1L)).execute()
+        );
+
+        assertThat(meterRegistry.get(MetricsExecuteListener.TIMER_NAME)
+                .tag("type", "write")
+                .tag("outcome", "error")
+                .timer()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.find(MetricsExecuteListener.TIMER_NAME)
+                .tag("outcome", "success")
+                .timer()).isNull();
+    }
+
+    private DSLContext create(MockDataProvider provider) {
+        return DSL.using(new DefaultConfiguration()
+                .set(new MockConnection(provider))
+                .set(SQLDialect.POSTGRES)
+                .set(new DefaultExecuteListenerProvider(new MetricsExecuteListener(meterRegistry))));
+    }
+}
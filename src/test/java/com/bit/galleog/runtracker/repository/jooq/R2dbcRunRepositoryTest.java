@@ -0,0 +1,254 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.TestFixtures.DISTANCE;
+import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.FINISH_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.FROM_DATETIME;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.TO_DATETIME;
+import static com.bit.galleog.runtracker.domain.Tables.RUNS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_DAILY_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TOTAL_STATS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACKS;
+import static com.bit.galleog.runtracker.domain.Tables.RUN_TRACK_CHUNKS;
+import static com.bit.galleog.runtracker.domain.Tables.USERS;
+import static com.ninja_squad.dbsetup.Operations.deleteAllFrom;
+import static com.ninja_squad.dbsetup.Operations.insertInto;
+import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static com.ninja_squad.dbsetup.Operations.sql;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunStats;
+import com.ninja_squad.dbsetup.DbSetup;
+import com.ninja_squad.dbsetup.destination.DataSourceDestination;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.assertj.db.api.Assertions;
+import org.assertj.db.type.Table;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Tests for {@link R2dbcRunRepository}.
+ * <p/>
+ * The test data is committed by JDBC, so it's visible to R2DBC connections
+ * opened to the same database.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class R2dbcRunRepositoryTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DSLContext ctx;
+
+    private R2dbcRunRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url;
+        try (var connection = dataSource.getConnection()) {
+            url = connection.getMetaData().getURL();
+        }
+
+        var connectionFactory = ConnectionFactories.get(
+                ConnectionFactoryOptions.parse(url.replaceFirst("^jdbc:", "r2dbc:"))
+                        .mutate()
+                        .option(ConnectionFactoryOptions.USER, "test")
+                        .option(ConnectionFactoryOptions.PASSWORD, "test")
+                        .build()
+        );
+        repository = new R2dbcRunRepository(connectionFactory, new SimpleMeterRegistry());
+
+        var operation = sequenceOf(
+                deleteAllFrom(
+                        RUN_TRACK_CHUNKS.getName(),
+                        RUN_TRACKS.getName(),
+                        RUN_DAILY_STATS.getName(),
+                        RUN_TOTAL_STATS.getName(),
+                        RUNS.getName(),
+                        USERS.getName()
+                ),
+                insertInto(USERS.getName())
+                        .row()
+                        .column(USERS.ID.getName(), JOHN_SMITH.getId())
+                        .column(USERS.FIRST_NAME.getName(), JOHN_SMITH.getFirstName())
+                        .column(USERS.LAST_NAME.getName(), JOHN_SMITH.getLastName())
+                        .column(USERS.BIRTH_DATE.getName(), JOHN_SMITH.getBirthDate())
+                        .column(USERS.SEX.getName(), JOHN_SMITH.getSex().name())
+                        .end()
+                        .build(),
+                insertInto(RUNS.getName())
+                        .row()
+                        .column(RUNS.ID.getName(), STARTED_RUN_JOHN_SMITH_1.getId())
+                        .column(RUNS.USER_ID.getName(), STARTED_RUN_JOHN_SMITH_1.getUserId())
+                        .column(
+                                RUNS.START_DATETIME.getName(),
+                                STARTED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime()
+                        ).column(
+                                RUNS.START_LATITUDE.getName(),
+                                STARTED_RUN_JOHN_SMITH_1.getStartPoint().getLatitude()
+                        ).column(
+                                RUNS.START_LONGITUDE.getName(),
+                                STARTED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude()
+                        ).end()
+                        .row()
+                        .column(RUNS.ID.getName(), FINISHED_RUN_JOHN_SMITH_1.getId())
+                        .column(RUNS.USER_ID.getName(), FINISHED_RUN_JOHN_SMITH_1.getUserId())
+                        .column(
+                                RUNS.START_DATETIME.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime()
+                        ).column(
+                                RUNS.START_LATITUDE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLatitude()
+                        ).column(
+                                RUNS.START_LONGITUDE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude()
+                        ).column(
+                                RUNS.FINISH_DATETIME.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getDatetime()
+                        ).column(
+                                RUNS.FINISH_LATITUDE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLatitude()
+                        ).column(
+                                RUNS.FINISH_LONGITUDE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLongitude()
+                        ).column(
+                                RUNS.DISTANCE.getName(),
+                                FINISHED_RUN_JOHN_SMITH_1.getDistance()
+                        ).end()
+                        .build(),
+                sql(
+                        "insert into run_daily_stats " +
+                                "select user_id, cast(start_datetime as date), count(*), " +
+                                "sum(distance), sum(distance / extract(epoch from " +
+                                "(finish_datetime - start_datetime))) from runs " +
+                                "where finish_datetime is not null " +
+                                "group by user_id, cast(start_datetime as date)",
+                        "insert into run_total_stats " +
+                                "select user_id, count(*), sum(distance), " +
+                                "sum(distance / extract(epoch from " +
+                                "(finish_datetime - start_datetime))) from runs " +
+                                "where finish_datetime is not null group by user_id"
+                )
+        );
+
+        new DbSetup(DataSourceDestination.with(dataSource), operation).launch();
+    }
+
+    @Test
+    void shouldStartRun() {
+        var run = repository.startRun(JOHN_SMITH.getId(), START_POINT_1).block();
+
+        assertThat(run).isNotNull();
+        assertThat(run.getUserId()).isEqualTo(JOHN_SMITH.getId());
+        assertThat(run.getStartPoint()).isEqualTo(START_POINT_1);
+        assertThat(run.getFinishPoint()).isNull();
+
+        Assertions.assertThat(new Table(dataSource, RUNS.getName()))
+                .hasNumberOfRows(3);
+    }
+
+    @Test
+    void shouldStartRunsWithIdsOfSameBlock() {
+        var first = repository.startRun(JOHN_SMITH.getId(), START_POINT_1).block();
+        var second = repository.startRun(JOHN_SMITH.getId(), START_POINT_1).block();
+
+        // the first run reserves a block of identifiers, and the second one takes the next of them
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+    }
+
+    @Test
+    void shouldFinishStartedRun() {
+        var run = repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE)
+                .block();
+
+        assertThat(run).isNotNull();
+        assertThat(run).extracting(Run::getId, Run::getFinishPoint, Run::getDistance)
+                .containsExactly(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE);
+
+        // the aggregated statistics are updated in the same transaction
+        Assertions.assertThat(new Table(dataSource, RUN_TOTAL_STATS.getName()))
+                .row(0)
+                .value(RUN_TOTAL_STATS.RUN_COUNT.getName()).isEqualTo(2)
+                .value(RUN_TOTAL_STATS.TOTAL_DISTANCE.getName())
+                .isEqualTo(FINISHED_RUN_JOHN_SMITH_1.getDistance() + DISTANCE);
+    }
+
+    @Test
+    void shouldNotFinishAlreadyFinishedRun() {
+        assertThat(repository.finishStartedRun(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null)
+                .blockOptional()).isEmpty();
+
+        Assertions.assertThat(new Table(dataSource, RUN_TOTAL_STATS.getName()))
+                .row(0)
+                .value(RUN_TOTAL_STATS.RUN_COUNT.getName()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGetRunById() {
+        assertThat(repository.getById(FINISHED_RUN_JOHN_SMITH_1.getId()).block())
+                .extracting(Run::getId, Run::getStartPoint, Run::getFinishPoint, Run::getDistance)
+                .containsExactly(
+                        FINISHED_RUN_JOHN_SMITH_1.getId(),
+                        FINISHED_RUN_JOHN_SMITH_1.getStartPoint(),
+                        FINISHED_RUN_JOHN_SMITH_1.getFinishPoint(),
+                        FINISHED_RUN_JOHN_SMITH_1.getDistance()
+                );
+        assertThat(repository.getById(23).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void shouldGetRunsByUser() {
+        assertThat(repository.getRunsByUser(JOHN_SMITH.getId(), null, null).collectList().block())
+                .extracting(Run::getId)
+                .containsExactly(FINISHED_RUN_JOHN_SMITH_1.getId());
+    }
+
+    @Test
+    void shouldGetRunsVersion() {
+        var version = repository.getRunsVersion(JOHN_SMITH.getId()).block();
+        assertThat(version).isPositive();
+
+        repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE).block();
+        assertThat(repository.getRunsVersion(JOHN_SMITH.getId()).block()).isEqualTo(version + 1);
+
+        assertThat(repository.getRunsVersion(23).block()).isZero();
+    }
+
+    @Test
+    void shouldGetSameStatsAsBlockingRepository() {
+        var blocking = new JooqRunRepository(ctx, new SimpleMeterRegistry());
+
+        for (var range : new LocalDateTime[][]{
+                {null, null},
+                {FROM_DATETIME, TO_DATETIME},
+                {FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime(), null}
+        }) {
+            var expected = blocking.getStatsByUser(JOHN_SMITH.getId(), range[0], range[1]);
+
+            assertThat(repository.getStatsByUser(JOHN_SMITH.getId(), range[0], range[1]).block())
+                    .extracting(RunStats::getCount, RunStats::getDistance, RunStats::getAvgSpeed)
+                    .containsExactly(expected.getCount(), expected.getDistance(), expected.getAvgSpeed());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static com.bit.galleog.runtracker.domain.Sequences.RUNS_SEQ;
+import static com.bit.galleog.runtracker.domain.Sequences.USERS_SEQ;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+/**
+ * Tests for {@link SequenceIdAllocator}.
+ *
+ * @author Oleg_Galkin
+ */
+@JooqTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SequenceIdAllocatorTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500;
+
+    @Autowired
+    private DSLContext ctx;
+
+    private SequenceIdAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new SequenceIdAllocator(ctx, RUNS_SEQ);
+    }
+
+    @Test
+    void shouldAllocateIdsOfBlock() {
+        var first = allocator.next();
+        var ids = LongStream.range(1, SequenceIdAllocator.BLOCK_SIZE)
+                .map(i -> allocator.next())
+                .boxed()
+                .toList();
+
+        assertThat(ids).containsExactlyElementsOf(
+                LongStream.range(first + 1, first + SequenceIdAllocator.BLOCK_SIZE).boxed().toList()
+        );
+        assertThat(allocator.next()).isNotBetween(first, first + SequenceIdAllocator.BLOCK_SIZE - 1);
+    }
+
+    @Test
+    void shouldAllocateUniqueIdsConcurrently() throws Exception {
+        var tasks = Collections.<Callable<List<Long>>>nCopies(THREADS, () -> {
+            var ids = new ArrayList<Long>(IDS_PER_THREAD);
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                ids.add(allocator.next());
+            }
+            return ids;
+        });
+
+        var ids = new HashSet<Long>();
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var future : executor.invokeAll(tasks)) {
+                ids.addAll(future.get());
+            }
+        }
+
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void shouldAllocateIdsAtOnce() {
+        var count = SequenceIdAllocator.BLOCK_SIZE * 2 + 10;
+
+        var ids = allocator.next(count);
+
+        assertThat(ids).hasSize(count).doesNotHaveDuplicates();
+        // the rest of the last block is used next
+        assertThat(allocator.next()).isEqualTo(ids.getLast() + 1);
+        assertThat(allocator.next(0)).isEmpty();
+    }
+
+    @Test
+    void shouldNotReturnNextValueOfSequence() {
+        var ids = new HashSet<>(allocator.next(SequenceIdAllocator.BLOCK_SIZE));
+
+        // inserts can use the next value of the sequence as an identifier
+        var value = ctx.nextval(RUNS_SEQ);
+
+        assertThat(ids).doesNotContain(value);
+        assertThat(allocator.next()).isNotEqualTo(value);
+    }
+
+    @Test
+    void shouldReserveBlocksBySequences() {
+        for (var sequence : List.of(USERS_SEQ, RUNS_SEQ)) {
+            assertThat(ctx.fetchValue(
+                    "select increment_by from pg_catalog.pg_sequences where sequencename = {0}",
+                    sequence.getName()
+            )).isEqualTo((long) SequenceIdAllocator.BLOCK_SIZE);
+        }
+    }
+}
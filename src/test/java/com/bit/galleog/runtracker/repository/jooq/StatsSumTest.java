@@ -0,0 +1,52 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Scale;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Tests for {@link StatsSum}.
+ *
+ * @author Oleg_Galkin
+ */
+class StatsSumTest {
+    @Property(tries = 10000)
+    void shouldCalcAvgSpeedLikeBigDecimal(@ForAll @BigRange(min = "0", max = "100000") @Scale(16) BigDecimal speedSum,
+                                          @ForAll @IntRange(min = 1, max = 10_000) int count) {
+        assertThat(new StatsSum(count, 0, speedSum).toRunStats().getAvgSpeed())
+                .isEqualTo(avgSpeedBigDecimal(speedSum, count));
+    }
+
+    @Property(tries = 10000)
+    void shouldCalcAvgSpeedOfShortSumsLikeBigDecimal(@ForAll @LongRange(max = 10_000_000L) long tenThousandths,
+                                                     @ForAll @IntRange(min = 1, max = 100) int count) {
+        // sums with few fraction digits often give averages close to midpoints
+        var speedSum = BigDecimal.valueOf(tenThousandths, 4);
+        assertThat(new StatsSum(count, 0, speedSum).toRunStats().getAvgSpeed())
+                .isEqualTo(avgSpeedBigDecimal(speedSum, count));
+    }
+
+    @Example
+    void shouldNotRoundAvgSpeedByDoubles() {
+        assertThat(new StatsSum(3, 0, new BigDecimal("0.0625")).toRunStats().getAvgSpeed()).isEqualTo(0.07D);
+        assertThat(new StatsSum(3, 0, new BigDecimal("0.1375")).toRunStats().getAvgSpeed()).isEqualTo(0.16D);
+        assertThat(StatsSum.EMPTY.toRunStats().getAvgSpeed()).isZero();
+    }
+
+    private static double avgSpeedBigDecimal(BigDecimal speedSum, int count) {
+        // the way average speeds were calculated before
+        return speedSum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64)
+                .multiply(BigDecimal.valueOf(3.6D))
+                .setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
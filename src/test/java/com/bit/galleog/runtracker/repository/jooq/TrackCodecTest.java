@@ -0,0 +1,64 @@
+package com.bit.galleog.runtracker.repository.jooq;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.bit.galleog.runtracker.domain.RunPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link TrackCodec}.
+ *
+ * @author Oleg_Galkin
+ */
+class TrackCodecTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 11, 8, 11, 23, 34);
+
+    @Test
+    void shouldEncodeAndDecodePoints() {
+        var points = List.of(
+                RunPoint.ofMicroDegrees(START, 41644035, 41633785),
+                RunPoint.ofMicroDegrees(START.plusSeconds(1), 41644052, 41633770),
+                RunPoint.ofMicroDegrees(START.plusSeconds(2), -33868820, -151209296),
+                RunPoint.ofMicroDegrees(START.plusSeconds(3), 90000000, 180000000)
+        );
+
+        assertThat(TrackCodec.decode(TrackCodec.encode(points))).isEqualTo(points);
+    }
+
+    @Test
+    void shouldEncodeEmptyChunk() {
+        assertThat(TrackCodec.decode(TrackCodec.encode(List.of()))).isEmpty();
+    }
+
+    @Test
+    void shouldEncodeClosePointsCompactly() {
+        var points = new ArrayList<RunPoint>();
+        for (int i = 0; i < 1000; i++) {
+            points.add(RunPoint.ofMicroDegrees(
+                    START.plusSeconds(i), 41644035 + i * 25, 41633785 - i * 17
+            ));
+        }
+
+        var data = TrackCodec.encode(points);
+
+        // the first point takes more space as it isn't a difference
+        assertThat(data.length).isLessThan(points.size() * 7);
+        assertThat(TrackCodec.decode(data)).isEqualTo(points);
+    }
+
+    @Test
+    void shouldRejectTruncatedChunk() {
+        var data = TrackCodec.encode(List.of(RunPoint.ofMicroDegrees(START, 41644035, 41633785)));
+        var truncated = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+                TrackCodec.decode(truncated)
+        );
+    }
+}
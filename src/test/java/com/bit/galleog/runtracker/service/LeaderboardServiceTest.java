@@ -0,0 +1,207 @@
+package com.bit.galleog.runtracker.service;
+
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
+import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bit.galleog.runtracker.config.LeaderboardProperties;
+import com.bit.galleog.runtracker.domain.LeaderboardEntry;
+import com.bit.galleog.runtracker.domain.LeaderboardMetric;
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunPoint;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.domain.UserRunTotals;
+import com.bit.galleog.runtracker.repository.LeaderboardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Tests for {@link LeaderboardService}.
+ *
+ * @author Oleg_Galkin
+ */
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+    // leaderboards are rebuilt in the background
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Mock
+    private LeaderboardRepository repository;
+    @Mock
+    private UserService userService;
+    private LeaderboardService service;
+    private LocalDate date;
+    private LocalDate weekStart;
+
+    @BeforeEach
+    void setUp() {
+        service = new LeaderboardService(repository, userService,
+                new LeaderboardProperties(16, Duration.ofMinutes(5)), new SimpleMeterRegistry());
+
+        date = FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime().toLocalDate();
+        weekStart = StatsInterval.WEEK.truncate(date);
+    }
+
+    @Test
+    void shouldBuildLeaderboardOnce() {
+        stubTotals(UserRunTotals.builder()
+                .userId(BARBARA_MOORE.getId())
+                .sex(BARBARA_MOORE.getSex())
+                .birthDate(BARBARA_MOORE.getBirthDate())
+                .count(1)
+                .distance(12000)
+                .speedSum(3.5D)
+                .build());
+
+        var top = service.getTop(StatsInterval.WEEK, date, LeaderboardMetric.DISTANCE, null, null, 10);
+        service.getTop(StatsInterval.WEEK, weekStart.plusDays(6), LeaderboardMetric.DISTANCE, null, null, 10);
+
+        assertThat(top).extracting(LeaderboardEntry::getRank, LeaderboardEntry::getUserId)
+                .containsExactly(tuple(1, BARBARA_MOORE.getId()));
+        verify(repository).forEachUserTotals(eq(weekStart), eq(weekStart.plusWeeks(1)), any());
+    }
+
+    @Test
+    void shouldAddFinishedRunToLoadedLeaderboards() {
+        stubTotals();
+        when(userService.getUserById(JOHN_SMITH.getId())).thenReturn(Optional.of(JOHN_SMITH));
+
+        service.getTop(StatsInterval.WEEK, date, LeaderboardMetric.DISTANCE, null, null, 10);
+        service.onRunFinished(new RunFinishedEvent(FINISHED_RUN_JOHN_SMITH_1));
+
+        var entry = service.getEntry(StatsInterval.WEEK, date, LeaderboardMetric.AVG_SPEED, JOHN_SMITH.getSex(),
+                null, JOHN_SMITH.getId());
+
+        assertThat(entry).get().extracting(
+                LeaderboardEntry::getRank,
+                LeaderboardEntry::getCount,
+                LeaderboardEntry::getDistance,
+                LeaderboardEntry::getAvgSpeed
+        ).containsExactly(
+                1,
+                1,
+                (long) FINISHED_RUN_JOHN_SMITH_1.getDistance(),
+                FINISHED_RUN_JOHN_SMITH_1.getAvgSpeed()
+        );
+        verify(repository).forEachUserTotals(eq(weekStart), eq(weekStart.plusWeeks(1)), any());
+    }
+
+    @Test
+    void shouldAddRunShorterThanSecond() {
+        stubTotals(UserRunTotals.builder()
+                .userId(BARBARA_MOORE.getId())
+                .sex(BARBARA_MOORE.getSex())
+                .birthDate(BARBARA_MOORE.getBirthDate())
+                .count(1)
+                .distance(12000)
+                .speedSum(3.5D)
+                .build());
+        when(userService.getUserById(JOHN_SMITH.getId())).thenReturn(Optional.of(JOHN_SMITH));
+
+        var startPoint = FINISHED_RUN_JOHN_SMITH_1.getStartPoint();
+        var run = Run.builder()
+                .id(FINISHED_RUN_JOHN_SMITH_1.getId())
+                .userId(JOHN_SMITH.getId())
+                .startPoint(startPoint)
+                .finishPoint(RunPoint.builder()
+                        .datetime(startPoint.getDatetime().plusNanos(500_000_000))
+                        .latitude(startPoint.getLatitude())
+                        .longitude(startPoint.getLongitude())
+                        .build())
+                .distance(1)
+                .build();
+
+        service.getTop(StatsInterval.WEEK, date, LeaderboardMetric.AVG_SPEED, null, null, 10);
+        service.onRunFinished(new RunFinishedEvent(run));
+
+        var top = service.getTop(StatsInterval.WEEK, date, LeaderboardMetric.AVG_SPEED, null, null, 10);
+
+        // 2 m/s is slower than 3.5 m/s
+        assertThat(top).extracting(LeaderboardEntry::getUserId, LeaderboardEntry::getAvgSpeed).containsExactly(
+                tuple(BARBARA_MOORE.getId(), 12.6D),
+                tuple(JOHN_SMITH.getId(), 7.2D)
+        );
+    }
+
+    @Test
+    void shouldRebuildLeaderboardLoadedAfterRunIsFinished() {
+        // daily statistics read after the run is committed include it already
+        var event = new RunFinishedEvent(FINISHED_RUN_JOHN_SMITH_1);
+        stubTotals(UserRunTotals.builder()
+                .userId(JOHN_SMITH.getId())
+                .sex(JOHN_SMITH.getSex())
+                .birthDate(JOHN_SMITH.getBirthDate())
+                .count(1)
+                .distance(5000)
+                .speedSum(3.0D)
+                .build());
+
+        service.getTop(StatsInterval.WEEK, date, LeaderboardMetric.DISTANCE, null, null, 10);
+        service.onRunFinished(event);
+
+        var entry = service.getEntry(StatsInterval.WEEK, date, LeaderboardMetric.DISTANCE, null, null,
+                JOHN_SMITH.getId());
+
+        assertThat(entry).get().extracting(LeaderboardEntry::getCount, LeaderboardEntry::getDistance)
+                .containsExactly(1, 5000L);
+        verify(userService, never()).getUserById(anyLong());
+        verify(repository, timeout(TIMEOUT_MILLIS).times(2))
+                .forEachUserTotals(eq(weekStart), eq(weekStart.plusWeeks(1)), any());
+    }
+
+    @Test
+    void shouldNotBuildLeaderboardOnFinishedRun() {
+        service.onRunFinished(new RunFinishedEvent(FINISHED_RUN_JOHN_SMITH_1));
+
+        verify(userService, never()).getUserById(anyLong());
+        verify(repository, never()).forEachUserTotals(any(LocalDate.class), any(LocalDate.class), any());
+    }
+
+    @Test
+    void shouldNotGetDailyLeaderboard() {
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                service.getTop(StatsInterval.DAY, date, LeaderboardMetric.DISTANCE, null, null, 10)
+        );
+    }
+
+    @Test
+    void shouldNotGetTooManyEntries() {
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                service.getTop(StatsInterval.MONTH, date, LeaderboardMetric.DISTANCE, null, null,
+                        LeaderboardService.MAX_LIMIT + 1)
+        );
+
+        verify(repository, never()).forEachUserTotals(any(LocalDate.class), any(LocalDate.class), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTotals(UserRunTotals... totals) {
+        doAnswer(invocation -> {
+            var action = (Consumer<? super UserRunTotals>) invocation.getArgument(2);
+            for (var t : totals) {
+                action.accept(t);
+            }
+            return null;
+        }).when(repository).forEachUserTotals(any(LocalDate.class), any(LocalDate.class), any());
+    }
+}
@@ -0,0 +1,129 @@
+package com.bit.galleog.runtracker.service;
+
+import static com.bit.galleog.runtracker.TestFixtures.DISTANCE;
+import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.FINISH_POINT_1;
+import static com.bit.galleog.runtracker.TestFixtures.FINISH_STARTED_RUN;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
+import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bit.galleog.runtracker.repository.ReactiveRunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Tests for {@link ReactiveRunService}.
+ *
+ * @author Oleg_Galkin
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveRunServiceTest {
+    @Mock
+    private ReactiveRunRepository repository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private ReactiveRunService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ReactiveRunService(repository, eventPublisher, meterRegistry);
+    }
+
+    @Test
+    void shouldStartRun() {
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenReturn(Mono.just(STARTED_RUN_JOHN_SMITH_1));
+
+        StepVerifier.create(service.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .expectNext(STARTED_RUN_JOHN_SMITH_1)
+                .verifyComplete();
+
+        assertThat(runEvents("started")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountRunFailedToBeStarted() {
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenReturn(Mono.error(new IllegalStateException("Failed to insert")));
+
+        StepVerifier.create(service.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(runEvents("started")).isZero();
+        assertThat(runEvents("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFinishRun() {
+        when(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .thenReturn(Mono.just(FINISH_STARTED_RUN));
+
+        StepVerifier.create(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .expectNext(FINISH_STARTED_RUN)
+                .verifyComplete();
+
+        assertThat(runEvents("finished")).isEqualTo(1);
+        verify(repository, never()).getById(anyLong());
+        verify(eventPublisher).publishEvent(
+                argThat((RunFinishedEvent event) -> event.run() == FINISH_STARTED_RUN));
+    }
+
+    @Test
+    void shouldNotFinishRunIfItDoesNotExist() {
+        when(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .thenReturn(Mono.empty());
+        when(repository.getById(STARTED_RUN_JOHN_SMITH_1.getId())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .verifyComplete();
+
+        assertThat(runEvents("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotFinishAlreadyFinishedRun() {
+        when(repository.finishStartedRun(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .thenReturn(Mono.empty());
+        when(repository.getById(FINISHED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Mono.just(FINISHED_RUN_JOHN_SMITH_1));
+
+        StepVerifier.create(service.finishRun(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(runEvents("finished")).isZero();
+        assertThat(runEvents("failed")).isEqualTo(1);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void shouldNotFinishRunWithInvalidFinishPoint() {
+        when(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), START_POINT_1, null))
+                .thenReturn(Mono.empty());
+        when(repository.getById(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Mono.just(STARTED_RUN_JOHN_SMITH_1));
+
+        StepVerifier.create(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), START_POINT_1, null))
+                .verifyError(IllegalArgumentException.class);
+    }
+
+    private double runEvents(String event) {
+        return meterRegistry.get(RunService.RUN_EVENTS_NAME).tag("event", event).counter().count();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bit.galleog.runtracker.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bit.galleog.runtracker.config.RunPartitionProperties;
+import com.bit.galleog.runtracker.repository.RunPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Tests for {@link RunPartitionMaintainer}.
+ *
+ * @author Oleg_Galkin
+ */
+@ExtendWith(MockitoExtension.class)
+class RunPartitionMaintainerTest {
+    private static final YearMonth CURRENT = YearMonth.of(2023, 11);
+
+    @Mock
+    private RunPartitionRepository repository;
+
+    @Test
+    void shouldCreateMissingPartitions() {
+        var maintainer = new RunPartitionMaintainer(repository, new RunPartitionProperties(2, null));
+
+        when(repository.getPartitions()).thenReturn(List.of(YearMonth.of(2023, 10), CURRENT));
+
+        maintainer.maintainPartitions(CURRENT);
+
+        verify(repository, never()).createPartition(CURRENT);
+        verify(repository).createPartition(YearMonth.of(2023, 12));
+        verify(repository).createPartition(YearMonth.of(2024, 1));
+        verify(repository, never()).detachPartition(any());
+    }
+
+    @Test
+    void shouldDetachExpiredPartitions() {
+        var maintainer = new RunPartitionMaintainer(repository, new RunPartitionProperties(0, 1));
+
+        when(repository.getPartitions()).thenReturn(List.of(
+                YearMonth.of(2023, 8), YearMonth.of(2023, 9), YearMonth.of(2023, 10), CURRENT
+        ));
+
+        maintainer.maintainPartitions(CURRENT);
+
+        verify(repository).detachPartition(YearMonth.of(2023, 8));
+        verify(repository).detachPartition(YearMonth.of(2023, 9));
+        verify(repository, never()).detachPartition(YearMonth.of(2023, 10));
+        verify(repository, never()).createPartition(any());
+    }
+
+    @Test
+    void shouldContinueIfPartitionCannotBeCreated() {
+        var maintainer = new RunPartitionMaintainer(repository, new RunPartitionProperties(1, null));
+
+        when(repository.getPartitions()).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("exists")).when(repository).createPartition(CURRENT);
+
+        maintainer.maintainPartitions(CURRENT);
+
+        verify(repository).createPartition(CURRENT.plusMonths(1));
+    }
+}
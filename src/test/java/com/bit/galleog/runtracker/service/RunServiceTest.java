@@ -1,5 +1,6 @@
 package com.bit.galleog.runtracker.service;
 
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
 import static com.bit.galleog.runtracker.TestFixtures.DISTANCE;
 import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_1;
 import static com.bit.galleog.runtracker.TestFixtures.FINISHED_RUN_JOHN_SMITH_2;
@@ -8,6 +9,7 @@ import static com.bit.galleog.runtracker.TestFixtures.FINISH_POINT_2;
 import static com.bit.galleog.runtracker.TestFixtures.FINISH_STARTED_RUN;
 import static com.bit.galleog.runtracker.TestFixtures.FROM_DATETIME;
 import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.RUN_DISTRIBUTION;
 import static com.bit.galleog.runtracker.TestFixtures.RUN_STATS;
 import static com.bit.galleog.runtracker.TestFixtures.STARTED_RUN_JOHN_SMITH_1;
 import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
@@ -16,24 +18,51 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.groups.Tuple.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.bit.galleog.runtracker.config.RunProperties;
+import com.bit.galleog.runtracker.config.RunProperties.FinishMode;
+import com.bit.galleog.runtracker.config.RunProperties.RunApi;
+import com.bit.galleog.runtracker.domain.GeoBox;
+import com.bit.galleog.runtracker.domain.GeoCircle;
 import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.domain.RunEnd;
 import com.bit.galleog.runtracker.domain.RunPoint;
 import com.bit.galleog.runtracker.domain.RunStats;
+import com.bit.galleog.runtracker.domain.RunStatsBucket;
+import com.bit.galleog.runtracker.domain.RunTrack;
+import com.bit.galleog.runtracker.domain.StatsInterval;
+import com.bit.galleog.runtracker.model.ImportRun;
+import com.bit.galleog.runtracker.model.RunCursor;
 import com.bit.galleog.runtracker.repository.RunRepository;
+import com.bit.galleog.runtracker.repository.TrackRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
 
 /**
  * Tests for {@link RunService}.
@@ -44,11 +73,18 @@ import java.util.Optional;
 class RunServiceTest {
     @Mock
     private RunRepository repository;
+    @Mock
+    private TrackRepository trackRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
     private RunService service;
 
     @BeforeEach
     void setUp() {
-        service = new RunService(repository);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.LOCKING, RunApi.BLOCKING), eventPublisher, meterRegistry, null);
     }
 
     @Test
@@ -77,9 +113,69 @@ class RunServiceTest {
                 null
         );
 
+        assertThat(runEvents("started")).isEqualTo(1);
         verify(repository).startRun(JOHN_SMITH.getId(), START_POINT_1);
     }
 
+    @Test
+    void shouldStartRunAsyncWithoutBatcher() {
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1)).thenReturn(STARTED_RUN_JOHN_SMITH_1);
+
+        var future = service.startRunAsync(JOHN_SMITH.getId(), START_POINT_1);
+
+        assertThat(future).isCompletedWithValue(STARTED_RUN_JOHN_SMITH_1);
+        assertThat(runEvents("started")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStartRunByBatcher() {
+        var batcher = mock(RunStartBatcher.class);
+        var pending = new CompletableFuture<Run>();
+        when(batcher.submit(JOHN_SMITH.getId(), START_POINT_1)).thenReturn(pending);
+        var service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.LOCKING, RunApi.BLOCKING), eventPublisher, meterRegistry, batcher);
+
+        var future = service.startRunAsync(JOHN_SMITH.getId(), START_POINT_1);
+
+        assertThat(future).isNotDone();
+        assertThat(runEvents("started")).isZero();
+
+        pending.complete(STARTED_RUN_JOHN_SMITH_1);
+
+        assertThat(future).isCompletedWithValue(STARTED_RUN_JOHN_SMITH_1);
+        assertThat(runEvents("started")).isEqualTo(1);
+        verify(repository, never()).startRun(anyLong(), any());
+    }
+
+    @Test
+    void shouldCountRunFailedToBeStartedByBatcher() {
+        var batcher = mock(RunStartBatcher.class);
+        var pending = new CompletableFuture<Run>();
+        when(batcher.submit(JOHN_SMITH.getId(), START_POINT_1)).thenReturn(pending);
+        var service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.LOCKING, RunApi.BLOCKING), eventPublisher, meterRegistry, batcher);
+
+        var future = service.startRunAsync(JOHN_SMITH.getId(), START_POINT_1);
+        pending.completeExceptionally(new IllegalStateException("Failed to insert"));
+
+        assertThat(future).isCompletedExceptionally();
+        assertThat(runEvents("started")).isZero();
+        assertThat(runEvents("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountRunFailedToBeStarted() {
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenThrow(new IllegalStateException("Failed to insert"));
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+                service.startRun(JOHN_SMITH.getId(), START_POINT_1)
+        );
+
+        assertThat(runEvents("started")).isZero();
+        assertThat(runEvents("failed")).isEqualTo(1);
+    }
+
     @Test
     void shouldFinishRun() {
         when(repository.getByIdForUpdate(STARTED_RUN_JOHN_SMITH_1.getId()))
@@ -105,8 +201,12 @@ class RunServiceTest {
                 FINISH_STARTED_RUN.getDistance()
         );
 
+        assertThat(runEvents("finished")).isEqualTo(1);
+        assertThat(runEvents("failed")).isZero();
         verify(repository).getByIdForUpdate(STARTED_RUN_JOHN_SMITH_1.getId());
         verify(repository).finishRun(STARTED_RUN_JOHN_SMITH_1.getUserId(), FINISH_POINT_1, DISTANCE);
+        verify(eventPublisher).publishEvent(
+                argThat((RunFinishedEvent event) -> event.run() == FINISH_STARTED_RUN));
     }
 
     @Test
@@ -119,6 +219,7 @@ class RunServiceTest {
 
         verify(repository).getByIdForUpdate(STARTED_RUN_JOHN_SMITH_1.getId());
         verify(repository, never()).finishRun(anyLong(), any(RunPoint.class), anyInt());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -130,6 +231,8 @@ class RunServiceTest {
                 service.finishRun(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null)
         );
 
+        assertThat(runEvents("finished")).isZero();
+        assertThat(runEvents("failed")).isEqualTo(1);
         verify(repository).getByIdForUpdate(FINISHED_RUN_JOHN_SMITH_1.getId());
         verify(repository, never()).finishRun(anyLong(), any(RunPoint.class), anyInt());
     }
@@ -147,6 +250,228 @@ class RunServiceTest {
         verify(repository, never()).finishRun(anyLong(), any(RunPoint.class), anyInt());
     }
 
+    @Test
+    void shouldFinishRunConditionally() {
+        var service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.CONDITIONAL, RunApi.BLOCKING), eventPublisher,
+                new SimpleMeterRegistry(), null);
+
+        when(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .thenReturn(Optional.of(FINISH_STARTED_RUN));
+
+        assertThat(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .contains(FINISH_STARTED_RUN);
+
+        verify(repository, never()).getByIdForUpdate(anyLong());
+        verify(repository, never()).getById(anyLong());
+    }
+
+    @Test
+    void shouldNotFinishRunConditionallyIfItDoesNotExist() {
+        var service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.CONDITIONAL, RunApi.BLOCKING), eventPublisher,
+                new SimpleMeterRegistry(), null);
+
+        when(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .thenReturn(Optional.empty());
+        when(repository.getById(STARTED_RUN_JOHN_SMITH_1.getId())).thenReturn(Optional.empty());
+
+        assertThat(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, DISTANCE))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldNotFinishAlreadyFinishedRunConditionally() {
+        var service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.CONDITIONAL, RunApi.BLOCKING), eventPublisher,
+                new SimpleMeterRegistry(), null);
+
+        when(repository.finishStartedRun(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .thenReturn(Optional.empty());
+        when(repository.getById(FINISHED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(FINISHED_RUN_JOHN_SMITH_1));
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+                service.finishRun(FINISHED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null)
+        );
+    }
+
+    @Test
+    void shouldNotFinishRunWithInvalidFinishPointConditionally() {
+        var service = new RunService(repository, trackRepository,
+                new RunProperties(FinishMode.CONDITIONAL, RunApi.BLOCKING), eventPublisher,
+                new SimpleMeterRegistry(), null);
+
+        when(repository.finishStartedRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_2, null))
+                .thenReturn(Optional.empty());
+        when(repository.getById(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(STARTED_RUN_JOHN_SMITH_1));
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_2, null)
+        );
+    }
+
+    @Test
+    void shouldFinishRunWithTrackDistance() {
+        var trackPoint = RunPoint.builder()
+                .datetime(START_POINT_1.getDatetime().plusMinutes(30))
+                .latitude(FINISH_POINT_1.getLatitude())
+                .longitude(START_POINT_1.getLongitude())
+                .build();
+        var track = RunTrack.builder()
+                .runId(STARTED_RUN_JOHN_SMITH_1.getId())
+                .pointCount(1)
+                .distance(START_POINT_1.calcPreciseDistanceTo(trackPoint))
+                .lastPoint(trackPoint)
+                .build();
+        var distance = (int) Math.round(track.getDistance() +
+                trackPoint.calcPreciseDistanceTo(FINISH_POINT_1));
+
+        when(repository.getByIdForUpdate(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(STARTED_RUN_JOHN_SMITH_1));
+        when(trackRepository.getTrack(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(track));
+        when(repository.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, distance))
+                .thenReturn(Optional.of(FINISH_STARTED_RUN));
+
+        assertThat(service.finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, null))
+                .isPresent();
+
+        verify(repository).finishRun(STARTED_RUN_JOHN_SMITH_1.getId(), FINISH_POINT_1, distance);
+    }
+
+    @Test
+    void shouldAppendTrackPoints() {
+        var point1 = RunPoint.builder()
+                .datetime(START_POINT_1.getDatetime().plusSeconds(1))
+                .latitude(START_POINT_1.getLatitude().add(new BigDecimal("0.000010")))
+                .longitude(START_POINT_1.getLongitude())
+                .build();
+        var point2 = RunPoint.builder()
+                .datetime(START_POINT_1.getDatetime().plusSeconds(2))
+                .latitude(START_POINT_1.getLatitude().add(new BigDecimal("0.000020")))
+                .longitude(START_POINT_1.getLongitude())
+                .build();
+        var points = List.of(point1, point2);
+        var distance = START_POINT_1.calcPreciseDistanceTo(point1) +
+                point1.calcPreciseDistanceTo(point2);
+        var track = RunTrack.builder()
+                .runId(STARTED_RUN_JOHN_SMITH_1.getId())
+                .pointCount(2)
+                .distance(distance)
+                .lastPoint(point2)
+                .build();
+
+        when(repository.getByIdForUpdate(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(STARTED_RUN_JOHN_SMITH_1));
+        when(trackRepository.appendPoints(STARTED_RUN_JOHN_SMITH_1.getId(), points, distance))
+                .thenReturn(track);
+
+        assertThat(service.appendTrackPoints(STARTED_RUN_JOHN_SMITH_1.getId(), points))
+                .contains(track);
+
+        verify(trackRepository).appendPoints(STARTED_RUN_JOHN_SMITH_1.getId(), points, distance);
+    }
+
+    @Test
+    void shouldNotAppendTrackPointsBeforeStart() {
+        var point = RunPoint.builder()
+                .datetime(START_POINT_1.getDatetime().minusSeconds(1))
+                .latitude(START_POINT_1.getLatitude())
+                .longitude(START_POINT_1.getLongitude())
+                .build();
+
+        when(repository.getByIdForUpdate(STARTED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(STARTED_RUN_JOHN_SMITH_1));
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.appendTrackPoints(STARTED_RUN_JOHN_SMITH_1.getId(), List.of(point))
+        );
+
+        verify(trackRepository, never()).appendPoints(anyLong(), anyList(), anyDouble());
+    }
+
+    @Test
+    void shouldNotAppendTrackPointsToFinishedRun() {
+        when(repository.getByIdForUpdate(FINISHED_RUN_JOHN_SMITH_1.getId()))
+                .thenReturn(Optional.of(FINISHED_RUN_JOHN_SMITH_1));
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+                service.appendTrackPoints(FINISHED_RUN_JOHN_SMITH_1.getId(), List.of(FINISH_POINT_2))
+        );
+
+        verify(trackRepository, never()).appendPoints(eq(FINISHED_RUN_JOHN_SMITH_1.getId()),
+                anyList(), anyDouble());
+    }
+
+    @Test
+    void shouldImportRuns() {
+        var withDistance = ImportRun.builder()
+                .userId(JOHN_SMITH.getId())
+                .startDatetime(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime())
+                .startLatitude(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLatitude())
+                .startLongitude(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude())
+                .finishDatetime(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getDatetime())
+                .finishLatitude(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLatitude())
+                .finishLongitude(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLongitude())
+                .distance(DISTANCE)
+                .build();
+        var withoutDistance = ImportRun.builder()
+                .userId(JOHN_SMITH.getId())
+                .startDatetime(FINISHED_RUN_JOHN_SMITH_2.getStartPoint().getDatetime())
+                .startLatitude(FINISHED_RUN_JOHN_SMITH_2.getStartPoint().getLatitude())
+                .startLongitude(FINISHED_RUN_JOHN_SMITH_2.getStartPoint().getLongitude())
+                .finishDatetime(FINISHED_RUN_JOHN_SMITH_2.getFinishPoint().getDatetime())
+                .finishLatitude(FINISHED_RUN_JOHN_SMITH_2.getFinishPoint().getLatitude())
+                .finishLongitude(FINISHED_RUN_JOHN_SMITH_2.getFinishPoint().getLongitude())
+                .build();
+
+        when(repository.importRuns(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var runs = service.importRuns(List.of(withDistance, withoutDistance));
+
+        assertThat(runs).extracting(
+                Run::getUserId, Run::getStartPoint, Run::getFinishPoint, Run::getDistance
+        ).containsExactly(
+                tuple(
+                        JOHN_SMITH.getId(),
+                        FINISHED_RUN_JOHN_SMITH_1.getStartPoint(),
+                        FINISHED_RUN_JOHN_SMITH_1.getFinishPoint(),
+                        DISTANCE
+                ),
+                tuple(
+                        JOHN_SMITH.getId(),
+                        FINISHED_RUN_JOHN_SMITH_2.getStartPoint(),
+                        FINISHED_RUN_JOHN_SMITH_2.getFinishPoint(),
+                        FINISHED_RUN_JOHN_SMITH_2.getStartPoint()
+                                .calcDistanceTo(FINISHED_RUN_JOHN_SMITH_2.getFinishPoint())
+                )
+        );
+
+        verify(repository).importRuns(anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(RunFinishedEvent.class));
+    }
+
+    @Test
+    void shouldNotImportTooManyRuns() {
+        var run = ImportRun.builder()
+                .userId(JOHN_SMITH.getId())
+                .startDatetime(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getDatetime())
+                .startLatitude(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLatitude())
+                .startLongitude(FINISHED_RUN_JOHN_SMITH_1.getStartPoint().getLongitude())
+                .finishDatetime(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getDatetime())
+                .finishLatitude(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLatitude())
+                .finishLongitude(FINISHED_RUN_JOHN_SMITH_1.getFinishPoint().getLongitude())
+                .build();
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.importRuns(Collections.nCopies(RunService.MAX_IMPORT_SIZE + 1, run))
+        );
+
+        verify(repository, never()).importRuns(anyList());
+    }
+
     @Test
     void shouldGetRunsByUser() {
         when(repository.getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
@@ -180,6 +505,39 @@ class RunServiceTest {
         verify(repository).getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME);
     }
 
+    @Test
+    void shouldGetRunsByUserPage() {
+        var after = RunCursor.of(FINISHED_RUN_JOHN_SMITH_1);
+        when(repository.getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME, after, 10))
+                .thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_2));
+
+        var runs = service.getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME, after, 10);
+
+        assertThat(runs).extracting(Run::getId).containsExactly(FINISHED_RUN_JOHN_SMITH_2.getId());
+
+        verify(repository).getRunsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME, after, 10);
+    }
+
+    @Test
+    void shouldNotGetRunsByUserPageWithInvalidLimit() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getRunsByUser(JOHN_SMITH.getId(), null, null, null, 0)
+        );
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getRunsByUser(JOHN_SMITH.getId(), null, null, null,
+                        RunService.MAX_PAGE_SIZE + 1)
+        );
+
+        verify(repository, never()).getRunsByUser(anyLong(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldGetRunsVersion() {
+        when(repository.getRunsVersion(JOHN_SMITH.getId())).thenReturn(3L);
+
+        assertThat(service.getRunsVersion(JOHN_SMITH.getId())).isEqualTo(3L);
+    }
+
     @Test
     void shouldGetStatsByUser() {
         when(repository.getStatsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
@@ -195,4 +553,118 @@ class RunServiceTest {
 
         verify(repository).getStatsByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetStatsByUsers() {
+        var userIds = List.of(JOHN_SMITH.getId(), BARBARA_MOORE.getId());
+        var stats = Map.of(
+                JOHN_SMITH.getId(), RUN_STATS,
+                BARBARA_MOORE.getId(), RunStats.builder().build()
+        );
+
+        when(repository.getStatsByUsers(userIds, FROM_DATETIME, TO_DATETIME)).thenReturn(stats);
+
+        assertThat(service.getStatsByUsers(userIds, FROM_DATETIME, TO_DATETIME)).isEqualTo(stats);
+    }
+
+    @Test
+    void shouldNotGetStatsOfTooManyUsers() {
+        var userIds = LongStream.rangeClosed(1, RunService.MAX_STATS_BATCH_SIZE + 1).boxed().toList();
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getStatsByUsers(userIds, null, null)
+        );
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getStatsByUsers(List.of(), null, null)
+        );
+
+        verify(repository, never()).getStatsByUsers(any(), any(), any());
+    }
+
+    @Test
+    void shouldGetDistributionByUser() {
+        when(repository.getDistributionByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
+                .thenReturn(RUN_DISTRIBUTION);
+
+        assertThat(service.getDistributionByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME))
+                .isSameAs(RUN_DISTRIBUTION);
+
+        verify(repository).getDistributionByUser(JOHN_SMITH.getId(), FROM_DATETIME, TO_DATETIME);
+    }
+
+    @Test
+    void shouldGetStatsSeriesByUser() {
+        var from = LocalDate.of(2023, 1, 1);
+        var to = LocalDate.of(2023, 12, 31);
+        var series = List.of(RunStatsBucket.builder().start(from).build());
+
+        when(repository.getStatsSeriesByUser(JOHN_SMITH.getId(), from, to, StatsInterval.WEEK, ZoneOffset.UTC))
+                .thenReturn(series);
+
+        assertThat(service.getStatsSeriesByUser(JOHN_SMITH.getId(), from, to, StatsInterval.WEEK, ZoneOffset.UTC))
+                .isSameAs(series);
+    }
+
+    @Test
+    void shouldNotGetStatsSeriesForInvalidRange() {
+        var from = LocalDate.of(2023, 1, 1);
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getStatsSeriesByUser(JOHN_SMITH.getId(), from, from.minusDays(1),
+                        StatsInterval.DAY, ZoneOffset.UTC)
+        );
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getStatsSeriesByUser(JOHN_SMITH.getId(), from, from.plusDays(RunService.MAX_SERIES_SIZE),
+                        StatsInterval.DAY, ZoneOffset.UTC)
+        );
+
+        verify(repository, never()).getStatsSeriesByUser(anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldGetRunsNear() {
+        var circle = new GeoCircle(START_POINT_1.getLatitudeE6(), START_POINT_1.getLongitudeE6(), 1000);
+        when(repository.getRunsNear(RunEnd.START, circle, 10)).thenReturn(List.of(STARTED_RUN_JOHN_SMITH_1));
+
+        assertThat(service.getRunsNear(RunEnd.START, circle, 10)).containsExactly(STARTED_RUN_JOHN_SMITH_1);
+    }
+
+    @Test
+    void shouldNotGetRunsTooFar() {
+        var circle = new GeoCircle(START_POINT_1.getLatitudeE6(), START_POINT_1.getLongitudeE6(),
+                RunService.MAX_SEARCH_RADIUS + 1);
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getRunsNear(RunEnd.START, circle, 10)
+        );
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getRunsNear(RunEnd.START, new GeoCircle(0, 0, 1000), RunService.MAX_PAGE_SIZE + 1)
+        );
+
+        verify(repository, never()).getRunsNear(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldGetRunsWithin() {
+        var box = new GeoBox(41_600_000, 41_600_000, 41_700_000, 41_700_000);
+        when(repository.getRunsWithin(RunEnd.FINISH, box, 10)).thenReturn(List.of(FINISHED_RUN_JOHN_SMITH_1));
+
+        assertThat(service.getRunsWithin(RunEnd.FINISH, box, 10)).containsExactly(FINISHED_RUN_JOHN_SMITH_1);
+    }
+
+    @Test
+    void shouldNotGetRunsWithinTooLargeBox() {
+        // the box crosses the antimeridian and is 2 degrees wide
+        var box = new GeoBox(0, 179_000_000, 100_000, -179_000_000);
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getRunsWithin(RunEnd.START, box, 10)
+        );
+
+        verify(repository, never()).getRunsWithin(any(), any(), anyInt());
+    }
+
+    private double runEvents(String event) {
+        return meterRegistry.get(RunService.RUN_EVENTS_NAME).tag("event", event).counter().count();
+    }
+}
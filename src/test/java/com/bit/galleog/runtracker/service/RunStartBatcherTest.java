@@ -0,0 +1,197 @@
+package com.bit.galleog.runtracker.service;
+
+import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
+import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
+import static com.bit.galleog.runtracker.TestFixtures.START_POINT_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bit.galleog.runtracker.config.RunStartBatchingProperties;
+import com.bit.galleog.runtracker.domain.Run;
+import com.bit.galleog.runtracker.repository.RunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for {@link RunStartBatcher}.
+ *
+ * @author Oleg_Galkin
+ */
+@ExtendWith(MockitoExtension.class)
+class RunStartBatcherTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    // long enough for the writer to wait for all runs submitted by a test
+    private static final Duration LATENCY = Duration.ofMillis(500);
+
+    @Mock
+    private RunRepository repository;
+    @Captor
+    private ArgumentCaptor<List<Run>> runsCaptor;
+    private SimpleMeterRegistry meterRegistry;
+    private RunStartBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher.isRunning()) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void shouldStartQueuedRunsByOneStatement() throws Exception {
+        createBatcher(10, LATENCY);
+        when(repository.startRuns(anyList())).thenReturn(List.of(
+                startedRun(1L, JOHN_SMITH.getId()), startedRun(2L, BARBARA_MOORE.getId())
+        ));
+
+        var first = batcher.submit(JOHN_SMITH.getId(), START_POINT_1);
+        var second = batcher.submit(BARBARA_MOORE.getId(), START_POINT_1);
+
+        assertThat(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+
+        verify(repository).startRuns(runsCaptor.capture());
+        assertThat(runsCaptor.getValue()).extracting(Run::getUserId, Run::getStartPoint)
+                .containsExactly(
+                        tuple(JOHN_SMITH.getId(), START_POINT_1),
+                        tuple(BARBARA_MOORE.getId(), START_POINT_1)
+                );
+        assertThat(meterRegistry.get(RunStartBatcher.BATCH_SIZE_NAME).summary().max()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStartSingleRunDirectly() throws Exception {
+        createBatcher(10, LATENCY);
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenReturn(startedRun(1L, JOHN_SMITH.getId()));
+
+        var future = batcher.submit(JOHN_SMITH.getId(), START_POINT_1);
+
+        assertThat(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        verify(repository, never()).startRuns(anyList());
+    }
+
+    @Test
+    void shouldStartRunsOneByOneIfBatchFails() throws Exception {
+        createBatcher(10, LATENCY);
+        when(repository.startRuns(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Unknown user"));
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenReturn(startedRun(1L, JOHN_SMITH.getId()));
+        when(repository.startRun(BARBARA_MOORE.getId(), START_POINT_1))
+                .thenThrow(new DataIntegrityViolationException("Unknown user"));
+
+        var first = batcher.submit(JOHN_SMITH.getId(), START_POINT_1);
+        var second = batcher.submit(BARBARA_MOORE.getId(), START_POINT_1);
+
+        assertThat(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .withCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldRejectRunsIfQueueIsFull() throws Exception {
+        createBatcher(1, Duration.ZERO);
+        var writing = new CountDownLatch(1);
+        var written = new CountDownLatch(1);
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1)).thenAnswer(invocation -> {
+            writing.countDown();
+            written.await();
+            return startedRun(1L, JOHN_SMITH.getId());
+        });
+
+        // the writer is busy with the first run, so the second one fills the queue
+        var first = batcher.submit(JOHN_SMITH.getId(), START_POINT_1);
+        assertThat(writing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        batcher.submit(JOHN_SMITH.getId(), START_POINT_1);
+
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> batcher.submit(BARBARA_MOORE.getId(), START_POINT_1));
+
+        written.countDown();
+        assertThat(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldStartQueuedRunsWhenStopped() throws Exception {
+        createBatcher(10, LATENCY);
+        when(repository.startRun(JOHN_SMITH.getId(), START_POINT_1))
+                .thenReturn(startedRun(1L, JOHN_SMITH.getId()));
+
+        var future = batcher.submit(JOHN_SMITH.getId(), START_POINT_1);
+        batcher.stop();
+
+        assertThat(future).isCompletedWithValueMatching(run -> run.getId() == 1L);
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> batcher.submit(JOHN_SMITH.getId(), START_POINT_1));
+    }
+
+    @Test
+    void shouldCompleteOrRejectRunsSubmittedWhileStopping() throws Exception {
+        createBatcher(10_000, Duration.ZERO);
+        lenient().when(repository.startRun(anyLong(), any())).thenReturn(startedRun(1L, JOHN_SMITH.getId()));
+        lenient().when(repository.startRuns(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // runs are submitted until they're rejected
+        var futures = new ConcurrentLinkedQueue<CompletableFuture<Run>>();
+        var submitters = IntStream.range(0, 4)
+                .mapToObj(i -> Thread.ofPlatform().start(() -> {
+                    try {
+                        while (true) {
+                            futures.add(batcher.submit(JOHN_SMITH.getId(), START_POINT_1));
+                        }
+                    } catch (RejectedExecutionException e) {
+                        // stopped or the queue is full
+                    }
+                }))
+                .toList();
+
+        batcher.stop();
+        for (var submitter : submitters) {
+            submitter.join();
+        }
+
+        assertThat(futures).allMatch(CompletableFuture::isDone);
+    }
+
+    private void createBatcher(int queueCapacity, Duration maxLatency) {
+        meterRegistry = new SimpleMeterRegistry();
+        batcher = new RunStartBatcher(repository,
+                new RunStartBatchingProperties(true, 100, maxLatency, queueCapacity), meterRegistry);
+        batcher.start();
+    }
+
+    private static Run startedRun(long id, long userId) {
+        return Run.builder()
+                .id(id)
+                .userId(userId)
+                .startPoint(START_POINT_1)
+                .build();
+    }
+}
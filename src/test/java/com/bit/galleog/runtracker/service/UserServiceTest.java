@@ -4,13 +4,24 @@ import static com.bit.galleog.runtracker.TestFixtures.BARBARA_MOORE;
 import static com.bit.galleog.runtracker.TestFixtures.JOHN_SMITH;
 import static com.bit.galleog.runtracker.TestFixtures.NEW_USER;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.bit.galleog.runtracker.cache.CaffeineUserCache;
+import com.bit.galleog.runtracker.cache.NoOpUserCache;
+import com.bit.galleog.runtracker.config.UserCacheProperties;
+import com.bit.galleog.runtracker.config.UserCacheProperties.CacheType;
 import com.bit.galleog.runtracker.domain.User;
+import com.bit.galleog.runtracker.model.UserCursor;
 import com.bit.galleog.runtracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +30,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,7 +50,7 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new UserService(repository);
+        service = new UserService(repository, new NoOpUserCache());
     }
 
     @Test
@@ -65,6 +77,26 @@ class UserServiceTest {
         verify(repository).getById(JOHN_SMITH.getId());
     }
 
+    @Test
+    void shouldCacheUserUntilUpdated() {
+        var service = new UserService(repository, new CaffeineUserCache(
+                new UserCacheProperties(CacheType.LOCAL, 100, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry()
+        ));
+
+        when(repository.getById(JOHN_SMITH.getId())).thenReturn(Optional.of(JOHN_SMITH));
+        when(repository.update(JOHN_SMITH.getId(), JOHN_SMITH)).thenReturn(Optional.of(JOHN_SMITH));
+
+        assertThat(service.getUserById(JOHN_SMITH.getId())).contains(JOHN_SMITH);
+        assertThat(service.getUserById(JOHN_SMITH.getId())).contains(JOHN_SMITH);
+        verify(repository).getById(JOHN_SMITH.getId());
+
+        service.updateUser(JOHN_SMITH.getId(), JOHN_SMITH);
+
+        assertThat(service.getUserById(JOHN_SMITH.getId())).contains(JOHN_SMITH);
+        verify(repository, times(2)).getById(JOHN_SMITH.getId());
+    }
+
     @Test
     void shouldGetAllUsers() {
         when(repository.getAllUsers()).thenReturn(List.of(JOHN_SMITH, BARBARA_MOORE));
@@ -97,6 +129,29 @@ class UserServiceTest {
         verify(repository).getAllUsers();
     }
 
+    @Test
+    void shouldGetUsersPage() {
+        var after = UserCursor.of(BARBARA_MOORE);
+        when(repository.getUsers(after, 10)).thenReturn(List.of(JOHN_SMITH));
+
+        assertThat(service.getUsers(after, 10)).extracting(User::getId)
+                .containsExactly(JOHN_SMITH.getId());
+
+        verify(repository).getUsers(after, 10);
+    }
+
+    @Test
+    void shouldNotGetUsersPageWithInvalidLimit() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getUsers(null, 0)
+        );
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+                service.getUsers(null, UserService.MAX_PAGE_SIZE + 1)
+        );
+
+        verify(repository, never()).getUsers(any(), anyInt());
+    }
+
     @Test
     void shouldCreateUser() {
         when(repository.create(userCaptor.capture())).thenReturn(JOHN_SMITH);